@@ -0,0 +1,198 @@
+package ch.eitchnet.beaglebone.benchmarks;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumMap;
+import java.util.Map;
+
+import ch.eitchnet.beaglebone.Direction;
+import ch.eitchnet.beaglebone.GpioBridge;
+import ch.eitchnet.beaglebone.GpioBridgeImpl;
+import ch.eitchnet.beaglebone.GpioEdgeWatcher;
+import ch.eitchnet.beaglebone.GpioException;
+import ch.eitchnet.beaglebone.MappedGpioBridge;
+import ch.eitchnet.beaglebone.Pin;
+import ch.eitchnet.beaglebone.Signal;
+
+/**
+ * <p>
+ * A fake <code>/sys/class/gpio</code> tree and a fake GPIO register file, created in tmpfs (<code>/dev/shm</code>)
+ * if available, so that the bridges can be benchmarked off-board
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class FakeGpioTree implements Closeable {
+
+	private final Path root;
+	private final File gpioPath;
+	private final File memFile;
+	private final Map<Pin, FileChannel> inputs;
+	private final MappedByteBuffer mem;
+	private final ByteBuffer[] values;
+
+	/**
+	 * Creates the fake tree for the given {@link Pin}s
+	 * 
+	 * @param pins
+	 *            the {@link Pin}s to create with their {@link Direction}
+	 * 
+	 * @throws IOException
+	 *             if the tree can not be created
+	 */
+	public FakeGpioTree(Map<Pin, Direction> pins) throws IOException {
+		File shm = new File("/dev/shm");
+		if (shm.isDirectory() && shm.canWrite())
+			this.root = Files.createTempDirectory(shm.toPath(), "fake-gpio");
+		else
+			this.root = Files.createTempDirectory("fake-gpio");
+
+		this.gpioPath = this.root.resolve("gpio").toFile();
+		this.memFile = this.root.resolve("mem").toFile();
+		this.inputs = new EnumMap<>(Pin.class);
+
+		try (RandomAccessFile raf = new RandomAccessFile(this.memFile, "rw")) {
+			raf.setLength(4L * MappedGpioBridge.BANK_SIZE);
+			this.mem = raf.getChannel().map(MapMode.READ_WRITE, 0L, 4L * MappedGpioBridge.BANK_SIZE);
+			this.mem.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		for (Map.Entry<Pin, Direction> entry : pins.entrySet()) {
+			Pin pin = entry.getKey();
+			Direction direction = entry.getValue();
+
+			Path dir = this.root.resolve("gpio").resolve("gpio" + pin.getGpioNr());
+			Files.createDirectories(dir);
+			write(dir.resolve("direction"), direction.getDirection());
+			write(dir.resolve("edge"), "none");
+			write(dir.resolve("value"), Signal.LOW.getValueS());
+
+			if (direction == Direction.IN) {
+				this.inputs.put(pin, FileChannel.open(dir.resolve("value"), StandardOpenOption.WRITE));
+				int oe = bankOffset(pin) + MappedGpioBridge.GPIO_OE;
+				this.mem.putInt(oe, this.mem.getInt(oe) | (1 << pin.getPin()));
+			}
+		}
+
+		this.values = new ByteBuffer[] { ByteBuffer.wrap(new byte[] { '0' }), ByteBuffer.wrap(new byte[] { '1' }) };
+	}
+
+	private static void write(Path file, String value) throws IOException {
+		Files.write(file, (value + "\n").getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static int bankOffset(Pin pin) {
+		return (int) MappedGpioBridge.CONSECUTIVE_BANK_ADDRESSES[pin.getChip()];
+	}
+
+	/**
+	 * Creates a bridge on this fake tree
+	 * 
+	 * @param backend
+	 *            the backend, either <code>sysfs</code> or <code>mmap</code>
+	 * @param edgeWatcher
+	 *            the {@link GpioEdgeWatcher} for the bridge
+	 * 
+	 * @return the new bridge
+	 * 
+	 * @throws GpioException
+	 *             if the bridge can not be created
+	 */
+	public GpioBridge createBridge(String backend, GpioEdgeWatcher edgeWatcher) throws GpioException {
+		switch (backend) {
+		case "sysfs":
+			return new GpioBridgeImpl(this.gpioPath, edgeWatcher);
+		case "mmap":
+			return new MappedGpioBridge(this.memFile, MappedGpioBridge.CONSECUTIVE_BANK_ADDRESSES, edgeWatcher);
+		default:
+			throw new IllegalArgumentException("Unknown backend " + backend);
+		}
+	}
+
+	/**
+	 * Sets the level of an input {@link Pin} in both the sysfs tree and the register file
+	 * 
+	 * @param pin
+	 *            the input {@link Pin}
+	 * @param signal
+	 *            the {@link Signal} to set
+	 * 
+	 * @throws IOException
+	 *             if writing the value fails
+	 */
+	public void setInput(Pin pin, Signal signal) throws IOException {
+		ByteBuffer value = this.values[signal.getValue()];
+		value.clear();
+		this.inputs.get(pin).write(value, 0L);
+
+		int dataIn = bankOffset(pin) + MappedGpioBridge.GPIO_DATAIN;
+		int levels = this.mem.getInt(dataIn);
+		if (signal.isHigh())
+			levels |= 1 << pin.getPin();
+		else
+			levels &= ~(1 << pin.getPin());
+		this.mem.putInt(dataIn, levels);
+	}
+
+	/**
+	 * Deletes the fake tree
+	 */
+	@Override
+	public void close() throws IOException {
+		for (FileChannel channel : this.inputs.values()) {
+			channel.close();
+		}
+
+		Files.walkFileTree(this.root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Returns the given number of {@link Pin}s with the given {@link Direction}, starting at the given index of
+	 * {@link Pin#values()}
+	 * 
+	 * @param pins
+	 *            the map to add the {@link Pin}s to
+	 * @param start
+	 *            the index of the first {@link Pin}
+	 * @param count
+	 *            the number of {@link Pin}s
+	 * @param direction
+	 *            the {@link Direction} of the {@link Pin}s
+	 * 
+	 * @return the selected {@link Pin}s
+	 */
+	public static Pin[] selectPins(Map<Pin, Direction> pins, int start, int count, Direction direction) {
+		Pin[] selected = new Pin[count];
+		for (int i = 0; i < count; i++) {
+			selected[i] = Pin.values()[start + i];
+			pins.put(selected[i], direction);
+		}
+		return selected;
+	}
+}
@@ -0,0 +1,108 @@
+package ch.eitchnet.beaglebone.benchmarks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.eitchnet.beaglebone.Direction;
+import ch.eitchnet.beaglebone.Gpio;
+import ch.eitchnet.beaglebone.GpioBridge;
+import ch.eitchnet.beaglebone.GpioBridgeImpl;
+import ch.eitchnet.beaglebone.GpioSignalListener;
+import ch.eitchnet.beaglebone.Pin;
+import ch.eitchnet.beaglebone.PipeEdgeWatcher;
+import ch.eitchnet.beaglebone.Signal;
+
+/**
+ * <p>
+ * Measures the latency from an edge on N input pins until all M listeners of each pin were notified
+ * </p>
+ * 
+ * <p>
+ * The edges are signalled with a {@link PipeEdgeWatcher}, so that the measured time is the time for the observing
+ * thread to wake up, read the pins, and dispatch to all listeners
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerBenchmark {
+
+	@Param({ "1", "8" })
+	public int pins;
+
+	@Param({ "1", "16" })
+	public int listeners;
+
+	private FakeGpioTree tree;
+	private GpioBridge bridge;
+	private PipeEdgeWatcher edgeWatcher;
+	private Pin[] inputs;
+	private AtomicInteger notified;
+	private Signal signal;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Map<Pin, Direction> selected = new EnumMap<>(Pin.class);
+		this.inputs = FakeGpioTree.selectPins(selected, 0, this.pins, Direction.IN);
+		this.tree = new FakeGpioTree(selected);
+		this.edgeWatcher = new PipeEdgeWatcher();
+		this.bridge = this.tree.createBridge("sysfs", this.edgeWatcher);
+		((GpioBridgeImpl) this.bridge).setPollInterval(1, TimeUnit.MINUTES);
+
+		this.notified = new AtomicInteger();
+		GpioSignalListener listener = gpio -> this.notified.incrementAndGet();
+		for (Pin pin : this.inputs) {
+			Gpio gpio = this.bridge.getGpio(pin, Direction.IN);
+			for (int i = 0; i < this.listeners; i++) {
+				this.bridge.register(gpio, listener);
+			}
+		}
+
+		this.signal = Signal.LOW;
+		this.bridge.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.bridge.close();
+		this.tree.close();
+	}
+
+	@Benchmark
+	public int fanOut() throws Exception {
+		this.signal = this.signal.getOpposite();
+		this.notified.set(0);
+		for (Pin pin : this.inputs) {
+			this.tree.setInput(pin, this.signal);
+		}
+		this.edgeWatcher.signal();
+
+		int expected = this.pins * this.listeners;
+		int count;
+		while ((count = this.notified.get()) < expected) {
+			// spin until all listeners were notified
+		}
+		return count;
+	}
+}
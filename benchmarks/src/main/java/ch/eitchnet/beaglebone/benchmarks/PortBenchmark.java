@@ -0,0 +1,120 @@
+package ch.eitchnet.beaglebone.benchmarks;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.eitchnet.beaglebone.Direction;
+import ch.eitchnet.beaglebone.Gpio;
+import ch.eitchnet.beaglebone.GpioBridge;
+import ch.eitchnet.beaglebone.GpioPort;
+import ch.eitchnet.beaglebone.Pin;
+import ch.eitchnet.beaglebone.PollingEdgeWatcher;
+import ch.eitchnet.beaglebone.Signal;
+
+/**
+ * Measures the throughput in bytes per second of writing random bytes to an 8 bit output port, e.g. the data lines of
+ * a character LCD, and of reading an 8 bit input port. The output port is on a single GPIO bank, the input port is
+ * spread over two banks. Writing each pin with {@link GpioBridge#writeValue(Gpio, Signal)} is measured as a baseline
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortBenchmark {
+
+	private static final Pin[] OUTPUTS = { Pin.P8_45, Pin.P8_46, Pin.P8_43, Pin.P8_44, Pin.P8_41, Pin.P8_42, Pin.P8_39,
+			Pin.P8_40 };
+	private static final Pin[] INPUTS = { Pin.P8_27, Pin.P8_29, Pin.P8_28, Pin.P8_30, Pin.P8_31, Pin.P8_32, Pin.P8_33,
+			Pin.P8_35 };
+
+	@Param({ "sysfs", "mmap" })
+	public String backend;
+
+	private FakeGpioTree tree;
+	private GpioBridge bridge;
+	private List<Gpio> outputs;
+	private GpioPort output;
+	private GpioPort input;
+	private byte[] data;
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		for (Pin pin : OUTPUTS) {
+			pins.put(pin, Direction.OUT);
+		}
+		for (Pin pin : INPUTS) {
+			pins.put(pin, Direction.IN);
+		}
+		this.tree = new FakeGpioTree(pins);
+		this.bridge = this.tree.createBridge(this.backend, new PollingEdgeWatcher());
+
+		this.outputs = new ArrayList<>();
+		for (Pin pin : OUTPUTS) {
+			this.outputs.add(this.bridge.getGpio(pin, Direction.OUT));
+		}
+		List<Gpio> inputs = new ArrayList<>();
+		for (int i = 0; i < INPUTS.length; i++) {
+			inputs.add(this.bridge.getGpio(INPUTS[i], Direction.IN));
+			this.tree.setInput(INPUTS[i], i % 2 == 0 ? Signal.HIGH : Signal.LOW);
+		}
+
+		this.output = new GpioPort(this.bridge, this.outputs);
+		this.input = new GpioPort(this.bridge, inputs);
+
+		this.data = new byte[1024];
+		new Random(42).nextBytes(this.data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.bridge.close();
+		this.tree.close();
+	}
+
+	private int nextByte() {
+		this.index = (this.index + 1) & (this.data.length - 1);
+		return this.data[this.index] & 0xFF;
+	}
+
+	@Benchmark
+	public void writePort() throws Exception {
+		this.output.write(nextByte());
+	}
+
+	@Benchmark
+	public void writeEachPin() throws Exception {
+		int value = nextByte();
+		for (int i = 0; i < this.outputs.size(); i++) {
+			this.bridge.writeValue(this.outputs.get(i), Signal.getSignal((value >>> i) & 1));
+		}
+	}
+
+	@Benchmark
+	public int readPort() throws Exception {
+		return this.input.read();
+	}
+}
@@ -0,0 +1,92 @@
+package ch.eitchnet.beaglebone.benchmarks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.eitchnet.beaglebone.Direction;
+import ch.eitchnet.beaglebone.Gpio;
+import ch.eitchnet.beaglebone.GpioBridge;
+import ch.eitchnet.beaglebone.GpioSnapshot;
+import ch.eitchnet.beaglebone.Pin;
+import ch.eitchnet.beaglebone.PollingEdgeWatcher;
+import ch.eitchnet.beaglebone.Signal;
+
+/**
+ * Measures the latency of reading a single input pin, of reading all input pins into a snapshot, and of looking up a
+ * cached {@link Gpio}
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+	@Param({ "sysfs", "mmap" })
+	public String backend;
+
+	@Param({ "1", "24" })
+	public int inputs;
+
+	private FakeGpioTree tree;
+	private GpioBridge bridge;
+	private Pin pin;
+	private Gpio input;
+	private GpioSnapshot snapshot;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		Pin[] selected = FakeGpioTree.selectPins(pins, 0, this.inputs, Direction.IN);
+		this.tree = new FakeGpioTree(pins);
+		this.bridge = this.tree.createBridge(this.backend, new PollingEdgeWatcher());
+		for (Pin p : selected) {
+			this.bridge.getGpio(p, Direction.IN);
+		}
+
+		this.pin = selected[0];
+		this.input = this.bridge.getGpio(this.pin, Direction.IN);
+		this.tree.setInput(this.pin, Signal.HIGH);
+		this.snapshot = new GpioSnapshot();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.bridge.close();
+		this.tree.close();
+	}
+
+	@Benchmark
+	public Signal readValue() throws Exception {
+		return this.bridge.readValue(this.input);
+	}
+
+	@Benchmark
+	public GpioSnapshot readAll() throws Exception {
+		this.bridge.readAll(this.snapshot);
+		return this.snapshot;
+	}
+
+	@Benchmark
+	public Gpio getGpio() throws Exception {
+		return this.bridge.getGpio(this.pin, Direction.IN);
+	}
+}
@@ -0,0 +1,93 @@
+package ch.eitchnet.beaglebone.benchmarks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.eitchnet.beaglebone.Direction;
+import ch.eitchnet.beaglebone.GpioBridge;
+import ch.eitchnet.beaglebone.Pin;
+import ch.eitchnet.beaglebone.PollingEdgeWatcher;
+import ch.eitchnet.beaglebone.ShiftRegisterInput;
+import ch.eitchnet.beaglebone.ShiftRegisterOutput;
+
+/**
+ * Measures the throughput in bits per second of shifting 32 bit words out to a 74HC595 chain, and in from a 74HC165
+ * chain. The data, clock and latch of the output are on the same GPIO bank, so that the data bit is written together
+ * with the clock
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShiftRegisterBenchmark {
+
+	private static final int WIDTH = 32;
+
+	@Param({ "sysfs", "mmap" })
+	public String backend;
+
+	private FakeGpioTree tree;
+	private GpioBridge bridge;
+	private ShiftRegisterOutput output;
+	private ShiftRegisterInput input;
+	private long word;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		pins.put(Pin.P8_11, Direction.OUT);
+		pins.put(Pin.P8_12, Direction.OUT);
+		pins.put(Pin.P8_15, Direction.OUT);
+		pins.put(Pin.P8_07, Direction.IN);
+		pins.put(Pin.P8_14, Direction.OUT);
+		pins.put(Pin.P8_16, Direction.OUT);
+		this.tree = new FakeGpioTree(pins);
+		this.bridge = this.tree.createBridge(this.backend, new PollingEdgeWatcher());
+
+		this.output = new ShiftRegisterOutput(this.bridge, this.bridge.getGpio(Pin.P8_11, Direction.OUT),
+				this.bridge.getGpio(Pin.P8_12, Direction.OUT), this.bridge.getGpio(Pin.P8_15, Direction.OUT), WIDTH);
+		this.input = new ShiftRegisterInput(this.bridge, this.bridge.getGpio(Pin.P8_07, Direction.IN),
+				this.bridge.getGpio(Pin.P8_14, Direction.OUT), this.bridge.getGpio(Pin.P8_16, Direction.OUT), WIDTH);
+		this.word = 0x5A5AA5A5L;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.bridge.close();
+		this.tree.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WIDTH)
+	public void shiftOut() throws Exception {
+		// invert the word, so that the write is not skipped as unchanged
+		this.word = ~this.word;
+		this.output.write(this.word);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WIDTH)
+	public long shiftIn() throws Exception {
+		return this.input.read();
+	}
+}
@@ -0,0 +1,92 @@
+package ch.eitchnet.beaglebone.benchmarks;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.eitchnet.beaglebone.Direction;
+import ch.eitchnet.beaglebone.Gpio;
+import ch.eitchnet.beaglebone.GpioBridge;
+import ch.eitchnet.beaglebone.Pin;
+import ch.eitchnet.beaglebone.PollingEdgeWatcher;
+import ch.eitchnet.beaglebone.Signal;
+
+/**
+ * Measures the toggle throughput of a single output pin, and of a batch of output pins
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBenchmark {
+
+	@Param({ "sysfs", "mmap" })
+	public String backend;
+
+	@Param({ "8" })
+	public int batchSize;
+
+	private FakeGpioTree tree;
+	private GpioBridge bridge;
+	private Gpio output;
+	private Signal signal;
+	private Map<Gpio, Signal> high;
+	private Map<Gpio, Signal> low;
+	private boolean batchHigh;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		Pin[] outputs = FakeGpioTree.selectPins(pins, 0, this.batchSize, Direction.OUT);
+		this.tree = new FakeGpioTree(pins);
+		this.bridge = this.tree.createBridge(this.backend, new PollingEdgeWatcher());
+
+		this.high = new HashMap<>();
+		this.low = new HashMap<>();
+		for (Pin pin : outputs) {
+			Gpio gpio = this.bridge.getGpio(pin, Direction.OUT);
+			this.high.put(gpio, Signal.HIGH);
+			this.low.put(gpio, Signal.LOW);
+		}
+
+		this.output = this.bridge.getGpio(outputs[0], Direction.OUT);
+		this.signal = Signal.LOW;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.bridge.close();
+		this.tree.close();
+	}
+
+	@Benchmark
+	public void toggle() throws Exception {
+		this.signal = this.signal.getOpposite();
+		this.bridge.writeValue(this.output, this.signal);
+	}
+
+	@Benchmark
+	public void toggleBatch() throws Exception {
+		this.batchHigh = !this.batchHigh;
+		this.bridge.writeValues(this.batchHigh ? this.high : this.low);
+	}
+}
@@ -40,6 +40,9 @@ function export_pin() {
   fi
   
   chown ${USER} "${gpio_name}/value"
+  if [ "${direction}" == "in" ] ; then
+    chown ${USER} "${gpio_name}/edge"
+  fi
 }
 
 ##
@@ -83,6 +83,10 @@ if ! mvn versions:set -DgenerateBackupPoms=false -DnewVersion=${releaseVersion}
   echo -e "ERROR: Failed to set new version!"
   exit 1
 fi
+if ! mvn -f benchmarks/pom.xml versions:set -DgenerateBackupPoms=false -DnewVersion=${releaseVersion} > /dev/null ; then
+  echo -e "ERROR: Failed to set new version of benchmarks!"
+  exit 1
+fi
 
 
 # build
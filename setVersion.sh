@@ -8,5 +8,6 @@ fi
 projectVersion=${1}
 
 mvn versions:set -DgenerateBackupPoms=false -DnewVersion=${projectVersion}
+mvn -f benchmarks/pom.xml versions:set -DgenerateBackupPoms=false -DnewVersion=${projectVersion}
 
 exit 0
@@ -0,0 +1,1924 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Base class for the {@link GpioBridge} implementations, which implements the caching of the {@link Gpio}s, the
+ * observing of input pins and the notifying of the {@link GpioSignalListener}s. Subclasses implement the access to
+ * the hardware
+ * </p>
+ * 
+ * <p>
+ * {@link Gpio} objects are cached and their {@link Signal} is set by the {@link GpioBridge} accordingly
+ * </p>
+ * 
+ * <p>
+ * Observed input pins are read by the observing {@link Thread} each time the configured {@link GpioEdgeWatcher}
+ * returns, i.e. on an edge for an interrupt driven watcher, or else after the poll interval
+ * </p>
+ * 
+ * <p>
+ * The registered {@link GpioSignalListener}s are held in a copy-on-write array per {@link Pin}, indexed by
+ * {@link Pin#ordinal()}. Registering and unregistering replaces the array, so that the observing {@link Thread} reads
+ * the listeners without taking any lock, and a registering {@link Thread} never blocks the observing {@link Thread}
+ * </p>
+ * 
+ * <p>
+ * The hardware is accessed while holding the private lock of the GPIO bank, i.e. {@link Pin#getChip()}, so that
+ * {@link Thread}s using different banks never contend, and user code can not interfere by locking a {@link Gpio}.
+ * Retrieving a cached {@link Gpio} takes no lock at all, only opening a new {@link Gpio} takes the private open lock.
+ * The {@link Signal} of a {@link Gpio} is volatile: a read of {@link Gpio#getSignal()} returns the last written or
+ * read {@link Signal}, and everything the writing {@link Thread} did before writing or reading the hardware
+ * happens-before the return of that {@link Signal}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public abstract class AbstractGpioBridge implements GpioBridge {
+
+	private static final long DEFAULT_POLL_INTERVAL = 200L;
+	private static final long DEFAULT_OPEN_TIMEOUT = 5000L;
+
+	/**
+	 * The number of GPIO banks, i.e. the number of values of {@link Pin#getChip()}
+	 */
+	protected static final int NR_OF_BANKS = 4;
+
+	private final GpioEdgeWatcher edgeWatcher;
+	private final Object openLock;
+	private final Object[] bankLocks;
+	private final AtomicReferenceArray<Gpio> cache;
+	// written before the volatile masks, and thus only read for the bits of the masks
+	private final Gpio[] gpios;
+	private volatile int[] outputMasks;
+	private volatile int[] inputMasks;
+	private final Object registrationLock;
+	private final AtomicReferenceArray<Registration[]> registrations;
+	private volatile int observed;
+	private volatile GpioDispatcher dispatcher;
+	private final AtomicInteger debounced;
+	private final AtomicInteger filtered;
+	private volatile ScheduledExecutorService flusher;
+	private final long[] sequences;
+	private final SampleScheduler scheduler;
+	private final MetricsRecorder metrics;
+	private volatile long pollInterval;
+	private volatile Thread thread;
+	private volatile boolean run;
+
+	/**
+	 * Constructs the base of a {@link GpioBridge}
+	 * 
+	 * @param edgeWatcher
+	 *            the {@link GpioEdgeWatcher} with which the observing {@link Thread} waits for edges
+	 */
+	protected AbstractGpioBridge(GpioEdgeWatcher edgeWatcher) {
+		this.edgeWatcher = edgeWatcher;
+		this.scheduler = new SampleScheduler(NR_OF_BANKS * 32);
+		this.metrics = new MetricsRecorder(NR_OF_BANKS * 32);
+		this.pollInterval = TimeUnit.MILLISECONDS.toNanos(DEFAULT_POLL_INTERVAL);
+		this.openLock = new Object();
+		this.bankLocks = new Object[NR_OF_BANKS];
+		for (int i = 0; i < NR_OF_BANKS; i++) {
+			this.bankLocks[i] = new Object();
+		}
+		this.cache = new AtomicReferenceArray<>(Pin.values().length);
+		this.gpios = new Gpio[NR_OF_BANKS * 32];
+		this.outputMasks = new int[NR_OF_BANKS];
+		this.inputMasks = new int[NR_OF_BANKS];
+		this.registrationLock = new Object();
+		this.registrations = new AtomicReferenceArray<>(Pin.values().length);
+		this.sequences = new long[Pin.values().length];
+		this.debounced = new AtomicInteger();
+		this.filtered = new AtomicInteger();
+	}
+
+	/**
+	 * @return the {@link GpioEdgeWatcher} with which the observing {@link Thread} waits for edges
+	 */
+	protected GpioEdgeWatcher getEdgeWatcher() {
+		return this.edgeWatcher;
+	}
+
+	/**
+	 * Returns the lock of the given GPIO bank, which is held while the hardware of the bank is accessed. Backends
+	 * which keep state per bank guard it with this lock as well
+	 * 
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * 
+	 * @return the lock of the GPIO bank
+	 */
+	protected Object getBankLock(int chip) {
+		return this.bankLocks[chip];
+	}
+
+	/**
+	 * Opens the given new {@link Gpio} for reading or writing, depending on its {@link Direction}. Implementations
+	 * validate that the {@link Gpio} is configured with the requested {@link Direction} and accessible. Called while
+	 * holding the open lock of the bridge, or by {@link #openPins(Map, long, TimeUnit)} concurrently for different
+	 * {@link Gpio}s without it
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to open
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Gpio} can not be opened or is not configured as requested
+	 */
+	protected abstract void openGpio(Gpio gpio) throws GpioException;
+
+	/**
+	 * <p>
+	 * Prepares the {@link Pin} of the given {@link Gpio} before it is opened by {@link #openGpio(Gpio)}, e.g. by
+	 * exporting it to user space and setting its {@link Direction}. Called by
+	 * {@link #openPins(Map, long, TimeUnit)} concurrently for different {@link Gpio}s, and without holding the lock of
+	 * the bridge
+	 * </p>
+	 * 
+	 * <p>
+	 * This default implementation does nothing, as the {@link Pin}s are expected to be configured by the kernel's
+	 * device tree
+	 * </p>
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to prepare
+	 * @param timeout
+	 *            the maximum time in nanoseconds to wait for the {@link Pin} to become accessible
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Pin} can not be prepared
+	 */
+	protected void prepareGpio(Gpio gpio, long timeout) throws GpioException {
+		// nothing to prepare
+	}
+
+	/**
+	 * Releases any resources held for the given {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to close
+	 * 
+	 * @throws IOException
+	 *             if closing fails
+	 */
+	protected abstract void closeGpio(Gpio gpio) throws IOException;
+
+	/**
+	 * Reads the current {@link Signal} of the given input {@link Gpio} from the hardware. The caller holds the lock of
+	 * the {@link Gpio}'s bank
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to read
+	 * 
+	 * @return the current {@link Signal}
+	 * 
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	protected abstract Signal doRead(Gpio gpio) throws IOException;
+
+	/**
+	 * Writes the given {@link Signal} of the given output {@link Gpio} to the hardware. The caller holds the lock of
+	 * the {@link Gpio}'s bank
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to write
+	 * @param signal
+	 *            the {@link Signal} to write
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	protected abstract void doWrite(Gpio gpio, Signal signal) throws IOException;
+
+	/**
+	 * Sets the interval after which the observing {@link Thread} reads the observed {@link Gpio}s, even if the
+	 * {@link GpioEdgeWatcher} did not signal an edge. For the {@link PollingEdgeWatcher} this is the poll interval.
+	 * This is the sample period of all {@link Gpio}s whose listeners were registered without a sample period
+	 * 
+	 * @param interval
+	 *            the interval
+	 * @param unit
+	 *            the {@link TimeUnit} of the interval
+	 */
+	public void setPollInterval(long interval, TimeUnit unit) {
+		if (interval <= 0)
+			throw new IllegalArgumentException("Poll interval must be positive: " + interval);
+		synchronized (this.registrationLock) {
+			this.pollInterval = unit.toNanos(interval);
+			for (Pin pin : Pin.values()) {
+				Registration[] registrations = this.registrations.get(pin.ordinal());
+				if (registrations != null)
+					schedule(pin, registrations);
+			}
+		}
+		wakeup();
+	}
+
+	/**
+	 * <p>
+	 * Public API method to write the given {@link Signal} on the given {@link Gpio}'s pin.
+	 * </p>
+	 * 
+	 * <p>
+	 * Depending on the {@link OutputMode} of the {@link Gpio}, the write is elided, coalesced with later writes, or
+	 * read back, see {@link #setOutputMode(Gpio, OutputMode)}
+	 * </p>
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to which the {@link Signal} should be written
+	 * @param signal
+	 *            the {@link Signal} to write to the given {@link Gpio}
+	 * 
+	 * @throws GpioException
+	 *             if the direction of the {@link Gpio} is not {@link Direction#OUT}, or if something goes wrong while
+	 *             writing to the file, or the read back {@link Signal} differs
+	 */
+	@Override
+	public void writeValue(Gpio gpio, Signal signal) throws GpioException {
+		if (gpio.getDirection() != Direction.OUT)
+			throw new GpioException("For writing the direction must be " + Direction.OUT);
+
+		synchronized (this.bankLocks[gpio.getPin().getChip()]) {
+			OutputFilter filter = gpio.getOutputFilter();
+			if (filter != null) {
+				long now = System.nanoTime();
+				switch (filter.offer(gpio.getSignal(), signal, now)) {
+				case WRITE:
+					break;
+				case ELIDE:
+					this.metrics.recordElided(gpio.getPin());
+					return;
+				case SCHEDULE:
+					if (scheduleFlush(gpio, filter.getDelay(now)))
+						return;
+					filter.windowEnded();
+					signal = filter.takePending(gpio.getSignal());
+					if (signal == null) {
+						this.metrics.recordElided(gpio.getPin());
+						return;
+					}
+					break;
+				default:
+					throw new IllegalStateException("Unhandled action for GPIO " + gpio);
+				}
+			}
+
+			write(gpio, signal, filter);
+		}
+	}
+
+	/**
+	 * Writes the given {@link Signal} of the given {@link Gpio} to the hardware, and reads it back if configured by its
+	 * {@link OutputMode}. Must be called while holding the lock of the bank
+	 */
+	private void write(Gpio gpio, Signal signal, OutputFilter filter) throws GpioException {
+		try {
+
+			doWrite(gpio, signal);
+			gpio.setSignal(signal);
+
+		} catch (Exception e) {
+			this.metrics.recordFailure(gpio.getPin());
+			throw new GpioException("Failed to write GPIO " + gpio + " with signal " + signal, e);
+		}
+		this.metrics.recordWrite(gpio.getPin());
+
+		if (GpioLog.isEnabled(LogLevel.TRACE))
+			GpioLog.log(LogLevel.TRACE, "Set GPIO " + gpio.getPin() + " signal to " + signal);
+
+		if (filter == null)
+			return;
+		filter.written(System.nanoTime());
+		if (!filter.getMode().isReadback())
+			return;
+
+		Signal readback;
+		try {
+			readback = doRead(gpio);
+		} catch (Exception e) {
+			filter.forget();
+			this.metrics.recordFailure(gpio.getPin());
+			throw new GpioException("Failed to read back GPIO " + gpio + " after writing signal " + signal, e);
+		}
+		this.metrics.recordRead(gpio.getPin());
+		if (readback != signal) {
+			gpio.setSignal(readback);
+			this.metrics.recordFailure(gpio.getPin());
+			throw new GpioException("GPIO " + gpio + " read back signal " + readback + " after writing " + signal);
+		}
+	}
+
+	/**
+	 * Sets the {@link OutputMode} of the given output {@link Gpio}, writing a pending {@link Signal} of the previous
+	 * {@link OutputMode} first. Coalesced writes are written at the end of their window by the {@link Thread}
+	 * <code>gpio_flusher</code>, which is started with the first coalescing {@link OutputMode}
+	 * 
+	 * @param gpio
+	 *            the output {@link Gpio}
+	 * @param mode
+	 *            the {@link OutputMode}, or null for {@link OutputMode#DIRECT}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#OUT}, or writing the pending
+	 *             {@link Signal} fails
+	 */
+	@Override
+	public void setOutputMode(Gpio gpio, OutputMode mode) throws GpioException {
+		if (gpio.getDirection() != Direction.OUT)
+			throw new GpioException("For an output mode the direction must be " + Direction.OUT);
+		if (mode != null && !mode.isSuppression() && !mode.isCoalescing() && !mode.isReadback())
+			mode = null;
+		if (mode != null && mode.isCoalescing() && this.flusher == null) {
+			synchronized (this.openLock) {
+				if (this.flusher == null) {
+					ScheduledThreadPoolExecutor flusher = new ScheduledThreadPoolExecutor(1, r -> {
+						Thread thread = new Thread(r, "gpio_flusher");
+						thread.setDaemon(true);
+						return thread;
+					});
+					flusher.setRemoveOnCancelPolicy(true);
+					this.flusher = flusher;
+				}
+			}
+		}
+
+		synchronized (this.bankLocks[gpio.getPin().getChip()]) {
+			OutputFilter filter = gpio.getOutputFilter();
+			if (filter != null)
+				flush(gpio, filter);
+			else if (mode != null)
+				this.filtered.incrementAndGet();
+			gpio.setOutputFilter(mode == null ? null : new OutputFilter(mode));
+			if (filter != null && mode == null)
+				this.filtered.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Schedules the flush of the pending {@link Signal} of the given {@link Gpio} at the end of its window
+	 * 
+	 * @return true if the flush was scheduled, false if the bridge is closed and the {@link Signal} must be written
+	 *         now
+	 */
+	private boolean scheduleFlush(Gpio gpio, long delay) {
+		ScheduledExecutorService flusher = this.flusher;
+		if (flusher == null)
+			return false;
+		try {
+			flusher.schedule(() -> flushScheduled(gpio), delay, TimeUnit.NANOSECONDS);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the pending {@link Signal} of the given {@link Gpio} at the end of its window, called by the
+	 * <code>gpio_flusher</code> {@link Thread}
+	 */
+	private void flushScheduled(Gpio gpio) {
+		synchronized (this.bankLocks[gpio.getPin().getChip()]) {
+			OutputFilter filter = gpio.getOutputFilter();
+			if (filter == null)
+				return;
+			filter.windowEnded();
+			try {
+				flush(gpio, filter);
+			} catch (GpioException e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to write coalesced signal of GPIO " + gpio, e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the pending {@link Signal} of the given {@link Gpio}, if any. Must be called while holding the lock of the
+	 * bank
+	 */
+	private void flush(Gpio gpio, OutputFilter filter) throws GpioException {
+		if (!filter.hasPending())
+			return;
+		Signal signal = filter.takePending(gpio.getSignal());
+		if (signal == null)
+			this.metrics.recordElided(gpio.getPin());
+		else
+			write(gpio, signal, filter);
+	}
+
+	@Override
+	public void flush() throws GpioException {
+		if (this.filtered.get() == 0)
+			return;
+
+		GpioException failure = null;
+		int[] outputMasks = this.outputMasks;
+		for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+			int mask = outputMasks[chip];
+			if (mask == 0)
+				continue;
+
+			synchronized (this.bankLocks[chip]) {
+				while (mask != 0) {
+					int pin = Integer.numberOfTrailingZeros(mask);
+					mask &= mask - 1;
+
+					Gpio gpio = this.gpios[chip * 32 + pin];
+					OutputFilter filter = gpio.getOutputFilter();
+					if (filter == null)
+						continue;
+					try {
+						flush(gpio, filter);
+					} catch (GpioException e) {
+						if (failure == null)
+							failure = new GpioException("Failed to flush GPIOs");
+						failure.addSuppressed(e);
+					}
+				}
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * <p>
+	 * Public API method to write the given {@link Signal}s on the given {@link Gpio}s' pins in one batch.
+	 * </p>
+	 * 
+	 * <p>
+	 * The {@link Gpio}s are grouped by their GPIO bank, i.e. {@link Pin#getChip()}, and each bank is written in one
+	 * operation, see {@link #writeBank(int, int, int)}. All {@link Gpio}s are validated before anything is written.
+	 * </p>
+	 * 
+	 * @param values
+	 *            the {@link Signal}s to write to the {@link Gpio}s
+	 * 
+	 * @throws GpioException
+	 *             if the direction of any {@link Gpio} is not {@link Direction#OUT}, in which case nothing is written,
+	 *             or if something goes wrong while writing, in which case the exception's suppressed exceptions
+	 *             contain the failure of each {@link Gpio}
+	 */
+	@Override
+	public void writeValues(Map<Gpio, Signal> values) throws GpioException {
+
+		int[] setMasks = new int[NR_OF_BANKS];
+		int[] clearMasks = new int[NR_OF_BANKS];
+		for (Map.Entry<Gpio, Signal> entry : values.entrySet()) {
+			Gpio gpio = entry.getKey();
+			Pin pin = gpio.getPin();
+			if (gpio.getDirection() != Direction.OUT)
+				throw new GpioException("For writing the direction must be " + Direction.OUT + " for GPIO " + gpio);
+			if (this.gpios[pin.getGpioNr()] != gpio)
+				throw new GpioException("GPIO " + gpio + " was not retrieved from this bridge!");
+
+			if (entry.getValue().isHigh())
+				setMasks[pin.getChip()] |= 1 << pin.getPin();
+			else
+				clearMasks[pin.getChip()] |= 1 << pin.getPin();
+		}
+
+		GpioException failure = null;
+		for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+			if (setMasks[chip] == 0 && clearMasks[chip] == 0)
+				continue;
+
+			try {
+				writeBankRecorded(chip, setMasks[chip], clearMasks[chip]);
+			} catch (GpioException e) {
+				if (failure == null)
+					failure = new GpioException("Failed to write " + values.size() + " GPIOs");
+				for (Throwable t : e.getSuppressed()) {
+					failure.addSuppressed(t);
+				}
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * <p>
+	 * Public API method to write the {@link Gpio}s of a GPIO bank in one operation using bit masks. Bit <i>n</i> of a
+	 * mask is the {@link Gpio} with {@link Pin#getPin()} <i>n</i> on the given bank.
+	 * </p>
+	 * 
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * @param setMask
+	 *            the bit mask of the {@link Gpio}s to set to {@link Signal#HIGH}
+	 * @param clearMask
+	 *            the bit mask of the {@link Gpio}s to set to {@link Signal#LOW}
+	 * 
+	 * @throws GpioException
+	 *             if a bit is in both masks, or a bit's {@link Gpio} was not retrieved with {@link Direction#OUT}, in
+	 *             which case nothing is written, or if something goes wrong while writing, in which case the
+	 *             exception's suppressed exceptions contain the failure of each {@link Gpio}
+	 */
+	@Override
+	public void writeBank(int chip, int setMask, int clearMask) throws GpioException {
+		if (chip < 0 || chip >= NR_OF_BANKS)
+			throw new GpioException("Unknown GPIO bank " + chip);
+		if ((setMask & clearMask) != 0)
+			throw new GpioException("Pins can not be set and cleared at the same time: "
+					+ Integer.toBinaryString(setMask & clearMask));
+		int unknown = (setMask | clearMask) & ~this.outputMasks[chip];
+		if (unknown != 0)
+			throw new GpioException("Pins " + Integer.toBinaryString(unknown) + " of bank " + chip
+					+ " were not retrieved with direction " + Direction.OUT);
+
+		writeBankRecorded(chip, setMask, clearMask);
+	}
+
+	/**
+	 * Writes the bank and records the writes. The lock of the bank is held from dropping the pending {@link Signal}s
+	 * until the bank is written, so that the <code>gpio_flusher</code> can not write a coalesced {@link Signal} in
+	 * between
+	 */
+	private void writeBankRecorded(int chip, int setMask, int clearMask) throws GpioException {
+		int mask = setMask | clearMask;
+		synchronized (this.bankLocks[chip]) {
+			boolean filtered = this.filtered.get() != 0;
+			if (filtered)
+				cancelPending(chip, mask);
+			try {
+				doWriteBank(chip, setMask, clearMask);
+			} catch (GpioException e) {
+				if (filtered)
+					updateFilters(chip, mask, false);
+				this.metrics.recordFailures(chip, mask);
+				throw e;
+			}
+			if (filtered)
+				updateFilters(chip, mask, true);
+		}
+		this.metrics.recordWrites(chip, mask);
+	}
+
+	/**
+	 * Drops the pending {@link Signal}s of the given {@link Gpio}s of a bank before the bank is written, so that a
+	 * coalesced write can not overwrite the bank's {@link Signal}s at the end of its window. Must be called while
+	 * holding the lock of the bank
+	 */
+	private void cancelPending(int chip, int mask) {
+		while (mask != 0) {
+			int pin = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+
+			Gpio gpio = this.gpios[chip * 32 + pin];
+			OutputFilter filter = gpio.getOutputFilter();
+			if (filter != null && filter.cancel())
+				this.metrics.recordElided(gpio.getPin());
+		}
+	}
+
+	/**
+	 * Updates the {@link OutputFilter}s of the given {@link Gpio}s of a bank after the bank was written, so that their
+	 * windows start with the write, and a failed write is not suppressed when repeated. Must be called while holding
+	 * the lock of the bank
+	 */
+	private void updateFilters(int chip, int mask, boolean written) {
+		long now = System.nanoTime();
+		while (mask != 0) {
+			int pin = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+
+			OutputFilter filter = this.gpios[chip * 32 + pin].getOutputFilter();
+			if (filter == null)
+				continue;
+			if (written)
+				filter.written(now);
+			else
+				filter.forget();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Writes the {@link Gpio}s of the given bank using the given bit masks, which have already been validated.
+	 * </p>
+	 * 
+	 * <p>
+	 * It is called while holding the lock of the bank. This default implementation writes each {@link Gpio} using
+	 * {@link #doWrite(Gpio, Signal)}. Backends which can write a whole bank at once override this method and then call
+	 * {@link #updateSignals(int, int, int)}
+	 * </p>
+	 * 
+	 * @param chip
+	 *            the GPIO bank
+	 * @param setMask
+	 *            the bit mask of the {@link Gpio}s to set to {@link Signal#HIGH}
+	 * @param clearMask
+	 *            the bit mask of the {@link Gpio}s to set to {@link Signal#LOW}
+	 * 
+	 * @throws GpioException
+	 *             if writing any {@link Gpio} fails, the suppressed exceptions contain the failure of each
+	 *             {@link Gpio}
+	 */
+	protected void doWriteBank(int chip, int setMask, int clearMask) throws GpioException {
+		GpioException failure = null;
+
+		int mask = setMask | clearMask;
+		synchronized (this.bankLocks[chip]) {
+			while (mask != 0) {
+				int pin = Integer.numberOfTrailingZeros(mask);
+				mask &= mask - 1;
+
+				Gpio gpio = this.gpios[chip * 32 + pin];
+				Signal signal = ((setMask >>> pin) & 1) == 1 ? Signal.HIGH : Signal.LOW;
+				try {
+					doWrite(gpio, signal);
+					gpio.setSignal(signal);
+				} catch (Exception e) {
+					if (failure == null)
+						failure = new GpioException("Failed to write GPIOs of bank " + chip);
+					failure.addSuppressed(
+							new GpioException("Failed to write GPIO " + gpio + " with signal " + signal, e));
+				}
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Updates the {@link Signal} of the {@link Gpio}s of the given bank after they were written using the given bit
+	 * masks. As the {@link Signal} is volatile, no lock needs to be held
+	 * 
+	 * @param chip
+	 *            the GPIO bank
+	 * @param setMask
+	 *            the bit mask of the {@link Gpio}s which were set to {@link Signal#HIGH}
+	 * @param clearMask
+	 *            the bit mask of the {@link Gpio}s which were set to {@link Signal#LOW}
+	 */
+	protected void updateSignals(int chip, int setMask, int clearMask) {
+		int mask = setMask | clearMask;
+		while (mask != 0) {
+			int pin = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+
+			this.gpios[chip * 32 + pin].setSignal(((setMask >>> pin) & 1) == 1 ? Signal.HIGH : Signal.LOW);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Public API method to read the current {@link Signal} on the given {@link Gpio}'s pin. The read has no side
+	 * effects: the raw level of the pin is returned, without passing it through the {@link Debounce} of the
+	 * {@link Gpio}, and the {@link Gpio#getSignal()} is not updated, so that the observing {@link Thread} still
+	 * notifies the listeners of any change.
+	 * </p>
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} for which the {@link Signal} should be read
+	 * 
+	 * @return The {@link Gpio}'s current signal
+	 * 
+	 * @throws GpioException
+	 *             if the direction of the {@link Gpio} is not {@link Direction#IN}, or if something goes wrong while
+	 *             reading from the file
+	 */
+	@Override
+	public Signal readValue(Gpio gpio) throws GpioException {
+		if (gpio.getDirection() != Direction.IN)
+			throw new GpioException("For reading the direction must be " + Direction.IN);
+
+		synchronized (this.bankLocks[gpio.getPin().getChip()]) {
+			try {
+
+				Signal signal = doRead(gpio);
+				this.metrics.recordRead(gpio.getPin());
+				return signal;
+
+			} catch (Exception e) {
+				this.metrics.recordFailure(gpio.getPin());
+				throw new GpioException("Failed to read GPIO " + gpio, e);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Public API method to read the {@link Gpio}s of a GPIO bank in one operation using a bit mask. Bit <i>n</i> of the
+	 * mask and of the returned levels is the {@link Gpio} with {@link Pin#getPin()} <i>n</i> on the given bank. The
+	 * read has no side effects, the {@link Gpio#getSignal()} of the read {@link Gpio}s is not updated, so that the
+	 * observing {@link Thread} still notifies the listeners of any change.
+	 * </p>
+	 * 
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s to read
+	 * 
+	 * @return the bit set of the read {@link Signal}s, a set bit is {@link Signal#HIGH}
+	 * 
+	 * @throws GpioException
+	 *             if a bit's {@link Gpio} was not retrieved with {@link Direction#IN}, or if something goes wrong while
+	 *             reading, in which case the exception's suppressed exceptions contain the failure of each {@link Gpio}
+	 */
+	@Override
+	public int readBank(int chip, int mask) throws GpioException {
+		if (chip < 0 || chip >= NR_OF_BANKS)
+			throw new GpioException("Unknown GPIO bank " + chip);
+		int unknown = mask & ~this.inputMasks[chip];
+		if (unknown != 0)
+			throw new GpioException("Pins " + Integer.toBinaryString(unknown) + " of bank " + chip
+					+ " were not retrieved with direction " + Direction.IN);
+		if (mask == 0)
+			return 0;
+
+		return readLevels(chip, mask);
+	}
+
+	/**
+	 * <p>
+	 * Public API method to read the current {@link Signal}s of all input {@link Gpio}s retrieved from this
+	 * {@link GpioBridge} in a single pass into a new {@link GpioSnapshot}.
+	 * </p>
+	 * 
+	 * @return the {@link GpioSnapshot} with the current {@link Signal}s
+	 * 
+	 * @throws GpioException
+	 *             if something goes wrong while reading
+	 * 
+	 * @see #readAll(GpioSnapshot)
+	 */
+	@Override
+	public GpioSnapshot readAll() throws GpioException {
+		GpioSnapshot snapshot = new GpioSnapshot();
+		readAll(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * <p>
+	 * Public API method to read the current {@link Signal}s of all input {@link Gpio}s retrieved from this
+	 * {@link GpioBridge} in a single pass into the given {@link GpioSnapshot}, which allows to reuse the snapshot for
+	 * every read. The read has no side effects: the {@link Gpio#getSignal()} of the read {@link Gpio}s is not updated,
+	 * and the changes of the snapshot are the {@link Gpio}s whose read level differs from their
+	 * {@link Gpio#getSignal()}.
+	 * </p>
+	 * 
+	 * @param snapshot
+	 *            the {@link GpioSnapshot} to read into
+	 * 
+	 * @throws GpioException
+	 *             if something goes wrong while reading, in which case the exception's suppressed exceptions contain
+	 *             the failure of each {@link Gpio}
+	 */
+	@Override
+	public void readAll(GpioSnapshot snapshot) throws GpioException {
+		int[] masks = this.inputMasks;
+		snapshot.setTimestamp(System.nanoTime());
+		for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+			int mask = masks[chip];
+			if (mask == 0) {
+				snapshot.setBank(chip, 0, 0, 0);
+				continue;
+			}
+
+			int levels = readLevels(chip, mask);
+			snapshot.setBank(chip, mask, levels, (levels ^ getSignalLevels(chip, mask)) & mask);
+		}
+	}
+
+	/**
+	 * Reads the given input {@link Gpio}s of the observing {@link Thread} in a single pass into the given
+	 * {@link GpioSnapshot}, updating the {@link Gpio#getSignal()} of each read {@link Gpio}
+	 * 
+	 * @param snapshot
+	 *            the {@link GpioSnapshot} to read into
+	 * @param masks
+	 *            the bit masks per bank of the input {@link Gpio}s to read
+	 * 
+	 * @throws GpioException
+	 *             if something goes wrong while reading
+	 */
+	private void observe(GpioSnapshot snapshot, int[] masks) throws GpioException {
+		snapshot.setTimestamp(System.nanoTime());
+		for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+			int mask = masks[chip];
+			if (mask == 0) {
+				snapshot.setBank(chip, 0, 0, 0);
+				continue;
+			}
+
+			updateInputSignals(snapshot, chip, mask, readLevels(chip, mask));
+		}
+	}
+
+	/**
+	 * Reads the levels of the given input {@link Gpio}s of the given bank with {@link #doReadBank(int, int)}, and
+	 * records the reads or failures in the metrics
+	 * 
+	 * @param chip
+	 *            the GPIO bank
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s to read
+	 * 
+	 * @return the bit set of the read levels, a set bit is {@link Signal#HIGH}
+	 * 
+	 * @throws GpioException
+	 *             if reading fails
+	 */
+	private int readLevels(int chip, int mask) throws GpioException {
+		int levels;
+		try {
+			levels = doReadBank(chip, mask);
+		} catch (GpioException e) {
+			this.metrics.recordFailures(chip, mask);
+			throw e;
+		}
+		this.metrics.recordReads(chip, mask);
+		return levels & mask;
+	}
+
+	/**
+	 * Returns the current {@link Gpio#getSignal()} of the given {@link Gpio}s of the given bank as a bit set
+	 * 
+	 * @param chip
+	 *            the GPIO bank
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s
+	 * 
+	 * @return the bit set of the {@link Signal}s, a set bit is {@link Signal#HIGH}
+	 */
+	private int getSignalLevels(int chip, int mask) {
+		int levels = 0;
+		while (mask != 0) {
+			int pin = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+
+			if (this.gpios[chip * 32 + pin].getSignal().isHigh())
+				levels |= 1 << pin;
+		}
+		return levels;
+	}
+
+	/**
+	 * <p>
+	 * Reads the levels of the given input {@link Gpio}s of the given bank.
+	 * </p>
+	 * 
+	 * <p>
+	 * This default implementation reads each {@link Gpio} using {@link #doRead(Gpio)} while holding the lock of the
+	 * bank. Backends which can read a whole bank at once override this method
+	 * </p>
+	 * 
+	 * @param chip
+	 *            the GPIO bank
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s to read
+	 * 
+	 * @return the bit set of the read levels, a set bit is {@link Signal#HIGH}
+	 * 
+	 * @throws GpioException
+	 *             if reading any {@link Gpio} fails, the suppressed exceptions contain the failure of each
+	 *             {@link Gpio}
+	 */
+	protected int doReadBank(int chip, int mask) throws GpioException {
+		GpioException failure = null;
+
+		int levels = 0;
+		synchronized (this.bankLocks[chip]) {
+			while (mask != 0) {
+				int pin = Integer.numberOfTrailingZeros(mask);
+				mask &= mask - 1;
+
+				Gpio gpio = this.gpios[chip * 32 + pin];
+				try {
+					if (doRead(gpio).isHigh())
+						levels |= 1 << pin;
+				} catch (Exception e) {
+					if (failure == null)
+						failure = new GpioException("Failed to read GPIOs of bank " + chip);
+					failure.addSuppressed(new GpioException("Failed to read GPIO " + gpio, e));
+				}
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+		return levels;
+	}
+
+	/**
+	 * Updates the {@link Signal} of the given input {@link Gpio}s of the given bank after they were read, passing the
+	 * read levels through the {@link DebounceFilter} of each debounced {@link Gpio}, and sets the bank of the given
+	 * {@link GpioSnapshot} to the resulting levels and changes
+	 * 
+	 * @param snapshot
+	 *            the {@link GpioSnapshot} to update
+	 * @param chip
+	 *            the GPIO bank
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s which were read
+	 * @param levels
+	 *            the bit set of the read levels
+	 */
+	private void updateInputSignals(GpioSnapshot snapshot, int chip, int mask, int levels) {
+		int read = mask;
+		int changes = 0;
+		synchronized (this.bankLocks[chip]) {
+			while (read != 0) {
+				int pin = Integer.numberOfTrailingZeros(read);
+				read &= read - 1;
+
+				Gpio gpio = this.gpios[chip * 32 + pin];
+				Signal signal = ((levels >>> pin) & 1) == 1 ? Signal.HIGH : Signal.LOW;
+				DebounceFilter filter = gpio.getDebounceFilter();
+				if (filter != null) {
+					signal = filter.filter(gpio.getSignal(), signal, snapshot.getTimestamp());
+					if (signal.isHigh())
+						levels |= 1 << pin;
+					else
+						levels &= ~(1 << pin);
+				}
+
+				if (gpio.getSignal() != signal) {
+					gpio.setSignal(signal);
+					changes |= 1 << pin;
+				}
+			}
+		}
+
+		if (changes != 0)
+			this.metrics.recordEdges(chip, changes);
+		snapshot.setBank(chip, mask, levels, changes);
+	}
+
+	/**
+	 * Sets the {@link Debounce} of the given input {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the input {@link Gpio} to debounce
+	 * @param debounce
+	 *            the {@link Debounce}, or null to stop debouncing the {@link Gpio}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}
+	 */
+	@Override
+	public void setDebounce(Gpio gpio, Debounce debounce) throws GpioException {
+		if (gpio.getDirection() != Direction.IN)
+			throw new GpioException("For debouncing the direction must be " + Direction.IN);
+
+		synchronized (this.bankLocks[gpio.getPin().getChip()]) {
+			boolean wasDebounced = gpio.getDebounceFilter() != null;
+			if (!wasDebounced && debounce != null)
+				this.debounced.incrementAndGet();
+			gpio.setDebounceFilter(debounce == null ? null : new DebounceFilter(debounce, gpio.getSignal()));
+			if (wasDebounced && debounce == null)
+				this.debounced.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the time until the earliest pending {@link Signal} of a debounced {@link Gpio} is accepted, and adds the
+	 * {@link Gpio}s whose pending {@link Signal} can be accepted now to the given bank masks, so that they are read
+	 * before their next sample is due
+	 * 
+	 * @param now
+	 *            the current {@link System#nanoTime()}
+	 * @param due
+	 *            the bit masks per bank to add the {@link Gpio}s to, or null to only return the time
+	 * 
+	 * @return the time in nanoseconds until the earliest pending {@link Signal} is accepted, or {@link Long#MAX_VALUE}
+	 *         if no {@link Signal} is pending
+	 */
+	private long getDebounceRemaining(long now, int[] due) {
+		long remaining = Long.MAX_VALUE;
+		int[] inputMasks = this.inputMasks;
+		for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+			int mask = inputMasks[chip];
+			if (mask == 0)
+				continue;
+
+			synchronized (this.bankLocks[chip]) {
+				while (mask != 0) {
+					int pin = Integer.numberOfTrailingZeros(mask);
+					mask &= mask - 1;
+
+					DebounceFilter filter = this.gpios[chip * 32 + pin].getDebounceFilter();
+					if (filter == null)
+						continue;
+					long pinRemaining = filter.getRemaining(now);
+					if (pinRemaining == 0L && due != null)
+						due[chip] |= 1 << pin;
+					remaining = Math.min(remaining, pinRemaining);
+				}
+			}
+		}
+
+		return remaining;
+	}
+
+	/**
+	 * <p>
+	 * Starts the {@link GpioBridge}'s signal observing {@link Thread}. If no observers are registered with the
+	 * {@link #register(Gpio, GpioSignalListener)}-method, then this method needs not to be called.
+	 * </p>
+	 * 
+	 * <p>
+	 * The observing {@link Thread} reads each observed {@link Gpio} when its sample period elapsed, as scheduled by
+	 * the {@link SampleScheduler}, and reads all observed {@link Gpio}s when the {@link GpioEdgeWatcher} signals an
+	 * edge. In between it waits on the {@link GpioEdgeWatcher} until the next sample is due
+	 * </p>
+	 */
+	@Override
+	public void start() {
+
+		this.run = true;
+		this.thread = new Thread(() -> {
+			GpioSnapshot snapshot = new GpioSnapshot();
+			int[] due = new int[NR_OF_BANKS];
+			boolean edgeSignalled = false;
+			while (this.run) {
+				if (this.observed == 0) {
+					// unparked by wakeup(), so no monitor is shared with user code
+					LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1L));
+					if (Thread.interrupted()) {
+						GpioLog.log(LogLevel.WARN, "Was interrupted. Stopping thread.");
+						this.run = false;
+						break;
+					}
+				} else {
+
+					long now = System.nanoTime();
+					long deadline;
+					Arrays.fill(due, 0);
+					synchronized (this.registrationLock) {
+						if (this.scheduler.isEmpty())
+							continue;
+						if (edgeSignalled)
+							this.scheduler.addScheduled(due);
+						this.scheduler.addDue(now, due);
+						deadline = this.scheduler.getNextDeadline();
+					}
+					if (this.debounced.get() != 0)
+						getDebounceRemaining(now, due);
+
+					try {
+						observe(snapshot, due);
+					} catch (Exception e) {
+						GpioLog.log(LogLevel.ERROR, "Failed to read GPIOs", e);
+						this.run = false;
+						break;
+					}
+
+					int nrOfChanges = 0;
+					for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+						nrOfChanges += Integer.bitCount(snapshot.getChanges(chip));
+					}
+					if (nrOfChanges != 0 && GpioLog.isEnabled(LogLevel.TRACE))
+						GpioLog.log(LogLevel.TRACE, "Found " + nrOfChanges + " GPIO changes.");
+
+					try {
+						for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+							int changed = snapshot.getChanges(chip);
+							while (changed != 0) {
+								int pin = Integer.numberOfTrailingZeros(changed);
+								changed &= changed - 1;
+								notifyListeners(this.gpios[chip * 32 + pin], snapshot.getTimestamp());
+							}
+						}
+					} catch (InterruptedException e) {
+						GpioLog.log(LogLevel.WARN, "Was interrupted. Stopping thread.");
+						this.run = false;
+						break;
+					}
+
+					long passStart = now;
+					now = System.nanoTime();
+					this.metrics.recordPollPass(now - passStart);
+
+					try {
+						long timeout = deadline - now;
+						if (this.debounced.get() != 0)
+							timeout = Math.min(timeout, getDebounceRemaining(now, null));
+						edgeSignalled = this.edgeWatcher.await(Math.max(0L, timeout), TimeUnit.NANOSECONDS);
+					} catch (InterruptedException e) {
+						GpioLog.log(LogLevel.WARN, "Was interrupted. Stopping thread.");
+						this.run = false;
+						break;
+					} catch (GpioException e) {
+						GpioLog.log(LogLevel.ERROR, "Failed to wait for GPIO edges", e);
+						this.run = false;
+						break;
+					}
+				}
+			}
+		}, "gpio_reader");
+		this.thread.start();
+		GpioLog.log(LogLevel.INFO, "Started GPIO bridge.");
+	}
+
+	/**
+	 * Stops observing any pins and stops the {@link Thread}
+	 */
+	@Override
+	public void stop() {
+		if (this.thread == null)
+			return;
+		this.run = false;
+		this.thread.interrupt();
+		try {
+			this.thread.join(5000l);
+		} catch (InterruptedException e) {
+			GpioLog.log(LogLevel.WARN, "Was interrupted while waiting for thread to stop?!");
+		}
+		this.thread = null;
+	}
+
+	/**
+	 * <p>
+	 * Configures the {@link Executor} on which the {@link GpioSignalListener}s are notified, so that the observing
+	 * {@link Thread} is not delayed by slow listeners. On newer JDKs this can be an executor of virtual threads.
+	 * </p>
+	 * 
+	 * <p>
+	 * The listeners of a {@link Gpio} are notified in the order of the changes, while the listeners of different
+	 * {@link Gpio}s are notified concurrently. Each {@link Gpio} has a queue of at most the given capacity of pending
+	 * changes, and if the queue is full, the given {@link OverflowPolicy} is applied.
+	 * </p>
+	 * 
+	 * @param executor
+	 *            the {@link Executor} on which to notify the listeners, or null to notify them on the observing
+	 *            {@link Thread}, which is the default
+	 * @param capacity
+	 *            the maximum number of pending changes per {@link Gpio}
+	 * @param policy
+	 *            the {@link OverflowPolicy} applied when the queue of a {@link Gpio} is full
+	 */
+	@Override
+	public void setDispatchExecutor(Executor executor, int capacity, OverflowPolicy policy) {
+		if (executor == null)
+			this.dispatcher = null;
+		else
+			this.dispatcher = new GpioDispatcher(this, executor, capacity, policy);
+	}
+
+	/**
+	 * @return the number of listener notifications which were dropped or coalesced as the listeners of a
+	 *         {@link Gpio} could not keep up with its changes
+	 */
+	public long getDroppedNotifications() {
+		GpioDispatcher dispatcher = this.dispatcher;
+		return dispatcher == null ? 0L : dispatcher.getDropped();
+	}
+
+	@Override
+	public GpioMetrics getMetrics() {
+		Pin[] pins = Pin.values();
+		long[] reads = new long[pins.length];
+		long[] writes = new long[pins.length];
+		long[] edges = new long[pins.length];
+		long[] failures = new long[pins.length];
+		long[] elidedWrites = new long[pins.length];
+		int[] queueDepths = new int[pins.length];
+
+		GpioDispatcher dispatcher = this.dispatcher;
+		for (Pin pin : pins) {
+			int i = pin.ordinal();
+			reads[i] = this.metrics.getReads(pin);
+			writes[i] = this.metrics.getWrites(pin);
+			edges[i] = this.metrics.getEdges(pin);
+			failures[i] = this.metrics.getFailures(pin);
+			elidedWrites[i] = this.metrics.getElided(pin);
+			if (dispatcher != null)
+				queueDepths[i] = dispatcher.getQueueDepth(pin);
+		}
+
+		return new GpioMetrics(reads, writes, edges, failures, elidedWrites, queueDepths, getDroppedNotifications(),
+				this.metrics.getPollPass().getSnapshot(), this.metrics.getDispatchLatency().getSnapshot());
+	}
+
+	@Override
+	public void resetMetrics() {
+		this.metrics.reset();
+	}
+
+	/**
+	 * Notifies the listeners registered for the given {@link Gpio} of a change to its {@link Signal}, either
+	 * directly, or by handing the {@link GpioEvent} to the {@link GpioDispatcher}. Only called by the observing
+	 * {@link Thread}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} whose {@link Signal} changed
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} at which the change was read
+	 * 
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting for the {@link GpioDispatcher}
+	 */
+	private void notifyListeners(Gpio gpio, long timestamp) throws InterruptedException {
+		Pin pin = gpio.getPin();
+		Registration[] registrations = this.registrations.get(pin.ordinal());
+		if (registrations == null)
+			return;
+
+		// sample listeners are called inline, so that no event is allocated for them, nor for an edge no event
+		// listener accepts
+		Signal signal = gpio.getSignal();
+		boolean dispatch = false;
+		for (Registration registration : registrations) {
+			if (!registration.edge.accepts(signal))
+				continue;
+			if (registration.sampleListener == null) {
+				dispatch = true;
+			} else {
+				try {
+					registration.sampleListener.onSample(gpio, signal, timestamp);
+				} catch (RuntimeException e) {
+					GpioLog.log(LogLevel.ERROR, "Failed to update listener " + registration.key, e);
+				}
+			}
+		}
+		if (!dispatch)
+			return;
+
+		long sequence = ++this.sequences[pin.ordinal()];
+		GpioEvent event = new GpioEvent(pin, signal.getOpposite(), signal, timestamp, sequence);
+
+		GpioDispatcher dispatcher = this.dispatcher;
+		if (dispatcher == null)
+			dispatch(event);
+		else
+			dispatcher.submit(event);
+	}
+
+	/**
+	 * Notifies the listeners registered for the {@link Pin} of the given {@link GpioEvent}, without taking any lock
+	 * 
+	 * @param event
+	 *            the {@link GpioEvent} to notify
+	 */
+	void dispatch(GpioEvent event) {
+		Registration[] registrations = this.registrations.get(event.getPin().ordinal());
+		if (registrations == null)
+			return;
+
+		this.metrics.recordDispatchLatency(System.nanoTime() - event.getTimestamp());
+
+		if (GpioLog.isEnabled(LogLevel.TRACE))
+			GpioLog.log(LogLevel.TRACE, "GPIO " + event.getPin() + " changed to " + event.getNewSignal()
+					+ ". Notifying " + registrations.length + " listeners.");
+
+		for (Registration registration : registrations) {
+			if (registration.listener == null || !registration.edge.accepts(event.getNewSignal()))
+				continue;
+			try {
+				registration.listener.onEvent(event);
+			} catch (Exception e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to update listener " + registration.key, e);
+			}
+		}
+	}
+
+	/**
+	 * Stops observing any pins, closes all {@link Gpio}s and the {@link GpioEdgeWatcher}. After closing, any
+	 * previously returned {@link Gpio} must not be used anymore
+	 */
+	@Override
+	public void close() {
+		stop();
+
+		synchronized (this.registrationLock) {
+			for (int i = 0; i < this.registrations.length(); i++) {
+				this.registrations.set(i, null);
+			}
+			this.scheduler.clear();
+			this.observed = 0;
+		}
+
+		try {
+			flush();
+		} catch (GpioException e) {
+			GpioLog.log(LogLevel.ERROR, "Failed to flush GPIOs", e);
+		}
+		ScheduledExecutorService flusher = this.flusher;
+		if (flusher != null) {
+			this.flusher = null;
+			flusher.shutdownNow();
+		}
+
+		synchronized (this.openLock) {
+			this.outputMasks = new int[NR_OF_BANKS];
+			this.inputMasks = new int[NR_OF_BANKS];
+			for (int i = 0; i < this.cache.length(); i++) {
+				Gpio gpio = this.cache.getAndSet(i, null);
+				if (gpio == null)
+					continue;
+				synchronized (this.bankLocks[gpio.getPin().getChip()]) {
+					try {
+						closeGpio(gpio);
+					} catch (IOException e) {
+						GpioLog.log(LogLevel.ERROR, "Failed to close GPIO " + gpio, e);
+					}
+				}
+				this.gpios[gpio.getPin().getGpioNr()] = null;
+			}
+			this.debounced.set(0);
+			this.filtered.set(0);
+		}
+
+		this.edgeWatcher.close();
+		GpioLog.log(LogLevel.INFO, "Closed GPIO bridge.");
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link Gpio} for the given {@link Direction}.
+	 * </p>
+	 * 
+	 * <p>
+	 * <b>Note:</b> This method can not be called multiple times with different {@link Direction}s. The
+	 * {@link GpioBridge} does not handle pins that are simultaneously input and output as this is not supported by the
+	 * Linux kernel.
+	 * </p>
+	 * 
+	 * <p>
+	 * A cached {@link Gpio} is returned without taking any lock, only opening a new {@link Gpio} takes the open lock
+	 * of the bridge.
+	 * </p>
+	 * 
+	 * @param pin
+	 *            The {@link Pin} for which the {@link Gpio} in the given {@link Direction} is to be returned
+	 * @param direction
+	 *            the {@link Direction} for which this {@link Gpio} is to be returned
+	 * 
+	 * @return The {@link Gpio} with the configured {@link Direction}
+	 * 
+	 * @throws GpioException
+	 *             If the given {@link Direction} does not match the kernel's configured direction, or if the file
+	 *             permissions are not set so that the Java process can access the file (read access for input pin,
+	 *             write access for output pin.
+	 */
+	@Override
+	public Gpio getGpio(Pin pin, Direction direction) throws GpioException {
+		Gpio gpio = this.cache.get(pin.ordinal());
+		if (gpio != null)
+			return gpio;
+
+		synchronized (this.openLock) {
+			gpio = this.cache.get(pin.ordinal());
+			if (gpio == null) {
+
+				gpio = new Gpio(pin, direction);
+
+				openGpio(gpio);
+
+				addGpio(gpio);
+			}
+
+			return gpio;
+		}
+	}
+
+	/**
+	 * Adds the given opened {@link Gpio} to the cache and the bit masks of its bank, must be called while holding the
+	 * open lock. The masks are copied and replaced, so that the {@link Gpio} is published to readers of the masks
+	 * without taking a lock
+	 */
+	private void addGpio(Gpio gpio) {
+		Pin pin = gpio.getPin();
+		Direction direction = gpio.getDirection();
+		this.gpios[pin.getGpioNr()] = gpio;
+		if (direction == Direction.OUT) {
+			int[] outputMasks = this.outputMasks.clone();
+			outputMasks[pin.getChip()] |= 1 << pin.getPin();
+			this.outputMasks = outputMasks;
+		} else {
+			int[] inputMasks = this.inputMasks.clone();
+			inputMasks[pin.getChip()] |= 1 << pin.getPin();
+			this.inputMasks = inputMasks;
+		}
+		this.cache.set(pin.ordinal(), gpio);
+		if (GpioLog.isEnabled(LogLevel.DEBUG))
+			GpioLog.log(LogLevel.DEBUG, "Initialized pin " + pin + " with direction " + direction + ".");
+	}
+
+	@Override
+	public Map<Pin, Gpio> openPins(Map<Pin, Direction> pins) throws GpioException {
+		return openPins(pins, DEFAULT_OPEN_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * <p>
+	 * Opens the given {@link Pin}s with their {@link Direction}s in parallel, and returns their {@link Gpio}s.
+	 * </p>
+	 * 
+	 * <p>
+	 * Each {@link Pin} which was not yet retrieved is prepared with {@link #prepareGpio(Gpio, long)} and opened with
+	 * {@link #openGpio(Gpio)} on a {@link Thread} of its own, without holding the open lock of the bridge. Only once
+	 * all {@link Pin}s were opened, their {@link Gpio}s are added to the cache while holding the lock. If any
+	 * {@link Pin} fails to open, or the calling {@link Thread} is interrupted, the {@link Gpio}s opened by this call
+	 * are closed again before the exception is thrown.
+	 * </p>
+	 * 
+	 * @param pins
+	 *            the {@link Pin}s to open with their {@link Direction}s
+	 * @param timeout
+	 *            the maximum time to wait for a {@link Pin} to be exported and accessible
+	 * @param unit
+	 *            the {@link TimeUnit} of the timeout
+	 * 
+	 * @return the {@link Gpio}s of the given {@link Pin}s
+	 * 
+	 * @throws GpioException
+	 *             if any {@link Pin} can not be opened, in which case none is opened, the suppressed exceptions contain
+	 *             the failure of each {@link Pin}
+	 */
+	@Override
+	public Map<Pin, Gpio> openPins(Map<Pin, Direction> pins, long timeout, TimeUnit unit) throws GpioException {
+		long timeoutNanos = unit.toNanos(timeout);
+		Map<Pin, Gpio> opened = new EnumMap<>(Pin.class);
+		GpioException failure = null;
+
+		// only open the pins which are not yet cached
+		List<Gpio> toOpen = new ArrayList<>();
+		for (Map.Entry<Pin, Direction> entry : pins.entrySet()) {
+			Pin pin = entry.getKey();
+			Direction direction = entry.getValue();
+			Gpio gpio = this.cache.get(pin.ordinal());
+			if (gpio == null) {
+				toOpen.add(new Gpio(pin, direction));
+			} else if (gpio.getDirection() != direction) {
+				if (failure == null)
+					failure = new GpioException("Failed to open " + pins.size() + " pins");
+				failure.addSuppressed(new GpioException(
+						"GPIO " + pin + " was already retrieved with direction " + gpio.getDirection()));
+			} else {
+				opened.put(pin, gpio);
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+		if (toOpen.isEmpty())
+			return opened;
+
+		// a task which opened its pin after this call was abandoned closes the pin itself
+		Object claimLock = new Object();
+		boolean[] claimable = new boolean[toOpen.size()];
+		boolean[] abandoned = new boolean[1];
+
+		// the threads mostly wait for the kernel and udev, thus each pin gets its own
+		ExecutorService executor = Executors.newFixedThreadPool(toOpen.size(), r -> {
+			Thread thread = new Thread(r, "gpio_open");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>(toOpen.size());
+			for (int i = 0; i < toOpen.size(); i++) {
+				Gpio gpio = toOpen.get(i);
+				int index = i;
+				futures.add(executor.submit(() -> {
+					prepareGpio(gpio, timeoutNanos);
+					openGpio(gpio);
+					synchronized (claimLock) {
+						if (abandoned[0])
+							closeOpened(gpio);
+						else
+							claimable[index] = true;
+					}
+					return null;
+				}));
+			}
+
+			for (int i = 0; i < toOpen.size(); i++) {
+				Gpio gpio = toOpen.get(i);
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException e) {
+					if (failure == null)
+						failure = new GpioException("Failed to open " + pins.size() + " pins");
+					Throwable cause = e.getCause();
+					failure.addSuppressed(cause instanceof GpioException ? cause
+							: new GpioException("Failed to open GPIO " + gpio.getPin(), cause));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					failure = new GpioException("Interrupted while opening pins", e);
+					break;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// on any failure none of the pins opened by this call is kept
+		if (failure != null) {
+			synchronized (claimLock) {
+				abandoned[0] = true;
+				for (int i = 0; i < toOpen.size(); i++) {
+					if (claimable[i])
+						closeOpened(toOpen.get(i));
+				}
+			}
+			throw failure;
+		}
+
+		synchronized (this.openLock) {
+			for (Gpio gpio : toOpen) {
+				// the pin may have been retrieved concurrently
+				Gpio cached = this.cache.get(gpio.getPin().ordinal());
+				if (cached != null) {
+					closeOpened(gpio);
+					gpio = cached;
+				} else {
+					addGpio(gpio);
+				}
+				opened.put(gpio.getPin(), gpio);
+			}
+		}
+
+		return opened;
+	}
+
+	/**
+	 * Closes a {@link Gpio} which was opened by {@link #openPins(Map, long, TimeUnit)}, but is not added to the cache,
+	 * logging a failure to close it
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to close
+	 */
+	private void closeOpened(Gpio gpio) {
+		try {
+			closeGpio(gpio);
+		} catch (IOException e) {
+			GpioLog.log(LogLevel.ERROR, "Failed to close GPIO " + gpio, e);
+		}
+	}
+
+	/**
+	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param listener
+	 *            the {@link GpioSignalListener} to be notified on changes on the {@link Gpio}'s {@link Signal}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}
+	 */
+	@Override
+	public void register(Gpio gpio, GpioSignalListener listener) throws GpioException {
+		register(gpio, Edge.BOTH, listener);
+	}
+
+	/**
+	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param listener
+	 *            the {@link GpioSignalListener} to be notified on changes on the {@link Gpio}'s {@link Signal}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	@Override
+	public void register(Gpio gpio, Edge edge, GpioSignalListener listener) throws GpioException {
+		addRegistration(gpio, new Registration(listener, edge, 0L, event -> listener.notify(gpio)));
+	}
+
+	/**
+	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}, and reads the {@link Gpio} at least at the given sample period
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio} is read, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 * @param listener
+	 *            the {@link GpioSignalListener} to be notified on changes of the {@link Gpio}'s {@link Signal}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	@Override
+	public void register(Gpio gpio, Edge edge, long samplePeriod, TimeUnit unit, GpioSignalListener listener)
+			throws GpioException {
+		addRegistration(gpio,
+				new Registration(listener, edge, toSamplePeriod(samplePeriod, unit), event -> listener.notify(gpio)));
+	}
+
+	/**
+	 * Registers the given {@link GpioEventListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param listener
+	 *            the {@link GpioEventListener} to be notified of {@link GpioEvent}s of the {@link Gpio}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	@Override
+	public void registerEventListener(Gpio gpio, Edge edge, GpioEventListener listener) throws GpioException {
+		addRegistration(gpio, new Registration(listener, edge, 0L, listener));
+	}
+
+	/**
+	 * Registers the given {@link GpioEventListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}, and reads the {@link Gpio} at least at the given sample period
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio} is read, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 * @param listener
+	 *            the {@link GpioEventListener} to be notified of {@link GpioEvent}s of the {@link Gpio}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	@Override
+	public void registerEventListener(Gpio gpio, Edge edge, long samplePeriod, TimeUnit unit,
+			GpioEventListener listener) throws GpioException {
+		addRegistration(gpio, new Registration(listener, edge, toSamplePeriod(samplePeriod, unit), listener));
+	}
+
+	/**
+	 * Registers the given {@link GpioSampleListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}, and reads the {@link Gpio} at least at the given sample period. The listener is
+	 * called inline on the observing {@link Thread}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio} is read, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 * @param listener
+	 *            the {@link GpioSampleListener} to be called on changes of the {@link Gpio}'s {@link Signal}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	@Override
+	public void registerSampleListener(Gpio gpio, Edge edge, long samplePeriod, TimeUnit unit,
+			GpioSampleListener listener) throws GpioException {
+		addRegistration(gpio, new Registration(listener, edge, toSamplePeriod(samplePeriod, unit), listener));
+	}
+
+	private static long toSamplePeriod(long samplePeriod, TimeUnit unit) {
+		if (samplePeriod <= 0)
+			throw new IllegalArgumentException("Sample period must be positive: " + samplePeriod);
+		return unit.toNanos(samplePeriod);
+	}
+
+	/**
+	 * Adds the given {@link Registration} to the registrations of the given {@link Gpio} by replacing the array of
+	 * registrations, and configures the {@link Edge} if needed
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param newRegistration
+	 *            the {@link Registration} to add
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the {@link Edge} can not be configured
+	 */
+	private void addRegistration(Gpio gpio, Registration newRegistration) throws GpioException {
+		Edge edge = newRegistration.edge;
+
+		if (gpio.getDirection() != Direction.IN)
+			throw new GpioException("For reading the direction must be " + Direction.IN);
+		if (edge == Edge.NONE)
+			throw new GpioException("Can not register for edge " + edge + " on GPIO " + gpio);
+
+		synchronized (this.registrationLock) {
+			int index = gpio.getPin().ordinal();
+			Registration[] current = this.registrations.get(index);
+
+			Edge currentEdge = Edge.NONE;
+			Registration[] updated;
+			if (current == null) {
+				updated = new Registration[1];
+			} else {
+				for (Registration registration : current) {
+					currentEdge = currentEdge.combine(registration.edge);
+				}
+				updated = Arrays.copyOf(current, current.length + 1);
+			}
+
+			Edge combined = currentEdge.combine(edge);
+			if (combined != currentEdge)
+				configureEdge(gpio, combined);
+
+			updated[updated.length - 1] = newRegistration;
+			this.registrations.set(index, updated);
+			schedule(gpio.getPin(), updated);
+			if (current == null)
+				this.observed++;
+		}
+
+		wakeup();
+	}
+
+	/**
+	 * Unregisters a {@link GpioSignalListener} from changes to the given {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the {@link GpioSignalListener} to be removed from changes to the given {@link Gpio}
+	 * 
+	 * @return true if the listener was unregistered, false if not
+	 */
+	@Override
+	public boolean unregister(Gpio gpio, GpioSignalListener listener) {
+		return removeRegistrations(gpio, listener);
+	}
+
+	/**
+	 * Unregisters a {@link GpioEventListener} from changes to the given {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the {@link GpioEventListener} to be removed from changes to the given {@link Gpio}
+	 * 
+	 * @return true if the listener was unregistered, false if not
+	 */
+	@Override
+	public boolean unregisterEventListener(Gpio gpio, GpioEventListener listener) {
+		return removeRegistrations(gpio, listener);
+	}
+
+	/**
+	 * Unregisters a {@link GpioSampleListener} from changes to the given {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the {@link GpioSampleListener} to be removed from changes to the given {@link Gpio}
+	 * 
+	 * @return true if the listener was unregistered, false if not
+	 */
+	@Override
+	public boolean unregisterSampleListener(Gpio gpio, GpioSampleListener listener) {
+		return removeRegistrations(gpio, listener);
+	}
+
+	/**
+	 * Removes all registrations of the given listener from the given {@link Gpio} by replacing the array of
+	 * registrations
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the registered listener, either a {@link GpioSignalListener}, {@link GpioEventListener} or
+	 *            {@link GpioSampleListener}
+	 * 
+	 * @return true if the listener was unregistered, false if not
+	 */
+	private boolean removeRegistrations(Gpio gpio, Object listener) {
+		synchronized (this.registrationLock) {
+			int index = gpio.getPin().ordinal();
+			Registration[] current = this.registrations.get(index);
+			if (current == null) {
+				return false;
+			}
+
+			Registration[] updated = new Registration[current.length];
+			int length = 0;
+			for (Registration registration : current) {
+				if (registration.key != listener)
+					updated[length++] = registration;
+			}
+
+			if (length == current.length)
+				return false;
+
+			if (length == 0) {
+				this.registrations.set(index, null);
+				this.scheduler.remove(gpio.getPin().getGpioNr());
+				this.observed--;
+				this.edgeWatcher.unwatch(gpio);
+			} else {
+				updated = Arrays.copyOf(updated, length);
+				this.registrations.set(index, updated);
+				schedule(gpio.getPin(), updated);
+			}
+		}
+
+		wakeup();
+		return true;
+	}
+
+	/**
+	 * Wakes up the observing {@link Thread}, whether it is parked as no {@link Gpio} is observed, or waits in the
+	 * {@link GpioEdgeWatcher}, so that it recomputes when the observed {@link Gpio}s are due after the registrations or
+	 * sample periods changed
+	 */
+	private void wakeup() {
+		LockSupport.unpark(this.thread);
+		this.edgeWatcher.wakeup();
+	}
+
+	/**
+	 * Schedules the reads of the given {@link Pin} at the shortest sample period of the given registrations. Must be
+	 * called while holding the registration lock
+	 * 
+	 * @param pin
+	 *            the {@link Pin} to schedule
+	 * @param registrations
+	 *            the registrations of the {@link Pin}
+	 */
+	private void schedule(Pin pin, Registration[] registrations) {
+		long period = Long.MAX_VALUE;
+		for (Registration registration : registrations) {
+			period = Math.min(period,
+					registration.samplePeriod == 0L ? this.pollInterval : registration.samplePeriod);
+		}
+		this.scheduler.schedule(pin.getGpioNr(), period, System.nanoTime());
+	}
+
+	/**
+	 * Configures the {@link Edge} for which the given {@link Gpio} is observed, by adding the {@link Gpio} to the
+	 * watched {@link Gpio}s. Subclasses configure the hardware if the {@link GpioEdgeWatcher} is interrupt driven
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} for which to configure the {@link Edge}
+	 * @param edge
+	 *            the {@link Edge} to configure
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Edge} can not be configured
+	 */
+	protected void configureEdge(Gpio gpio, Edge edge) throws GpioException {
+		this.edgeWatcher.watch(gpio, edge);
+	}
+
+	/**
+	 * A registered listener with the {@link Edge} for which it is notified and its sample period in nanoseconds, 0 for
+	 * the poll interval. A {@link GpioSignalListener} is adapted to a {@link GpioEventListener}, and the registered
+	 * listener is kept as key for unregistering. A {@link GpioSampleListener} is called inline instead of being
+	 * dispatched
+	 */
+	private static class Registration {
+		private final Object key;
+		private final Edge edge;
+		private final long samplePeriod;
+		private final GpioEventListener listener;
+		private final GpioSampleListener sampleListener;
+
+		public Registration(Object key, Edge edge, long samplePeriod, GpioEventListener listener) {
+			this.key = key;
+			this.edge = edge;
+			this.samplePeriod = samplePeriod;
+			this.listener = listener;
+			this.sampleListener = null;
+		}
+
+		public Registration(Object key, Edge edge, long samplePeriod, GpioSampleListener sampleListener) {
+			this.key = key;
+			this.edge = edge;
+			this.samplePeriod = samplePeriod;
+			this.listener = null;
+			this.sampleListener = sampleListener;
+		}
+	}
+}
\ No newline at end of file
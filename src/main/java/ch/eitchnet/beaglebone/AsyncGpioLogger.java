@@ -0,0 +1,176 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * A {@link GpioLogger} which decouples the logging {@link Thread}s from a slow {@link GpioLogger}, e.g. a
+ * {@link ConsoleGpioLogger} on a serial console. The messages are put into a bounded ring buffer and passed on to the
+ * delegate by a daemon {@link Thread}
+ * </p>
+ * 
+ * <p>
+ * The slots of the ring buffer are preallocated, and each has a sequence number which tells whether it is free for
+ * the logging {@link Thread}s or holds a message for the daemon {@link Thread}, so that logging neither allocates nor
+ * locks. Logging never blocks: if the ring buffer is full, the message is dropped and counted by {@link #getDropped()}.
+ * The enabled {@link LogLevel}s are those of the delegate
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class AsyncGpioLogger implements GpioLogger, AutoCloseable {
+
+	private final GpioLogger delegate;
+	private final Slot[] slots;
+	private final AtomicLong tail;
+	private final AtomicLong dropped;
+	private final Thread thread;
+	// only accessed by the daemon thread
+	private long head;
+	private volatile boolean waiting;
+	private volatile boolean run;
+
+	/**
+	 * Constructs a new {@link AsyncGpioLogger} and starts its {@link Thread}
+	 * 
+	 * @param delegate
+	 *            the {@link GpioLogger} to which the messages are passed on
+	 * @param capacity
+	 *            the number of messages which can be pending before messages are dropped
+	 */
+	public AsyncGpioLogger(GpioLogger delegate, int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		this.delegate = delegate;
+		this.slots = new Slot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			this.slots[i] = new Slot(i);
+		}
+		this.tail = new AtomicLong();
+		this.dropped = new AtomicLong();
+		this.run = true;
+		this.thread = new Thread(this::drain, "gpio_logger");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@Override
+	public boolean isEnabled(LogLevel level) {
+		return this.delegate.isEnabled(level);
+	}
+
+	/**
+	 * Claims the slot at the tail of the ring buffer and fills it with the message. A slot is free for position
+	 * <i>p</i> when its sequence is <i>p</i>, and holds the message of position <i>p</i> when its sequence is
+	 * <i>p + 1</i>
+	 */
+	@Override
+	public void log(LogLevel level, String message, Throwable t) {
+		long position = this.tail.get();
+		while (true) {
+			Slot slot = this.slots[(int) (position % this.slots.length)];
+			long available = slot.sequence - position;
+			if (available == 0L) {
+				if (this.tail.compareAndSet(position, position + 1L)) {
+					slot.level = level;
+					slot.message = message;
+					slot.t = t;
+					slot.sequence = position + 1L;
+					if (this.waiting)
+						LockSupport.unpark(this.thread);
+					return;
+				}
+				position = this.tail.get();
+			} else if (available < 0L) {
+				// the slot still holds the message of the previous round, thus the ring buffer is full
+				this.dropped.incrementAndGet();
+				return;
+			} else {
+				// another thread claimed the position
+				position = this.tail.get();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of messages which were dropped as the ring buffer was full
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Stops the {@link Thread} after it passed on the pending messages
+	 */
+	@Override
+	public void close() {
+		this.run = false;
+		LockSupport.unpark(this.thread);
+		try {
+			this.thread.join(5000l);
+		} catch (InterruptedException e) {
+			// the pending messages are lost
+		}
+	}
+
+	private void drain() {
+		while (this.run) {
+			if (passNext())
+				continue;
+
+			// re-check after announcing the wait, so that a message logged in between unparks this thread
+			this.waiting = true;
+			if (!passNext() && this.run)
+				LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1L));
+			this.waiting = false;
+		}
+
+		while (passNext()) {
+			// pass on the pending messages
+		}
+	}
+
+	/**
+	 * Passes the message at the head of the ring buffer on to the delegate, and frees its slot for the next round
+	 * 
+	 * @return true if a message was passed on, false if the ring buffer is empty
+	 */
+	private boolean passNext() {
+		Slot slot = this.slots[(int) (this.head % this.slots.length)];
+		if (slot.sequence != this.head + 1L)
+			return false;
+
+		LogLevel level = slot.level;
+		String message = slot.message;
+		Throwable t = slot.t;
+		slot.level = null;
+		slot.message = null;
+		slot.t = null;
+		slot.sequence = this.head + this.slots.length;
+		this.head++;
+
+		try {
+			this.delegate.log(level, message, t);
+		} catch (RuntimeException e) {
+			this.dropped.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * A preallocated slot of the ring buffer. The message fields are written before, and read after, the volatile
+	 * sequence
+	 */
+	private static class Slot {
+		private volatile long sequence;
+		private LogLevel level;
+		private String message;
+		private Throwable t;
+
+		Slot(long sequence) {
+			this.sequence = sequence;
+		}
+	}
+}
@@ -0,0 +1,473 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ * A {@link GpioBridge} on the kernel's GPIO character devices <code>/dev/gpiochipN</code> using the v2 uAPI, which
+ * replaces the deprecated sysfs interface on newer kernels. The chip of a {@link Pin} is {@link Pin#getChip()}, and
+ * its line offset is {@link Pin#getPin()}
+ * </p>
+ *
+ * <p>
+ * All opened lines of a chip are held by a single {@link GpioLineRequest}, thus a whole bank is read or written with
+ * a single <code>ioctl()</code>. As the lines of a line request can not be changed, opening a further {@link Gpio} of
+ * a chip releases the line request and requests all lines again, keeping the levels of the outputs. Thus all
+ * {@link Gpio}s should be opened at start, ideally with {@link #openPins(java.util.Map)}. Closing a {@link Gpio} does
+ * not release its line until all {@link Gpio}s of the chip are closed
+ * </p>
+ *
+ * <p>
+ * The observing {@link Thread} waits for the kernel's edge events with {@link GpioCdev#awaitEvents(long, TimeUnit)},
+ * after which it reads the observed {@link Gpio}s as with any interrupt driven {@link GpioEdgeWatcher}. Further every
+ * event is passed with the kernel's timestamp to the listeners registered with
+ * {@link #registerEdgeListener(Gpio, GpioSampleListener)}, so that no edge is missed even if the {@link Gpio} changes
+ * faster than it is read
+ * </p>
+ *
+ * <p>
+ * The <code>ioctl()</code>s are done by a {@link GpioCdev}, which for real hardware must be a native implementation,
+ * found with the {@link ServiceLoader} by {@link #getInstance()}. None is shipped with this library, which is why this
+ * bridge can not be selected with {@link GpioBridge#PROP_BACKEND}. For tests the <code>SimulatedGpioCdev</code> of the
+ * test sources is passed to the constructor
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class CdevGpioBridge extends AbstractGpioBridge {
+
+	private static final String CONSUMER = "ch.eitchnet.beaglebone";
+	private static final int EVENT_BATCH = 64;
+	private static final long EDGE_SAMPLE_PERIOD = 1L;
+
+	private static CdevGpioBridge instance;
+
+	private final GpioCdev cdev;
+	private final GpioLineRequest[] requests;
+	private final int[] inputLines;
+	private final int[] outputLines;
+	private final int[] risingLines;
+	private final int[] fallingLines;
+	private final Gpio[] lines;
+	private final AtomicReferenceArray<EdgeListener[]> edgeListeners;
+
+	// only accessed by the observing thread
+	private final int[] eventOffsets;
+	private final long[] eventTimestamps;
+	private final boolean[] eventRising;
+	private final Gpio[] eventGpios;
+
+	/**
+	 * Returns the instance of the {@link CdevGpioBridge} on the first {@link GpioCdev} found with the
+	 * {@link ServiceLoader}, which is created on the first call
+	 *
+	 * @return the instance of the {@link CdevGpioBridge}
+	 *
+	 * @throws GpioException
+	 *             if no {@link GpioCdev} implementation is on the class path
+	 */
+	public static synchronized GpioBridge getInstance() throws GpioException {
+		if (instance == null) {
+			Iterator<GpioCdev> iterator = ServiceLoader.load(GpioCdev.class).iterator();
+			if (!iterator.hasNext())
+				throw new GpioException("No native " + GpioCdev.class.getName()
+						+ " implementation found, is it on the class path?");
+			instance = new CdevGpioBridge(iterator.next());
+		}
+		return instance;
+	}
+
+	/**
+	 * Constructs a new {@link CdevGpioBridge}
+	 *
+	 * @param cdev
+	 *            the {@link GpioCdev} with which the character devices are accessed
+	 */
+	public CdevGpioBridge(GpioCdev cdev) {
+		this(cdev, new CdevEdgeWatcher(cdev));
+	}
+
+	private CdevGpioBridge(GpioCdev cdev, CdevEdgeWatcher edgeWatcher) {
+		super(edgeWatcher);
+		edgeWatcher.bridge = this;
+		this.cdev = cdev;
+		this.requests = new GpioLineRequest[NR_OF_BANKS];
+		this.inputLines = new int[NR_OF_BANKS];
+		this.outputLines = new int[NR_OF_BANKS];
+		this.risingLines = new int[NR_OF_BANKS];
+		this.fallingLines = new int[NR_OF_BANKS];
+		this.lines = new Gpio[NR_OF_BANKS * 32];
+		this.edgeListeners = new AtomicReferenceArray<>(NR_OF_BANKS * 32);
+
+		this.eventOffsets = new int[EVENT_BATCH];
+		this.eventTimestamps = new long[EVENT_BATCH];
+		this.eventRising = new boolean[EVENT_BATCH];
+		this.eventGpios = new Gpio[EVENT_BATCH];
+	}
+
+	@Override
+	protected void openGpio(Gpio gpio) throws GpioException {
+		Pin pin = gpio.getPin();
+		int chip = pin.getChip();
+		int bit = 1 << pin.getPin();
+
+		synchronized (getBankLock(chip)) {
+			int inputs = this.inputLines[chip];
+			int outputs = this.outputLines[chip];
+			if (((inputs | outputs) & bit) != 0)
+				throw new GpioException("Line of GPIO " + pin + " is already requested!");
+
+			if (gpio.getDirection() == Direction.IN)
+				inputs |= bit;
+			else
+				outputs |= bit;
+
+			request(chip, inputs, outputs);
+			this.lines[pin.getGpioNr()] = gpio;
+		}
+	}
+
+	/**
+	 * Releases the line request of the given chip and requests the given lines, keeping the levels of the outputs
+	 * and the configured edges. If the request fails, the previous lines are requested again. Must be called while
+	 * holding the lock of the bank
+	 */
+	private void request(int chip, int inputs, int outputs) throws GpioException {
+		GpioLineRequest previous = this.requests[chip];
+		int levels = 0;
+		try {
+			if (previous != null) {
+				if (this.outputLines[chip] != 0)
+					levels = previous.getValues(this.outputLines[chip]);
+				this.requests[chip] = null;
+				previous.close();
+			}
+
+			GpioLineRequest request = this.cdev.requestLines(chip, inputs, outputs, levels, CONSUMER);
+			this.requests[chip] = request;
+			if ((this.risingLines[chip] | this.fallingLines[chip]) != 0)
+				request.setEdges(this.risingLines[chip] & inputs, this.fallingLines[chip] & inputs);
+
+		} catch (IOException e) {
+			GpioException failure = new GpioException("Failed to request lines of gpiochip" + chip, e);
+			if (previous != null && this.requests[chip] == null) {
+				try {
+					this.requests[chip] = this.cdev.requestLines(chip, this.inputLines[chip], this.outputLines[chip],
+							levels, CONSUMER);
+				} catch (IOException ex) {
+					failure.addSuppressed(ex);
+				}
+			}
+			throw failure;
+		}
+
+		this.inputLines[chip] = inputs;
+		this.outputLines[chip] = outputs;
+	}
+
+	@Override
+	protected void closeGpio(Gpio gpio) throws IOException {
+		Pin pin = gpio.getPin();
+		int chip = pin.getChip();
+		int bit = 1 << pin.getPin();
+
+		synchronized (getBankLock(chip)) {
+			this.inputLines[chip] &= ~bit;
+			this.outputLines[chip] &= ~bit;
+			this.risingLines[chip] &= ~bit;
+			this.fallingLines[chip] &= ~bit;
+			this.lines[pin.getGpioNr()] = null;
+			this.edgeListeners.set(pin.getGpioNr(), null);
+
+			// the line request can only be changed by requesting again, thus it is kept until all lines are closed
+			if ((this.inputLines[chip] | this.outputLines[chip]) == 0 && this.requests[chip] != null) {
+				GpioLineRequest request = this.requests[chip];
+				this.requests[chip] = null;
+				request.close();
+			}
+		}
+	}
+
+	private GpioLineRequest getRequest(int chip) throws IOException {
+		GpioLineRequest request = this.requests[chip];
+		if (request == null)
+			throw new IOException("No lines of gpiochip" + chip + " are requested!");
+		return request;
+	}
+
+	@Override
+	protected Signal doRead(Gpio gpio) throws IOException {
+		Pin pin = gpio.getPin();
+		// the caller holds the lock of the bank
+		int values = getRequest(pin.getChip()).getValues(1 << pin.getPin());
+		return Signal.getSignal((values >>> pin.getPin()) & 1);
+	}
+
+	@Override
+	protected void doWrite(Gpio gpio, Signal signal) throws IOException {
+		Pin pin = gpio.getPin();
+		int bit = 1 << pin.getPin();
+		// the caller holds the lock of the bank
+		getRequest(pin.getChip()).setValues(bit, signal.isHigh() ? bit : 0);
+	}
+
+	/**
+	 * Writes the whole bank with a single <code>GPIO_V2_LINE_SET_VALUES_IOCTL</code>
+	 */
+	@Override
+	protected void doWriteBank(int chip, int setMask, int clearMask) throws GpioException {
+		synchronized (getBankLock(chip)) {
+			try {
+				getRequest(chip).setValues(setMask | clearMask, setMask);
+			} catch (IOException e) {
+				GpioException failure = new GpioException("Failed to write GPIOs of bank " + chip);
+				failure.addSuppressed(e);
+				throw failure;
+			}
+		}
+		updateSignals(chip, setMask, clearMask);
+	}
+
+	/**
+	 * Reads the whole bank with a single <code>GPIO_V2_LINE_GET_VALUES_IOCTL</code>
+	 */
+	@Override
+	protected int doReadBank(int chip, int mask) throws GpioException {
+		synchronized (getBankLock(chip)) {
+			try {
+				return getRequest(chip).getValues(mask) & mask;
+			} catch (IOException e) {
+				GpioException failure = new GpioException("Failed to read GPIOs of bank " + chip);
+				failure.addSuppressed(e);
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * Configures the edges on which the kernel queues events for the line of the given {@link Gpio}, called by the
+	 * {@link CdevEdgeWatcher}
+	 */
+	private void setEdge(Gpio gpio, Edge edge) throws GpioException {
+		Pin pin = gpio.getPin();
+		int chip = pin.getChip();
+		int bit = 1 << pin.getPin();
+
+		synchronized (getBankLock(chip)) {
+			int rising = this.risingLines[chip] & ~bit;
+			int falling = this.fallingLines[chip] & ~bit;
+			if (edge == Edge.RISING || edge == Edge.BOTH)
+				rising |= bit;
+			if (edge == Edge.FALLING || edge == Edge.BOTH)
+				falling |= bit;
+
+			try {
+				getRequest(chip).setEdges(rising, falling);
+			} catch (IOException e) {
+				throw new GpioException("Failed to configure GPIO " + pin + " with edge " + edge, e);
+			}
+			this.risingLines[chip] = rising;
+			this.fallingLines[chip] = falling;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Registers the given {@link GpioSampleListener} to be notified of every edge event which the kernel queued for the
+	 * given input {@link Gpio}, with the kernel's timestamp of the edge. The listener is called by the observing
+	 * {@link Thread}, which must thus be started, and must return quickly
+	 * </p>
+	 *
+	 * <p>
+	 * Unlike the listeners notified of the read {@link Signal}, no edge is missed if the {@link Gpio} changes faster
+	 * than it is read, up to the size of the kernel's event FIFO
+	 * </p>
+	 *
+	 * @param gpio
+	 *            the input {@link Gpio}
+	 * @param listener
+	 *            the {@link GpioSampleListener} to notify of the edges
+	 *
+	 * @throws GpioException
+	 *             if the {@link Gpio} is not an input of this bridge, or the edges can not be configured
+	 */
+	public void registerEdgeListener(Gpio gpio, GpioSampleListener listener) throws GpioException {
+		int gpioNr = gpio.getPin().getGpioNr();
+		if (this.lines[gpioNr] != gpio)
+			throw new GpioException("GPIO " + gpio + " was not retrieved from this bridge!");
+
+		// observing the pin configures both edges, and keeps the observing thread waiting for events
+		EdgeListener edgeListener = new EdgeListener(listener);
+		registerSampleListener(gpio, Edge.BOTH, EDGE_SAMPLE_PERIOD, TimeUnit.SECONDS, edgeListener);
+
+		synchronized (this.edgeListeners) {
+			EdgeListener[] current = this.edgeListeners.get(gpioNr);
+			EdgeListener[] updated;
+			if (current == null) {
+				updated = new EdgeListener[] { edgeListener };
+			} else {
+				updated = Arrays.copyOf(current, current.length + 1);
+				updated[current.length] = edgeListener;
+			}
+			this.edgeListeners.set(gpioNr, updated);
+		}
+	}
+
+	/**
+	 * Unregisters a {@link GpioSampleListener} registered with {@link #registerEdgeListener(Gpio, GpioSampleListener)}
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the {@link GpioSampleListener} to be removed
+	 *
+	 * @return true if the listener was unregistered, false if not
+	 */
+	public boolean unregisterEdgeListener(Gpio gpio, GpioSampleListener listener) {
+		int gpioNr = gpio.getPin().getGpioNr();
+		EdgeListener removed = null;
+		synchronized (this.edgeListeners) {
+			EdgeListener[] current = this.edgeListeners.get(gpioNr);
+			if (current == null)
+				return false;
+
+			EdgeListener[] updated = new EdgeListener[current.length];
+			int length = 0;
+			for (EdgeListener edgeListener : current) {
+				if (removed == null && edgeListener.listener == listener)
+					removed = edgeListener;
+				else
+					updated[length++] = edgeListener;
+			}
+			if (removed == null)
+				return false;
+			this.edgeListeners.set(gpioNr, length == 0 ? null : Arrays.copyOf(updated, length));
+		}
+
+		unregisterSampleListener(gpio, removed);
+		return true;
+	}
+
+	/**
+	 * Reads the pending edge events of all chips and notifies the edge listeners, called by the observing
+	 * {@link Thread}
+	 */
+	private void drainEvents() throws GpioException {
+		for (int chip = 0; chip < NR_OF_BANKS; chip++) {
+			int count;
+			do {
+				synchronized (getBankLock(chip)) {
+					GpioLineRequest request = this.requests[chip];
+					if (request == null)
+						break;
+					try {
+						count = request.readEvents(this.eventOffsets, this.eventTimestamps, this.eventRising,
+								EVENT_BATCH);
+					} catch (IOException e) {
+						throw new GpioException("Failed to read edge events of gpiochip" + chip, e);
+					}
+					for (int i = 0; i < count; i++) {
+						this.eventGpios[i] = this.lines[chip * 32 + this.eventOffsets[i]];
+					}
+				}
+
+				for (int i = 0; i < count; i++) {
+					Gpio gpio = this.eventGpios[i];
+					this.eventGpios[i] = null;
+					if (gpio == null)
+						continue;
+					EdgeListener[] listeners = this.edgeListeners.get(gpio.getPin().getGpioNr());
+					if (listeners == null)
+						continue;
+
+					Signal signal = this.eventRising[i] ? Signal.HIGH : Signal.LOW;
+					for (EdgeListener edgeListener : listeners) {
+						try {
+							edgeListener.listener.onSample(gpio, signal, this.eventTimestamps[i]);
+						} catch (RuntimeException e) {
+							GpioLog.log(LogLevel.ERROR, "Failed to update edge listener " + edgeListener.listener, e);
+						}
+					}
+				}
+			} while (count == EVENT_BATCH);
+		}
+	}
+
+	/**
+	 * The registration of an edge listener as {@link GpioSampleListener} of the bridge, which keeps the {@link Gpio}
+	 * observed, but ignores the read {@link Signal}s, as the edges are notified from the kernel's events instead
+	 */
+	private static class EdgeListener implements GpioSampleListener {
+		private final GpioSampleListener listener;
+
+		EdgeListener(GpioSampleListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void onSample(Gpio gpio, Signal signal, long timestamp) {
+			// the edges are notified from the kernel's events
+		}
+	}
+
+	/**
+	 * The {@link GpioEdgeWatcher} of a {@link CdevGpioBridge}, which configures the edges on the line requests and
+	 * waits for the kernel's edge events
+	 */
+	private static class CdevEdgeWatcher implements GpioEdgeWatcher {
+
+		private final GpioCdev cdev;
+		private CdevGpioBridge bridge;
+
+		CdevEdgeWatcher(GpioCdev cdev) {
+			this.cdev = cdev;
+		}
+
+		@Override
+		public boolean isInterruptDriven() {
+			return true;
+		}
+
+		@Override
+		public void watch(Gpio gpio, Edge edge) throws GpioException {
+			this.bridge.setEdge(gpio, edge);
+		}
+
+		@Override
+		public void unwatch(Gpio gpio) {
+			try {
+				this.bridge.setEdge(gpio, Edge.NONE);
+			} catch (GpioException e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to stop edge events of GPIO " + gpio, e);
+			}
+		}
+
+		@Override
+		public boolean await(long timeout, TimeUnit unit) throws InterruptedException, GpioException {
+			boolean pending;
+			try {
+				pending = this.cdev.awaitEvents(timeout, unit);
+			} catch (IOException e) {
+				throw new GpioException("Failed to wait for edge events", e);
+			}
+			if (pending)
+				this.bridge.drainEvents();
+			return pending;
+		}
+
+		@Override
+		public void wakeup() {
+			this.cdev.wakeup();
+		}
+
+		@Override
+		public void close() {
+			// the line requests are closed with the Gpios
+		}
+	}
+}
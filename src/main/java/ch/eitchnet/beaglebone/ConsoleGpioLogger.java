@@ -0,0 +1,74 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.PrintStream;
+
+/**
+ * <p>
+ * A {@link GpioLogger} which prints the messages from a threshold {@link LogLevel} on to a {@link PrintStream},
+ * {@link System#out} by default
+ * </p>
+ * 
+ * <p>
+ * Printing is synchronous, thus on a board whose console is a slow serial line this logger should be wrapped in an
+ * {@link AsyncGpioLogger}, or only be used with a threshold which keeps the read and write paths quiet
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class ConsoleGpioLogger implements GpioLogger {
+
+	private final PrintStream out;
+	private volatile LogLevel threshold;
+
+	/**
+	 * Constructs a new {@link ConsoleGpioLogger} printing to {@link System#out}
+	 * 
+	 * @param threshold
+	 *            the least severe {@link LogLevel} which is printed
+	 */
+	public ConsoleGpioLogger(LogLevel threshold) {
+		this(System.out, threshold);
+	}
+
+	/**
+	 * Constructs a new {@link ConsoleGpioLogger}
+	 * 
+	 * @param out
+	 *            the {@link PrintStream} to print to
+	 * @param threshold
+	 *            the least severe {@link LogLevel} which is printed
+	 */
+	public ConsoleGpioLogger(PrintStream out, LogLevel threshold) {
+		this.out = out;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return the least severe {@link LogLevel} which is printed
+	 */
+	public LogLevel getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * @param threshold
+	 *            the least severe {@link LogLevel} which is printed
+	 */
+	public void setThreshold(LogLevel threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	public boolean isEnabled(LogLevel level) {
+		return level.isEnabled(this.threshold);
+	}
+
+	@Override
+	public void log(LogLevel level, String message, Throwable t) {
+		synchronized (this.out) {
+			this.out.println(level + " " + message);
+			if (t != null)
+				t.printStackTrace(this.out);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Defines how the {@link Signal} of an input {@link Gpio} is debounced, so that a bouncing contact, e.g. of a button,
+ * does not lead to a burst of notifications. Set the {@link Debounce} of a {@link Gpio} by calling
+ * {@link GpioBridge#setDebounce(Gpio, Debounce)}
+ * </p>
+ * 
+ * <p>
+ * Two filters are supported:
+ * </p>
+ * <ul>
+ * <li>{@link #stableTime(long, TimeUnit)}: a new {@link Signal} is only accepted once it was read for at least the
+ * given time without reading the previous {@link Signal} in between. The added latency is the stable time plus at
+ * most one sample interval</li>
+ * <li>{@link #integrator(int)}: an integrator counts up for every {@link Signal#HIGH} read and down for every
+ * {@link Signal#LOW} read, and the {@link Signal} only changes when the counter reaches its bounds. The added latency
+ * is the given number of samples</li>
+ * </ul>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public final class Debounce {
+
+	private final long stableTime;
+	private final int samples;
+
+	private Debounce(long stableTime, int samples) {
+		this.stableTime = stableTime;
+		this.samples = samples;
+	}
+
+	/**
+	 * Returns a {@link Debounce} which only accepts a new {@link Signal} once it was stable for the given time
+	 * 
+	 * @param time
+	 *            the time for which a new {@link Signal} must be stable, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the time
+	 * 
+	 * @return the {@link Debounce}
+	 */
+	public static Debounce stableTime(long time, TimeUnit unit) {
+		if (time <= 0)
+			throw new IllegalArgumentException("The stable time must be greater than 0, but was " + time);
+		return new Debounce(unit.toNanos(time), 0);
+	}
+
+	/**
+	 * Returns a {@link Debounce} which integrates the read {@link Signal}s, and only accepts a new {@link Signal} once
+	 * the integrator reached its bound
+	 * 
+	 * @param samples
+	 *            the number of consecutive reads of a new {@link Signal} after which it is accepted, must be greater
+	 *            than 0
+	 * 
+	 * @return the {@link Debounce}
+	 */
+	public static Debounce integrator(int samples) {
+		if (samples <= 0)
+			throw new IllegalArgumentException("The number of samples must be greater than 0, but was " + samples);
+		return new Debounce(0L, samples);
+	}
+
+	/**
+	 * @param unit
+	 *            the {@link TimeUnit} in which to return the stable time
+	 * 
+	 * @return the time for which a new {@link Signal} must be stable, or 0 if this is an integrator
+	 */
+	public long getStableTime(TimeUnit unit) {
+		return unit.convert(this.stableTime, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return the number of samples of the integrator, or 0 if this {@link Debounce} uses a stable time
+	 */
+	public int getSamples() {
+		return this.samples;
+	}
+
+	/**
+	 * @return true if this {@link Debounce} is an integrator, false if it uses a stable time
+	 */
+	public boolean isIntegrator() {
+		return this.samples != 0;
+	}
+
+	@Override
+	public String toString() {
+		if (isIntegrator())
+			return "Debounce [samples=" + this.samples + "]";
+		return "Debounce [stableTime=" + this.stableTime + "ns]";
+	}
+}
@@ -0,0 +1,111 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The state of the {@link Debounce} of a single input {@link Gpio}. The state is only held in primitive fields, so
+ * that filtering a read {@link Signal} does not allocate
+ * </p>
+ * 
+ * <p>
+ * The filter is not thread safe, it is guarded by the lock of the bank of the {@link Gpio} to which it belongs
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class DebounceFilter {
+
+	private final Debounce debounce;
+	private final long stableTime;
+	private final int samples;
+
+	private int count;
+	private boolean pending;
+	private long since;
+
+	/**
+	 * Constructs a new {@link DebounceFilter}
+	 * 
+	 * @param debounce
+	 *            the {@link Debounce} configuration
+	 * @param signal
+	 *            the current {@link Signal} of the {@link Gpio}
+	 */
+	DebounceFilter(Debounce debounce, Signal signal) {
+		this.debounce = debounce;
+		this.stableTime = debounce.getStableTime(TimeUnit.NANOSECONDS);
+		this.samples = debounce.getSamples();
+		this.count = signal.isHigh() ? this.samples : 0;
+	}
+
+	/**
+	 * @return the {@link Debounce} configuration
+	 */
+	Debounce getDebounce() {
+		return this.debounce;
+	}
+
+	/**
+	 * Filters the read {@link Signal}
+	 * 
+	 * @param current
+	 *            the current, debounced, {@link Signal} of the {@link Gpio}
+	 * @param sample
+	 *            the {@link Signal} which was read
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} at which the {@link Signal} was read
+	 * 
+	 * @return the debounced {@link Signal}
+	 */
+	Signal filter(Signal current, Signal sample, long timestamp) {
+
+		if (this.samples != 0) {
+			if (sample.isHigh()) {
+				if (this.count < this.samples)
+					this.count++;
+			} else if (this.count > 0) {
+				this.count--;
+			}
+
+			if (this.count == this.samples)
+				return Signal.HIGH;
+			if (this.count == 0)
+				return Signal.LOW;
+			return current;
+		}
+
+		if (sample == current) {
+			this.pending = false;
+			return current;
+		}
+
+		if (!this.pending) {
+			this.pending = true;
+			this.since = timestamp;
+			return current;
+		}
+
+		if (timestamp - this.since < this.stableTime)
+			return current;
+
+		this.pending = false;
+		return sample;
+	}
+
+	/**
+	 * Returns the time until a pending {@link Signal} will be accepted, if it is still read then. Only a
+	 * {@link Debounce#stableTime(long, TimeUnit)} filter can have a pending {@link Signal}
+	 * 
+	 * @param now
+	 *            the current {@link System#nanoTime()}
+	 * 
+	 * @return the nanoseconds until a pending {@link Signal} is accepted, or {@link Long#MAX_VALUE} if no
+	 *         {@link Signal} is pending
+	 */
+	long getRemaining(long now) {
+		if (!this.pending)
+			return Long.MAX_VALUE;
+		return Math.max(0L, this.since + this.stableTime - now);
+	}
+}
@@ -0,0 +1,83 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Defines the signal edge of an input {@link Gpio} on which the kernel raises an interrupt
+ * </p>
+ * 
+ * <p>
+ * The edge is written to the <code>edge</code> file of an exported pin, and is also used by the {@link GpioBridge} to
+ * decide which {@link Signal} changes are passed on to a registered {@link GpioSignalListener}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public enum Edge {
+	NONE("none"), RISING("rising"), FALLING("falling"), BOTH("both");
+
+	private String edge;
+
+	private Edge(String edge) {
+		this.edge = edge;
+	}
+
+	/**
+	 * @return the edge as written to the kernel's <code>edge</code> file
+	 */
+	public String getEdge() {
+		return this.edge;
+	}
+
+	/**
+	 * Returns true if a change to the given {@link Signal} is an edge of this type
+	 * 
+	 * @param newSignal
+	 *            the {@link Signal} to which a {@link Gpio} changed
+	 * 
+	 * @return true if the change to the given {@link Signal} is an edge of this type, false if not
+	 */
+	public boolean accepts(Signal newSignal) {
+		switch (this) {
+		case RISING:
+			return newSignal.isHigh();
+		case FALLING:
+			return !newSignal.isHigh();
+		case BOTH:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the {@link Edge} which accepts the edges of this and the given {@link Edge}
+	 * 
+	 * @param other
+	 *            the other {@link Edge}
+	 * 
+	 * @return the {@link Edge} which accepts the edges of both {@link Edge}s
+	 */
+	public Edge combine(Edge other) {
+		if (this == other || other == NONE)
+			return this;
+		if (this == NONE)
+			return other;
+		return BOTH;
+	}
+
+	/**
+	 * Parses the edge enum from the given value
+	 * 
+	 * @param edgeS
+	 *            the edge string to parse
+	 * 
+	 * @return the edge parsed from the given string
+	 */
+	public static Edge getEdge(String edgeS) {
+		for (Edge edge : values()) {
+			if (edge.edge.equals(edgeS))
+				return edge;
+		}
+		throw new IllegalArgumentException("No edge for value " + edgeS);
+	}
+}
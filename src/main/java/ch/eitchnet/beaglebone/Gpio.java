@@ -10,8 +10,10 @@ package ch.eitchnet.beaglebone;
  * </p>
  * 
  * <p>
- * The {@link Gpio}'s {@link Signal} is always updated by the {@link GpioBridge} when a new {@link Signal} is read or
- * written.
+ * The {@link Gpio}'s {@link Signal} is updated by the {@link GpioBridge} when a new {@link Signal} is written, or read
+ * and debounced by the observing {@link Thread}, which then notifies the listeners of the change. The public read
+ * methods of the {@link GpioBridge}, e.g. {@link GpioBridge#readValue(Gpio)}, do not update it. It is volatile, thus
+ * {@link #getSignal()} can be called by any {@link Thread} without locking
  * </p>
  * 
  * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
@@ -21,8 +23,12 @@ public class Gpio {
 	private final Pin pin;
 	private final String kernelName;
 	private final Direction direction;
-	private Signal signal;
-	private String label;
+	private volatile Signal signal;
+	private volatile String label;
+	// set before the Gpio is published by the GpioBridge
+	private GpioValueFile valueFile;
+	private volatile DebounceFilter debounceFilter;
+	private volatile OutputFilter outputFilter;
 
 	/**
 	 * Constructs a new {@link Gpio}
@@ -82,7 +88,9 @@ public class Gpio {
 	}
 
 	/**
-	 * @return the {@link Gpio}'s current {@link Signal}
+	 * @return the {@link Gpio}'s current {@link Signal}, i.e. the {@link Signal} last written, or last read by the
+	 *         observing {@link Thread} of the {@link GpioBridge}. Everything the {@link GpioBridge} did before updating
+	 *         the {@link Signal} happens-before the return of this method
 	 */
 	public Signal getSignal() {
 		return this.signal;
@@ -107,6 +115,104 @@ public class Gpio {
 		return this;
 	}
 
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * @return the open <code>value</code> file of this {@link Gpio}, or null if the {@link GpioBridge} does not use
+	 *         files
+	 */
+	GpioValueFile getValueFile() {
+		return this.valueFile;
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * <p>
+	 * Set the open <code>value</code> file of this {@link Gpio}
+	 * </p>
+	 * 
+	 * @param valueFile
+	 *            the open <code>value</code> file
+	 */
+	void setValueFile(GpioValueFile valueFile) {
+		this.valueFile = valueFile;
+	}
+
+	/**
+	 * @return the {@link Debounce} of this {@link Gpio}, or null if its {@link Signal} is not debounced
+	 */
+	public Debounce getDebounce() {
+		DebounceFilter filter = this.debounceFilter;
+		return filter == null ? null : filter.getDebounce();
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * @return the {@link DebounceFilter} of this {@link Gpio}, or null if its {@link Signal} is not debounced
+	 */
+	DebounceFilter getDebounceFilter() {
+		return this.debounceFilter;
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * <p>
+	 * Set the {@link DebounceFilter} of this {@link Gpio}
+	 * </p>
+	 * 
+	 * @param debounceFilter
+	 *            the {@link DebounceFilter}, or null to not debounce the {@link Signal}
+	 */
+	void setDebounceFilter(DebounceFilter debounceFilter) {
+		this.debounceFilter = debounceFilter;
+	}
+
+	/**
+	 * @return the {@link OutputMode} of this {@link Gpio}, {@link OutputMode#DIRECT} if none was set
+	 */
+	public OutputMode getOutputMode() {
+		OutputFilter filter = this.outputFilter;
+		return filter == null ? OutputMode.DIRECT : filter.getMode();
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * @return the {@link OutputFilter} of this {@link Gpio}, or null if every {@link Signal} is written directly
+	 */
+	OutputFilter getOutputFilter() {
+		return this.outputFilter;
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * <p>
+	 * Set the {@link OutputFilter} of this {@link Gpio}
+	 * </p>
+	 * 
+	 * @param outputFilter
+	 *            the {@link OutputFilter}, or null to write every {@link Signal} directly
+	 */
+	void setOutputFilter(OutputFilter outputFilter) {
+		this.outputFilter = outputFilter;
+	}
+
 	/**
 	 * @see Pin#toString()
 	 */
@@ -1,6 +1,37 @@
 package ch.eitchnet.beaglebone;
 
-public interface GpioBridge {
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public interface GpioBridge extends AutoCloseable {
+
+	/**
+	 * The system property with which the backend of the {@link GpioBridge} returned by {@link #getInstance()} is
+	 * selected, currently only <code>sysfs</code> (default) for the {@link GpioBridgeImpl}. The
+	 * {@link MappedGpioBridge} and the {@link CdevGpioBridge} can not be selected, as they need a native
+	 * {@link GpioRegisterMapper} or {@link GpioCdev}, with which they are retrieved by
+	 * {@link MappedGpioBridge#getInstance()} and {@link CdevGpioBridge#getInstance()}
+	 */
+	public static final String PROP_BACKEND = "ch.eitchnet.beaglebone.backend";
+
+	/**
+	 * Returns the {@link GpioBridge} instance of the backend selected by the system property {@link #PROP_BACKEND}
+	 *
+	 * @return the {@link GpioBridge} instance
+	 *
+	 * @throws GpioException
+	 *             if the backend is unknown or can not be initialized
+	 */
+	public static GpioBridge getInstance() throws GpioException {
+		String backend = System.getProperty(PROP_BACKEND, "sysfs");
+		switch (backend) {
+		case "sysfs":
+			return GpioBridgeImpl.getInstance();
+		default:
+			throw new GpioException("Unknown GPIO backend " + backend);
+		}
+	}
 
 	/**
 	 * <p>
@@ -20,7 +51,55 @@ public interface GpioBridge {
 
 	/**
 	 * <p>
-	 * Public API method to read the current {@link Signal} on the given {@link Gpio}'s pin.
+	 * Public API method to write the given {@link Signal}s on the given {@link Gpio}s' pins in one batch.
+	 * </p>
+	 *
+	 * <p>
+	 * The {@link Gpio}s are grouped by their GPIO bank, i.e. {@link Pin#getChip()}, and each bank is written in one
+	 * operation, see {@link #writeBank(int, int, int)}. All {@link Gpio}s are validated before anything is written.
+	 * </p>
+	 *
+	 * @param values
+	 *            the {@link Signal}s to write to the {@link Gpio}s
+	 *
+	 * @throws GpioException
+	 *             if the direction of any {@link Gpio} is not {@link Direction#OUT}, in which case nothing is written,
+	 *             or if something goes wrong while writing, in which case the exception's suppressed exceptions
+	 *             contain the failure of each {@link Gpio}
+	 */
+	void writeValues(Map<Gpio, Signal> values) throws GpioException;
+
+	/**
+	 * <p>
+	 * Public API method to write the {@link Gpio}s of a GPIO bank in one operation using bit masks. Bit <i>n</i> of a
+	 * mask is the {@link Gpio} with {@link Pin#getPin()} <i>n</i> on the given bank.
+	 * </p>
+	 *
+	 * <p>
+	 * On a register based backend the bank is written with a single store to each of the set and clear registers, so
+	 * that the edges of all {@link Gpio}s are simultaneous.
+	 * </p>
+	 *
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * @param setMask
+	 *            the bit mask of the {@link Gpio}s to set to {@link Signal#HIGH}
+	 * @param clearMask
+	 *            the bit mask of the {@link Gpio}s to set to {@link Signal#LOW}
+	 *
+	 * @throws GpioException
+	 *             if a bit is in both masks, or a bit's {@link Gpio} was not retrieved with {@link Direction#OUT}, in
+	 *             which case nothing is written, or if something goes wrong while writing, in which case the
+	 *             exception's suppressed exceptions contain the failure of each {@link Gpio}
+	 */
+	void writeBank(int chip, int setMask, int clearMask) throws GpioException;
+
+	/**
+	 * <p>
+	 * Public API method to read the current {@link Signal} on the given {@link Gpio}'s pin. The read has no side
+	 * effects: the raw level of the pin is returned, without passing it through the {@link Debounce} of the
+	 * {@link Gpio}, and the {@link Gpio#getSignal()} is not updated, so that the observing {@link Thread} still
+	 * notifies the listeners of any change.
 	 * </p>
 	 *
 	 * @param gpio
@@ -34,6 +113,68 @@ public interface GpioBridge {
 	 */
 	Signal readValue(Gpio gpio) throws GpioException;
 
+	/**
+	 * <p>
+	 * Public API method to read the {@link Gpio}s of a GPIO bank in one operation using a bit mask. Bit <i>n</i> of the
+	 * mask and of the returned levels is the {@link Gpio} with {@link Pin#getPin()} <i>n</i> on the given bank. The
+	 * read has no side effects, the {@link Gpio#getSignal()} of the read {@link Gpio}s is not updated, so that the
+	 * observing {@link Thread} still notifies the listeners of any change.
+	 * </p>
+	 *
+	 * <p>
+	 * On a register based backend the bank is read with a single load.
+	 * </p>
+	 *
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s to read
+	 *
+	 * @return the bit set of the read {@link Signal}s, a set bit is {@link Signal#HIGH}
+	 *
+	 * @throws GpioException
+	 *             if a bit's {@link Gpio} was not retrieved with {@link Direction#IN}, or if something goes wrong while
+	 *             reading, in which case the exception's suppressed exceptions contain the failure of each {@link Gpio}
+	 */
+	int readBank(int chip, int mask) throws GpioException;
+
+	/**
+	 * <p>
+	 * Public API method to read the current {@link Signal}s of all input {@link Gpio}s retrieved from this
+	 * {@link GpioBridge} in a single pass into a new {@link GpioSnapshot}.
+	 * </p>
+	 *
+	 * @return the {@link GpioSnapshot} with the current {@link Signal}s
+	 *
+	 * @throws GpioException
+	 *             if something goes wrong while reading
+	 *
+	 * @see #readAll(GpioSnapshot)
+	 */
+	GpioSnapshot readAll() throws GpioException;
+
+	/**
+	 * <p>
+	 * Public API method to read the current {@link Signal}s of all input {@link Gpio}s retrieved from this
+	 * {@link GpioBridge} in a single pass into the given {@link GpioSnapshot}, which allows to reuse the snapshot for
+	 * every read. The read has no side effects: the {@link Gpio#getSignal()} of the read {@link Gpio}s is not updated,
+	 * and the changes of the snapshot are the {@link Gpio}s whose read level differs from their
+	 * {@link Gpio#getSignal()}.
+	 * </p>
+	 *
+	 * <p>
+	 * On a register based backend each bank is read with a single load.
+	 * </p>
+	 *
+	 * @param snapshot
+	 *            the {@link GpioSnapshot} to read into
+	 *
+	 * @throws GpioException
+	 *             if something goes wrong while reading, in which case the exception's suppressed exceptions contain
+	 *             the failure of each {@link Gpio}
+	 */
+	void readAll(GpioSnapshot snapshot) throws GpioException;
+
 	/**
 	 * Starts the {@link GpioBridge}'s signal observing {@link Thread}. If no observers are registered with the
 	 * {@link #register(Gpio, GpioSignalListener)}-method, then this method needs not to be called.
@@ -45,6 +186,108 @@ public interface GpioBridge {
 	 */
 	void stop();
 
+	/**
+	 * <p>
+	 * Configures the {@link Executor} on which the {@link GpioSignalListener}s are notified, so that the observing
+	 * {@link Thread} is not delayed by slow listeners. On newer JDKs this can be an executor of virtual threads.
+	 * </p>
+	 *
+	 * <p>
+	 * The listeners of a {@link Gpio} are notified in the order of the changes, while the listeners of different
+	 * {@link Gpio}s are notified concurrently. Each {@link Gpio} has a queue of at most the given capacity of pending
+	 * changes, and if the queue is full, the given {@link OverflowPolicy} is applied.
+	 * </p>
+	 *
+	 * @param executor
+	 *            the {@link Executor} on which to notify the listeners, or null to notify them on the observing
+	 *            {@link Thread}, which is the default
+	 * @param capacity
+	 *            the maximum number of pending changes per {@link Gpio}
+	 * @param policy
+	 *            the {@link OverflowPolicy} applied when the queue of a {@link Gpio} is full
+	 */
+	void setDispatchExecutor(Executor executor, int capacity, OverflowPolicy policy);
+
+	/**
+	 * <p>
+	 * Returns a snapshot of the metrics of this {@link GpioBridge}: the per {@link Pin} counters of reads, writes,
+	 * edges and failures, the durations of the passes of the observing {@link Thread}, the latency of notifying the
+	 * listeners, and the depths of the dispatch queues
+	 * </p>
+	 *
+	 * <p>
+	 * The metrics are always recorded, with striped counters, so that recording does not add contention to the
+	 * measured paths
+	 * </p>
+	 *
+	 * @return an immutable snapshot of the {@link GpioMetrics}
+	 */
+	GpioMetrics getMetrics();
+
+	/**
+	 * Resets all counters and histograms of the {@link GpioMetrics}
+	 */
+	void resetMetrics();
+
+	/**
+	 * <p>
+	 * Sets the {@link Debounce} of the given input {@link Gpio}, after which its {@link Signal} only changes, and its
+	 * listeners are only notified, once a new {@link Signal} was read consistently according to the {@link Debounce}.
+	 * The public read methods, e.g. {@link #readValue(Gpio)}, return the raw levels
+	 * </p>
+	 *
+	 * @param gpio
+	 *            the input {@link Gpio} to debounce
+	 * @param debounce
+	 *            the {@link Debounce}, or null to stop debouncing the {@link Gpio}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}
+	 */
+	void setDebounce(Gpio gpio, Debounce debounce) throws GpioException;
+
+	/**
+	 * <p>
+	 * Sets the {@link OutputMode} of the given output {@link Gpio}, with which {@link #writeValue(Gpio, Signal)} elides
+	 * redundant writes, coalesces writes within a window, or reads back the written {@link Signal}. A pending
+	 * {@link Signal} of the previous {@link OutputMode} is written first
+	 * </p>
+	 *
+	 * <p>
+	 * Writes with {@link #writeValues(Map)} and {@link #writeBank(int, int, int)} are always done immediately, drop a
+	 * pending {@link Signal} of the written {@link Gpio}s, and start their windows, so that a following
+	 * {@link #writeValue(Gpio, Signal)} is elided or coalesced as after any other write
+	 * </p>
+	 *
+	 * @param gpio
+	 *            the output {@link Gpio}
+	 * @param mode
+	 *            the {@link OutputMode}, or null for {@link OutputMode#DIRECT}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#OUT}, or writing the pending
+	 *             {@link Signal} fails
+	 */
+	void setOutputMode(Gpio gpio, OutputMode mode) throws GpioException;
+
+	/**
+	 * Writes the pending {@link Signal}s of all {@link Gpio}s whose writes are coalesced by their {@link OutputMode}
+	 * now, instead of at the end of their windows
+	 *
+	 * @throws GpioException
+	 *             if something goes wrong while writing, in which case the exception's suppressed exceptions contain
+	 *             the failure of each {@link Gpio}
+	 */
+	void flush() throws GpioException;
+
+	/**
+	 * Stops observing any pins and releases all resources held for the {@link Gpio}s, e.g. open files. After closing,
+	 * any previously returned {@link Gpio} must not be used anymore, but must be retrieved again by calling
+	 * {@link #getGpio(Pin, Direction)}
+	 */
+	@Override
+	void close();
+
 	/**
 	 * <p>
 	 * Returns the {@link Gpio} for the given {@link Direction}.
@@ -70,6 +313,52 @@ public interface GpioBridge {
 	 */
 	Gpio getGpio(Pin pin, Direction direction) throws GpioException;
 
+	/**
+	 * Opens the given {@link Pin}s with their {@link Direction}s in parallel, waiting at most 5s for each {@link Pin}
+	 * to be exported and accessible
+	 *
+	 * @param pins
+	 *            the {@link Pin}s to open with their {@link Direction}s
+	 *
+	 * @return the {@link Gpio}s of the given {@link Pin}s
+	 *
+	 * @throws GpioException
+	 *             if any {@link Pin} can not be opened, in which case none is opened, the suppressed exceptions
+	 *             contain the failure of each {@link Pin}
+	 *
+	 * @see #openPins(Map, long, TimeUnit)
+	 */
+	Map<Pin, Gpio> openPins(Map<Pin, Direction> pins) throws GpioException;
+
+	/**
+	 * <p>
+	 * Opens the given {@link Pin}s with their {@link Direction}s in parallel, and returns their {@link Gpio}s. Where
+	 * the backend supports it, each {@link Pin} is exported to user space if needed, the permission changes applied by
+	 * udev after the export are waited for, and the {@link Direction} is set, thus no export script needs to be run
+	 * before. The time to open all {@link Pin}s is thus about the time of the slowest {@link Pin}, instead of the sum
+	 * </p>
+	 *
+	 * <p>
+	 * {@link Pin}s which were already retrieved are returned from the cache and stay open. If any {@link Pin} fails, or
+	 * the calling {@link Thread} is interrupted, the {@link Pin}s opened by this call are closed again, so that none
+	 * is leaked
+	 * </p>
+	 *
+	 * @param pins
+	 *            the {@link Pin}s to open with their {@link Direction}s
+	 * @param timeout
+	 *            the maximum time to wait for a {@link Pin} to be exported and accessible
+	 * @param unit
+	 *            the {@link TimeUnit} of the timeout
+	 *
+	 * @return the {@link Gpio}s of the given {@link Pin}s
+	 *
+	 * @throws GpioException
+	 *             if any {@link Pin} can not be opened, in which case none is opened, the suppressed exceptions
+	 *             contain the failure of each {@link Pin}
+	 */
+	Map<Pin, Gpio> openPins(Map<Pin, Direction> pins, long timeout, TimeUnit unit) throws GpioException;
+
 	/**
 	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}
 	 *
@@ -83,6 +372,133 @@ public interface GpioBridge {
 	 */
 	void register(Gpio gpio, GpioSignalListener listener) throws GpioException;
 
+	/**
+	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param listener
+	 *            the {@link GpioSignalListener} to be notified on changes on the {@link Gpio}'s {@link Signal}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	void register(Gpio gpio, Edge edge, GpioSignalListener listener) throws GpioException;
+
+	/**
+	 * Registers the given {@link GpioEventListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param listener
+	 *            the {@link GpioEventListener} to be notified of {@link GpioEvent}s of the {@link Gpio}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	void registerEventListener(Gpio gpio, Edge edge, GpioEventListener listener) throws GpioException;
+
+	/**
+	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}, and reads the {@link Gpio} at least at the given sample period. A {@link Gpio}
+	 * is read at the shortest sample period of its listeners, listeners registered without a sample period use the
+	 * poll interval
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio} is read, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 * @param listener
+	 *            the {@link GpioSignalListener} to be notified on changes of the {@link Gpio}'s {@link Signal}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	void register(Gpio gpio, Edge edge, long samplePeriod, TimeUnit unit, GpioSignalListener listener)
+			throws GpioException;
+
+	/**
+	 * Registers the given {@link GpioEventListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}, and reads the {@link Gpio} at least at the given sample period
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio} is read, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 * @param listener
+	 *            the {@link GpioEventListener} to be notified of {@link GpioEvent}s of the {@link Gpio}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	void registerEventListener(Gpio gpio, Edge edge, long samplePeriod, TimeUnit unit, GpioEventListener listener)
+			throws GpioException;
+
+	/**
+	 * Registers the given {@link GpioSampleListener} for changes to {@link Signal}s on the given {@link Gpio}, which
+	 * are of the given {@link Edge}, and reads the {@link Gpio} at least at the given sample period. The listener is
+	 * called inline on the observing {@link Thread}
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} being observed
+	 * @param edge
+	 *            the {@link Edge} for which the listener is to be notified, must not be {@link Edge#NONE}
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio} is read, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 * @param listener
+	 *            the {@link GpioSampleListener} to be called on changes of the {@link Gpio}'s {@link Signal}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}, the edge is
+	 *             {@link Edge#NONE}, or if the kernel's <code>edge</code> file can not be configured
+	 */
+	void registerSampleListener(Gpio gpio, Edge edge, long samplePeriod, TimeUnit unit, GpioSampleListener listener)
+			throws GpioException;
+
+	/**
+	 * Unregisters a {@link GpioSampleListener} from changes to the given {@link Gpio}
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the {@link GpioSampleListener} to be removed from changes to the given {@link Gpio}
+	 *
+	 * @return true if the listener was unregistered, false if not
+	 */
+	boolean unregisterSampleListener(Gpio gpio, GpioSampleListener listener);
+
+	/**
+	 * Unregisters a {@link GpioEventListener} from changes to the given {@link Gpio}
+	 *
+	 * @param gpio
+	 *            the {@link Gpio} for which the listener is to be removed
+	 * @param listener
+	 *            the {@link GpioEventListener} to be removed from changes to the given {@link Gpio}
+	 *
+	 * @return true if the listener was unregistered, false if not
+	 */
+	boolean unregisterEventListener(Gpio gpio, GpioEventListener listener);
+
 	/**
 	 * Unregisters a {@link GpioSignalListener} from changes to the given {@link Gpio}
 	 *
@@ -93,5 +509,5 @@ public interface GpioBridge {
 	 *
 	 * @return true if the listener was unregistered, false if not
 	 */
-	boolean unregister(GpioBridgeTest gpio, GpioSignalListener listener);
+	boolean unregister(Gpio gpio, GpioSignalListener listener);
 }
@@ -1,11 +1,11 @@
 package ch.eitchnet.beaglebone;
 
 import java.io.*;
-import java.util.*;
 
 /**
  * <p>
- * Main object to give access to GPIO ports on a Linux kernel
+ * Main object to give access to GPIO ports on a Linux kernel using the sysfs interface in
+ * <code>/sys/class/gpio/</code>
  * </p>
  * 
  * <p>
@@ -17,21 +17,31 @@ import java.util.*;
  * {@link Gpio} objects are cached and their {@link Signal} is set by the {@link GpioBridge} accordingly
  * </p>
  * 
+ * <p>
+ * Observed input pins are read by the observing {@link Thread} each time the configured {@link GpioEdgeWatcher}
+ * returns, i.e. on an edge for an interrupt driven watcher, or else after the poll interval
+ * </p>
+ * 
  * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
  */
-public class GpioBridgeImpl implements GpioBridge {
+public class GpioBridgeImpl extends AbstractGpioBridge {
 
 	private static final String GPIO_PATH = "/sys/class/gpio/";
 
-	private Map<Pin, Gpio> cache;
-	private Map<Gpio, List<GpioSignalListener>> listeners;
-	private Thread thread;
-	private volatile boolean run;
+	/**
+	 * The system property with which the GPIO path of the instance returned by {@link #getInstance()} is configured,
+	 * e.g. to run an application against the <code>SimulatedGpioChip</code> of the test-jar. The default is
+	 * <code>/sys/class/gpio/</code>
+	 */
+	public static final String PROP_GPIO_PATH = "ch.eitchnet.beaglebone.gpioPath";
+
+	private final File gpioPath;
 
 	private static final GpioBridge instance;
 
 	static {
-		instance = new GpioBridgeImpl();
+		instance = new GpioBridgeImpl(new File(System.getProperty(PROP_GPIO_PATH, GPIO_PATH)),
+				new PollingEdgeWatcher());
 	}
 
 	/**
@@ -42,11 +52,18 @@ public class GpioBridgeImpl implements GpioBridge {
 	}
 
 	/**
-	 * Private constructor for singleton construction
+	 * Constructs a new {@link GpioBridgeImpl}. Usually the singleton returned by {@link #getInstance()} is used, this
+	 * constructor allows to use a different GPIO path, e.g. a simulated sysfs tree, or an interrupt driven
+	 * {@link GpioEdgeWatcher}
+	 * 
+	 * @param gpioPath
+	 *            the path to the kernel's GPIO directory, usually <code>/sys/class/gpio/</code>
+	 * @param edgeWatcher
+	 *            the {@link GpioEdgeWatcher} with which the observing {@link Thread} waits for edges
 	 */
-	private GpioBridgeImpl() {
-		this.cache = new HashMap<>();
-		this.listeners = Collections.synchronizedMap(new HashMap<>());
+	public GpioBridgeImpl(File gpioPath, GpioEdgeWatcher edgeWatcher) {
+		super(edgeWatcher);
+		this.gpioPath = gpioPath;
 	}
 
 	/**
@@ -58,7 +75,7 @@ public class GpioBridgeImpl implements GpioBridge {
 	 * @return the Path to the {@link Gpio}'s value
 	 */
 	private File getGpioValuePath(Gpio gpio) {
-		return new File(GPIO_PATH, gpio.getKernelName() + "/value");
+		return new File(this.gpioPath, gpio.getKernelName() + "/value");
 	}
 
 	/**
@@ -70,215 +87,111 @@ public class GpioBridgeImpl implements GpioBridge {
 	 * @return the Path to the {@link Gpio}'s direction
 	 */
 	private File getGpioDirectionPath(Gpio gpio) {
-		return new File(GPIO_PATH, gpio.getKernelName() + "/direction");
+		return new File(this.gpioPath, gpio.getKernelName() + "/direction");
 	}
 
 	/**
-	 * <p>
-	 * Public API method to write the given {@link Signal} on the given {@link Gpio}'s pin.
-	 * </p>
+	 * Returns the kernel file path to the edge of the {@link Gpio}
 	 * 
 	 * @param gpio
-	 *            the {@link Gpio} to which the {@link Signal} should be written
-	 * @param signal
-	 *            the {@link Signal} to write to the given {@link Gpio}
+	 *            the {@link Gpio} for which the path is to be returned
 	 * 
-	 * @throws GpioException
-	 *             if the direction of the {@link Gpio} is not {@link Direction#OUT}, or if something goes wrong while
-	 *             writing to the file
+	 * @return the Path to the {@link Gpio}'s edge
 	 */
-	@Override
-	public void writeValue(Gpio gpio, Signal signal) throws GpioException {
-
-		synchronized (gpio) {
-			if (gpio.getDirection() != Direction.OUT)
-				throw new GpioException("For writing the direction must be " + Direction.OUT);
-
-			File file = getGpioValuePath(gpio);
-			try (FileOutputStream out = new FileOutputStream(file)) {
-
-				out.write(signal.getValueS().getBytes());
-				out.flush();
-
-				gpio.setSignal(signal);
-
-			} catch (Exception e) {
-				throw new GpioException("Failed to write GPIO " + gpio + " with signal " + signal, e);
-			}
-
-			System.out.println("Set GPIO " + gpio.getPin() + " signal to " + gpio.getSignal());
-		}
+	private File getGpioEdgePath(Gpio gpio) {
+		return new File(this.gpioPath, gpio.getKernelName() + "/edge");
 	}
 
 	/**
-	 * <p>
-	 * Public API method to read the current {@link Signal} on the given {@link Gpio}'s pin.
-	 * </p>
-	 * 
-	 * @param gpio
-	 *            the {@link Gpio} for which the {@link Signal} should be read
-	 * 
-	 * @return The {@link Gpio}'s current signal
-	 * 
-	 * @throws GpioException
-	 *             if the direction of the {@link Gpio} is not {@link Direction#IN}, or if something goes wrong while
-	 *             reading from the file
+	 * Exports the {@link Pin} of the given {@link Gpio} to user space by writing its number to the kernel's
+	 * <code>export</code> file, if it is not yet exported, waits for the kernel to create its files and for udev to
+	 * change their permissions, and then sets its {@link Direction} if it differs
 	 */
 	@Override
-	public Signal readValue(Gpio gpio) throws GpioException {
-
-		synchronized (gpio) {
-
-			if (gpio.getDirection() != Direction.IN)
-				throw new GpioException("For reading the direction must be " + Direction.IN);
-
-			File file = getGpioValuePath(gpio);
-			try (BufferedReader fin = new BufferedReader(new FileReader(file))) {
+	protected void prepareGpio(Gpio gpio, long timeout) throws GpioException {
+		long deadline = System.nanoTime() + timeout;
+		Pin pin = gpio.getPin();
 
-				String valueS = fin.readLine();
-				Signal signal = Signal.getSignal(valueS);
-				if (!gpio.getSignal().equals(signal))
-					gpio.setSignal(signal);
+		File gpioDir = new File(this.gpioPath, gpio.getKernelName());
+		if (!gpioDir.isDirectory()) {
+			try (FileOutputStream out = new FileOutputStream(new File(this.gpioPath, "export"))) {
+				out.write(Integer.toString(pin.getGpioNr()).getBytes());
+				out.flush();
+			} catch (IOException e) {
+				throw new GpioException("Failed to export GPIO " + pin + ", is the export file writable?", e);
+			}
+		}
 
-				return signal;
+		File directionFile = getGpioDirectionPath(gpio);
+		awaitAccess(gpio, directionFile, false, deadline);
+		Direction direction;
+		try (BufferedReader fin = new BufferedReader(new FileReader(directionFile))) {
+			direction = Direction.getDirection(fin.readLine());
+		} catch (IOException e) {
+			throw new GpioException("Failed to read direction of GPIO " + pin, e);
+		}
 
-			} catch (Exception e) {
-				throw new GpioException("Failed to read GPIO " + gpio, e);
+		if (direction != gpio.getDirection()) {
+			awaitAccess(gpio, directionFile, true, deadline);
+			try (FileOutputStream out = new FileOutputStream(directionFile)) {
+				out.write(gpio.getDirection().getDirection().getBytes());
+				out.flush();
+			} catch (IOException e) {
+				throw new GpioException("Failed to write GPIO " + pin + " with direction " + gpio.getDirection(), e);
 			}
 		}
+
+		awaitAccess(gpio, getGpioValuePath(gpio), gpio.getDirection() == Direction.OUT, deadline);
 	}
 
 	/**
-	 * Starts the {@link GpioBridge}'s signal observing {@link Thread}. If no observers are registered with the
-	 * {@link #register(Gpio, GpioSignalListener)}-method, then this method needs not to be called.
+	 * Waits until the given file exists and is readable, or writable, which after exporting a {@link Pin} is only the
+	 * case once the kernel created the file and udev changed its permissions
 	 */
-	@Override
-	public void start() {
-
-		this.run = true;
-		this.thread = new Thread(() -> {
-			while (this.run) {
-				if (this.listeners.isEmpty()) {
-					synchronized (this) {
-						try {
-							wait(1000l);
-						} catch (InterruptedException e) {
-							System.out.println("Was interrupted. Stopping thread.");
-							this.run = false;
-							break;
-						}
-					}
-				} else {
-
-					List<Gpio> changes = new ArrayList<>();
-
-					synchronized (this.listeners) {
-						for (Gpio gpio : this.listeners.keySet()) {
-							try {
-								synchronized (gpio) {
-									Signal currentSignal = gpio.getSignal();
-									Signal newSignal = readValue(gpio);
-									if (currentSignal != newSignal)
-										changes.add(gpio);
-								}
-							} catch (Exception e) {
-								System.out.println("Failed to read GPIO " + gpio + " due to:");
-								e.printStackTrace();
-								this.run = false;
-								break;
-							}
-						}
-					}
-
-					if (!changes.isEmpty())
-						System.out.println("Found " + changes.size() + " GPIO changes.");
-
-					for (Gpio gpio : changes) {
-						synchronized (this.listeners) {
-							List<GpioSignalListener> listeners = this.listeners.get(gpio);
-							System.out.println("GPIO " + gpio.getPin() + " changed to " + gpio.getSignal()
-									+ ". Notifying " + listeners.size() + " listeners.");
-
-							for (GpioSignalListener listener : listeners) {
-								try {
-									listener.notify(gpio);
-								} catch (Exception e) {
-									System.out.println("Failed to update listener " + listener + " due to:");
-									e.printStackTrace();
-								}
-							}
-						}
-					}
-
-					try {
-						Thread.sleep(200l);
-					} catch (InterruptedException e) {
-						System.out.println("Was interrupted. Stopping thread.");
-						this.run = false;
-						break;
-					}
-				}
+	private static void awaitAccess(Gpio gpio, File file, boolean write, long deadline) throws GpioException {
+		while (!(write ? file.canWrite() : file.canRead())) {
+			if (System.nanoTime() - deadline > 0L)
+				throw new GpioException("GPIO " + gpio.getPin() + " did not become " + (write ? "writable" : "readable")
+						+ " in time: " + file);
+			try {
+				Thread.sleep(5L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new GpioException("Interrupted while waiting for GPIO " + gpio.getPin(), e);
 			}
-		}, "gpio_reader");
-		this.thread.start();
-		System.out.println("Started GPIO bridge.");
+		}
 	}
 
-	/**
-	 * Stops observing any pins and stops the {@link Thread}
-	 */
 	@Override
-	public void stop() {
-		this.run = false;
-		this.thread.interrupt();
+	protected void openGpio(Gpio gpio) throws GpioException {
+
+		// validate direction
+		assertDirection(gpio);
+
+		// validate file permissions
+		validateFilePermissions(gpio);
+
+		// keep the value file open for fast access
 		try {
-			this.thread.join(5000l);
-		} catch (InterruptedException e) {
-			System.out.println("Was interrupted while waiting for thread to stop?!");
+			gpio.setValueFile(new GpioValueFile(getGpioValuePath(gpio), gpio.getDirection()));
+		} catch (IOException e) {
+			throw new GpioException("Failed to open value file of GPIO " + gpio.getPin(), e);
 		}
 	}
 
-	/**
-	 * <p>
-	 * Returns the {@link Gpio} for the given {@link Direction}.
-	 * </p>
-	 * 
-	 * <p>
-	 * <b>Note:</b> This method can not be called multiple times with different {@link Direction}s. The
-	 * {@link GpioBridge} does not handle pins that are simultaneously input and output as this is not supported by the
-	 * Linux kernel.
-	 * </p>
-	 * 
-	 * @param pin
-	 *            The {@link Pin} for which the {@link Gpio} in the given {@link Direction} is to be returned
-	 * @param direction
-	 *            the {@link Direction} for which this {@link Gpio} is to be returned
-	 * 
-	 * @return The {@link Gpio} with the configured {@link Direction}
-	 * 
-	 * @throws GpioException
-	 *             If the given {@link Direction} does not match the kernel's configured direction, or if the file
-	 *             permissions are not set so that the Java process can access the file (read access for input pin,
-	 *             write access for output pin.
-	 */
 	@Override
-	public synchronized Gpio getGpio(Pin pin, Direction direction) throws GpioException {
-		Gpio gpio = this.cache.get(pin);
-		if (gpio == null) {
-
-			gpio = new Gpio(pin, direction);
-
-			// validate direction
-			assertDirection(gpio);
-
-			// validate file permissions
-			validateFilePermissions(gpio);
+	protected void closeGpio(Gpio gpio) throws IOException {
+		gpio.getValueFile().close();
+	}
 
-			this.cache.put(pin, gpio);
-			System.out.println("Initialized pin " + pin + " with direction " + direction + ".");
-		}
+	@Override
+	protected Signal doRead(Gpio gpio) throws IOException {
+		return gpio.getValueFile().read();
+	}
 
-		return gpio;
+	@Override
+	protected void doWrite(Gpio gpio, Signal signal) throws IOException {
+		gpio.getValueFile().write(signal);
 	}
 
 	/**
@@ -338,61 +251,32 @@ public class GpioBridgeImpl implements GpioBridge {
 	}
 
 	/**
-	 * Registers the given {@link GpioSignalListener} for changes to {@link Signal}s on the given {@link Gpio}
+	 * Configures the {@link Edge} on which the kernel raises an interrupt for the given {@link Gpio}, if the
+	 * {@link GpioEdgeWatcher} is interrupt driven, and then adds the {@link Gpio} to the watched {@link Gpio}s
 	 * 
 	 * @param gpio
-	 *            the {@link Gpio} being observed
-	 * @param listener
-	 *            the {@link GpioSignalListener} to be notified on changes on the {@link Gpio}'s {@link Signal}
+	 *            the {@link Gpio} for which to configure the {@link Edge}
+	 * @param edge
+	 *            the {@link Edge} to configure
 	 * 
 	 * @throws GpioException
-	 *             if the {@link Direction} of the {@link Gpio} is not {@link Direction#IN}
+	 *             if the <code>edge</code> file can not be written
 	 */
 	@Override
-	public void register(Gpio gpio, GpioSignalListener listener) throws GpioException {
-
-		if (gpio.getDirection() != Direction.IN)
-			throw new GpioException("For reading the direction must be " + Direction.IN);
-
-		synchronized (this.listeners) {
-			List<GpioSignalListener> listeners = this.listeners.get(gpio);
-			if (listeners == null) {
-				listeners = new ArrayList<>();
-				this.listeners.put(gpio, listeners);
+	protected void configureEdge(Gpio gpio, Edge edge) throws GpioException {
+		if (getEdgeWatcher().isInterruptDriven()) {
+			File file = getGpioEdgePath(gpio);
+			try (FileOutputStream out = new FileOutputStream(file)) {
+				out.write(edge.getEdge().getBytes());
+				out.flush();
+			} catch (FileNotFoundException e) {
+				throw new GpioException("GPIO " + gpio + " does not support edges, or the edge file is not writable",
+						e);
+			} catch (IOException e) {
+				throw new GpioException("Failed to write GPIO " + gpio + " with edge " + edge, e);
 			}
-
-			listeners.add(listener);
 		}
 
-		synchronized (this) {
-			notifyAll();
-		}
-	}
-
-	/**
-	 * Unregisters a {@link GpioSignalListener} from changes to the given {@link Gpio}
-	 * 
-	 * @param gpio
-	 *            the {@link Gpio} for which the listener is to be removed
-	 * @param listener
-	 *            the {@link GpioSignalListener} to be removed from changes to the given {@link Gpio}
-	 * 
-	 * @return true if the listener was unregistered, false if not
-	 */
-	@Override
-	public boolean unregister(GpioBridgeTest gpio, GpioSignalListener listener) {
-		synchronized (this.listeners) {
-			List<GpioSignalListener> listeners = this.listeners.get(gpio);
-			if (listeners == null) {
-				return false;
-			}
-
-			boolean removed = listeners.remove(listener);
-
-			if (listeners.isEmpty())
-				this.listeners.remove(gpio);
-
-			return removed;
-		}
+		super.configureEdge(gpio, edge);
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,11 @@
 package ch.eitchnet.beaglebone;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Bridge test class
  * 
@@ -27,22 +33,44 @@ public class GpioBridgeTest {
 	public static void main(String[] args) throws Exception {
 
 		Thread.currentThread().setPriority(Thread.MAX_PRIORITY);
+		GpioLog.setLogger(new AsyncGpioLogger(new ConsoleGpioLogger(LogLevel.INFO), 1024));
 
-		GpioBridge gpioBridge = GpioBridgeImpl.getInstance();
+		GpioBridge gpioBridge = GpioBridge.getInstance();
 
 		System.out.println("Preparing pins...");
-		greenBtn = gpioBridge.getGpio(Pin.P8_07, Direction.IN).setLabel("Green");
-		blueBtn = gpioBridge.getGpio(Pin.P8_08, Direction.IN).setLabel("Blue");
-		redBtn = gpioBridge.getGpio(Pin.P8_09, Direction.IN).setLabel("Red");
-
-		green0 = gpioBridge.getGpio(Pin.P8_10, Direction.OUT).setLabel("green0");
-		yellow0 = gpioBridge.getGpio(Pin.P8_11, Direction.OUT).setLabel("yellow0");
-		yellow1 = gpioBridge.getGpio(Pin.P8_12, Direction.OUT).setLabel("yellow1");
-		yellow2 = gpioBridge.getGpio(Pin.P8_14, Direction.OUT).setLabel("yellow2");
-		green1 = gpioBridge.getGpio(Pin.P8_15, Direction.OUT).setLabel("green1");
-		red0 = gpioBridge.getGpio(Pin.P8_16, Direction.OUT).setLabel("red0");
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		pins.put(Pin.P8_07, Direction.IN);
+		pins.put(Pin.P8_08, Direction.IN);
+		pins.put(Pin.P8_09, Direction.IN);
+		pins.put(Pin.P8_10, Direction.OUT);
+		pins.put(Pin.P8_11, Direction.OUT);
+		pins.put(Pin.P8_12, Direction.OUT);
+		pins.put(Pin.P8_14, Direction.OUT);
+		pins.put(Pin.P8_15, Direction.OUT);
+		pins.put(Pin.P8_16, Direction.OUT);
+		Map<Pin, Gpio> gpios = gpioBridge.openPins(pins);
+
+		greenBtn = gpios.get(Pin.P8_07).setLabel("Green");
+		blueBtn = gpios.get(Pin.P8_08).setLabel("Blue");
+		redBtn = gpios.get(Pin.P8_09).setLabel("Red");
+
+		green0 = gpios.get(Pin.P8_10).setLabel("green0");
+		yellow0 = gpios.get(Pin.P8_11).setLabel("yellow0");
+		yellow1 = gpios.get(Pin.P8_12).setLabel("yellow1");
+		yellow2 = gpios.get(Pin.P8_14).setLabel("yellow2");
+		green1 = gpios.get(Pin.P8_15).setLabel("green1");
+		red0 = gpios.get(Pin.P8_16).setLabel("red0");
 		System.out.println("Prepared pins.");
 
+		// the buttons bounce, so only accept a signal which was stable for 20ms
+		Debounce debounce = Debounce.stableTime(20L, TimeUnit.MILLISECONDS);
+		gpioBridge.setDebounce(greenBtn, debounce);
+		gpioBridge.setDebounce(blueBtn, debounce);
+		gpioBridge.setDebounce(redBtn, debounce);
+
+		// stopping work waits for the work thread, so don't block the observing thread
+		gpioBridge.setDispatchExecutor(Executors.newCachedThreadPool(), 16, OverflowPolicy.DROP_OLDEST);
+
 		System.out.println("Registering listeners...");
 		GpioSignalListener btnListener = (g) -> {
 			if (g.getSignal().isHigh())
@@ -66,12 +94,14 @@ public class GpioBridgeTest {
 
 	private static void resetLeds(GpioBridge gpioBridge) throws GpioException {
 		System.out.println("Resetting leds...");
-		gpioBridge.writeValue(green0, Signal.LOW);
-		gpioBridge.writeValue(yellow0, Signal.LOW);
-		gpioBridge.writeValue(yellow1, Signal.LOW);
-		gpioBridge.writeValue(yellow2, Signal.LOW);
-		gpioBridge.writeValue(green1, Signal.LOW);
-		gpioBridge.writeValue(red0, Signal.LOW);
+		Map<Gpio, Signal> values = new HashMap<>();
+		values.put(green0, Signal.LOW);
+		values.put(yellow0, Signal.LOW);
+		values.put(yellow1, Signal.LOW);
+		values.put(yellow2, Signal.LOW);
+		values.put(green1, Signal.LOW);
+		values.put(red0, Signal.LOW);
+		gpioBridge.writeValues(values);
 	}
 
 	private static void startWork(GpioBridge gpioBridge) throws GpioException {
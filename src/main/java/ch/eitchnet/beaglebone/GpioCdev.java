@@ -0,0 +1,70 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The access to the kernel's GPIO character devices <code>/dev/gpiochipN</code> using the v2 uAPI, on which the
+ * {@link CdevGpioBridge} is built. Plain Java SE can not call <code>ioctl()</code>, thus the implementation for real
+ * hardware must be provided natively, e.g. with JNI, and is found with the {@link java.util.ServiceLoader}. The
+ * <code>SimulatedGpioCdev</code> of the test sources is an in-memory stand-in
+ * </p>
+ * 
+ * <p>
+ * The lines of a chip are addressed with bit masks, where bit <i>n</i> is the line with offset <i>n</i>, i.e.
+ * {@link Pin#getPin()} of the chip {@link Pin#getChip()}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioCdev {
+
+	/**
+	 * Requests the given lines of the given chip with a single line request, i.e.
+	 * <code>GPIO_V2_GET_LINE_IOCTL</code>
+	 * 
+	 * @param chip
+	 *            the number of the chip, i.e. of <code>/dev/gpiochipN</code>
+	 * @param inputMask
+	 *            the bit mask of the lines to request as inputs
+	 * @param outputMask
+	 *            the bit mask of the lines to request as outputs
+	 * @param outputLevels
+	 *            the initial levels of the outputs, a set bit is {@link Signal#HIGH}
+	 * @param consumer
+	 *            the label of the consumer of the lines
+	 * 
+	 * @return the {@link GpioLineRequest}
+	 * 
+	 * @throws IOException
+	 *             if the lines can not be requested, e.g. as they are in use
+	 */
+	public GpioLineRequest requestLines(int chip, int inputMask, int outputMask, int outputLevels, String consumer)
+			throws IOException;
+
+	/**
+	 * Waits until an edge event is pending on any open {@link GpioLineRequest}, i.e. <code>poll()</code> on their file
+	 * descriptors
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the {@link TimeUnit} of the timeout
+	 * 
+	 * @return true if an event is pending, false if the timeout elapsed
+	 * 
+	 * @throws IOException
+	 *             if waiting fails
+	 * @throws InterruptedException
+	 *             if the waiting thread was interrupted
+	 */
+	public boolean awaitEvents(long timeout, TimeUnit unit) throws IOException, InterruptedException;
+
+	/**
+	 * Wakes up a {@link Thread} waiting in {@link #awaitEvents(long, TimeUnit)}, which then returns false, e.g. by
+	 * writing to an <code>eventfd</code> which is polled along with the line requests. If no {@link Thread} is
+	 * waiting, then the next call to {@link #awaitEvents(long, TimeUnit)} may return immediately. Must not block
+	 */
+	public void wakeup();
+}
@@ -0,0 +1,227 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Hands the notification of {@link GpioSignalListener}s off to an {@link Executor}, so that the observing
+ * {@link Thread} of the {@link GpioBridge} is not delayed by slow listeners
+ * </p>
+ * 
+ * <p>
+ * Each {@link Pin} has its own bounded queue of pending {@link GpioEvent}s, which is drained by at most one task at
+ * a time, thus the listeners of a {@link Pin} are notified in the order of the changes, while different {@link Pin}s
+ * are notified concurrently. When a queue is full, the configured {@link OverflowPolicy} is applied
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class GpioDispatcher {
+
+	private final AbstractGpioBridge bridge;
+	private final Executor executor;
+	private final int capacity;
+	private final OverflowPolicy policy;
+	private final AtomicReferenceArray<PinQueue> queues;
+	private final LongAdder dropped;
+
+	/**
+	 * Constructs a new {@link GpioDispatcher}
+	 * 
+	 * @param bridge
+	 *            the {@link AbstractGpioBridge} whose listeners are notified
+	 * @param executor
+	 *            the {@link Executor} on which the listeners are notified
+	 * @param capacity
+	 *            the maximum number of pending events per {@link Pin}
+	 * @param policy
+	 *            the {@link OverflowPolicy} applied when the queue of a {@link Pin} is full
+	 */
+	GpioDispatcher(AbstractGpioBridge bridge, Executor executor, int capacity, OverflowPolicy policy) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+		this.bridge = bridge;
+		this.executor = executor;
+		this.capacity = capacity;
+		this.policy = policy;
+		this.queues = new AtomicReferenceArray<>(Pin.values().length);
+		this.dropped = new LongAdder();
+	}
+
+	/**
+	 * @return the number of events which were dropped or coalesced due to full queues
+	 */
+	long getDropped() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of events of the given {@link Pin} waiting to be notified
+	 */
+	int getQueueDepth(Pin pin) {
+		PinQueue queue = this.queues.get(pin.ordinal());
+		return queue == null ? 0 : queue.size();
+	}
+
+	/**
+	 * Queues the notification of the listeners of the given {@link GpioEvent}
+	 * 
+	 * @param event
+	 *            the {@link GpioEvent} to notify
+	 * 
+	 * @throws InterruptedException
+	 *             if the {@link OverflowPolicy} is {@link OverflowPolicy#BLOCK} and the thread was interrupted while
+	 *             waiting for room in the queue
+	 */
+	void submit(GpioEvent event) throws InterruptedException {
+		int index = event.getPin().ordinal();
+		PinQueue queue = this.queues.get(index);
+		if (queue == null) {
+			this.queues.compareAndSet(index, null, new PinQueue());
+			queue = this.queues.get(index);
+		}
+
+		queue.offer(event);
+	}
+
+	/**
+	 * The queue of pending events of a single {@link Pin}, which is also the task draining the queue
+	 */
+	private class PinQueue implements Runnable {
+
+		private final ReentrantLock lock;
+		private final Condition notFull;
+		private final GpioEvent[] events;
+		private int head;
+		private int size;
+		private boolean scheduled;
+
+		PinQueue() {
+			this.lock = new ReentrantLock();
+			this.notFull = this.lock.newCondition();
+			this.events = new GpioEvent[GpioDispatcher.this.capacity];
+		}
+
+		int size() {
+			this.lock.lock();
+			try {
+				return this.size;
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		void offer(GpioEvent event) throws InterruptedException {
+			boolean schedule;
+
+			this.lock.lock();
+			try {
+				int capacity = this.events.length;
+				if (this.size == capacity) {
+					switch (GpioDispatcher.this.policy) {
+					case DROP_OLDEST:
+						this.events[this.head] = null;
+						this.head = (this.head + 1) % capacity;
+						this.size--;
+						GpioDispatcher.this.dropped.increment();
+						break;
+					case COALESCE:
+						// the merged event keeps the old signal of the replaced event
+						int newest = (this.head + this.size - 1) % capacity;
+						this.events[newest] = new GpioEvent(event.getPin(), this.events[newest].getOldSignal(),
+								event.getNewSignal(), event.getTimestamp(), event.getSequence());
+						GpioDispatcher.this.dropped.increment();
+						return;
+					case BLOCK:
+						while (this.size == capacity) {
+							this.notFull.await();
+						}
+						break;
+					default:
+						throw new IllegalStateException("Unhandled policy " + GpioDispatcher.this.policy);
+					}
+				}
+
+				this.events[(this.head + this.size) % capacity] = event;
+				this.size++;
+
+				schedule = !this.scheduled;
+				this.scheduled = true;
+			} finally {
+				this.lock.unlock();
+			}
+
+			if (schedule)
+				execute();
+		}
+
+		private void execute() {
+			try {
+				GpioDispatcher.this.executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				this.lock.lock();
+				try {
+					GpioDispatcher.this.dropped.add(this.size);
+					for (int i = 0; i < this.events.length; i++) {
+						this.events[i] = null;
+					}
+					this.size = 0;
+					this.scheduled = false;
+					this.notFull.signalAll();
+				} finally {
+					this.lock.unlock();
+				}
+				GpioLog.log(LogLevel.ERROR, "Dropped GPIO notifications as the executor rejected them", e);
+			}
+		}
+
+		/**
+		 * Drains at most a full queue of changes, so that a busy {@link Pin} does not starve the other {@link Pin}s
+		 * on the {@link Executor}
+		 */
+		@Override
+		public void run() {
+			for (int i = 0; i < this.events.length; i++) {
+				GpioEvent event;
+
+				this.lock.lock();
+				try {
+					if (this.size == 0) {
+						this.scheduled = false;
+						return;
+					}
+
+					event = this.events[this.head];
+					this.events[this.head] = null;
+					this.head = (this.head + 1) % this.events.length;
+					this.size--;
+					this.notFull.signal();
+				} finally {
+					this.lock.unlock();
+				}
+
+				GpioDispatcher.this.bridge.dispatch(event);
+			}
+
+			boolean reschedule;
+			this.lock.lock();
+			try {
+				reschedule = this.size != 0;
+				this.scheduled = reschedule;
+			} finally {
+				this.lock.unlock();
+			}
+
+			if (reschedule)
+				execute();
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A lock-free single-producer, single-consumer ring buffer of the edges of an input {@link Gpio}, each recorded as a
+ * <code>long</code> timestamp and a level, so that every edge can be measured, e.g. to measure the pulses of a flow
+ * meter or an IR signal, and not only the latest {@link Gpio#getSignal()}
+ * </p>
+ * 
+ * <p>
+ * The buffer is filled by the {@link GpioBridge}'s observing {@link Thread} after registering it with
+ * {@link GpioBridge#registerSampleListener(Gpio, Edge, long, java.util.concurrent.TimeUnit, GpioSampleListener)}, and
+ * drained in bulk by a single consumer {@link Thread} with {@link #drain(long[], boolean[], int)}. The timestamps are
+ * the {@link System#nanoTime()} at which the observing {@link Thread} read the edge, thus the resolution is the sample
+ * period. If the consumer does not keep up and the buffer is full, new edges are dropped and counted by
+ * {@link #getOverflows()}
+ * </p>
+ * 
+ * <p>
+ * Recording and draining edges does not allocate any objects. Use a {@link PulseAnalyzer} to compute the frequency,
+ * period and pulse width from the drained edges
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioEdgeBuffer implements GpioSampleListener {
+
+	private final int mask;
+	private final long[] timestamps;
+	private final boolean[] levels;
+
+	// the head is only written by the consumer, the tail and overflows only by the producer
+	private final AtomicLong head;
+	private final AtomicLong tail;
+	private final AtomicLong overflows;
+	private long cachedHead;
+
+	/**
+	 * Constructs a new {@link GpioEdgeBuffer}
+	 * 
+	 * @param capacity
+	 *            the minimum number of edges the buffer can hold, which is rounded up to a power of two
+	 */
+	public GpioEdgeBuffer(int capacity) {
+		if (capacity <= 0 || capacity > (1 << 30))
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+
+		this.mask = size - 1;
+		this.timestamps = new long[size];
+		this.levels = new boolean[size];
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+		this.overflows = new AtomicLong();
+	}
+
+	/**
+	 * Records the edge of the {@link Gpio}, called by the observing {@link Thread}
+	 */
+	@Override
+	public void onSample(Gpio gpio, Signal signal, long timestamp) {
+		offer(timestamp, signal.isHigh());
+	}
+
+	/**
+	 * Records an edge. Must only be called by a single producer {@link Thread}
+	 * 
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} of the edge
+	 * @param high
+	 *            true if the level after the edge is {@link Signal#HIGH}
+	 * 
+	 * @return true if the edge was recorded, false if the buffer was full and the edge was dropped
+	 */
+	public boolean offer(long timestamp, boolean high) {
+		long tail = this.tail.get();
+		if (tail - this.cachedHead > this.mask) {
+			this.cachedHead = this.head.get();
+			if (tail - this.cachedHead > this.mask) {
+				this.overflows.lazySet(this.overflows.get() + 1);
+				return false;
+			}
+		}
+
+		int index = (int) tail & this.mask;
+		this.timestamps[index] = timestamp;
+		this.levels[index] = high;
+		this.tail.lazySet(tail + 1);
+		return true;
+	}
+
+	/**
+	 * Moves the recorded edges in the order they were recorded into the given arrays. Must only be called by a single
+	 * consumer {@link Thread}
+	 * 
+	 * @param timestamps
+	 *            the array to copy the timestamps to
+	 * @param levels
+	 *            the array to copy the levels to, true for {@link Signal#HIGH}
+	 * @param max
+	 *            the maximum number of edges to drain, at most the length of the arrays
+	 * 
+	 * @return the number of drained edges
+	 */
+	public int drain(long[] timestamps, boolean[] levels, int max) {
+		long head = this.head.get();
+		int count = (int) Math.min(this.tail.get() - head, Math.min(max, Math.min(timestamps.length, levels.length)));
+		if (count <= 0)
+			return 0;
+
+		int index = (int) head & this.mask;
+		int first = Math.min(count, this.timestamps.length - index);
+		System.arraycopy(this.timestamps, index, timestamps, 0, first);
+		System.arraycopy(this.levels, index, levels, 0, first);
+		if (first < count) {
+			System.arraycopy(this.timestamps, 0, timestamps, first, count - first);
+			System.arraycopy(this.levels, 0, levels, first, count - first);
+		}
+
+		this.head.lazySet(head + count);
+		return count;
+	}
+
+	/**
+	 * @return the number of edges which can be held
+	 */
+	public int getCapacity() {
+		return this.timestamps.length;
+	}
+
+	/**
+	 * @return the number of recorded edges which were not yet drained
+	 */
+	public int size() {
+		return (int) (this.tail.get() - this.head.get());
+	}
+
+	/**
+	 * @return the number of edges which were dropped because the buffer was full
+	 */
+	public long getOverflows() {
+		return this.overflows.get();
+	}
+}
@@ -0,0 +1,86 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The {@link GpioEdgeWatcher} is used by the {@link GpioBridge}'s observing {@link Thread} to wait for the next edge on
+ * any of the observed input {@link Gpio}s. After the {@link #await(long, TimeUnit)}-method returns, the
+ * {@link GpioBridge} reads all observed {@link Gpio}s and notifies the {@link GpioSignalListener}s of any changes
+ * </p>
+ * 
+ * <p>
+ * An interrupt driven implementation returns from {@link #await(long, TimeUnit)} as soon as the kernel signals an edge
+ * with <code>POLLPRI</code> on a <code>value</code> file. For such an implementation the {@link GpioBridge} configures
+ * the <code>edge</code> file of every observed {@link Gpio}. Plain Java SE can not poll a file for
+ * <code>POLLPRI</code>, thus such an implementation must be provided natively, and none is shipped with this library.
+ * The {@link PollingEdgeWatcher} is the pure Java default, with which the observed {@link Gpio}s are polled, and the
+ * {@link PipeEdgeWatcher} is a stand-in for simulations, which is signalled over a pipe instead of by the kernel
+ * </p>
+ * 
+ * <p>
+ * When the registrations or sample periods change, the {@link GpioBridge} calls {@link #wakeup()}, so that the
+ * observing {@link Thread} does not sleep for the timeout computed from the previous registrations
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioEdgeWatcher {
+
+	/**
+	 * @return true if this watcher returns from {@link #await(long, TimeUnit)} on edges, and thus the {@link Gpio}'s
+	 *         <code>edge</code> file must be configured, false if this watcher only waits for the timeout
+	 */
+	boolean isInterruptDriven();
+
+	/**
+	 * Adds the given {@link Gpio} to the set of watched {@link Gpio}s
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to watch
+	 * @param edge
+	 *            the {@link Edge} which was configured for the {@link Gpio}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Gpio} can not be watched
+	 */
+	void watch(Gpio gpio, Edge edge) throws GpioException;
+
+	/**
+	 * Removes the given {@link Gpio} from the set of watched {@link Gpio}s
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} to not watch anymore
+	 */
+	void unwatch(Gpio gpio);
+
+	/**
+	 * Blocks until an edge was signalled on any of the watched {@link Gpio}s, or the timeout elapsed. An
+	 * implementation may return early without an edge, after which the {@link GpioBridge} simply waits again
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the {@link TimeUnit} of the timeout
+	 * 
+	 * @return true if an edge was signalled, false if the timeout elapsed
+	 * 
+	 * @throws InterruptedException
+	 *             if the waiting thread was interrupted
+	 * @throws GpioException
+	 *             if waiting for edges fails
+	 */
+	boolean await(long timeout, TimeUnit unit) throws InterruptedException, GpioException;
+
+	/**
+	 * Wakes up the {@link Thread} blocked in {@link #await(long, TimeUnit)}, which then returns false. If no
+	 * {@link Thread} is waiting, then the next call to {@link #await(long, TimeUnit)} may return immediately. Must not
+	 * block, as it is called while registering listeners
+	 */
+	void wakeup();
+
+	/**
+	 * Releases any resources held by this watcher
+	 */
+	void close();
+}
@@ -0,0 +1,95 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * An immutable event of a change to the {@link Signal} of an input {@link Gpio}, as delivered to a
+ * {@link GpioEventListener}
+ * </p>
+ * 
+ * <p>
+ * Contrary to the {@link Gpio}, whose {@link Signal} may already have changed again by the time a listener runs, the
+ * event holds the {@link Signal}s and the time at which the change was read. The timestamp is taken with
+ * {@link System#nanoTime()} and can thus be used to measure pulse widths and latencies, but not as wall clock time
+ * </p>
+ * 
+ * <p>
+ * An event is only created for a change of a {@link Gpio} with registered listeners, reading unchanged pins does not
+ * allocate any events
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public final class GpioEvent {
+
+	private final Pin pin;
+	private final Signal oldSignal;
+	private final Signal newSignal;
+	private final long timestamp;
+	private final long sequence;
+
+	/**
+	 * Constructs a new {@link GpioEvent}
+	 * 
+	 * @param pin
+	 *            the {@link Pin} which changed
+	 * @param oldSignal
+	 *            the {@link Signal} before the change
+	 * @param newSignal
+	 *            the {@link Signal} after the change
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} at which the change was read
+	 * @param sequence
+	 *            the sequence number of the event
+	 */
+	public GpioEvent(Pin pin, Signal oldSignal, Signal newSignal, long timestamp, long sequence) {
+		this.pin = pin;
+		this.oldSignal = oldSignal;
+		this.newSignal = newSignal;
+		this.timestamp = timestamp;
+		this.sequence = sequence;
+	}
+
+	/**
+	 * @return the {@link Pin} which changed
+	 */
+	public Pin getPin() {
+		return this.pin;
+	}
+
+	/**
+	 * @return the {@link Signal} before the change
+	 */
+	public Signal getOldSignal() {
+		return this.oldSignal;
+	}
+
+	/**
+	 * @return the {@link Signal} after the change
+	 */
+	public Signal getNewSignal() {
+		return this.newSignal;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} at which the change was read
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * @return the sequence number of this event, which increases by one for every event of its {@link Pin}. An event
+	 *         is only created for an edge accepted by a registered {@link GpioEventListener}, thus for a listener of
+	 *         {@link Edge#BOTH} a gap shows events dropped or coalesced on their way to it, while for a listener of a
+	 *         single {@link Edge} the events created for the other edge are gaps as well
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+
+	@Override
+	public String toString() {
+		return "GpioEvent [pin=" + this.pin + ", oldSignal=" + this.oldSignal + ", newSignal=" + this.newSignal
+				+ ", timestamp=" + this.timestamp + ", sequence=" + this.sequence + "]";
+	}
+}
@@ -0,0 +1,29 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Interface to define a listener for {@link GpioEvent}s of an input {@link Gpio}. Contrary to the
+ * {@link GpioSignalListener}, this listener receives the {@link Signal}s and the time of the change, and not the
+ * mutable {@link Gpio}
+ * </p>
+ * 
+ * <p>
+ * Register the {@link GpioEventListener} calling
+ * {@link GpioBridge#registerEventListener(Gpio, Edge, GpioEventListener)}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioEventListener {
+
+	/**
+	 * Notifies the {@link GpioEventListener} of a change to the {@link Signal} of a {@link Gpio}
+	 * 
+	 * @param event
+	 *            the {@link GpioEvent} describing the change
+	 * 
+	 * @throws Exception
+	 *             if something goes wrong while handling the event
+	 */
+	public void onEvent(GpioEvent event) throws Exception;
+}
@@ -0,0 +1,357 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A {@link GpioPublisher} of the changes of one or more input {@link Gpio}s of a {@link GpioBridge}. Each
+ * {@link GpioSubscriber} registers its own {@link GpioEventListener} on the {@link Gpio}s, and has a bounded queue of
+ * the {@link GpioEvent}s it did not yet request. When the queue is full, the configured {@link OverflowPolicy} is
+ * applied: {@link OverflowPolicy#DROP_OLDEST} drops the oldest queued event, and {@link OverflowPolicy#COALESCE}
+ * merges the event into the queued event of the same {@link Pin}, keeping the queued event's old {@link Signal}, or
+ * else replaces the newest queued event. Thus by default, with a capacity
+ * of the number of {@link Gpio}s and {@link OverflowPolicy#COALESCE}, a subscriber without demand only keeps the
+ * latest event of each {@link Pin}. As the events are queued by the observing {@link Thread} of the
+ * {@link GpioBridge}, {@link OverflowPolicy#BLOCK} is not supported
+ * </p>
+ *
+ * <p>
+ * The {@link GpioEvent}s are passed to a subscriber by the {@link Thread} which queues them, or which requests them,
+ * never concurrently. Closing the publisher unregisters all listeners and completes the subscribers
+ * </p>
+ *
+ * <pre>
+ * GpioEventPublisher publisher = new GpioEventPublisher(gpioBridge, Edge.BOTH, Arrays.asList(pin8_07, pin8_08));
+ * publisher.distinctUntilChanged().throttle(10, TimeUnit.MILLISECONDS).subscribe(subscriber);
+ * </pre>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioEventPublisher implements GpioPublisher, AutoCloseable {
+
+	private final GpioBridge gpioBridge;
+	private final Edge edge;
+	private final List<Gpio> gpios;
+	private final int capacity;
+	private final OverflowPolicy policy;
+	private final Set<EventSubscription> subscriptions;
+	private final LongAdder dropped;
+	private volatile boolean closed;
+
+	/**
+	 * Constructs a new {@link GpioEventPublisher} whose subscribers only keep the latest {@link GpioEvent} of each
+	 * {@link Pin} while they have no demand
+	 *
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} from which the {@link Gpio}s were retrieved
+	 * @param edge
+	 *            the {@link Edge} of the changes to publish
+	 * @param gpios
+	 *            the input {@link Gpio}s whose changes are published
+	 *
+	 * @throws GpioException
+	 *             if no {@link Gpio} is given, or the {@link Direction} of a {@link Gpio} is not {@link Direction#IN}
+	 */
+	public GpioEventPublisher(GpioBridge gpioBridge, Edge edge, Collection<Gpio> gpios) throws GpioException {
+		this(gpioBridge, edge, gpios, Math.max(1, gpios.size()), OverflowPolicy.COALESCE);
+	}
+
+	/**
+	 * Constructs a new {@link GpioEventPublisher}
+	 *
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} from which the {@link Gpio}s were retrieved
+	 * @param edge
+	 *            the {@link Edge} of the changes to publish
+	 * @param gpios
+	 *            the input {@link Gpio}s whose changes are published
+	 * @param capacity
+	 *            the maximum number of queued {@link GpioEvent}s per subscriber
+	 * @param policy
+	 *            the {@link OverflowPolicy} applied when the queue of a subscriber is full, either
+	 *            {@link OverflowPolicy#DROP_OLDEST} or {@link OverflowPolicy#COALESCE}
+	 *
+	 * @throws GpioException
+	 *             if no {@link Gpio} is given, or the {@link Direction} of a {@link Gpio} is not {@link Direction#IN}
+	 */
+	public GpioEventPublisher(GpioBridge gpioBridge, Edge edge, Collection<Gpio> gpios, int capacity,
+			OverflowPolicy policy) throws GpioException {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+		if (policy == OverflowPolicy.BLOCK)
+			throw new IllegalArgumentException("The policy " + policy + " would block the observing thread");
+		if (gpios.isEmpty())
+			throw new GpioException("At least one GPIO must be published");
+		for (Gpio gpio : gpios) {
+			if (gpio.getDirection() != Direction.IN)
+				throw new GpioException("For publishing the direction must be " + Direction.IN + " for GPIO " + gpio);
+		}
+
+		this.gpioBridge = gpioBridge;
+		this.edge = edge;
+		this.gpios = Collections.unmodifiableList(new ArrayList<>(gpios));
+		this.capacity = capacity;
+		this.policy = policy;
+		this.subscriptions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		this.dropped = new LongAdder();
+	}
+
+	/**
+	 * @return the published {@link Gpio}s
+	 */
+	public List<Gpio> getGpios() {
+		return this.gpios;
+	}
+
+	/**
+	 * @return the number of {@link GpioEvent}s which were dropped or coalesced as subscribers had no demand
+	 */
+	public long getDropped() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * @return the number of current subscribers
+	 */
+	public int getSubscriberCount() {
+		return this.subscriptions.size();
+	}
+
+	@Override
+	public void subscribe(GpioSubscriber subscriber) {
+		EventSubscription subscription = new EventSubscription(subscriber);
+		this.subscriptions.add(subscription);
+		subscriber.onSubscribe(subscription);
+
+		if (this.closed) {
+			subscription.complete();
+			return;
+		}
+
+		try {
+			for (Gpio gpio : this.gpios) {
+				this.gpioBridge.registerEventListener(gpio, this.edge, subscription);
+			}
+		} catch (GpioException e) {
+			subscription.fail(e);
+			return;
+		}
+
+		// the subscriber may have cancelled or the publisher closed while registering
+		if (subscription.isCancelled() || this.closed)
+			subscription.unregister();
+		if (this.closed)
+			subscription.complete();
+	}
+
+	/**
+	 * Unregisters the listeners of all subscribers, and completes them once they received their queued
+	 * {@link GpioEvent}s
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		for (EventSubscription subscription : this.subscriptions) {
+			subscription.unregister();
+			subscription.complete();
+		}
+	}
+
+	/**
+	 * The {@link GpioSubscription} of a single {@link GpioSubscriber}, which is registered as the
+	 * {@link GpioEventListener} of the published {@link Gpio}s. The queue and the demand are guarded by the lock of
+	 * the subscription, and the {@link GpioSubscriber} is called by at most one {@link Thread} at a time, which is
+	 * ensured by the work-in-progress counter
+	 */
+	private class EventSubscription implements GpioSubscription, GpioEventListener {
+
+		private final GpioSubscriber subscriber;
+		private final GpioEvent[] events;
+		private final AtomicInteger wip;
+		private int head;
+		private int size;
+		private long requested;
+		private boolean done;
+		private Throwable error;
+		private volatile boolean cancelled;
+
+		EventSubscription(GpioSubscriber subscriber) {
+			this.subscriber = subscriber;
+			this.events = new GpioEvent[GpioEventPublisher.this.capacity];
+			this.wip = new AtomicInteger();
+		}
+
+		boolean isCancelled() {
+			return this.cancelled;
+		}
+
+		@Override
+		public void onEvent(GpioEvent event) {
+			synchronized (this) {
+				if (this.done || this.cancelled)
+					return;
+				offer(event);
+			}
+			drain();
+		}
+
+		/**
+		 * Queues the given event, applying the {@link OverflowPolicy} if the queue is full. Must be called while
+		 * holding the lock of the subscription
+		 */
+		private void offer(GpioEvent event) {
+			int capacity = this.events.length;
+			if (this.size == capacity) {
+				GpioEventPublisher.this.dropped.increment();
+				if (GpioEventPublisher.this.policy == OverflowPolicy.COALESCE) {
+					for (int i = 0; i < this.size; i++) {
+						int index = (this.head + i) % capacity;
+						GpioEvent queued = this.events[index];
+						if (queued.getPin() == event.getPin()) {
+							// the merged event spans from the old signal of the queued to the new signal of the given
+							this.events[index] = new GpioEvent(event.getPin(), queued.getOldSignal(),
+									event.getNewSignal(), event.getTimestamp(), event.getSequence());
+							return;
+						}
+					}
+					this.events[(this.head + this.size - 1) % capacity] = event;
+					return;
+				}
+
+				this.events[this.head] = null;
+				this.head = (this.head + 1) % capacity;
+				this.size--;
+			}
+
+			this.events[(this.head + this.size) % capacity] = event;
+			this.size++;
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized (this) {
+				// a completed subscription still passes its queued events on demand
+				if (this.cancelled || this.error != null)
+					return;
+				if (n <= 0) {
+					this.done = true;
+					this.error = new IllegalArgumentException("Requested " + n + " events, must be greater than 0");
+					clear();
+				} else {
+					this.requested += n;
+					if (this.requested < 0L)
+						this.requested = Long.MAX_VALUE;
+				}
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			if (this.cancelled)
+				return;
+			this.cancelled = true;
+			unregister();
+			synchronized (this) {
+				clear();
+			}
+		}
+
+		void complete() {
+			synchronized (this) {
+				if (this.done)
+					return;
+				this.done = true;
+			}
+			drain();
+		}
+
+		void fail(Throwable t) {
+			unregister();
+			synchronized (this) {
+				if (this.done)
+					return;
+				this.done = true;
+				this.error = t;
+				clear();
+			}
+			drain();
+		}
+
+		void unregister() {
+			for (Gpio gpio : GpioEventPublisher.this.gpios) {
+				GpioEventPublisher.this.gpioBridge.unregisterEventListener(gpio, this);
+			}
+			GpioEventPublisher.this.subscriptions.remove(this);
+		}
+
+		private void clear() {
+			for (int i = 0; i < this.events.length; i++) {
+				this.events[i] = null;
+			}
+			this.size = 0;
+		}
+
+		/**
+		 * Passes the requested events to the subscriber, and finally the terminal signal. Only one {@link Thread} at
+		 * a time drains, a {@link Thread} which finds another draining increments the counter, so that the draining
+		 * {@link Thread} loops once more
+		 */
+		private void drain() {
+			if (this.wip.getAndIncrement() != 0)
+				return;
+
+			int missed = 1;
+			do {
+				while (true) {
+					GpioEvent event;
+					Throwable error;
+					synchronized (this) {
+						if (this.cancelled)
+							break;
+						if (this.error != null || (this.done && this.size == 0)) {
+							error = this.error;
+							this.cancelled = true;
+							event = null;
+						} else {
+							if (this.size == 0 || this.requested == 0L)
+								break;
+							event = this.events[this.head];
+							this.events[this.head] = null;
+							this.head = (this.head + 1) % this.events.length;
+							this.size--;
+							if (this.requested != Long.MAX_VALUE)
+								this.requested--;
+							error = null;
+						}
+					}
+
+					if (event == null) {
+						unregister();
+						if (error == null)
+							this.subscriber.onComplete();
+						else
+							this.subscriber.onError(error);
+						break;
+					}
+
+					try {
+						this.subscriber.onNext(event);
+					} catch (RuntimeException e) {
+						GpioLog.log(LogLevel.ERROR, "Failed to pass event to subscriber " + this.subscriber, e);
+						cancel();
+					}
+				}
+
+				missed = this.wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
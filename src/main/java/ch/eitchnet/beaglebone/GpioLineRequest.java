@@ -0,0 +1,76 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <p>
+ * A line request of the GPIO character device v2 uAPI, holding a set of lines of one chip, which are read and written
+ * as bit masks with a single <code>ioctl()</code> each. See {@link GpioCdev}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioLineRequest extends Closeable {
+
+	/**
+	 * Reads the levels of the given lines, i.e. <code>GPIO_V2_LINE_GET_VALUES_IOCTL</code>
+	 * 
+	 * @param mask
+	 *            the bit mask of the lines to read
+	 * 
+	 * @return the levels of the read lines, a set bit is {@link Signal#HIGH}
+	 * 
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public int getValues(int mask) throws IOException;
+
+	/**
+	 * Writes the levels of the given output lines, i.e. <code>GPIO_V2_LINE_SET_VALUES_IOCTL</code>
+	 * 
+	 * @param mask
+	 *            the bit mask of the lines to write
+	 * @param levels
+	 *            the levels to write, a set bit is {@link Signal#HIGH}
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void setValues(int mask, int levels) throws IOException;
+
+	/**
+	 * Configures the edges of the input lines for which the kernel queues edge events, i.e.
+	 * <code>GPIO_V2_LINE_SET_CONFIG_IOCTL</code>
+	 * 
+	 * @param risingMask
+	 *            the bit mask of the lines with events on rising edges
+	 * @param fallingMask
+	 *            the bit mask of the lines with events on falling edges
+	 * 
+	 * @throws IOException
+	 *             if the configuration fails
+	 */
+	public void setEdges(int risingMask, int fallingMask) throws IOException;
+
+	/**
+	 * Reads the pending edge events from the kernel's event FIFO without blocking, i.e. <code>read()</code> of
+	 * <code>struct gpio_v2_line_event</code>s
+	 * 
+	 * @param offsets
+	 *            the array to which the offsets of the lines are written
+	 * @param timestamps
+	 *            the array to which the <code>CLOCK_MONOTONIC</code> timestamps in nanoseconds are written, which is
+	 *            the clock of {@link System#nanoTime()} on Linux
+	 * @param rising
+	 *            the array to which true is written for a rising edge, and false for a falling edge
+	 * @param max
+	 *            the maximum number of events to read
+	 * 
+	 * @return the number of read events, 0 if none are pending
+	 * 
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public int readEvents(int[] offsets, long[] timestamps, boolean[] rising, int max) throws IOException;
+}
@@ -0,0 +1,83 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Holds the {@link GpioLogger} to which the {@link GpioBridge} and its helpers log. The default is
+ * {@link GpioLogger#NOOP}
+ * </p>
+ * 
+ * <p>
+ * Messages are logged with a guarded check, so that a disabled message costs a volatile read and a call, but no
+ * {@link String} concatenation:
+ * </p>
+ * 
+ * <pre>
+ * if (GpioLog.isEnabled(LogLevel.TRACE))
+ * 	GpioLog.log(LogLevel.TRACE, "Set GPIO " + gpio.getPin() + " signal to " + signal);
+ * </pre>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public final class GpioLog {
+
+	private static volatile GpioLogger logger = GpioLogger.NOOP;
+
+	private GpioLog() {
+		// static helper
+	}
+
+	/**
+	 * @return the configured {@link GpioLogger}
+	 */
+	public static GpioLogger getLogger() {
+		return logger;
+	}
+
+	/**
+	 * Sets the {@link GpioLogger} to which is logged
+	 * 
+	 * @param logger
+	 *            the {@link GpioLogger}, or null to log nothing
+	 */
+	public static void setLogger(GpioLogger logger) {
+		GpioLog.logger = logger == null ? GpioLogger.NOOP : logger;
+	}
+
+	/**
+	 * @param level
+	 *            the {@link LogLevel} to check
+	 * 
+	 * @return true if messages with the given {@link LogLevel} are logged
+	 */
+	public static boolean isEnabled(LogLevel level) {
+		return logger.isEnabled(level);
+	}
+
+	/**
+	 * Logs the given message, if the {@link LogLevel} is enabled
+	 * 
+	 * @param level
+	 *            the {@link LogLevel} of the message
+	 * @param message
+	 *            the message
+	 */
+	public static void log(LogLevel level, String message) {
+		log(level, message, null);
+	}
+
+	/**
+	 * Logs the given message, if the {@link LogLevel} is enabled
+	 * 
+	 * @param level
+	 *            the {@link LogLevel} of the message
+	 * @param message
+	 *            the message
+	 * @param t
+	 *            the cause of the message, or null
+	 */
+	public static void log(LogLevel level, String message, Throwable t) {
+		GpioLogger logger = GpioLog.logger;
+		if (logger.isEnabled(level))
+			logger.log(level, message, t);
+	}
+}
@@ -0,0 +1,54 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * A pluggable sink for the messages of the {@link GpioBridge} and its helpers. The logger is configured with
+ * {@link GpioLog#setLogger(GpioLogger)}, and by default is {@link #NOOP}, so that nothing is logged
+ * </p>
+ * 
+ * <p>
+ * Callers always check {@link #isEnabled(LogLevel)} before building a message, thus a disabled level must be cheap to
+ * check. {@link #log(LogLevel, String, Throwable)} may be called concurrently from any {@link Thread}, including the
+ * observing {@link Thread} and while holding the lock of a GPIO bank, thus an implementation must not block; a slow
+ * sink should be wrapped in an {@link AsyncGpioLogger}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioLogger {
+
+	/**
+	 * A {@link GpioLogger} which logs nothing
+	 */
+	public static final GpioLogger NOOP = new GpioLogger() {
+		@Override
+		public boolean isEnabled(LogLevel level) {
+			return false;
+		}
+
+		@Override
+		public void log(LogLevel level, String message, Throwable t) {
+			// logs nothing
+		}
+	};
+
+	/**
+	 * @param level
+	 *            the {@link LogLevel} to check
+	 * 
+	 * @return true if messages with the given {@link LogLevel} are logged
+	 */
+	public boolean isEnabled(LogLevel level);
+
+	/**
+	 * Logs the given message
+	 * 
+	 * @param level
+	 *            the {@link LogLevel} of the message
+	 * @param message
+	 *            the message
+	 * @param t
+	 *            the cause of the message, or null
+	 */
+	public void log(LogLevel level, String message, Throwable t);
+}
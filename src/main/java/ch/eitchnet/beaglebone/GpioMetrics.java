@@ -0,0 +1,190 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * An immutable snapshot of the metrics of a {@link GpioBridge}, returned by {@link GpioBridge#getMetrics()}
+ * </p>
+ * 
+ * <p>
+ * The counters are kept per {@link Pin}: the number of reads, of writes, of edges, i.e. changes of the {@link Signal}
+ * detected while reading, of failed reads and writes, and of writes elided or coalesced by the {@link OutputMode} of
+ * an output {@link Pin}. Reads and writes of whole banks count once for each
+ * {@link Pin} of the bank which was read or written. Further the durations of the passes of the observing
+ * {@link Thread}, and the latency from reading a change until its listeners are notified, are kept in
+ * {@link LatencyHistogram}s, and the depths of the queues of the dispatcher, see
+ * {@link GpioBridge#setDispatchExecutor(java.util.concurrent.Executor, int, OverflowPolicy)}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioMetrics {
+
+	private final long[] reads;
+	private final long[] writes;
+	private final long[] edges;
+	private final long[] failures;
+	private final long[] elidedWrites;
+	private final int[] queueDepths;
+	private final long droppedNotifications;
+	private final LatencyHistogram.Snapshot pollPass;
+	private final LatencyHistogram.Snapshot dispatchLatency;
+
+	GpioMetrics(long[] reads, long[] writes, long[] edges, long[] failures, long[] elidedWrites, int[] queueDepths,
+			long droppedNotifications, LatencyHistogram.Snapshot pollPass, LatencyHistogram.Snapshot dispatchLatency) {
+		this.reads = reads;
+		this.writes = writes;
+		this.edges = edges;
+		this.failures = failures;
+		this.elidedWrites = elidedWrites;
+		this.queueDepths = queueDepths;
+		this.droppedNotifications = droppedNotifications;
+		this.pollPass = pollPass;
+		this.dispatchLatency = dispatchLatency;
+	}
+
+	private static long sum(long[] values) {
+		long sum = 0L;
+		for (long value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of times the given {@link Pin} was read
+	 */
+	public long getReads(Pin pin) {
+		return this.reads[pin.ordinal()];
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of times the given {@link Pin} was written
+	 */
+	public long getWrites(Pin pin) {
+		return this.writes[pin.ordinal()];
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of changes of the {@link Signal} of the given {@link Pin} which were detected while reading
+	 */
+	public long getEdges(Pin pin) {
+		return this.edges[pin.ordinal()];
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of failed reads and writes of the given {@link Pin}
+	 */
+	public long getFailures(Pin pin) {
+		return this.failures[pin.ordinal()];
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of writes of the given {@link Pin} which were elided or coalesced by its {@link OutputMode}
+	 */
+	public long getElidedWrites(Pin pin) {
+		return this.elidedWrites[pin.ordinal()];
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 * 
+	 * @return the number of changes of the given {@link Pin} waiting to be notified to its listeners
+	 */
+	public int getQueueDepth(Pin pin) {
+		return this.queueDepths[pin.ordinal()];
+	}
+
+	/**
+	 * @return the number of reads of all {@link Pin}s
+	 */
+	public long getTotalReads() {
+		return sum(this.reads);
+	}
+
+	/**
+	 * @return the number of writes of all {@link Pin}s
+	 */
+	public long getTotalWrites() {
+		return sum(this.writes);
+	}
+
+	/**
+	 * @return the number of edges of all {@link Pin}s
+	 */
+	public long getTotalEdges() {
+		return sum(this.edges);
+	}
+
+	/**
+	 * @return the number of failed reads and writes of all {@link Pin}s
+	 */
+	public long getTotalFailures() {
+		return sum(this.failures);
+	}
+
+	/**
+	 * @return the number of elided or coalesced writes of all {@link Pin}s
+	 */
+	public long getTotalElidedWrites() {
+		return sum(this.elidedWrites);
+	}
+
+	/**
+	 * @return the number of changes of all {@link Pin}s waiting to be notified to their listeners
+	 */
+	public int getTotalQueueDepth() {
+		int sum = 0;
+		for (int depth : this.queueDepths) {
+			sum += depth;
+		}
+		return sum;
+	}
+
+	/**
+	 * @return the number of listener notifications which were dropped or coalesced as the listeners could not keep
+	 *         up
+	 */
+	public long getDroppedNotifications() {
+		return this.droppedNotifications;
+	}
+
+	/**
+	 * @return the durations of the passes of the observing {@link Thread}, from reading the due {@link Pin}s until
+	 *         their changes were notified or queued
+	 */
+	public LatencyHistogram.Snapshot getPollPass() {
+		return this.pollPass;
+	}
+
+	/**
+	 * @return the latencies from reading a change until its listeners are notified
+	 */
+	public LatencyHistogram.Snapshot getDispatchLatency() {
+		return this.dispatchLatency;
+	}
+
+	@Override
+	public String toString() {
+		return "GpioMetrics [reads=" + getTotalReads() + ", writes=" + getTotalWrites() + ", edges=" + getTotalEdges()
+				+ ", failures=" + getTotalFailures() + ", elidedWrites=" + getTotalElidedWrites() + ", queueDepth="
+				+ getTotalQueueDepth()
+				+ ", droppedNotifications=" + this.droppedNotifications + ", pollPass=" + this.pollPass
+				+ ", dispatchLatency=" + this.dispatchLatency + "]";
+	}
+}
@@ -0,0 +1,201 @@
+package ch.eitchnet.beaglebone;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongBiFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * Exposes the {@link GpioMetrics} of a {@link GpioBridge} over JMX as a {@link GpioMetricsMXBean}, e.g. to be watched
+ * with JConsole or VisualVM
+ * </p>
+ * 
+ * <pre>
+ * ObjectName name = GpioMetricsBean.register(gpioBridge, "main");
+ * ...
+ * GpioMetricsBean.unregister(name);
+ * </pre>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioMetricsBean implements GpioMetricsMXBean {
+
+	private final GpioBridge gpioBridge;
+
+	/**
+	 * Constructs a new {@link GpioMetricsBean}
+	 * 
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} whose {@link GpioMetrics} are exposed
+	 */
+	public GpioMetricsBean(GpioBridge gpioBridge) {
+		this.gpioBridge = gpioBridge;
+	}
+
+	/**
+	 * Registers a {@link GpioMetricsBean} for the given {@link GpioBridge} with the platform {@link MBeanServer}
+	 * 
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} whose {@link GpioMetrics} are exposed
+	 * @param name
+	 *            the name of the {@link GpioBridge}, which distinguishes the beans of multiple {@link GpioBridge}s
+	 * 
+	 * @return the {@link ObjectName} with which the bean was registered
+	 * 
+	 * @throws GpioException
+	 *             if the bean can not be registered, e.g. as the name is already used
+	 */
+	public static ObjectName register(GpioBridge gpioBridge, String name) throws GpioException {
+		try {
+			ObjectName objectName = new ObjectName("ch.eitchnet.beaglebone:type=GpioMetrics,name="
+					+ ObjectName.quote(name));
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(new GpioMetricsBean(gpioBridge), objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new GpioException("Failed to register GPIO metrics bean " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters the bean with the given {@link ObjectName} from the platform {@link MBeanServer}
+	 * 
+	 * @param objectName
+	 *            the {@link ObjectName} returned by {@link #register(GpioBridge, String)}
+	 * 
+	 * @throws GpioException
+	 *             if the bean can not be unregistered
+	 */
+	public static void unregister(ObjectName objectName) throws GpioException {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			throw new GpioException("Failed to unregister GPIO metrics bean " + objectName, e);
+		}
+	}
+
+	private static Map<String, Long> perPin(GpioMetrics metrics, ToLongBiFunction<GpioMetrics, Pin> counter) {
+		Map<String, Long> values = new TreeMap<>();
+		for (Pin pin : Pin.values()) {
+			long value = counter.applyAsLong(metrics, pin);
+			if (value != 0L)
+				values.put(pin.name(), value);
+		}
+		return values;
+	}
+
+	@Override
+	public long getTotalReads() {
+		return this.gpioBridge.getMetrics().getTotalReads();
+	}
+
+	@Override
+	public long getTotalWrites() {
+		return this.gpioBridge.getMetrics().getTotalWrites();
+	}
+
+	@Override
+	public long getTotalEdges() {
+		return this.gpioBridge.getMetrics().getTotalEdges();
+	}
+
+	@Override
+	public long getTotalFailures() {
+		return this.gpioBridge.getMetrics().getTotalFailures();
+	}
+
+	@Override
+	public long getTotalElidedWrites() {
+		return this.gpioBridge.getMetrics().getTotalElidedWrites();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return this.gpioBridge.getMetrics().getTotalQueueDepth();
+	}
+
+	@Override
+	public long getDroppedNotifications() {
+		return this.gpioBridge.getMetrics().getDroppedNotifications();
+	}
+
+	@Override
+	public Map<String, Long> getReadsPerPin() {
+		return perPin(this.gpioBridge.getMetrics(), GpioMetrics::getReads);
+	}
+
+	@Override
+	public Map<String, Long> getWritesPerPin() {
+		return perPin(this.gpioBridge.getMetrics(), GpioMetrics::getWrites);
+	}
+
+	@Override
+	public Map<String, Long> getEdgesPerPin() {
+		return perPin(this.gpioBridge.getMetrics(), GpioMetrics::getEdges);
+	}
+
+	@Override
+	public Map<String, Long> getFailuresPerPin() {
+		return perPin(this.gpioBridge.getMetrics(), GpioMetrics::getFailures);
+	}
+
+	@Override
+	public long getPollPassCount() {
+		return this.gpioBridge.getMetrics().getPollPass().getCount();
+	}
+
+	@Override
+	public double getPollPassMean() {
+		return this.gpioBridge.getMetrics().getPollPass().getMean();
+	}
+
+	@Override
+	public long getPollPass50thPercentile() {
+		return this.gpioBridge.getMetrics().getPollPass().getValueAtPercentile(50.0);
+	}
+
+	@Override
+	public long getPollPass99thPercentile() {
+		return this.gpioBridge.getMetrics().getPollPass().getValueAtPercentile(99.0);
+	}
+
+	@Override
+	public long getPollPassMax() {
+		return this.gpioBridge.getMetrics().getPollPass().getMax();
+	}
+
+	@Override
+	public long getDispatchCount() {
+		return this.gpioBridge.getMetrics().getDispatchLatency().getCount();
+	}
+
+	@Override
+	public double getDispatchLatencyMean() {
+		return this.gpioBridge.getMetrics().getDispatchLatency().getMean();
+	}
+
+	@Override
+	public long getDispatchLatency50thPercentile() {
+		return this.gpioBridge.getMetrics().getDispatchLatency().getValueAtPercentile(50.0);
+	}
+
+	@Override
+	public long getDispatchLatency99thPercentile() {
+		return this.gpioBridge.getMetrics().getDispatchLatency().getValueAtPercentile(99.0);
+	}
+
+	@Override
+	public long getDispatchLatencyMax() {
+		return this.gpioBridge.getMetrics().getDispatchLatency().getMax();
+	}
+
+	@Override
+	public void resetMetrics() {
+		this.gpioBridge.resetMetrics();
+	}
+}
@@ -0,0 +1,125 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * The JMX management interface of the {@link GpioMetrics} of a {@link GpioBridge}, registered with
+ * {@link GpioMetricsBean#register(GpioBridge, String)}. Each attribute is read from a fresh snapshot, all durations
+ * are in nanoseconds
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioMetricsMXBean {
+
+	/**
+	 * @return the number of reads of all {@link Pin}s
+	 */
+	public long getTotalReads();
+
+	/**
+	 * @return the number of writes of all {@link Pin}s
+	 */
+	public long getTotalWrites();
+
+	/**
+	 * @return the number of edges of all {@link Pin}s
+	 */
+	public long getTotalEdges();
+
+	/**
+	 * @return the number of failed reads and writes of all {@link Pin}s
+	 */
+	public long getTotalFailures();
+
+	/**
+	 * @return the number of elided or coalesced writes of all {@link Pin}s
+	 */
+	public long getTotalElidedWrites();
+
+	/**
+	 * @return the number of changes waiting to be notified to their listeners
+	 */
+	public int getQueueDepth();
+
+	/**
+	 * @return the number of dropped or coalesced listener notifications
+	 */
+	public long getDroppedNotifications();
+
+	/**
+	 * @return the number of reads per {@link Pin} which was read at least once
+	 */
+	public Map<String, Long> getReadsPerPin();
+
+	/**
+	 * @return the number of writes per {@link Pin} which was written at least once
+	 */
+	public Map<String, Long> getWritesPerPin();
+
+	/**
+	 * @return the number of edges per {@link Pin} which had at least one edge
+	 */
+	public Map<String, Long> getEdgesPerPin();
+
+	/**
+	 * @return the number of failures per {@link Pin} which failed at least once
+	 */
+	public Map<String, Long> getFailuresPerPin();
+
+	/**
+	 * @return the number of passes of the observing {@link Thread}
+	 */
+	public long getPollPassCount();
+
+	/**
+	 * @return the mean duration of the passes of the observing {@link Thread}
+	 */
+	public double getPollPassMean();
+
+	/**
+	 * @return the median duration of the passes of the observing {@link Thread}
+	 */
+	public long getPollPass50thPercentile();
+
+	/**
+	 * @return the 99th percentile of the durations of the passes of the observing {@link Thread}
+	 */
+	public long getPollPass99thPercentile();
+
+	/**
+	 * @return the longest pass of the observing {@link Thread}
+	 */
+	public long getPollPassMax();
+
+	/**
+	 * @return the number of notified changes
+	 */
+	public long getDispatchCount();
+
+	/**
+	 * @return the mean latency from reading a change until its listeners are notified
+	 */
+	public double getDispatchLatencyMean();
+
+	/**
+	 * @return the median latency from reading a change until its listeners are notified
+	 */
+	public long getDispatchLatency50thPercentile();
+
+	/**
+	 * @return the 99th percentile of the latencies from reading a change until its listeners are notified
+	 */
+	public long getDispatchLatency99thPercentile();
+
+	/**
+	 * @return the longest latency from reading a change until its listeners were notified
+	 */
+	public long getDispatchLatencyMax();
+
+	/**
+	 * Resets all counters and histograms
+	 */
+	public void resetMetrics();
+}
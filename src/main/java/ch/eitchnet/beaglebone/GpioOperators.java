@@ -0,0 +1,242 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The {@link GpioSubscriber}s implementing the operators of a {@link GpioPublisher}. Each is subscribed to the
+ * upstream {@link GpioPublisher} and is the {@link GpioSubscription} of the downstream {@link GpioSubscriber}
+ * </p>
+ *
+ * <p>
+ * The state of the operators is held in arrays indexed by {@link Pin#ordinal()}, so that passing an event does not
+ * allocate
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class GpioOperators {
+
+	private GpioOperators() {
+		// only nested classes
+	}
+
+	/**
+	 * The base of the operators which drop some {@link GpioEvent}s. The demand is passed upstream, and for every
+	 * dropped {@link GpioEvent} one more is requested, so that the downstream demand is met
+	 */
+	abstract static class FilterSubscriber implements GpioSubscriber, GpioSubscription {
+
+		private final GpioSubscriber downstream;
+		private GpioSubscription upstream;
+
+		FilterSubscriber(GpioSubscriber downstream) {
+			this.downstream = downstream;
+		}
+
+		/**
+		 * @param event
+		 *            the {@link GpioEvent} passed by the upstream {@link GpioPublisher}
+		 *
+		 * @return true if the {@link GpioEvent} is passed downstream, false if it is dropped
+		 */
+		abstract boolean accept(GpioEvent event);
+
+		@Override
+		public void onSubscribe(GpioSubscription subscription) {
+			this.upstream = subscription;
+			this.downstream.onSubscribe(this);
+		}
+
+		@Override
+		public void onNext(GpioEvent event) {
+			if (accept(event))
+				this.downstream.onNext(event);
+			else
+				this.upstream.request(1L);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			this.downstream.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			this.downstream.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			this.upstream.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			this.upstream.cancel();
+		}
+	}
+
+	/**
+	 * Drops a {@link GpioEvent} whose new {@link Signal} is the {@link Signal} of the last passed {@link GpioEvent} of
+	 * the same {@link Pin}
+	 */
+	static class DistinctSubscriber extends FilterSubscriber {
+
+		private final Signal[] signals;
+
+		DistinctSubscriber(GpioSubscriber downstream) {
+			super(downstream);
+			this.signals = new Signal[Pin.values().length];
+		}
+
+		@Override
+		boolean accept(GpioEvent event) {
+			int index = event.getPin().ordinal();
+			if (this.signals[index] == event.getNewSignal())
+				return false;
+			this.signals[index] = event.getNewSignal();
+			return true;
+		}
+	}
+
+	/**
+	 * Drops the {@link GpioEvent}s of a {@link Pin} read within the window after its last passed {@link GpioEvent},
+	 * measured with the timestamps of the {@link GpioEvent}s
+	 */
+	static class ThrottleSubscriber extends FilterSubscriber {
+
+		private final long window;
+		private final boolean[] passed;
+		private final long[] timestamps;
+
+		ThrottleSubscriber(GpioSubscriber downstream, long window) {
+			super(downstream);
+			this.window = window;
+			this.passed = new boolean[Pin.values().length];
+			this.timestamps = new long[Pin.values().length];
+		}
+
+		@Override
+		boolean accept(GpioEvent event) {
+			int index = event.getPin().ordinal();
+			if (this.passed[index] && event.getTimestamp() - this.timestamps[index] < this.window)
+				return false;
+			this.passed[index] = true;
+			this.timestamps[index] = event.getTimestamp();
+			return true;
+		}
+	}
+
+	/**
+	 * Requests all {@link GpioEvent}s upstream and keeps the latest of each {@link Pin}, which are passed downstream
+	 * once per period as far as there is demand. The upstream signals and the periodic task are serialized by the lock
+	 * of this subscriber
+	 */
+	static class SampleSubscriber implements GpioSubscriber, GpioSubscription {
+
+		private final GpioSubscriber downstream;
+		private final long period;
+		private final ScheduledExecutorService scheduler;
+		private final GpioEvent[] latest;
+		private GpioSubscription upstream;
+		private ScheduledFuture<?> task;
+		private long requested;
+		private boolean done;
+
+		SampleSubscriber(GpioSubscriber downstream, long period, ScheduledExecutorService scheduler) {
+			this.downstream = downstream;
+			this.period = period;
+			this.scheduler = scheduler;
+			this.latest = new GpioEvent[Pin.values().length];
+		}
+
+		@Override
+		public void onSubscribe(GpioSubscription subscription) {
+			synchronized (this) {
+				this.upstream = subscription;
+			}
+			this.downstream.onSubscribe(this);
+			synchronized (this) {
+				if (this.done)
+					return;
+				this.task = this.scheduler.scheduleAtFixedRate(this::emit, this.period, this.period,
+						TimeUnit.NANOSECONDS);
+			}
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public synchronized void onNext(GpioEvent event) {
+			if (!this.done)
+				this.latest[event.getPin().ordinal()] = event;
+		}
+
+		private synchronized void emit() {
+			for (int i = 0; i < this.latest.length && this.requested != 0L && !this.done; i++) {
+				GpioEvent event = this.latest[i];
+				if (event == null)
+					continue;
+				this.latest[i] = null;
+				if (this.requested != Long.MAX_VALUE)
+					this.requested--;
+				this.downstream.onNext(event);
+			}
+		}
+
+		@Override
+		public synchronized void onError(Throwable t) {
+			if (terminate())
+				this.downstream.onError(t);
+		}
+
+		@Override
+		public synchronized void onComplete() {
+			if (terminate())
+				this.downstream.onComplete();
+		}
+
+		private boolean terminate() {
+			if (this.done)
+				return false;
+			this.done = true;
+			if (this.task != null)
+				this.task.cancel(false);
+			return true;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				GpioSubscription upstream;
+				synchronized (this) {
+					upstream = this.upstream;
+					if (terminate())
+						this.downstream.onError(
+								new IllegalArgumentException("Requested " + n + " events, must be greater than 0"));
+				}
+				if (upstream != null)
+					upstream.cancel();
+				return;
+			}
+			synchronized (this) {
+				this.requested += n;
+				if (this.requested < 0L)
+					this.requested = Long.MAX_VALUE;
+			}
+		}
+
+		@Override
+		public void cancel() {
+			GpioSubscription upstream;
+			synchronized (this) {
+				terminate();
+				upstream = this.upstream;
+			}
+			if (upstream != null)
+				upstream.cancel();
+		}
+	}
+}
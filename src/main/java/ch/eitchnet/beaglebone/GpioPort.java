@@ -0,0 +1,261 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * A parallel port of up to 32 {@link Gpio}s, e.g. the data lines of a character LCD or the inputs of a resistor ladder
+ * DAC, whose {@link Signal}s are written and read as an <code>int</code> value. Bit <i>i</i> of the value is the
+ * {@link Gpio} at index <i>i</i> of the list the port was constructed with, a set bit is {@link Signal#HIGH}
+ * </p>
+ *
+ * <p>
+ * The {@link Gpio}s are grouped by their GPIO bank, i.e. {@link Pin#getChip()}, and for each bank lookup tables are
+ * precomputed, which translate each byte of a value into the bit mask of the bank's {@link Gpio}s, and back. Thus a
+ * value is written with at most one {@link GpioBridge#writeBank(int, int, int)} per bank and read with at most one
+ * {@link GpioBridge#readBank(int, int)} per bank, which on a register based backend is a single store or load, and
+ * the edges of the {@link Gpio}s on the same bank are simultaneous. Only the {@link Gpio}s whose bit differs from the
+ * last written value are written, and a bank none of whose bits changed is skipped entirely, which on the sysfs backend
+ * saves a system call per unchanged {@link Gpio}
+ * </p>
+ *
+ * <p>
+ * All {@link Gpio}s of a port must have the same {@link Direction}: an output port is written with
+ * {@link #write(int)}, an input port is read with {@link #read()}
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioPort {
+
+	private final GpioBridge gpioBridge;
+	private final List<Gpio> gpios;
+	private final Direction direction;
+	private final int widthMask;
+
+	private final int[] chips;
+	private final int[] bankMasks;
+	private final int[] valueMasks;
+
+	// per bank and byte of the value the bank's bit masks, and per bank and byte of the bank the value's bits
+	private final int[][][] toBank;
+	private final int[][][] toValue;
+
+	private boolean written;
+	private int value;
+
+	/**
+	 * Constructs a new {@link GpioPort}. An output port is not written until {@link #write(int)} is called
+	 *
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} from which the {@link Gpio}s were retrieved
+	 * @param gpios
+	 *            the {@link Gpio}s of the port, the {@link Gpio} at index <i>i</i> is bit <i>i</i> of the value
+	 *
+	 * @throws GpioException
+	 *             if there are no or more than 32 {@link Gpio}s, a {@link Pin} is in the list twice, or the
+	 *             {@link Gpio}s do not all have the same {@link Direction}
+	 */
+	public GpioPort(GpioBridge gpioBridge, List<Gpio> gpios) throws GpioException {
+		if (gpios.isEmpty() || gpios.size() > 32)
+			throw new GpioException("A port must have between 1 and 32 GPIOs: " + gpios.size());
+
+		Direction direction = gpios.get(0).getDirection();
+		int[] pinMasks = new int[AbstractGpioBridge.NR_OF_BANKS];
+		for (Gpio gpio : gpios) {
+			Pin pin = gpio.getPin();
+			if (gpio.getDirection() != direction)
+				throw new GpioException("All GPIOs of a port must have the direction " + direction + ": " + gpio);
+			if ((pinMasks[pin.getChip()] & (1 << pin.getPin())) != 0)
+				throw new GpioException("GPIO " + gpio + " is in the port twice!");
+			pinMasks[pin.getChip()] |= 1 << pin.getPin();
+		}
+
+		this.gpioBridge = gpioBridge;
+		this.gpios = Collections.unmodifiableList(new ArrayList<>(gpios));
+		this.direction = direction;
+		this.widthMask = gpios.size() == 32 ? -1 : (1 << gpios.size()) - 1;
+
+		int nrOfBanks = 0;
+		for (int mask : pinMasks) {
+			if (mask != 0)
+				nrOfBanks++;
+		}
+
+		this.chips = new int[nrOfBanks];
+		this.bankMasks = new int[nrOfBanks];
+		this.valueMasks = new int[nrOfBanks];
+		this.toBank = new int[nrOfBanks][][];
+		this.toValue = new int[nrOfBanks][][];
+
+		int bank = 0;
+		for (int chip = 0; chip < pinMasks.length; chip++) {
+			if (pinMasks[chip] == 0)
+				continue;
+
+			// bit i of the value is bit pinBits[i] of the bank, or -1 if on another bank
+			int[] pinBits = new int[32];
+			int[] valueBits = new int[32];
+			int valueMask = 0;
+			for (int i = 0; i < 32; i++) {
+				pinBits[i] = -1;
+				valueBits[i] = -1;
+			}
+			for (int i = 0; i < gpios.size(); i++) {
+				Pin pin = gpios.get(i).getPin();
+				if (pin.getChip() != chip)
+					continue;
+				pinBits[i] = pin.getPin();
+				valueBits[pin.getPin()] = i;
+				valueMask |= 1 << i;
+			}
+
+			this.chips[bank] = chip;
+			this.bankMasks[bank] = pinMasks[chip];
+			this.valueMasks[bank] = valueMask;
+			this.toBank[bank] = tables(pinBits);
+			this.toValue[bank] = tables(valueBits);
+			bank++;
+		}
+	}
+
+	/**
+	 * Builds the lookup tables which move the bits of each byte of a word to the given bits
+	 *
+	 * @param bits
+	 *            the target bit of each bit of the word, or -1 if the bit is not moved
+	 *
+	 * @return per byte of the word a table of 256 entries, or null if no bit of the byte is moved
+	 */
+	private static int[][] tables(int[] bits) {
+		int[][] tables = new int[4][];
+		for (int b = 0; b < 4; b++) {
+			boolean used = false;
+			for (int i = 0; i < 8; i++) {
+				if (bits[b * 8 + i] >= 0)
+					used = true;
+			}
+			if (!used)
+				continue;
+
+			int[] table = new int[256];
+			for (int v = 0; v < 256; v++) {
+				int result = 0;
+				for (int i = 0; i < 8; i++) {
+					int bit = bits[b * 8 + i];
+					if (bit >= 0 && ((v >>> i) & 1) == 1)
+						result |= 1 << bit;
+				}
+				table[v] = result;
+			}
+			tables[b] = table;
+		}
+		return tables;
+	}
+
+	private static int translate(int[][] tables, int word) {
+		int result = 0;
+		for (int b = 0; b < 4; b++) {
+			int[] table = tables[b];
+			if (table != null)
+				result |= table[(word >>> (b * 8)) & 0xFF];
+		}
+		return result;
+	}
+
+	/**
+	 * @return the {@link Gpio}s of the port, the {@link Gpio} at index <i>i</i> is bit <i>i</i> of the value
+	 */
+	public List<Gpio> getGpios() {
+		return this.gpios;
+	}
+
+	/**
+	 * @return the number of {@link Gpio}s of the port
+	 */
+	public int getWidth() {
+		return this.gpios.size();
+	}
+
+	/**
+	 * @return the {@link Direction} of the {@link Gpio}s of the port
+	 */
+	public Direction getDirection() {
+		return this.direction;
+	}
+
+	/**
+	 * @return the number of GPIO banks the {@link Gpio}s of the port are on, which is the number of operations needed
+	 *         to write or read a value
+	 */
+	public int getNrOfBanks() {
+		return this.chips.length;
+	}
+
+	/**
+	 * @return the last written or read value
+	 */
+	public synchronized int getValue() {
+		return this.value;
+	}
+
+	/**
+	 * Writes the given value to the {@link Gpio}s of an output port. Only the {@link Gpio}s whose bit differs from the
+	 * last written value are written, and each bank with at most one operation
+	 *
+	 * @param value
+	 *            the value to write, bits above the width of the port are ignored
+	 *
+	 * @throws GpioException
+	 *             if the port is not an output port, or writing fails, in which case the next write writes all
+	 *             {@link Gpio}s again
+	 */
+	public synchronized void write(int value) throws GpioException {
+		if (this.direction != Direction.OUT)
+			throw new GpioException("For writing the direction must be " + Direction.OUT + " for port " + this);
+
+		value &= this.widthMask;
+		int changed = this.written ? value ^ this.value : -1;
+		this.written = false;
+		for (int bank = 0; bank < this.chips.length; bank++) {
+			if ((changed & this.valueMasks[bank]) == 0)
+				continue;
+
+			int writeMask = translate(this.toBank[bank], changed);
+			int setMask = translate(this.toBank[bank], value) & writeMask;
+			this.gpioBridge.writeBank(this.chips[bank], setMask, writeMask & ~setMask);
+		}
+
+		this.value = value;
+		this.written = true;
+	}
+
+	/**
+	 * Reads the value of the {@link Gpio}s of an input port, reading each bank with one operation
+	 *
+	 * @return the read value, bit <i>i</i> is the {@link Gpio} at index <i>i</i>
+	 *
+	 * @throws GpioException
+	 *             if the port is not an input port, or reading fails
+	 */
+	public synchronized int read() throws GpioException {
+		if (this.direction != Direction.IN)
+			throw new GpioException("For reading the direction must be " + Direction.IN + " for port " + this);
+
+		int value = 0;
+		for (int bank = 0; bank < this.chips.length; bank++) {
+			int levels = this.gpioBridge.readBank(this.chips[bank], this.bankMasks[bank]);
+			value |= translate(this.toValue[bank], levels);
+		}
+
+		this.value = value;
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return "GpioPort " + this.gpios;
+	}
+}
@@ -0,0 +1,82 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * A publisher of the {@link GpioEvent}s of input {@link Gpio}s to {@link GpioSubscriber}s, which are only passed as
+ * many {@link GpioEvent}s as they requested. Follows the contract of a Reactive Streams <code>Publisher</code>, so that
+ * it can be adapted to <code>java.util.concurrent.Flow</code> or any Reactive Streams library with a few lines
+ * </p>
+ *
+ * <p>
+ * The operators {@link #distinctUntilChanged()}, {@link #throttle(long, TimeUnit)} and
+ * {@link #sample(long, TimeUnit, ScheduledExecutorService)} return publishers which reduce the {@link GpioEvent}s
+ * before they are passed to the subscriber, so that a slow subscriber does not need to buffer every edge
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ *
+ * @see GpioEventPublisher
+ */
+public interface GpioPublisher {
+
+	/**
+	 * Subscribes the given {@link GpioSubscriber}, which is passed its {@link GpioSubscription} with
+	 * {@link GpioSubscriber#onSubscribe(GpioSubscription)}
+	 *
+	 * @param subscriber
+	 *            the {@link GpioSubscriber} to subscribe
+	 */
+	public void subscribe(GpioSubscriber subscriber);
+
+	/**
+	 * Returns a {@link GpioPublisher} which only passes a {@link GpioEvent} if its new {@link Signal} differs from the
+	 * {@link Signal} of the last passed {@link GpioEvent} of the same {@link Pin}, e.g. after events were dropped
+	 *
+	 * @return the {@link GpioPublisher}
+	 */
+	public default GpioPublisher distinctUntilChanged() {
+		return subscriber -> subscribe(new GpioOperators.DistinctSubscriber(subscriber));
+	}
+
+	/**
+	 * Returns a {@link GpioPublisher} which passes the first {@link GpioEvent} of a {@link Pin}, and then drops the
+	 * {@link GpioEvent}s of the {@link Pin} read within the given window after it
+	 *
+	 * @param window
+	 *            the window after a passed {@link GpioEvent}, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the window
+	 *
+	 * @return the {@link GpioPublisher}
+	 */
+	public default GpioPublisher throttle(long window, TimeUnit unit) {
+		if (window <= 0)
+			throw new IllegalArgumentException("The throttle window must be greater than 0, but was " + window);
+		long windowNanos = unit.toNanos(window);
+		return subscriber -> subscribe(new GpioOperators.ThrottleSubscriber(subscriber, windowNanos));
+	}
+
+	/**
+	 * Returns a {@link GpioPublisher} which keeps only the latest {@link GpioEvent} of each {@link Pin}, and passes
+	 * the kept {@link GpioEvent}s once per period. If the subscriber has no demand, the latest {@link GpioEvent}s are
+	 * kept until it has
+	 *
+	 * @param period
+	 *            the period, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the period
+	 * @param scheduler
+	 *            the {@link ScheduledExecutorService} on which the {@link GpioEvent}s are passed
+	 *
+	 * @return the {@link GpioPublisher}
+	 */
+	public default GpioPublisher sample(long period, TimeUnit unit, ScheduledExecutorService scheduler) {
+		if (period <= 0)
+			throw new IllegalArgumentException("The sample period must be greater than 0, but was " + period);
+		long periodNanos = unit.toNanos(period);
+		return subscriber -> subscribe(new GpioOperators.SampleSubscriber(subscriber, periodNanos, scheduler));
+	}
+}
@@ -0,0 +1,49 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Maps the registers of a GPIO bank into memory, on which the {@link MappedGpioBridge} is built. The registers are
+ * mapped from <code>/dev/mem</code>, which is a character device: it reports a size of zero, and thus can not be
+ * mapped with {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long)}. The
+ * implementation for real hardware must be provided natively, e.g. with JNI calling <code>mmap()</code>, and is found
+ * with the {@link java.util.ServiceLoader}
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioRegisterMapper {
+
+	/**
+	 * Maps the given range of the given file into memory, i.e. <code>mmap()</code> with <code>PROT_READ</code>,
+	 * <code>PROT_WRITE</code> and <code>MAP_SHARED</code>
+	 *
+	 * @param file
+	 *            the file to map, usually <code>/dev/mem</code>
+	 * @param address
+	 *            the offset in the file of the range to map, i.e. the physical address of a GPIO bank
+	 * @param size
+	 *            the size of the range to map
+	 *
+	 * @return a direct {@link ByteBuffer} on the mapped range, whose reads and writes are done on the registers
+	 *
+	 * @throws IOException
+	 *             if the file can not be mapped, e.g. as the process is not running as root
+	 */
+	public ByteBuffer map(File file, long address, int size) throws IOException;
+
+	/**
+	 * Unmaps a range which was mapped with {@link #map(File, long, int)}, i.e. <code>munmap()</code>. The
+	 * {@link ByteBuffer} must not be accessed afterwards
+	 *
+	 * @param registers
+	 *            the {@link ByteBuffer} returned by {@link #map(File, long, int)}
+	 *
+	 * @throws IOException
+	 *             if the range can not be unmapped
+	 */
+	public void unmap(ByteBuffer registers) throws IOException;
+}
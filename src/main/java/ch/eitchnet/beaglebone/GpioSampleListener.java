@@ -0,0 +1,36 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Interface to define a listener which is called inline on the {@link GpioBridge}'s observing {@link Thread} for every
+ * change to the {@link Signal} of an input {@link Gpio}, as soon as the change was read
+ * </p>
+ * 
+ * <p>
+ * Contrary to the {@link GpioSignalListener} and {@link GpioEventListener}, no {@link GpioEvent} is allocated and the
+ * listener is never called on the dispatch {@link java.util.concurrent.Executor}, thus it is suited for components
+ * which must keep up with high edge rates, e.g. a {@link GpioEdgeBuffer}. The listener must return quickly, as it
+ * delays the reading of all observed pins, and must not block
+ * </p>
+ * 
+ * <p>
+ * Register the {@link GpioSampleListener} calling
+ * {@link GpioBridge#registerSampleListener(Gpio, Edge, long, java.util.concurrent.TimeUnit, GpioSampleListener)}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioSampleListener {
+
+	/**
+	 * Notifies the {@link GpioSampleListener} of a change to the {@link Signal} of a {@link Gpio}
+	 * 
+	 * @param gpio
+	 *            the {@link Gpio} which changed
+	 * @param signal
+	 *            the {@link Signal} to which the {@link Gpio} changed
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} at which the change was read
+	 */
+	public void onSample(Gpio gpio, Signal signal, long timestamp);
+}
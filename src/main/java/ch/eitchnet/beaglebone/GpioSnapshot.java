@@ -0,0 +1,161 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * A snapshot of the {@link Signal}s of all input {@link Gpio}s, read in a single pass by calling
+ * {@link GpioBridge#readAll(GpioSnapshot)}
+ * </p>
+ * 
+ * <p>
+ * The {@link Signal}s are stored as one bit set per GPIO bank, where bit <i>n</i> of bank <i>c</i> is the {@link Pin}
+ * with {@link Pin#getChip()} <i>c</i> and {@link Pin#getPin()} <i>n</i>, i.e. the {@link Pin#getGpioNr()} is the index
+ * over all banks. A set bit is {@link Signal#HIGH}. This allows to compare snapshots with a XOR per bank, instead of
+ * comparing each {@link Gpio}
+ * </p>
+ * 
+ * <p>
+ * A {@link GpioSnapshot} is mutable so that it can be reused for every read, and is not thread-safe
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioSnapshot {
+
+	private final int[] levels;
+	private final int[] masks;
+	private final int[] changes;
+	private long timestamp;
+
+	/**
+	 * Constructs a new empty {@link GpioSnapshot}
+	 */
+	public GpioSnapshot() {
+		this.levels = new int[AbstractGpioBridge.NR_OF_BANKS];
+		this.masks = new int[AbstractGpioBridge.NR_OF_BANKS];
+		this.changes = new int[AbstractGpioBridge.NR_OF_BANKS];
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * @param chip
+	 *            the GPIO bank
+	 * @param mask
+	 *            the bit mask of the {@link Gpio}s which were read
+	 * @param levels
+	 *            the bit set of the {@link Signal}s which were read
+	 * @param changes
+	 *            the bit mask of the {@link Gpio}s whose {@link Signal} changed with this read
+	 */
+	void setBank(int chip, int mask, int levels, int changes) {
+		this.masks[chip] = mask;
+		this.levels[chip] = levels & mask;
+		this.changes[chip] = changes & mask;
+	}
+
+	/**
+	 * <p>
+	 * THIS METHOD IS ONLY CALLED BY THE {@link GpioBridge}
+	 * </p>
+	 * 
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} at which the snapshot was read
+	 */
+	void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * @return the {@link System#nanoTime()} at which the snapshot was read
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * 
+	 * @return the bit set of the {@link Signal}s of the given bank, a set bit is {@link Signal#HIGH}
+	 */
+	public int getLevels(int chip) {
+		return this.levels[chip];
+	}
+
+	/**
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * 
+	 * @return the bit mask of the {@link Gpio}s of the given bank which were read
+	 */
+	public int getMask(int chip) {
+		return this.masks[chip];
+	}
+
+	/**
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * 
+	 * @return the bit mask of the {@link Gpio}s of the given bank whose read {@link Signal} differs from their
+	 *         {@link Gpio#getSignal()}, i.e. which changed since the observing {@link Thread} of the
+	 *         {@link GpioBridge} last read them
+	 */
+	public int getChanges(int chip) {
+		return this.changes[chip];
+	}
+
+	/**
+	 * Returns the bit mask of the {@link Gpio}s of the given bank whose {@link Signal} differs between this and the
+	 * given snapshot. Only {@link Gpio}s which were read in both snapshots are compared
+	 * 
+	 * @param other
+	 *            the snapshot to compare with
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * 
+	 * @return the bit mask of the {@link Gpio}s whose {@link Signal} differs
+	 */
+	public int diff(GpioSnapshot other, int chip) {
+		return (this.levels[chip] ^ other.levels[chip]) & this.masks[chip] & other.masks[chip];
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin} to check
+	 * 
+	 * @return true if the {@link Pin} was read in this snapshot
+	 */
+	public boolean contains(Pin pin) {
+		return ((this.masks[pin.getChip()] >>> pin.getPin()) & 1) == 1;
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin} for which to return the {@link Signal}
+	 * 
+	 * @return the {@link Signal} of the {@link Pin}
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the {@link Pin} was not read in this snapshot
+	 */
+	public Signal getSignal(Pin pin) {
+		if (!contains(pin))
+			throw new IllegalArgumentException("Pin " + pin + " was not read in this snapshot!");
+		return Signal.getSignal((this.levels[pin.getChip()] >>> pin.getPin()) & 1);
+	}
+
+	/**
+	 * Copies the state of the given snapshot into this snapshot
+	 * 
+	 * @param other
+	 *            the snapshot to copy
+	 */
+	public void copyFrom(GpioSnapshot other) {
+		System.arraycopy(other.levels, 0, this.levels, 0, this.levels.length);
+		System.arraycopy(other.masks, 0, this.masks, 0, this.masks.length);
+		System.arraycopy(other.changes, 0, this.changes, 0, this.changes.length);
+		this.timestamp = other.timestamp;
+	}
+}
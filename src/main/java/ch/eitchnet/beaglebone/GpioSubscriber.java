@@ -0,0 +1,48 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Receives the {@link GpioEvent}s of a {@link GpioPublisher} according to its demand, which it signals with
+ * {@link GpioSubscription#request(long)}. Follows the contract of a Reactive Streams <code>Subscriber</code>: the
+ * methods are called serially, {@link #onSubscribe(GpioSubscription)} first, and at most one of
+ * {@link #onError(Throwable)} and {@link #onComplete()} last
+ * </p>
+ *
+ * <p>
+ * The methods may be called by the observing {@link Thread} of the {@link GpioBridge}, thus they must return quickly
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioSubscriber {
+
+	/**
+	 * Called once when subscribing to a {@link GpioPublisher}, no {@link GpioEvent}s are passed until they are
+	 * requested with the given {@link GpioSubscription}
+	 *
+	 * @param subscription
+	 *            the {@link GpioSubscription} with which {@link GpioEvent}s are requested
+	 */
+	public void onSubscribe(GpioSubscription subscription);
+
+	/**
+	 * Passes the next requested {@link GpioEvent}
+	 *
+	 * @param event
+	 *            the {@link GpioEvent}
+	 */
+	public void onNext(GpioEvent event);
+
+	/**
+	 * Called when the subscription failed, after which no more {@link GpioEvent}s are passed
+	 *
+	 * @param t
+	 *            the failure
+	 */
+	public void onError(Throwable t);
+
+	/**
+	 * Called when the {@link GpioPublisher} was closed and all requested {@link GpioEvent}s were passed
+	 */
+	public void onComplete();
+}
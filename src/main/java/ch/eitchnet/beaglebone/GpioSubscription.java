@@ -0,0 +1,30 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * The link between a {@link GpioPublisher} and a {@link GpioSubscriber}, through which the subscriber signals its
+ * demand for {@link GpioEvent}s, or cancels the subscription. Follows the contract of a Reactive Streams
+ * <code>Subscription</code>
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public interface GpioSubscription {
+
+	/**
+	 * Adds the given number of {@link GpioEvent}s to the demand of the {@link GpioSubscriber}, which is never passed
+	 * more {@link GpioEvent}s than it requested. A demand of {@link Long#MAX_VALUE} is unbounded
+	 *
+	 * @param n
+	 *            the number of {@link GpioEvent}s to add to the demand, must be greater than 0, otherwise the
+	 *            subscriber is passed an {@link IllegalArgumentException} with
+	 *            {@link GpioSubscriber#onError(Throwable)}
+	 */
+	public void request(long n);
+
+	/**
+	 * Cancels the subscription, after which the {@link GpioSubscriber} is eventually not passed any more
+	 * {@link GpioEvent}s
+	 */
+	public void cancel();
+}
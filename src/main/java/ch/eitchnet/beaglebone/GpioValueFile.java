@@ -0,0 +1,86 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Holds the kernel's <code>value</code> file of a {@link Gpio} open for the lifetime of the {@link Gpio}
+ * </p>
+ * 
+ * <p>
+ * Reading and writing is done with positional access at offset 0, using a preallocated direct buffer, so that the
+ * steady-state read and write path only costs a single system call and does not allocate any objects. The caller must
+ * ensure that only one thread at a time reads or writes, as the buffer is shared
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class GpioValueFile implements Closeable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	/**
+	 * Opens the given <code>value</code> file for reading if the {@link Direction} is {@link Direction#IN}, or for
+	 * writing if the {@link Direction} is {@link Direction#OUT}, and also for reading if permitted, so that a written
+	 * {@link Signal} can be read back
+	 * 
+	 * @param file
+	 *            the <code>value</code> file to open
+	 * @param direction
+	 *            the {@link Direction} of the {@link Gpio}
+	 * 
+	 * @throws IOException
+	 *             if the file can not be opened
+	 */
+	GpioValueFile(File file, Direction direction) throws IOException {
+		if (direction == Direction.IN)
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		else if (file.canRead())
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		else
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocateDirect(1);
+	}
+
+	/**
+	 * Reads the current {@link Signal} from the <code>value</code> file
+	 * 
+	 * @return the current {@link Signal}
+	 * 
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	Signal read() throws IOException {
+		this.buffer.clear();
+		if (this.channel.read(this.buffer, 0L) != 1)
+			throw new IOException("Value file is empty!");
+		return Signal.getSignal((char) this.buffer.get(0));
+	}
+
+	/**
+	 * Writes the given {@link Signal} to the <code>value</code> file
+	 * 
+	 * @param signal
+	 *            the {@link Signal} to write
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void write(Signal signal) throws IOException {
+		this.buffer.clear();
+		this.buffer.put(0, (byte) signal.getValueC());
+		if (this.channel.write(this.buffer, 0L) != 1)
+			throw new IOException("Value was not written!");
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,172 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A histogram of durations in nanoseconds with a fixed relative precision, in the style of an HDR histogram: values
+ * below 32ns are counted exactly, larger values in buckets whose width doubles with each power of two, with 16 buckets
+ * per power of two, so that a percentile is reported with an error of at most 1/16th of its value
+ * </p>
+ * 
+ * <p>
+ * The buckets are preallocated, thus recording does not allocate and costs an atomic increment, and the whole range
+ * of positive <code>long</code> values is covered. Recording may be done concurrently from any {@link Thread}, and
+ * {@link #getSnapshot()} returns an immutable {@link Snapshot}, which is consistent enough for monitoring, but may miss
+ * values recorded concurrently
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class LatencyHistogram {
+
+	private static final int EXACT = 32;
+	private static final int SUB_BUCKETS = 16;
+	private static final int SUB_BITS = 4;
+	private static final int NR_OF_BUCKETS = EXACT + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets;
+	private final LongAdder sum;
+	private final AtomicLong max;
+
+	/**
+	 * Constructs a new empty {@link LatencyHistogram}
+	 */
+	public LatencyHistogram() {
+		this.buckets = new AtomicLongArray(NR_OF_BUCKETS);
+		this.sum = new LongAdder();
+		this.max = new AtomicLong();
+	}
+
+	/**
+	 * Records the given duration, negative durations are recorded as 0
+	 * 
+	 * @param nanos
+	 *            the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0L)
+			nanos = 0L;
+		this.buckets.incrementAndGet(getBucket(nanos));
+		this.sum.add(nanos);
+
+		long max = this.max.get();
+		while (nanos > max && !this.max.compareAndSet(max, nanos)) {
+			max = this.max.get();
+		}
+	}
+
+	/**
+	 * Clears all recorded durations
+	 */
+	public void reset() {
+		for (int i = 0; i < NR_OF_BUCKETS; i++) {
+			this.buckets.set(i, 0L);
+		}
+		this.sum.reset();
+		this.max.set(0L);
+	}
+
+	/**
+	 * @return an immutable {@link Snapshot} of the recorded durations
+	 */
+	public Snapshot getSnapshot() {
+		long[] counts = new long[NR_OF_BUCKETS];
+		long count = 0L;
+		for (int i = 0; i < NR_OF_BUCKETS; i++) {
+			counts[i] = this.buckets.get(i);
+			count += counts[i];
+		}
+		return new Snapshot(counts, count, this.sum.sum(), this.max.get());
+	}
+
+	private static int getBucket(long value) {
+		if (value < EXACT)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return EXACT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	private static long getHighestValue(int bucket) {
+		if (bucket < EXACT)
+			return bucket;
+		int index = bucket - EXACT;
+		int shift = index / SUB_BUCKETS + 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1L;
+	}
+
+	/**
+	 * An immutable snapshot of the durations recorded by a {@link LatencyHistogram}
+	 * 
+	 * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+	 */
+	public static class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * @return the number of recorded durations
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * @return the mean of the recorded durations in nanoseconds, or 0 if nothing was recorded
+		 */
+		public double getMean() {
+			return this.count == 0L ? 0.0 : (double) this.sum / this.count;
+		}
+
+		/**
+		 * @return the longest recorded duration in nanoseconds
+		 */
+		public long getMax() {
+			return this.max;
+		}
+
+		/**
+		 * Returns the duration below or at which the given percentage of the recorded durations are, rounded up to
+		 * the precision of the histogram
+		 * 
+		 * @param percentile
+		 *            the percentile, between 0.0 and 100.0
+		 * 
+		 * @return the duration in nanoseconds at the given percentile, or 0 if nothing was recorded
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (percentile < 0.0 || percentile > 100.0)
+				throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+			if (this.count == 0L)
+				return 0L;
+
+			long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * this.count));
+			long seen = 0L;
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+				if (seen >= rank)
+					return Math.min(getHighestValue(i), this.max);
+			}
+			return this.max;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("LatencyHistogram [count=%d, mean=%.1fns, p50=%dns, p99=%dns, max=%dns]", this.count,
+					getMean(), getValueAtPercentile(50.0), getValueAtPercentile(99.0), this.max);
+		}
+	}
+}
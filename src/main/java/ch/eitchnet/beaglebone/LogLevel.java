@@ -0,0 +1,30 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Defines the severity of a message logged with a {@link GpioLogger}, from the most verbose {@link #TRACE} to the most
+ * severe {@link #ERROR}
+ * </p>
+ * 
+ * <p>
+ * Messages on the read and write paths are logged with {@link #TRACE}, so that they are only built when explicitly
+ * enabled
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public enum LogLevel {
+	TRACE, DEBUG, INFO, WARN, ERROR;
+
+	/**
+	 * Returns true if a message with this level is logged when the given threshold is configured
+	 * 
+	 * @param threshold
+	 *            the least severe {@link LogLevel} which is logged
+	 * 
+	 * @return true if this level is at least as severe as the given threshold
+	 */
+	public boolean isEnabled(LogLevel threshold) {
+		return ordinal() >= threshold.ordinal();
+	}
+}
@@ -0,0 +1,255 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * <p>
+ * A {@link GpioBridge} which accesses the GPIO registers of the AM335x CPU of the BeagleBoneBlack directly, by mapping
+ * the four GPIO banks from <code>/dev/mem</code> into memory. Writing a {@link Signal} is a single store to the
+ * <code>GPIO_SETDATAOUT</code> or <code>GPIO_CLEARDATAOUT</code> register, and reading is a single load from the
+ * <code>GPIO_DATAIN</code> register, thus this bridge is orders of magnitude faster than the sysfs interface
+ * </p>
+ * 
+ * <p>
+ * The pins must still be exported and configured, e.g. by using <code>exportPins.sh</code>, as the direction of a
+ * {@link Gpio} is validated against the <code>GPIO_OE</code> register. Accessing <code>/dev/mem</code> requires root
+ * privileges
+ * </p>
+ * 
+ * <p>
+ * <code>/dev/mem</code> is a character device, which can not be mapped with a
+ * {@link java.nio.channels.FileChannel}, thus the banks are mapped by a native {@link GpioRegisterMapper}, which
+ * {@link #getInstance()} finds with the {@link ServiceLoader}. None is shipped with this library, which is why this
+ * bridge can not be selected with {@link GpioBridge#PROP_BACKEND}. Without a {@link GpioRegisterMapper}, a regular
+ * file can be used as the backing mapping, e.g. for testing with a temporary file where the banks are laid out
+ * consecutively using {@link #CONSECUTIVE_BANK_ADDRESSES}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class MappedGpioBridge extends AbstractGpioBridge {
+
+	private static final String DEV_MEM = "/dev/mem";
+
+	/**
+	 * The physical addresses of the GPIO banks 0 to 3 of the AM335x CPU
+	 */
+	public static final long[] AM335X_BANK_ADDRESSES = { 0x44E07000L, 0x4804C000L, 0x481AC000L, 0x481AE000L };
+
+	/**
+	 * The addresses of the GPIO banks 0 to 3, when laid out consecutively in a file, e.g. for testing
+	 */
+	public static final long[] CONSECUTIVE_BANK_ADDRESSES = { 0x0000L, 0x1000L, 0x2000L, 0x3000L };
+
+	/**
+	 * The size of the mapped register space of a single GPIO bank
+	 */
+	public static final int BANK_SIZE = 0x1000;
+
+	public static final int GPIO_OE = 0x134;
+	public static final int GPIO_DATAIN = 0x138;
+	public static final int GPIO_DATAOUT = 0x13C;
+	public static final int GPIO_CLEARDATAOUT = 0x190;
+	public static final int GPIO_SETDATAOUT = 0x194;
+
+	private static MappedGpioBridge instance;
+
+	private final File file;
+	private final GpioRegisterMapper mapper;
+	private final ByteBuffer[] banks;
+
+	/**
+	 * Returns the instance of the {@link MappedGpioBridge} on <code>/dev/mem</code>, mapped by the first
+	 * {@link GpioRegisterMapper} found with the {@link ServiceLoader}, which is created on the first call
+	 * 
+	 * @return the instance of the {@link MappedGpioBridge}
+	 * 
+	 * @throws GpioException
+	 *             if no {@link GpioRegisterMapper} implementation is on the class path, or <code>/dev/mem</code> can
+	 *             not be mapped
+	 */
+	public static synchronized GpioBridge getInstance() throws GpioException {
+		if (instance == null) {
+			Iterator<GpioRegisterMapper> iterator = ServiceLoader.load(GpioRegisterMapper.class).iterator();
+			if (!iterator.hasNext())
+				throw new GpioException("No native " + GpioRegisterMapper.class.getName()
+						+ " implementation found, is it on the class path?");
+			instance = new MappedGpioBridge(iterator.next(), new File(DEV_MEM), AM335X_BANK_ADDRESSES,
+					new PollingEdgeWatcher());
+		}
+		return instance;
+	}
+
+	/**
+	 * Constructs a new {@link MappedGpioBridge} by mapping the GPIO banks from the given regular file with a
+	 * {@link java.nio.channels.FileChannel}, e.g. for testing. Character devices such as <code>/dev/mem</code> need a
+	 * native {@link GpioRegisterMapper}, see
+	 * {@link #MappedGpioBridge(GpioRegisterMapper, File, long[], GpioEdgeWatcher)}
+	 * 
+	 * @param file
+	 *            the regular file from which to map the GPIO banks
+	 * @param bankAddresses
+	 *            the addresses of the four GPIO banks in the given file, usually {@link #CONSECUTIVE_BANK_ADDRESSES}
+	 * @param edgeWatcher
+	 *            the {@link GpioEdgeWatcher} with which the observing {@link Thread} waits for edges
+	 * 
+	 * @throws GpioException
+	 *             if the file is not a regular file, or can not be mapped
+	 */
+	public MappedGpioBridge(File file, long[] bankAddresses, GpioEdgeWatcher edgeWatcher) throws GpioException {
+		this(new FileChannelMapper(), file, bankAddresses, edgeWatcher);
+	}
+
+	/**
+	 * Constructs a new {@link MappedGpioBridge} by mapping the GPIO banks from the given file with the given
+	 * {@link GpioRegisterMapper}
+	 * 
+	 * @param mapper
+	 *            the {@link GpioRegisterMapper} which maps the GPIO banks
+	 * @param file
+	 *            the file from which to map the GPIO banks, usually <code>/dev/mem</code>
+	 * @param bankAddresses
+	 *            the addresses of the four GPIO banks in the given file, usually {@link #AM335X_BANK_ADDRESSES}
+	 * @param edgeWatcher
+	 *            the {@link GpioEdgeWatcher} with which the observing {@link Thread} waits for edges
+	 * 
+	 * @throws GpioException
+	 *             if the file can not be mapped
+	 */
+	public MappedGpioBridge(GpioRegisterMapper mapper, File file, long[] bankAddresses, GpioEdgeWatcher edgeWatcher)
+			throws GpioException {
+		super(edgeWatcher);
+		if (bankAddresses.length != 4)
+			throw new IllegalArgumentException("Exactly 4 bank addresses are required, not " + bankAddresses.length);
+
+		this.file = file;
+		this.mapper = mapper;
+		this.banks = new ByteBuffer[bankAddresses.length];
+		for (int i = 0; i < bankAddresses.length; i++) {
+			try {
+				ByteBuffer bank = mapper.map(file, bankAddresses[i], BANK_SIZE);
+				bank.order(ByteOrder.LITTLE_ENDIAN);
+				this.banks[i] = bank;
+			} catch (IOException e) {
+				unmapBanks();
+				throw new GpioException("Failed to map GPIO bank " + i + " from " + file
+						+ ". Is the process running as root?", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the register value at the given offset of the given bank. Mainly used for testing and diagnostics
+	 * 
+	 * @param chip
+	 *            the GPIO bank, see {@link Pin#getChip()}
+	 * @param offset
+	 *            the offset of the register, e.g. {@link #GPIO_DATAOUT}
+	 * 
+	 * @return the register value
+	 */
+	public int getRegister(int chip, int offset) {
+		return this.banks[chip].getInt(offset);
+	}
+
+	@Override
+	protected void openGpio(Gpio gpio) throws GpioException {
+		Pin pin = gpio.getPin();
+		boolean input = ((getRegister(pin.getChip(), GPIO_OE) >>> pin.getPin()) & 1) == 1;
+		Direction dir = input ? Direction.IN : Direction.OUT;
+		if (dir != gpio.getDirection())
+			throw new GpioException("Actual direction of GPIO " + pin + " is " + dir + " not " + gpio.getDirection());
+	}
+
+	@Override
+	protected void closeGpio(Gpio gpio) {
+		// nothing to close, the banks are closed with the bridge
+	}
+
+	@Override
+	protected Signal doRead(Gpio gpio) {
+		Pin pin = gpio.getPin();
+		return Signal.getSignal((getRegister(pin.getChip(), GPIO_DATAIN) >>> pin.getPin()) & 1);
+	}
+
+	@Override
+	protected void doWrite(Gpio gpio, Signal signal) {
+		Pin pin = gpio.getPin();
+		int register = signal.isHigh() ? GPIO_SETDATAOUT : GPIO_CLEARDATAOUT;
+		this.banks[pin.getChip()].putInt(register, 1 << pin.getPin());
+	}
+
+	/**
+	 * Writes the whole bank with a single store to each of the <code>GPIO_SETDATAOUT</code> and
+	 * <code>GPIO_CLEARDATAOUT</code> registers
+	 */
+	@Override
+	protected void doWriteBank(int chip, int setMask, int clearMask) {
+		ByteBuffer bank = this.banks[chip];
+		if (setMask != 0)
+			bank.putInt(GPIO_SETDATAOUT, setMask);
+		if (clearMask != 0)
+			bank.putInt(GPIO_CLEARDATAOUT, clearMask);
+		updateSignals(chip, setMask, clearMask);
+	}
+
+	/**
+	 * Reads the whole bank with a single load from the <code>GPIO_DATAIN</code> register
+	 */
+	@Override
+	protected int doReadBank(int chip, int mask) {
+		return this.banks[chip].getInt(GPIO_DATAIN) & mask;
+	}
+
+	/**
+	 * Closes the {@link Gpio}s and unmaps the GPIO banks
+	 */
+	@Override
+	public void close() {
+		super.close();
+		unmapBanks();
+	}
+
+	private void unmapBanks() {
+		for (int i = 0; i < this.banks.length; i++) {
+			if (this.banks[i] == null)
+				continue;
+			try {
+				this.mapper.unmap(this.banks[i]);
+			} catch (IOException e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to unmap GPIO bank " + i + " of " + this.file, e);
+			}
+			this.banks[i] = null;
+		}
+	}
+
+	/**
+	 * The {@link GpioRegisterMapper} of regular files, which maps them with a {@link java.nio.channels.FileChannel}.
+	 * The mapping stays valid after the channel is closed, and is released by the garbage collector
+	 */
+	private static class FileChannelMapper implements GpioRegisterMapper {
+
+		@Override
+		public ByteBuffer map(File file, long address, int size) throws IOException {
+			// a character device reports a size of 0, thus FileChannel.map() would fail or map nothing
+			if (!file.isFile())
+				throw new IOException(file + " is not a regular file and can not be mapped with a FileChannel, "
+						+ "a native " + GpioRegisterMapper.class.getName() + " is required");
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				return raf.getChannel().map(MapMode.READ_WRITE, address, size);
+			}
+		}
+
+		@Override
+		public void unmap(ByteBuffer registers) {
+			// released by the garbage collector
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Records the counters and durations of an {@link AbstractGpioBridge}, from which {@link GpioMetrics} snapshots are
+ * taken
+ * </p>
+ * 
+ * <p>
+ * The counters are indexed by {@link Pin#getGpioNr()}, like the {@link Gpio}s of the bridge, and are
+ * {@link LongAdder}s, so that concurrent writers and the observing {@link Thread} do not contend on a shared counter
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class MetricsRecorder {
+
+	private final LongAdder[] reads;
+	private final LongAdder[] writes;
+	private final LongAdder[] edges;
+	private final LongAdder[] failures;
+	private final LongAdder[] elided;
+	private final LatencyHistogram pollPass;
+	private final LatencyHistogram dispatchLatency;
+
+	MetricsRecorder(int nrOfGpios) {
+		this.reads = newAdders(nrOfGpios);
+		this.writes = newAdders(nrOfGpios);
+		this.edges = newAdders(nrOfGpios);
+		this.failures = newAdders(nrOfGpios);
+		this.elided = newAdders(nrOfGpios);
+		this.pollPass = new LatencyHistogram();
+		this.dispatchLatency = new LatencyHistogram();
+	}
+
+	private static LongAdder[] newAdders(int length) {
+		LongAdder[] adders = new LongAdder[length];
+		for (int i = 0; i < length; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	private static void increment(LongAdder[] adders, int chip, int mask) {
+		while (mask != 0) {
+			int pin = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			adders[chip * 32 + pin].increment();
+		}
+	}
+
+	void recordRead(Pin pin) {
+		this.reads[pin.getGpioNr()].increment();
+	}
+
+	void recordReads(int chip, int mask) {
+		increment(this.reads, chip, mask);
+	}
+
+	void recordWrite(Pin pin) {
+		this.writes[pin.getGpioNr()].increment();
+	}
+
+	void recordWrites(int chip, int mask) {
+		increment(this.writes, chip, mask);
+	}
+
+	void recordEdges(int chip, int mask) {
+		increment(this.edges, chip, mask);
+	}
+
+	void recordFailure(Pin pin) {
+		this.failures[pin.getGpioNr()].increment();
+	}
+
+	void recordFailures(int chip, int mask) {
+		increment(this.failures, chip, mask);
+	}
+
+	void recordElided(Pin pin) {
+		this.elided[pin.getGpioNr()].increment();
+	}
+
+	void recordPollPass(long nanos) {
+		this.pollPass.record(nanos);
+	}
+
+	void recordDispatchLatency(long nanos) {
+		this.dispatchLatency.record(nanos);
+	}
+
+	long getReads(Pin pin) {
+		return this.reads[pin.getGpioNr()].sum();
+	}
+
+	long getWrites(Pin pin) {
+		return this.writes[pin.getGpioNr()].sum();
+	}
+
+	long getEdges(Pin pin) {
+		return this.edges[pin.getGpioNr()].sum();
+	}
+
+	long getFailures(Pin pin) {
+		return this.failures[pin.getGpioNr()].sum();
+	}
+
+	long getElided(Pin pin) {
+		return this.elided[pin.getGpioNr()].sum();
+	}
+
+	LatencyHistogram getPollPass() {
+		return this.pollPass;
+	}
+
+	LatencyHistogram getDispatchLatency() {
+		return this.dispatchLatency;
+	}
+
+	void reset() {
+		for (int i = 0; i < this.reads.length; i++) {
+			this.reads[i].reset();
+			this.writes[i].reset();
+			this.edges[i].reset();
+			this.failures[i].reset();
+			this.elided[i].reset();
+		}
+		this.pollPass.reset();
+		this.dispatchLatency.reset();
+	}
+}
@@ -0,0 +1,164 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The state of the {@link OutputMode} of a single output {@link Gpio}: whether its {@link Signal} is known, when it
+ * was last written, and the {@link Signal} waiting for the end of the coalescing window
+ * </p>
+ *
+ * <p>
+ * The filter is not thread safe, it is guarded by the lock of the bank of the {@link Gpio} to which it belongs
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class OutputFilter {
+
+	/**
+	 * What to do with a written {@link Signal}
+	 */
+	enum Action {
+		/**
+		 * write the {@link Signal} now
+		 */
+		WRITE,
+		/**
+		 * the {@link Signal} is not written, as it is already set, or replaced a pending {@link Signal}
+		 */
+		ELIDE,
+		/**
+		 * the {@link Signal} is pending, and the end of the window must be scheduled with {@link #getDelay(long)}
+		 */
+		SCHEDULE
+	}
+
+	private final OutputMode mode;
+	private final boolean suppression;
+	private final long window;
+
+	private boolean known;
+	private long lastWrite;
+	private Signal pending;
+	private boolean scheduled;
+
+	/**
+	 * Constructs a new {@link OutputFilter}
+	 *
+	 * @param mode
+	 *            the {@link OutputMode} configuration
+	 */
+	OutputFilter(OutputMode mode) {
+		this.mode = mode;
+		this.suppression = mode.isSuppression();
+		this.window = mode.getCoalescingWindow(TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return the {@link OutputMode} configuration
+	 */
+	OutputMode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * Decides what to do with the given written {@link Signal}
+	 *
+	 * @param current
+	 *            the current {@link Signal} of the {@link Gpio}
+	 * @param signal
+	 *            the {@link Signal} to write
+	 * @param now
+	 *            the current {@link System#nanoTime()}
+	 *
+	 * @return the {@link Action} to take
+	 */
+	Action offer(Signal current, Signal signal, long now) {
+		if (this.pending != null) {
+			this.pending = signal;
+			return Action.ELIDE;
+		}
+		if (!this.known)
+			return Action.WRITE;
+		if (this.suppression && current == signal)
+			return Action.ELIDE;
+		if (this.window != 0L && now - this.lastWrite < this.window) {
+			this.pending = signal;
+			if (this.scheduled)
+				return Action.ELIDE;
+			this.scheduled = true;
+			return Action.SCHEDULE;
+		}
+		return Action.WRITE;
+	}
+
+	/**
+	 * @param now
+	 *            the current {@link System#nanoTime()}
+	 *
+	 * @return the time in nanoseconds until the window of the last write ends
+	 */
+	long getDelay(long now) {
+		return Math.max(0L, this.lastWrite + this.window - now);
+	}
+
+	/**
+	 * Records that the {@link Signal} was written to, or read back from the hardware, thus it is known
+	 *
+	 * @param now
+	 *            the {@link System#nanoTime()} of the write
+	 */
+	void written(long now) {
+		this.known = true;
+		this.lastWrite = now;
+	}
+
+	/**
+	 * Records that the {@link Signal} of the hardware is not known, e.g. after a failed read back
+	 */
+	void forget() {
+		this.known = false;
+	}
+
+	/**
+	 * @return true if a {@link Signal} is waiting for the end of the window
+	 */
+	boolean hasPending() {
+		return this.pending != null;
+	}
+
+	/**
+	 * Removes the pending {@link Signal}, and returns it if it must be written
+	 *
+	 * @param current
+	 *            the current {@link Signal} of the {@link Gpio}
+	 *
+	 * @return the pending {@link Signal} to write, or null if there is none, or it is elided
+	 */
+	Signal takePending(Signal current) {
+		Signal signal = this.pending;
+		this.pending = null;
+		if (signal == null || (this.suppression && this.known && current == signal))
+			return null;
+		return signal;
+	}
+
+	/**
+	 * Records that the scheduled end of the window was reached, after which the pending {@link Signal} is taken
+	 */
+	void windowEnded() {
+		this.scheduled = false;
+	}
+
+	/**
+	 * Drops the pending {@link Signal}, as the {@link Gpio} is written otherwise, e.g. with its bank
+	 *
+	 * @return true if a pending {@link Signal} was dropped
+	 */
+	boolean cancel() {
+		boolean cancelled = this.pending != null;
+		this.pending = null;
+		return cancelled;
+	}
+}
@@ -0,0 +1,115 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Defines how {@link GpioBridge#writeValue(Gpio, Signal)} writes the {@link Signal} of an output {@link Gpio}, so that
+ * a controller which re-asserts its outputs at a high rate does not cost a system call for every write. Set the
+ * {@link OutputMode} of a {@link Gpio} by calling {@link GpioBridge#setOutputMode(Gpio, OutputMode)}
+ * </p>
+ *
+ * <p>
+ * The options can be combined, starting from {@link #DIRECT}, which writes every {@link Signal}:
+ * </p>
+ * <ul>
+ * <li>{@link #withSuppression()}: a write of the {@link Signal} which the {@link Gpio} already has is elided. The
+ * first write after setting the {@link OutputMode} is always done, as only then the {@link Signal} is known</li>
+ * <li>{@link #withCoalescing(long, TimeUnit)}: a write within the given window after the previous write is not done
+ * immediately, but the latest {@link Signal} is written at the end of the window, or by
+ * {@link GpioBridge#flush()}. The added latency is at most the window</li>
+ * <li>{@link #withReadback()}: after writing, the {@link Signal} is read back, and a {@link GpioException} is thrown
+ * if it differs, e.g. because the pin is shorted or not configured as output</li>
+ * </ul>
+ *
+ * <pre>
+ * gpioBridge.setOutputMode(gpio, OutputMode.DIRECT.withSuppression().withCoalescing(2, TimeUnit.MILLISECONDS));
+ * </pre>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public final class OutputMode {
+
+	/**
+	 * Every {@link Signal} is written immediately, which is the default
+	 */
+	public static final OutputMode DIRECT = new OutputMode(false, 0L, false);
+
+	private final boolean suppression;
+	private final long window;
+	private final boolean readback;
+
+	private OutputMode(boolean suppression, long window, boolean readback) {
+		this.suppression = suppression;
+		this.window = window;
+		this.readback = readback;
+	}
+
+	/**
+	 * @return a copy of this {@link OutputMode} which elides writes of the {@link Signal} the {@link Gpio} already has
+	 */
+	public OutputMode withSuppression() {
+		return new OutputMode(true, this.window, this.readback);
+	}
+
+	/**
+	 * Returns a copy of this {@link OutputMode} which coalesces the writes within the given window after a write to
+	 * the latest {@link Signal}
+	 *
+	 * @param window
+	 *            the window after a write, must be greater than 0
+	 * @param unit
+	 *            the {@link TimeUnit} of the window
+	 *
+	 * @return the {@link OutputMode}
+	 */
+	public OutputMode withCoalescing(long window, TimeUnit unit) {
+		if (window <= 0)
+			throw new IllegalArgumentException("The coalescing window must be greater than 0, but was " + window);
+		return new OutputMode(this.suppression, unit.toNanos(window), this.readback);
+	}
+
+	/**
+	 * @return a copy of this {@link OutputMode} which reads the {@link Signal} back after every write
+	 */
+	public OutputMode withReadback() {
+		return new OutputMode(this.suppression, this.window, true);
+	}
+
+	/**
+	 * @return true if writes of the {@link Signal} the {@link Gpio} already has are elided
+	 */
+	public boolean isSuppression() {
+		return this.suppression;
+	}
+
+	/**
+	 * @param unit
+	 *            the {@link TimeUnit} in which to return the window
+	 *
+	 * @return the window after a write in which writes are coalesced, or 0 if writes are not coalesced
+	 */
+	public long getCoalescingWindow(TimeUnit unit) {
+		return unit.convert(this.window, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return true if writes are coalesced
+	 */
+	public boolean isCoalescing() {
+		return this.window != 0L;
+	}
+
+	/**
+	 * @return true if the {@link Signal} is read back after every write
+	 */
+	public boolean isReadback() {
+		return this.readback;
+	}
+
+	@Override
+	public String toString() {
+		return "OutputMode [suppression=" + this.suppression + ", window=" + this.window + "ns, readback="
+				+ this.readback + "]";
+	}
+}
@@ -0,0 +1,31 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Defines what happens when a {@link Gpio} changes while the bounded queue of pending notifications of its
+ * {@link GpioSignalListener}s is full, i.e. when the listeners are slower than the {@link Signal} changes
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ * 
+ * @see GpioBridge#setDispatchExecutor(java.util.concurrent.Executor, int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * The oldest pending notification is dropped to make room for the new one
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The new change is merged into the newest pending notification, which keeps its old {@link Signal}, so that the
+	 * listeners are notified of the latest {@link Signal}
+	 */
+	COALESCE,
+
+	/**
+	 * The observing {@link Thread} blocks until there is room in the queue. This guarantees that every change is
+	 * notified, at the cost of delaying the reading of all pins
+	 */
+	BLOCK;
+}
@@ -10,6 +10,11 @@ package ch.eitchnet.beaglebone;
  * input/outpunt) pin.
  * </p>
  * 
+ * <p>
+ * Some pins can alternatively be configured as an output of a hardware PWM module, which is returned by
+ * {@link #getPwm()}
+ * </p>
+ * 
  * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
  */
 public enum Pin {
@@ -24,13 +29,13 @@ public enum Pin {
 	P8_10("P8.10", 2, 4),
 	P8_11("P8.11", 1, 13),
 	P8_12("P8.12", 1, 12),
-	P8_13("P8.13", 0, 23),
+	P8_13("P8.13", 0, 23, Pwm.EHRPWM2B),
 	P8_14("P8.14", 0, 26),
 	P8_15("P8.15", 1, 15),
 	P8_16("P8.16", 1, 14),
 	P8_17("P8.17", 0, 27),
 	P8_18("P8.18", 2, 1),
-	P8_19("P8.19", 0, 22),
+	P8_19("P8.19", 0, 22, Pwm.EHRPWM2A),
 	P8_20("P8.20", 1, 31),
 	P8_21("P8.21", 1, 30),
 	P8_22("P8.22", 1, 5),
@@ -45,9 +50,9 @@ public enum Pin {
 	P8_31("P8.31", 0, 10),
 	P8_32("P8.32", 0, 11),
 	P8_33("P8.33", 0, 9),
-	P8_34("P8.34", 2, 17),
+	P8_34("P8.34", 2, 17, Pwm.EHRPWM1B),
 	P8_35("P8.35", 0, 8),
-	P8_36("P8.36", 2, 16),
+	P8_36("P8.36", 2, 16, Pwm.EHRPWM1A),
 	P8_37("P8.37", 2, 14),
 	P8_38("P8.38", 2, 15),
 	P8_39("P8.39", 2, 12),
@@ -56,30 +61,30 @@ public enum Pin {
 	P8_42("P8.42", 2, 11),
 	P8_43("P8.43", 2, 8),
 	P8_44("P8.44", 2, 9),
-	P8_45("P8.45", 2, 6),
-	P8_46("P8.46", 2, 7),
+	P8_45("P8.45", 2, 6, Pwm.EHRPWM2A),
+	P8_46("P8.46", 2, 7, Pwm.EHRPWM2B),
 
 	P9_11("P9.11", 0, 30),
 	P9_12("P9.12", 1, 28),
 	P9_13("P9.13", 0, 31),
-	P9_14("P9.14", 1, 18),
+	P9_14("P9.14", 1, 18, Pwm.EHRPWM1A),
 	P9_15("P9.15", 1, 16),
-	P9_16("P9.16", 1, 19),
+	P9_16("P9.16", 1, 19, Pwm.EHRPWM1B),
 	P9_17("P9.17", 0, 5),
 	P9_18("P9.18", 0, 4),
 	P9_19("P9.19", 0, 13),
 	P9_20("P9.20", 0, 12),
-	P9_21("P9.21", 0, 3),
-	P9_22("P9.22", 0, 2),
+	P9_21("P9.21", 0, 3, Pwm.EHRPWM0B),
+	P9_22("P9.22", 0, 2, Pwm.EHRPWM0A),
 	P9_23("P9.23", 1, 17),
 	P9_24("P9.24", 0, 15),
 	P9_25("P9.25", 3, 21),
 	P9_26("P9.26", 0, 14),
 	P9_27("P9.27", 3, 19),
 	P9_28("P9.28", 3, 17),
-	P9_29("P9.29", 3, 15),
+	P9_29("P9.29", 3, 15, Pwm.EHRPWM0B),
 	P9_30("P9.30", 3, 16),
-	P9_31("P9.31", 3, 14),
+	P9_31("P9.31", 3, 14, Pwm.EHRPWM0A),
 	P9_41A("P9.41A", 0, 20),
 	P9_41B("P9.41B", 3, 20),
 	P9_42A("P9.42A", 0, 7),
@@ -88,11 +93,17 @@ public enum Pin {
 	private String label;
 	private int chip;
 	private int pin;
+	private Pwm pwm;
 
 	private Pin(String label, int chip, int pin) {
+		this(label, chip, pin, null);
+	}
+
+	private Pin(String label, int chip, int pin, Pwm pwm) {
 		this.label = label;
 		this.chip = chip;
 		this.pin = pin;
+		this.pwm = pwm;
 	}
 
 	/**
@@ -124,6 +135,13 @@ public enum Pin {
 		return this.chip * 32 + this.pin;
 	}
 
+	/**
+	 * @return the hardware PWM output which can be configured on this pin, or null if this pin has no PWM output
+	 */
+	public Pwm getPwm() {
+		return this.pwm;
+	}
+
 	/**
 	 * Returns the configured label e.g. "P8.03"
 	 */
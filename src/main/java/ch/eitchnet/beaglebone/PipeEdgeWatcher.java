@@ -0,0 +1,149 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * An interrupt driven {@link GpioEdgeWatcher} which blocks on the source of a {@link Pipe} until an edge is signalled
+ * by calling {@link #signal()}, or the watcher is woken up with {@link #wakeup()}
+ * </p>
+ * 
+ * <p>
+ * This watcher is the stand-in for the kernel's <code>POLLPRI</code> notification in simulations, it does not observe
+ * the kernel: a simulated sysfs tree, or any other process which knows about edges, calls {@link #signal()} after
+ * changing a <code>value</code> file, and the {@link GpioBridge}'s observing {@link Thread} wakes up immediately to
+ * read the observed {@link Gpio}s
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PipeEdgeWatcher implements GpioEdgeWatcher {
+
+	private final Pipe pipe;
+	private final Selector selector;
+	private final ByteBuffer signalBuffer;
+	private final ByteBuffer drainBuffer;
+	private volatile Thread waiter;
+
+	/**
+	 * Constructs a new {@link PipeEdgeWatcher}
+	 * 
+	 * @throws GpioException
+	 *             if the {@link Pipe} can not be opened
+	 */
+	public PipeEdgeWatcher() throws GpioException {
+		try {
+			this.pipe = Pipe.open();
+			this.pipe.sink().configureBlocking(false);
+			this.pipe.source().configureBlocking(false);
+			this.selector = Selector.open();
+			this.pipe.source().register(this.selector, SelectionKey.OP_READ);
+		} catch (IOException e) {
+			throw new GpioException("Failed to open edge signal pipe", e);
+		}
+
+		this.signalBuffer = ByteBuffer.allocateDirect(1);
+		this.drainBuffer = ByteBuffer.allocateDirect(64);
+	}
+
+	/**
+	 * Signals that an edge occurred on one of the watched {@link Gpio}s. If the pipe is full, then the watcher has
+	 * pending edges anyhow, and the signal is dropped
+	 * 
+	 * @throws GpioException
+	 *             if writing to the pipe fails
+	 */
+	public void signal() throws GpioException {
+		synchronized (this.signalBuffer) {
+			try {
+				this.signalBuffer.clear();
+				this.signalBuffer.put((byte) 1);
+				this.signalBuffer.flip();
+				this.pipe.sink().write(this.signalBuffer);
+			} catch (IOException e) {
+				throw new GpioException("Failed to signal edge", e);
+			}
+		}
+	}
+
+	@Override
+	public boolean isInterruptDriven() {
+		return true;
+	}
+
+	@Override
+	public void watch(Gpio gpio, Edge edge) {
+		// edges are signalled for all pins over the same pipe
+	}
+
+	@Override
+	public void unwatch(Gpio gpio) {
+		// edges are signalled for all pins over the same pipe
+	}
+
+	@Override
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException, GpioException {
+		try {
+			// the selector can only wait for whole milliseconds, so park for shorter timeouts
+			int selected;
+			long timeoutMs = unit.toMillis(timeout);
+			if (timeoutMs == 0L) {
+				selected = this.selector.selectNow();
+				if (selected == 0) {
+					this.waiter = Thread.currentThread();
+					try {
+						LockSupport.parkNanos(this, unit.toNanos(timeout));
+					} finally {
+						this.waiter = null;
+					}
+					selected = this.selector.selectNow();
+				}
+			} else {
+				selected = this.selector.select(timeoutMs);
+			}
+			if (Thread.interrupted())
+				throw new InterruptedException();
+			if (selected == 0)
+				return false;
+
+			this.selector.selectedKeys().clear();
+			boolean signalled = false;
+			while (true) {
+				this.drainBuffer.clear();
+				if (this.pipe.source().read(this.drainBuffer) <= 0)
+					break;
+				signalled = true;
+			}
+
+			return signalled;
+
+		} catch (IOException e) {
+			throw new GpioException("Failed to wait for edges", e);
+		}
+	}
+
+	@Override
+	public void wakeup() {
+		this.selector.wakeup();
+		Thread waiter = this.waiter;
+		if (waiter != null)
+			LockSupport.unpark(waiter);
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.selector.close();
+			this.pipe.sink().close();
+			this.pipe.source().close();
+		} catch (IOException e) {
+			GpioLog.log(LogLevel.ERROR, "Failed to close edge signal pipe", e);
+		}
+	}
+}
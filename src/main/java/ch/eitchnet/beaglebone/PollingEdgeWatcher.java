@@ -0,0 +1,62 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * The default {@link GpioEdgeWatcher} which is not interrupt driven, but simply waits for the given timeout, so that
+ * the {@link GpioBridge} polls the observed {@link Gpio}s at their sample periods
+ * </p>
+ * 
+ * <p>
+ * The watcher parks the observing {@link Thread} with {@link LockSupport#parkNanos(long)}, which allows sample periods
+ * below a millisecond, and {@link #wakeup()} unparks the {@link Thread} when the sample periods change
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PollingEdgeWatcher implements GpioEdgeWatcher {
+
+	private volatile Thread waiter;
+
+	@Override
+	public boolean isInterruptDriven() {
+		return false;
+	}
+
+	@Override
+	public void watch(Gpio gpio, Edge edge) {
+		// nothing to do, all observed pins are polled
+	}
+
+	@Override
+	public void unwatch(Gpio gpio) {
+		// nothing to do, all observed pins are polled
+	}
+
+	@Override
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		this.waiter = Thread.currentThread();
+		try {
+			LockSupport.parkNanos(this, unit.toNanos(timeout));
+		} finally {
+			this.waiter = null;
+		}
+		if (Thread.interrupted())
+			throw new InterruptedException();
+		return false;
+	}
+
+	@Override
+	public void wakeup() {
+		Thread waiter = this.waiter;
+		if (waiter != null)
+			LockSupport.unpark(waiter);
+	}
+
+	@Override
+	public void close() {
+		// nothing to close
+	}
+}
@@ -0,0 +1,142 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Computes the period, frequency and pulse widths of a signal from its edges, e.g. as drained from a
+ * {@link GpioEdgeBuffer}. The analyzer keeps the last edges between calls, so that the edges can be passed in any
+ * number of chunks, and only holds primitive fields, so that analyzing does not allocate any objects
+ * </p>
+ * 
+ * <p>
+ * The period, frequency, high time and low time are those of the last complete pulse, while
+ * {@link #getMeanFrequency()} is measured over all rising edges since the last {@link #reset()}. The analyzer is not
+ * thread safe and is meant to be used by the consumer {@link Thread} of the {@link GpioEdgeBuffer}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PulseAnalyzer {
+
+	private boolean hasRising;
+	private boolean hasFalling;
+	private long lastRising;
+	private long lastFalling;
+	private long firstRising;
+	private long pulses;
+
+	private long period;
+	private long highTime;
+	private long lowTime;
+
+	/**
+	 * Analyzes the given edges
+	 * 
+	 * @param timestamps
+	 *            the {@link System#nanoTime()} of each edge
+	 * @param levels
+	 *            the level after each edge, true for {@link Signal#HIGH}
+	 * @param count
+	 *            the number of edges in the arrays
+	 */
+	public void analyze(long[] timestamps, boolean[] levels, int count) {
+		for (int i = 0; i < count; i++) {
+			accept(timestamps[i], levels[i]);
+		}
+	}
+
+	/**
+	 * Analyzes the given edge
+	 * 
+	 * @param timestamp
+	 *            the {@link System#nanoTime()} of the edge
+	 * @param high
+	 *            the level after the edge, true for {@link Signal#HIGH}
+	 */
+	public void accept(long timestamp, boolean high) {
+		if (high) {
+			if (this.hasRising)
+				this.period = timestamp - this.lastRising;
+			else
+				this.firstRising = timestamp;
+			if (this.hasFalling)
+				this.lowTime = timestamp - this.lastFalling;
+			this.lastRising = timestamp;
+			this.hasRising = true;
+			this.pulses++;
+		} else {
+			if (this.hasRising)
+				this.highTime = timestamp - this.lastRising;
+			this.lastFalling = timestamp;
+			this.hasFalling = true;
+		}
+	}
+
+	/**
+	 * Resets the analyzer, forgetting all edges
+	 */
+	public void reset() {
+		this.hasRising = false;
+		this.hasFalling = false;
+		this.pulses = 0L;
+		this.period = 0L;
+		this.highTime = 0L;
+		this.lowTime = 0L;
+	}
+
+	/**
+	 * @return the number of rising edges since the last {@link #reset()}
+	 */
+	public long getPulses() {
+		return this.pulses;
+	}
+
+	/**
+	 * @return the time between the last two rising edges in nanoseconds, or 0 if not yet known
+	 */
+	public long getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * @return the frequency of the last period in Hz, or 0 if not yet known
+	 */
+	public double getFrequency() {
+		return this.period == 0L ? 0.0 : 1e9 / this.period;
+	}
+
+	/**
+	 * @return the frequency over all rising edges since the last {@link #reset()} in Hz, or 0 if not yet known
+	 */
+	public double getMeanFrequency() {
+		if (this.pulses < 2L || this.lastRising == this.firstRising)
+			return 0.0;
+		return (this.pulses - 1) * 1e9 / (this.lastRising - this.firstRising);
+	}
+
+	/**
+	 * @return the width of the last high pulse in nanoseconds, or 0 if not yet known
+	 */
+	public long getHighTime() {
+		return this.highTime;
+	}
+
+	/**
+	 * @return the width of the last low pulse in nanoseconds, or 0 if not yet known
+	 */
+	public long getLowTime() {
+		return this.lowTime;
+	}
+
+	/**
+	 * @return the ratio of the last high pulse to the last period, between 0 and 1, or 0 if not yet known
+	 */
+	public double getDutyCycle() {
+		return this.period == 0L ? 0.0 : (double) this.highTime / this.period;
+	}
+
+	@Override
+	public String toString() {
+		return "PulseAnalyzer [pulses=" + this.pulses + ", period=" + this.period + "ns, highTime=" + this.highTime
+				+ "ns, lowTime=" + this.lowTime + "ns]";
+	}
+}
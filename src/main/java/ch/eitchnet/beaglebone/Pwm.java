@@ -0,0 +1,69 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * This enum defines the outputs of the enhanced high resolution PWM modules (EHRPWM) of the BeagleBoneBlack's CPU
+ * </p>
+ * 
+ * <p>
+ * Each of the three modules has two outputs A and B, which share the module's period, but have their own duty cycle.
+ * The kernel exposes each module as a <code>/sys/class/pwm/pwmchipN</code>, where the output A is channel
+ * <code>pwm0</code> and output B is channel <code>pwm1</code>. The number N depends on the kernel and the loaded
+ * device tree overlays, thus the chip is found by the address of the module
+ * </p>
+ * 
+ * <p>
+ * The {@link Pin}s on which an output is available are returned by {@link Pin#getPwm()}. The pin must be configured
+ * for PWM in the pin multiplexer, e.g. with <code>config-pin P9_14 pwm</code>
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public enum Pwm {
+
+	EHRPWM0A("ehrpwm0A", 0x48300200L, 0),
+	EHRPWM0B("ehrpwm0B", 0x48300200L, 1),
+	EHRPWM1A("ehrpwm1A", 0x48302200L, 0),
+	EHRPWM1B("ehrpwm1B", 0x48302200L, 1),
+	EHRPWM2A("ehrpwm2A", 0x48304200L, 0),
+	EHRPWM2B("ehrpwm2B", 0x48304200L, 1);
+
+	private String label;
+	private long address;
+	private int channel;
+
+	private Pwm(String label, long address, int channel) {
+		this.label = label;
+		this.address = address;
+		this.channel = channel;
+	}
+
+	/**
+	 * @return the label of this output, e.g. "ehrpwm1A"
+	 */
+	public String getLabel() {
+		return this.label;
+	}
+
+	/**
+	 * @return the physical address of the PWM module, by which the kernel's <code>pwmchip</code> is found
+	 */
+	public long getAddress() {
+		return this.address;
+	}
+
+	/**
+	 * @return the channel of this output on the kernel's <code>pwmchip</code>, i.e. the M in <code>pwmM</code>
+	 */
+	public int getChannel() {
+		return this.channel;
+	}
+
+	/**
+	 * Returns the configured label e.g. "ehrpwm1A"
+	 */
+	@Override
+	public String toString() {
+		return this.label;
+	}
+}
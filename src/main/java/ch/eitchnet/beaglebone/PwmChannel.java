@@ -0,0 +1,415 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Gives access to a channel of a hardware PWM module using the kernel's sysfs interface in
+ * <code>/sys/class/pwm/pwmchipN/pwmM</code>, so that high frequency switching is done by the hardware and not by a Java
+ * {@link Thread} writing a {@link Gpio}
+ * </p>
+ *
+ * <p>
+ * The channel's <code>period</code>, <code>duty_cycle</code>, <code>polarity</code> and <code>enable</code> files are
+ * held open for the lifetime of the {@link PwmChannel}, and numbers are written from a preallocated direct buffer, so
+ * that updating the duty cycle only costs a single system call and does not allocate any objects
+ * </p>
+ *
+ * <p>
+ * A {@link PwmChannel} is opened for a {@link Pin} with {@link #open(Pin)}, which finds the kernel's
+ * <code>pwmchip</code> by the address of the {@link Pwm} module of the {@link Pin}, and exports the channel if needed.
+ * If the chip can not be found, e.g. on an unusual kernel, the chip can be passed explicitly to the constructor
+ * </p>
+ *
+ * <p>
+ * All times are in nanoseconds. The kernel refuses a duty cycle longer than the period, thus use
+ * {@link #configure(long, long)} to change both, which writes them in a valid order
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PwmChannel implements AutoCloseable {
+
+	private static final String PWM_PATH = "/sys/class/pwm/";
+	private static final long EXPORT_TIMEOUT = 5000L;
+	private static final String[] FILES = { "period", "duty_cycle", "polarity", "enable" };
+
+	private final File channelPath;
+	private final ByteBuffer buffer;
+	private final FileChannel periodFile;
+	private final FileChannel dutyCycleFile;
+	private final FileChannel polarityFile;
+	private final FileChannel enableFile;
+
+	private long period;
+	private long dutyCycle;
+	private PwmPolarity polarity;
+	private boolean enabled;
+
+	/**
+	 * Opens the {@link PwmChannel} of the {@link Pwm} output of the given {@link Pin} in <code>/sys/class/pwm/</code>
+	 *
+	 * @param pin
+	 *            the {@link Pin} for which to open the {@link PwmChannel}
+	 *
+	 * @return the {@link PwmChannel}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Pin} has no {@link Pwm} output, the chip can not be found, or the channel can not be
+	 *             opened
+	 */
+	public static PwmChannel open(Pin pin) throws GpioException {
+		return open(new File(PWM_PATH), pin);
+	}
+
+	/**
+	 * Opens the {@link PwmChannel} of the {@link Pwm} output of the given {@link Pin} in the given PWM path, e.g. a
+	 * simulated sysfs tree
+	 *
+	 * @param pwmPath
+	 *            the path to the kernel's PWM directory, usually <code>/sys/class/pwm/</code>
+	 * @param pin
+	 *            the {@link Pin} for which to open the {@link PwmChannel}
+	 *
+	 * @return the {@link PwmChannel}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Pin} has no {@link Pwm} output, the chip can not be found, or the channel can not be
+	 *             opened
+	 */
+	public static PwmChannel open(File pwmPath, Pin pin) throws GpioException {
+		Pwm pwm = pin.getPwm();
+		if (pwm == null)
+			throw new GpioException("Pin " + pin + " has no PWM output!");
+		return new PwmChannel(findChip(pwmPath, pwm), pwm.getChannel());
+	}
+
+	/**
+	 * Finds the kernel's <code>pwmchip</code> of the module of the given {@link Pwm} output. The
+	 * <code>pwmchipN</code> entries are links into the device tree, whose path contains the address of the module,
+	 * e.g. <code>48302200.pwm</code>
+	 *
+	 * @param pwmPath
+	 *            the path to the kernel's PWM directory, usually <code>/sys/class/pwm/</code>
+	 * @param pwm
+	 *            the {@link Pwm} output for which to find the chip
+	 *
+	 * @return the path to the <code>pwmchipN</code> directory
+	 *
+	 * @throws GpioException
+	 *             if the chip can not be found
+	 */
+	public static File findChip(File pwmPath, Pwm pwm) throws GpioException {
+		File[] chips = pwmPath.listFiles((dir, name) -> name.startsWith("pwmchip"));
+		if (chips == null)
+			throw new GpioException("PWM path " + pwmPath + " does not exist!");
+
+		String address = Long.toHexString(pwm.getAddress()) + ".";
+		for (File chip : chips) {
+			try {
+				if (chip.getCanonicalPath().contains(address))
+					return chip;
+			} catch (IOException e) {
+				throw new GpioException("Failed to resolve PWM chip " + chip, e);
+			}
+		}
+
+		throw new GpioException("No PWM chip found for " + pwm + " in " + pwmPath
+				+ ", is the PWM module enabled in the device tree?");
+	}
+
+	/**
+	 * Opens the given channel of the given <code>pwmchipN</code>, exporting the channel if it is not yet exported.
+	 * After exporting, the kernel creates the channel's files and udev changes their permissions asynchronously, thus
+	 * this constructor waits for at most 5s until the files are readable and writable
+	 *
+	 * @param chipPath
+	 *            the path to the <code>pwmchipN</code> directory
+	 * @param channel
+	 *            the channel of the chip, i.e. the M in <code>pwmM</code>
+	 *
+	 * @throws GpioException
+	 *             if the channel can not be exported or opened, in which case no file is left open
+	 */
+	public PwmChannel(File chipPath, int channel) throws GpioException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(EXPORT_TIMEOUT);
+		this.channelPath = new File(chipPath, "pwm" + channel);
+		if (!this.channelPath.isDirectory())
+			export(chipPath, channel);
+		for (String name : FILES) {
+			awaitAccess(new File(this.channelPath, name), deadline);
+		}
+
+		this.period = readLong("period");
+		this.dutyCycle = readLong("duty_cycle");
+		this.polarity = PwmPolarity.getPolarity(readLine("polarity"));
+		this.enabled = readLong("enable") == 1L;
+
+		this.buffer = ByteBuffer.allocateDirect(20);
+		FileChannel[] files = new FileChannel[FILES.length];
+		try {
+			for (int i = 0; i < FILES.length; i++) {
+				files[i] = openFile(FILES[i]);
+			}
+		} catch (GpioException e) {
+			closeFiles(files);
+			throw e;
+		}
+		this.periodFile = files[0];
+		this.dutyCycleFile = files[1];
+		this.polarityFile = files[2];
+		this.enableFile = files[3];
+	}
+
+	private static void export(File chipPath, int channel) throws GpioException {
+		File exportFile = new File(chipPath, "export");
+		try (FileWriter writer = new FileWriter(exportFile)) {
+			writer.write(Integer.toString(channel));
+		} catch (IOException e) {
+			throw new GpioException("Failed to export PWM channel " + channel + " of " + chipPath, e);
+		}
+	}
+
+	/**
+	 * Waits until the given file exists and is readable and writable, which after exporting a channel is only the case
+	 * once the kernel created the file and udev changed its permissions
+	 */
+	private void awaitAccess(File file, long deadline) throws GpioException {
+		while (!(file.canRead() && file.canWrite())) {
+			if (System.nanoTime() - deadline > 0L)
+				throw new GpioException("PWM file " + file + " did not become accessible in time. "
+						+ "Are the file permissions ok?");
+			try {
+				Thread.sleep(5L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new GpioException("Interrupted while waiting for PWM channel " + this.channelPath, e);
+			}
+		}
+	}
+
+	private String readLine(String name) throws GpioException {
+		File file = new File(this.channelPath, name);
+		try (BufferedReader fin = new BufferedReader(new FileReader(file))) {
+			String line = fin.readLine();
+			if (line == null)
+				throw new GpioException("PWM file " + file + " is empty!");
+			return line.trim();
+		} catch (IOException e) {
+			throw new GpioException("Failed to read PWM file " + file, e);
+		}
+	}
+
+	private long readLong(String name) throws GpioException {
+		String value = readLine(name);
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new GpioException("PWM file " + name + " of " + this.channelPath + " has illegal value " + value, e);
+		}
+	}
+
+	private FileChannel openFile(String name) throws GpioException {
+		File file = new File(this.channelPath, name);
+		if (!file.canWrite())
+			throw new GpioException("PWM file " + file + " is not writable. Are the file permissions ok?");
+		try {
+			return FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			throw new GpioException("Failed to open PWM file " + file, e);
+		}
+	}
+
+	/**
+	 * Writes the given value as decimal number followed by a new line, without allocating any objects
+	 */
+	private void write(FileChannel file, long value) throws GpioException {
+		this.buffer.clear();
+		int position = this.buffer.capacity();
+		this.buffer.put(--position, (byte) '\n');
+		do {
+			this.buffer.put(--position, (byte) ('0' + value % 10));
+			value /= 10;
+		} while (value != 0);
+		this.buffer.position(position);
+		write(file);
+	}
+
+	private void write(FileChannel file, String value) throws GpioException {
+		this.buffer.clear();
+		for (int i = 0; i < value.length(); i++) {
+			this.buffer.put((byte) value.charAt(i));
+		}
+		this.buffer.put((byte) '\n');
+		this.buffer.flip();
+		write(file);
+	}
+
+	private void write(FileChannel file) throws GpioException {
+		try {
+			file.write(this.buffer, 0L);
+		} catch (IOException e) {
+			throw new GpioException("Failed to write PWM channel " + this.channelPath, e);
+		}
+	}
+
+	/**
+	 * @return the path to the <code>pwmM</code> directory of this channel
+	 */
+	public File getChannelPath() {
+		return this.channelPath;
+	}
+
+	/**
+	 * @return the period in nanoseconds
+	 */
+	public synchronized long getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * @return the duty cycle in nanoseconds
+	 */
+	public synchronized long getDutyCycle() {
+		return this.dutyCycle;
+	}
+
+	/**
+	 * @return the {@link PwmPolarity}
+	 */
+	public synchronized PwmPolarity getPolarity() {
+		return this.polarity;
+	}
+
+	/**
+	 * @return true if the output is enabled
+	 */
+	public synchronized boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Sets the period. Note that both outputs of a {@link Pwm} module share the period
+	 *
+	 * @param period
+	 *            the period in nanoseconds, must not be shorter than the current duty cycle
+	 *
+	 * @throws GpioException
+	 *             if the period is invalid or writing fails
+	 */
+	public synchronized void setPeriod(long period) throws GpioException {
+		if (period <= 0 || period < this.dutyCycle)
+			throw new GpioException(
+					"Period " + period + " must be positive and not shorter than duty cycle " + this.dutyCycle);
+		write(this.periodFile, period);
+		this.period = period;
+	}
+
+	/**
+	 * Sets the duty cycle, i.e. the time in each period during which the output is active
+	 *
+	 * @param dutyCycle
+	 *            the duty cycle in nanoseconds, must not be longer than the period
+	 *
+	 * @throws GpioException
+	 *             if the duty cycle is invalid or writing fails
+	 */
+	public synchronized void setDutyCycle(long dutyCycle) throws GpioException {
+		if (dutyCycle < 0 || dutyCycle > this.period)
+			throw new GpioException(
+					"Duty cycle " + dutyCycle + " must not be negative or longer than period " + this.period);
+		if (dutyCycle == this.dutyCycle)
+			return;
+		write(this.dutyCycleFile, dutyCycle);
+		this.dutyCycle = dutyCycle;
+	}
+
+	/**
+	 * Sets the period and duty cycle, writing them in the order the kernel accepts
+	 *
+	 * @param period
+	 *            the period in nanoseconds
+	 * @param dutyCycle
+	 *            the duty cycle in nanoseconds, must not be longer than the period
+	 *
+	 * @throws GpioException
+	 *             if the values are invalid or writing fails
+	 */
+	public synchronized void configure(long period, long dutyCycle) throws GpioException {
+		if (period <= 0 || dutyCycle < 0 || dutyCycle > period)
+			throw new GpioException("Duty cycle " + dutyCycle + " must be between 0 and the period " + period);
+
+		if (period < this.dutyCycle) {
+			setDutyCycle(dutyCycle);
+			setPeriod(period);
+		} else {
+			if (period != this.period)
+				setPeriod(period);
+			setDutyCycle(dutyCycle);
+		}
+	}
+
+	/**
+	 * Sets the {@link PwmPolarity}. The kernel only allows to change the polarity while the output is disabled
+	 *
+	 * @param polarity
+	 *            the {@link PwmPolarity}
+	 *
+	 * @throws GpioException
+	 *             if the output is enabled or writing fails
+	 */
+	public synchronized void setPolarity(PwmPolarity polarity) throws GpioException {
+		if (polarity == this.polarity)
+			return;
+		if (this.enabled)
+			throw new GpioException("Polarity of " + this.channelPath + " can only be changed while disabled!");
+		write(this.polarityFile, polarity.getPolarity());
+		this.polarity = polarity;
+	}
+
+	/**
+	 * Enables or disables the output
+	 *
+	 * @param enabled
+	 *            true to enable the output, false to disable it
+	 *
+	 * @throws GpioException
+	 *             if writing fails
+	 */
+	public synchronized void setEnabled(boolean enabled) throws GpioException {
+		if (enabled == this.enabled)
+			return;
+		write(this.enableFile, enabled ? 1L : 0L);
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Closes the files of this channel. The output is not disabled, so that it keeps running
+	 */
+	@Override
+	public synchronized void close() {
+		closeFiles(new FileChannel[] { this.periodFile, this.dutyCycleFile, this.polarityFile, this.enableFile });
+	}
+
+	private void closeFiles(FileChannel[] files) {
+		for (FileChannel file : files) {
+			if (file == null)
+				continue;
+			try {
+				file.close();
+			} catch (IOException e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to close PWM file of " + this.channelPath, e);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PwmChannel [channelPath=" + this.channelPath + ", period=" + this.period + ", dutyCycle="
+				+ this.dutyCycle + ", polarity=" + this.polarity + ", enabled=" + this.enabled + "]";
+	}
+}
@@ -0,0 +1,46 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Defines the polarity of a {@link PwmChannel}
+ * </p>
+ * 
+ * <p>
+ * With {@link #NORMAL} polarity the output is {@link Signal#HIGH} for the duty cycle and then {@link Signal#LOW} for
+ * the rest of the period, with {@link #INVERSED} polarity it is the other way around
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public enum PwmPolarity {
+	NORMAL("normal"), INVERSED("inversed");
+
+	private String polarity;
+
+	private PwmPolarity(String polarity) {
+		this.polarity = polarity;
+	}
+
+	/**
+	 * @return the polarity as written to the kernel's <code>polarity</code> file
+	 */
+	public String getPolarity() {
+		return this.polarity;
+	}
+
+	/**
+	 * Parses the polarity enum from the given value
+	 * 
+	 * @param polarityS
+	 *            the polarity string to parse
+	 * 
+	 * @return the polarity parsed from the given string
+	 */
+	public static PwmPolarity getPolarity(String polarityS) {
+		if (polarityS.equals(NORMAL.polarity))
+			return NORMAL;
+		else if (polarityS.equals(INVERSED.polarity))
+			return INVERSED;
+		throw new IllegalArgumentException("No polarity for value " + polarityS);
+	}
+}
@@ -0,0 +1,175 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Decodes a quadrature rotary encoder wired to two input {@link Gpio}s A and B. Each edge on either input is counted,
+ * i.e. four counts per cycle of the encoder, and the direction is given by the order of the edges: A leading B counts
+ * up, B leading A counts down
+ * </p>
+ *
+ * <p>
+ * The encoder registers itself as {@link GpioSampleListener} on both {@link Gpio}s, thus the transitions are decoded
+ * inline on the {@link GpioBridge}'s observing {@link Thread} with a table driven state machine, without allocating
+ * any objects. The sample period must be shorter than the shortest time between two edges, otherwise a step is missed,
+ * which is detected when both inputs changed between two samples and counted by {@link #getErrors()}
+ * </p>
+ *
+ * <p>
+ * The position, direction and velocity can be read from any {@link Thread}. The velocity is estimated from the time
+ * between the last two counts, and decays when no more counts are read
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class QuadratureEncoder implements GpioSampleListener, AutoCloseable {
+
+	/**
+	 * The change of the position for each transition, indexed by <code>previous state &lt;&lt; 2 | state</code>, where
+	 * the state is <code>A &lt;&lt; 1 | B</code>. Transitions where both inputs changed are invalid and count 0
+	 */
+	private static final int[] TRANSITIONS = { //
+			0, -1, +1, 0, //
+			+1, 0, 0, -1, //
+			-1, 0, 0, +1, //
+			0, +1, -1, 0 };
+
+	private final GpioBridge gpioBridge;
+	private final Gpio a;
+	private final Gpio b;
+
+	private final AtomicLong position;
+	private final AtomicLong errors;
+	private volatile int direction;
+	private volatile long lastCount;
+	private volatile long countInterval;
+
+	// only accessed by the observing thread
+	private int state;
+	private boolean counted;
+
+	/**
+	 * Constructs a new {@link QuadratureEncoder} and registers it on both {@link Gpio}s
+	 *
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} from which the {@link Gpio}s were retrieved
+	 * @param a
+	 *            the input {@link Gpio} of the encoder's output A
+	 * @param b
+	 *            the input {@link Gpio} of the encoder's output B
+	 * @param samplePeriod
+	 *            the period at which the {@link Gpio}s are read
+	 * @param unit
+	 *            the {@link TimeUnit} of the sample period
+	 *
+	 * @throws GpioException
+	 *             if the {@link Gpio}s are not inputs, or the encoder can not be registered
+	 */
+	public QuadratureEncoder(GpioBridge gpioBridge, Gpio a, Gpio b, long samplePeriod, TimeUnit unit)
+			throws GpioException {
+		this.gpioBridge = gpioBridge;
+		this.a = a;
+		this.b = b;
+		this.position = new AtomicLong();
+		this.errors = new AtomicLong();
+		this.state = (a.getSignal().isHigh() ? 2 : 0) | (b.getSignal().isHigh() ? 1 : 0);
+
+		gpioBridge.registerSampleListener(a, Edge.BOTH, samplePeriod, unit, this);
+		try {
+			gpioBridge.registerSampleListener(b, Edge.BOTH, samplePeriod, unit, this);
+		} catch (GpioException e) {
+			gpioBridge.unregisterSampleListener(a, this);
+			throw e;
+		}
+	}
+
+	/**
+	 * Decodes the transition, called by the observing {@link Thread}. As the observing {@link Thread} updates the
+	 * {@link Signal} of all read {@link Gpio}s before notifying, the state is always taken from both {@link Gpio}s
+	 */
+	@Override
+	public void onSample(Gpio gpio, Signal signal, long timestamp) {
+		int newState = (this.a.getSignal().isHigh() ? 2 : 0) | (this.b.getSignal().isHigh() ? 1 : 0);
+		int oldState = this.state;
+		if (newState == oldState)
+			return;
+		this.state = newState;
+
+		if ((oldState ^ newState) == 3) {
+			this.errors.incrementAndGet();
+			return;
+		}
+
+		int delta = TRANSITIONS[oldState << 2 | newState];
+		this.position.addAndGet(delta);
+		this.direction = delta;
+		if (this.counted)
+			this.countInterval = timestamp - this.lastCount;
+		this.lastCount = timestamp;
+		this.counted = true;
+	}
+
+	/**
+	 * @return the position in counts, i.e. four counts per cycle of the encoder
+	 */
+	public long getPosition() {
+		return this.position.get();
+	}
+
+	/**
+	 * Sets the position, e.g. to zero the encoder at a reference point
+	 *
+	 * @param position
+	 *            the new position in counts
+	 */
+	public void setPosition(long position) {
+		this.position.set(position);
+	}
+
+	/**
+	 * @return the direction of the last count, 1 for up, -1 for down, or 0 if nothing was counted yet
+	 */
+	public int getDirection() {
+		return this.direction;
+	}
+
+	/**
+	 * @return the number of missed steps, where both inputs changed between two samples
+	 */
+	public long getErrors() {
+		return this.errors.get();
+	}
+
+	/**
+	 * Returns the velocity in counts per second, estimated from the time between the last two counts. If the time
+	 * since the last count is longer, then the velocity is estimated from that time instead, so that the velocity
+	 * decays towards 0 when the encoder stops
+	 *
+	 * @return the velocity in counts per second, positive when counting up
+	 */
+	public double getVelocity() {
+		long lastCount = this.lastCount;
+		long interval = this.countInterval;
+		if (interval <= 0L)
+			return 0.0;
+		interval = Math.max(interval, System.nanoTime() - lastCount);
+		return this.direction * 1e9 / interval;
+	}
+
+	/**
+	 * Unregisters the encoder from both {@link Gpio}s
+	 */
+	@Override
+	public void close() {
+		this.gpioBridge.unregisterSampleListener(this.a, this);
+		this.gpioBridge.unregisterSampleListener(this.b, this);
+	}
+
+	@Override
+	public String toString() {
+		return "QuadratureEncoder [a=" + this.a + ", b=" + this.b + ", position=" + this.position + ", direction="
+				+ this.direction + ", errors=" + this.errors + "]";
+	}
+}
@@ -0,0 +1,202 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Schedules the reads of the observed input {@link Gpio}s, each at its own sample period. The scheduler is a binary
+ * min-heap of the next deadline of each {@link Gpio}, indexed by the GPIO number, i.e. <code>chip * 32 + pin</code>,
+ * so that the due {@link Gpio}s can be collected as bit masks per bank
+ * </p>
+ * 
+ * <p>
+ * The deadlines are advanced at a fixed rate, i.e. the next deadline is the previous deadline plus the period, and not
+ * the time of the read plus the period, so that the time a read takes does not make the sample rate drift. If a
+ * {@link Gpio} was read too late to keep up, the missed samples are skipped instead of being read in a burst
+ * </p>
+ * 
+ * <p>
+ * The scheduler only holds primitive arrays and does not allocate when scheduling. It is not thread safe, the
+ * {@link GpioBridge} guards it with its registration lock
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+class SampleScheduler {
+
+	private final long[] periods;
+	private final long[] deadlines;
+	private final int[] positions;
+	private final int[] heap;
+	private int size;
+
+	/**
+	 * Constructs a new {@link SampleScheduler}
+	 * 
+	 * @param capacity
+	 *            the number of GPIO numbers which can be scheduled
+	 */
+	SampleScheduler(int capacity) {
+		this.periods = new long[capacity];
+		this.deadlines = new long[capacity];
+		this.positions = new int[capacity];
+		this.heap = new int[capacity];
+		Arrays.fill(this.positions, -1);
+	}
+
+	/**
+	 * Schedules the given GPIO number at the given period. If it is already scheduled, then the period is changed, and
+	 * the next deadline is moved forward if the new period is shorter
+	 * 
+	 * @param index
+	 *            the GPIO number
+	 * @param period
+	 *            the sample period in nanoseconds
+	 * @param now
+	 *            the current {@link System#nanoTime()}
+	 */
+	void schedule(int index, long period, long now) {
+		long deadline = now + period;
+		this.periods[index] = period;
+
+		int position = this.positions[index];
+		if (position == -1) {
+			position = this.size++;
+			this.heap[position] = index;
+			this.positions[index] = position;
+			this.deadlines[index] = deadline;
+			siftUp(position);
+		} else if (deadline - this.deadlines[index] < 0) {
+			this.deadlines[index] = deadline;
+			siftUp(position);
+		}
+	}
+
+	/**
+	 * Removes the given GPIO number from the schedule
+	 * 
+	 * @param index
+	 *            the GPIO number
+	 */
+	void remove(int index) {
+		int position = this.positions[index];
+		if (position == -1)
+			return;
+
+		this.positions[index] = -1;
+		this.periods[index] = 0L;
+		this.size--;
+		if (position == this.size)
+			return;
+
+		int last = this.heap[this.size];
+		this.heap[position] = last;
+		this.positions[last] = position;
+		siftDown(position);
+		siftUp(this.positions[last]);
+	}
+
+	/**
+	 * Removes all GPIO numbers from the schedule
+	 */
+	void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.positions[this.heap[i]] = -1;
+			this.periods[this.heap[i]] = 0L;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * @return true if no GPIO number is scheduled
+	 */
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * @return the earliest deadline of all scheduled GPIO numbers as {@link System#nanoTime()}, only valid if the
+	 *         scheduler is not empty
+	 */
+	long getNextDeadline() {
+		return this.deadlines[this.heap[0]];
+	}
+
+	/**
+	 * Sets the bit of every scheduled GPIO number in the given bank masks
+	 * 
+	 * @param masks
+	 *            the bit masks per bank to add the scheduled GPIO numbers to
+	 */
+	void addScheduled(int[] masks) {
+		for (int i = 0; i < this.size; i++) {
+			int index = this.heap[i];
+			masks[index >>> 5] |= 1 << (index & 31);
+		}
+	}
+
+	/**
+	 * Sets the bit of every GPIO number whose deadline elapsed in the given bank masks, and advances their deadlines
+	 * by their period
+	 * 
+	 * @param now
+	 *            the current {@link System#nanoTime()}
+	 * @param masks
+	 *            the bit masks per bank to add the due GPIO numbers to
+	 */
+	void addDue(long now, int[] masks) {
+		while (this.size != 0) {
+			int index = this.heap[0];
+			long deadline = this.deadlines[index];
+			if (now - deadline < 0)
+				break;
+
+			masks[index >>> 5] |= 1 << (index & 31);
+
+			long period = this.periods[index];
+			deadline += period;
+			if (now - deadline >= 0)
+				deadline += ((now - deadline) / period + 1) * period;
+			this.deadlines[index] = deadline;
+			siftDown(0);
+		}
+	}
+
+	private void siftUp(int position) {
+		int index = this.heap[position];
+		long deadline = this.deadlines[index];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentIndex = this.heap[parent];
+			if (deadline - this.deadlines[parentIndex] >= 0)
+				break;
+			this.heap[position] = parentIndex;
+			this.positions[parentIndex] = position;
+			position = parent;
+		}
+		this.heap[position] = index;
+		this.positions[index] = position;
+	}
+
+	private void siftDown(int position) {
+		int index = this.heap[position];
+		long deadline = this.deadlines[index];
+		int half = this.size >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int childIndex = this.heap[child];
+			int right = child + 1;
+			if (right < this.size && this.deadlines[this.heap[right]] - this.deadlines[childIndex] < 0) {
+				child = right;
+				childIndex = this.heap[child];
+			}
+			if (deadline - this.deadlines[childIndex] <= 0)
+				break;
+			this.heap[position] = childIndex;
+			this.positions[childIndex] = position;
+			position = child;
+		}
+		this.heap[position] = index;
+		this.positions[index] = position;
+	}
+}
@@ -0,0 +1,104 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Reads a chain of 74HC165 parallel-in, serial-out shift registers over three {@link Gpio}s: the input connected to
+ * the serial output (QH) of the last register, the output connected to the clock (CLK), and the output connected to
+ * the active low parallel load (SH/LD). The clock inhibit (CLK INH) is expected to be tied low. Up to eight registers,
+ * i.e. 64 inputs, can be chained
+ * </p>
+ * 
+ * <p>
+ * A read loads all inputs in parallel, and then shifts them in with the most significant bit first, so that input H of
+ * the register connected to the data {@link Gpio} is the most significant bit, and input A of the last register of the
+ * chain is bit 0. The clock and load are written with
+ * {@link GpioBridge#writeBank(int, int, int)}, and the data is read with {@link GpioBridge#readValue(Gpio)}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class ShiftRegisterInput {
+
+	private final GpioBridge gpioBridge;
+	private final Gpio data;
+	private final int width;
+	private final int clockChip;
+	private final int clockBit;
+	private final int loadChip;
+	private final int loadBit;
+
+	/**
+	 * Constructs a new {@link ShiftRegisterInput}, setting the clock to {@link Signal#LOW} and the load to
+	 * {@link Signal#HIGH}
+	 * 
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} from which the {@link Gpio}s were retrieved
+	 * @param data
+	 *            the input {@link Gpio} connected to the serial output QH
+	 * @param clock
+	 *            the output {@link Gpio} connected to the clock CLK
+	 * @param load
+	 *            the output {@link Gpio} connected to the parallel load SH/LD
+	 * @param width
+	 *            the number of inputs of the chain, i.e. 8 times the number of registers, at most 64
+	 * 
+	 * @throws GpioException
+	 *             if a {@link Gpio} has the wrong {@link Direction}, or writing fails
+	 */
+	public ShiftRegisterInput(GpioBridge gpioBridge, Gpio data, Gpio clock, Gpio load, int width)
+			throws GpioException {
+		if (width <= 0 || width > 64)
+			throw new GpioException("Width must be between 1 and 64: " + width);
+		if (data.getDirection() != Direction.IN)
+			throw new GpioException("For reading the direction must be " + Direction.IN + " for " + data);
+		for (Gpio gpio : new Gpio[] { clock, load }) {
+			if (gpio.getDirection() != Direction.OUT)
+				throw new GpioException("For writing the direction must be " + Direction.OUT + " for " + gpio);
+		}
+
+		this.gpioBridge = gpioBridge;
+		this.data = data;
+		this.width = width;
+		this.clockChip = clock.getPin().getChip();
+		this.clockBit = 1 << clock.getPin().getPin();
+		this.loadChip = load.getPin().getChip();
+		this.loadBit = 1 << load.getPin().getPin();
+
+		gpioBridge.writeBank(this.clockChip, 0, this.clockBit);
+		gpioBridge.writeBank(this.loadChip, this.loadBit, 0);
+	}
+
+	/**
+	 * @return the number of inputs of the chain
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Loads and shifts in all inputs of the chain
+	 * 
+	 * @return the word of the inputs, bit 0 is input A of the last register
+	 * 
+	 * @throws GpioException
+	 *             if reading or writing fails
+	 */
+	public synchronized long read() throws GpioException {
+
+		// load the inputs in parallel, after which the first bit is on the serial output
+		this.gpioBridge.writeBank(this.loadChip, 0, this.loadBit);
+		this.gpioBridge.writeBank(this.loadChip, this.loadBit, 0);
+
+		long word = 0L;
+		for (int i = this.width - 1; i >= 0; i--) {
+			if (this.gpioBridge.readValue(this.data).isHigh())
+				word |= 1L << i;
+
+			// the register shifts on the rising clock edge
+			this.gpioBridge.writeBank(this.clockChip, this.clockBit, 0);
+			this.gpioBridge.writeBank(this.clockChip, 0, this.clockBit);
+		}
+
+		return word;
+	}
+}
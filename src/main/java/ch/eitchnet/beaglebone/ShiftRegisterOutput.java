@@ -0,0 +1,169 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Drives a chain of 74HC595 serial-in, parallel-out shift registers over three output {@link Gpio}s: the serial data
+ * input (SER), the shift clock (SRCLK) and the latch, i.e. storage register clock (RCLK). Up to eight registers, i.e.
+ * 64 outputs, can be chained
+ * </p>
+ * 
+ * <p>
+ * A word is shifted out with the most significant bit first, so that bit 0 ends up on output QA of the register
+ * connected to the data {@link Gpio}, and then latched to the outputs at once. All writes are done with
+ * {@link GpioBridge#writeBank(int, int, int)}: if the data and clock are on the same GPIO bank, then the data bit and
+ * the falling clock edge are written with a single write, so that each bit costs two writes, and on a register based
+ * backend two stores. The data output is only written when the bit differs from the previous bit, and writing the
+ * same word as the last written word is skipped entirely
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class ShiftRegisterOutput {
+
+	private final GpioBridge gpioBridge;
+	private final int width;
+	private final int dataChip;
+	private final int dataBit;
+	private final int clockChip;
+	private final int clockBit;
+	private final int latchChip;
+	private final int latchBit;
+
+	// the level of the data output, only known if the last write of it did not fail
+	private boolean data;
+	private boolean dataKnown;
+	private boolean written;
+	private long word;
+
+	/**
+	 * Constructs a new {@link ShiftRegisterOutput}, setting all three {@link Gpio}s to {@link Signal#LOW}
+	 * 
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} from which the {@link Gpio}s were retrieved
+	 * @param data
+	 *            the output {@link Gpio} connected to the serial data input SER
+	 * @param clock
+	 *            the output {@link Gpio} connected to the shift clock SRCLK
+	 * @param latch
+	 *            the output {@link Gpio} connected to the storage register clock RCLK
+	 * @param width
+	 *            the number of outputs of the chain, i.e. 8 times the number of registers, at most 64
+	 * 
+	 * @throws GpioException
+	 *             if a {@link Gpio} is not an output, or writing fails
+	 */
+	public ShiftRegisterOutput(GpioBridge gpioBridge, Gpio data, Gpio clock, Gpio latch, int width)
+			throws GpioException {
+		if (width <= 0 || width > 64)
+			throw new GpioException("Width must be between 1 and 64: " + width);
+		for (Gpio gpio : new Gpio[] { data, clock, latch }) {
+			if (gpio.getDirection() != Direction.OUT)
+				throw new GpioException("For writing the direction must be " + Direction.OUT + " for " + gpio);
+		}
+
+		this.gpioBridge = gpioBridge;
+		this.width = width;
+		this.dataChip = data.getPin().getChip();
+		this.dataBit = 1 << data.getPin().getPin();
+		this.clockChip = clock.getPin().getChip();
+		this.clockBit = 1 << clock.getPin().getPin();
+		this.latchChip = latch.getPin().getChip();
+		this.latchBit = 1 << latch.getPin().getPin();
+
+		gpioBridge.writeBank(this.dataChip, 0, this.dataBit);
+		gpioBridge.writeBank(this.clockChip, 0, this.clockBit);
+		gpioBridge.writeBank(this.latchChip, 0, this.latchBit);
+		this.dataKnown = true;
+	}
+
+	/**
+	 * @return the number of outputs of the chain
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * @return the last written word
+	 */
+	public synchronized long getWord() {
+		return this.word;
+	}
+
+	/**
+	 * Shifts out and latches the given word, unless it is the same as the last written word
+	 * 
+	 * @param word
+	 *            the word to write, bit 0 is output QA of the register connected to the data {@link Gpio}
+	 * 
+	 * @throws GpioException
+	 *             if writing fails, in which case the next write shifts out the word again, also writing the data
+	 *             output
+	 */
+	public synchronized void write(long word) throws GpioException {
+		if (this.written && word == this.word)
+			return;
+
+		this.written = false;
+		boolean sameBank = this.dataChip == this.clockChip;
+		for (int i = this.width - 1; i >= 0; i--) {
+			boolean bit = ((word >>> i) & 1L) != 0L;
+
+			// write the data bit together with the falling clock edge, or on its own if on another bank
+			int dataSet = 0;
+			int dataClear = 0;
+			if (!this.dataKnown || bit != this.data) {
+				if (bit)
+					dataSet = this.dataBit;
+				else
+					dataClear = this.dataBit;
+			}
+			this.dataKnown = false;
+
+			if (sameBank) {
+				this.gpioBridge.writeBank(this.clockChip, dataSet, dataClear | this.clockBit);
+			} else {
+				if ((dataSet | dataClear) != 0)
+					this.gpioBridge.writeBank(this.dataChip, dataSet, dataClear);
+				this.gpioBridge.writeBank(this.clockChip, 0, this.clockBit);
+			}
+			this.data = bit;
+			this.dataKnown = true;
+
+			// the register shifts on the rising clock edge
+			this.gpioBridge.writeBank(this.clockChip, this.clockBit, 0);
+		}
+
+		// pull the clock low with the rising latch edge, which transfers the word to the outputs
+		if (this.latchChip == this.clockChip) {
+			this.gpioBridge.writeBank(this.latchChip, this.latchBit, this.clockBit);
+		} else {
+			this.gpioBridge.writeBank(this.clockChip, 0, this.clockBit);
+			this.gpioBridge.writeBank(this.latchChip, this.latchBit, 0);
+		}
+		this.gpioBridge.writeBank(this.latchChip, 0, this.latchBit);
+
+		this.word = word;
+		this.written = true;
+	}
+
+	/**
+	 * Sets the given output of the chain, and writes the resulting word if it changed
+	 * 
+	 * @param output
+	 *            the index of the output, 0 is output QA of the register connected to the data {@link Gpio}
+	 * @param signal
+	 *            the {@link Signal} to set
+	 * 
+	 * @throws GpioException
+	 *             if writing fails
+	 */
+	public synchronized void write(int output, Signal signal) throws GpioException {
+		if (output < 0 || output >= this.width)
+			throw new GpioException("Output " + output + " is not within the width " + this.width);
+		if (signal.isHigh())
+			write(this.word | (1L << output));
+		else
+			write(this.word & ~(1L << output));
+	}
+}
@@ -17,16 +17,18 @@ package ch.eitchnet.beaglebone;
  * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
  */
 public enum Signal {
-	LOW(0, "0", false, "low"), HIGH(1, "1", true, "high");
+	LOW(0, "0", '0', false, "low"), HIGH(1, "1", '1', true, "high");
 
 	private int value;
 	private String valueS;
+	private char valueC;
 	private boolean high;
 	private String signal;
 
-	private Signal(int value, String valueS, boolean high, String signal) {
+	private Signal(int value, String valueS, char valueC, boolean high, String signal) {
 		this.value = value;
 		this.valueS = valueS;
+		this.valueC = valueC;
 		this.high = high;
 		this.signal = signal;
 	}
@@ -45,6 +47,13 @@ public enum Signal {
 		return this.valueS;
 	}
 
+	/**
+	 * @return the value as a character which is either '0' or '1'
+	 */
+	public char getValueC() {
+		return this.valueC;
+	}
+
 	/**
 	 * @return true for a high signal, i.e. value of 1. Return false for a low value, i.e. a value of 0
 	 */
@@ -84,6 +93,22 @@ public enum Signal {
 		throw new IllegalArgumentException("No signal for value " + value);
 	}
 
+	/**
+	 * Returns the {@link Signal} enum for the given character value
+	 * 
+	 * @param valueC
+	 *            the value for which to return the {@link Signal}
+	 * 
+	 * @return the {@link Signal} for the given character value
+	 */
+	public static Signal getSignal(char valueC) {
+		if (valueC == LOW.valueC)
+			return LOW;
+		else if (valueC == HIGH.valueC)
+			return HIGH;
+		throw new IllegalArgumentException("No signal for value " + valueC);
+	}
+
 	/**
 	 * Returns the {@link Signal} enum for the given string value
 	 * 
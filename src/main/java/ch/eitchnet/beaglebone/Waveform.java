@@ -0,0 +1,295 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An immutable, precomputed schedule of edges on one or more output {@link Gpio}s, which is played by a
+ * {@link WaveformEngine}
+ * </p>
+ *
+ * <p>
+ * The schedule is a sequence of steps, each with its time relative to the start of the waveform, and the bit masks of
+ * the {@link Gpio}s to set and clear per GPIO bank at that time. All edges which fall on the same tick of the
+ * {@link Builder} are merged into one step, so that they are written together with
+ * {@link GpioBridge#writeBank(int, int, int)}. A waveform is either played once, or repeated with its period
+ * </p>
+ *
+ * <p>
+ * Simple waveforms are created with {@link #pwm(Gpio, long, long, TimeUnit)} and
+ * {@link #pulseTrain(Gpio, long, long, int, TimeUnit)}, arbitrary patterns with the {@link Builder}
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public final class Waveform {
+
+	private static final int NR_OF_BANKS = AbstractGpioBridge.NR_OF_BANKS;
+
+	private final long[] times;
+	private final int[] setMasks;
+	private final int[] clearMasks;
+	private final long period;
+
+	private Waveform(long[] times, int[] setMasks, int[] clearMasks, long period) {
+		this.times = times;
+		this.setMasks = setMasks;
+		this.clearMasks = clearMasks;
+		this.period = period;
+	}
+
+	/**
+	 * Returns a repeating {@link Waveform} which sets the given {@link Gpio} to {@link Signal#HIGH} at the start of
+	 * each period, and to {@link Signal#LOW} after the duty cycle
+	 *
+	 * @param gpio
+	 *            the output {@link Gpio}
+	 * @param period
+	 *            the period
+	 * @param dutyCycle
+	 *            the time of each period during which the {@link Gpio} is {@link Signal#HIGH}
+	 * @param unit
+	 *            the {@link TimeUnit} of the period and duty cycle
+	 *
+	 * @return the {@link Waveform}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Gpio} is not an output, or the duty cycle is not within the period
+	 */
+	public static Waveform pwm(Gpio gpio, long period, long dutyCycle, TimeUnit unit) throws GpioException {
+		if (dutyCycle < 0 || dutyCycle > period)
+			throw new GpioException("Duty cycle " + dutyCycle + " must be between 0 and the period " + period);
+
+		Builder builder = new Builder(1L, TimeUnit.NANOSECONDS);
+		if (dutyCycle == 0L) {
+			builder.edge(0L, unit, gpio, Signal.LOW);
+		} else if (dutyCycle == period) {
+			builder.edge(0L, unit, gpio, Signal.HIGH);
+		} else {
+			builder.edge(0L, unit, gpio, Signal.HIGH);
+			builder.edge(dutyCycle, unit, gpio, Signal.LOW);
+		}
+		return builder.build(period, unit);
+	}
+
+	/**
+	 * Returns a {@link Waveform} which is played once, and sets the given {@link Gpio} to {@link Signal#HIGH} for the
+	 * given high time and then to {@link Signal#LOW} for the given low time, the given number of times
+	 *
+	 * @param gpio
+	 *            the output {@link Gpio}
+	 * @param highTime
+	 *            the time of each pulse during which the {@link Gpio} is {@link Signal#HIGH}
+	 * @param lowTime
+	 *            the time between the pulses during which the {@link Gpio} is {@link Signal#LOW}
+	 * @param count
+	 *            the number of pulses
+	 * @param unit
+	 *            the {@link TimeUnit} of the times
+	 *
+	 * @return the {@link Waveform}
+	 *
+	 * @throws GpioException
+	 *             if the {@link Gpio} is not an output, or the times or count are not positive
+	 */
+	public static Waveform pulseTrain(Gpio gpio, long highTime, long lowTime, int count, TimeUnit unit)
+			throws GpioException {
+		if (highTime <= 0 || lowTime <= 0 || count <= 0)
+			throw new GpioException("Pulse times and count must be positive!");
+
+		Builder builder = new Builder(1L, TimeUnit.NANOSECONDS);
+		long time = 0L;
+		for (int i = 0; i < count; i++) {
+			builder.edge(time, unit, gpio, Signal.HIGH);
+			time += highTime;
+			builder.edge(time, unit, gpio, Signal.LOW);
+			time += lowTime;
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return the number of steps, i.e. the number of distinct ticks on which edges are written
+	 */
+	public int getNrOfSteps() {
+		return this.times.length;
+	}
+
+	/**
+	 * @return the period in nanoseconds after which the waveform is repeated, or 0 if it is played once
+	 */
+	public long getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * @return true if the waveform is repeated until the {@link WaveformEngine} is stopped
+	 */
+	public boolean isRepeating() {
+		return this.period != 0L;
+	}
+
+	/**
+	 * @param step
+	 *            the index of the step
+	 *
+	 * @return the time in nanoseconds of the given step relative to the start of the waveform or period
+	 */
+	public long getTime(int step) {
+		return this.times[step];
+	}
+
+	/**
+	 * @param step
+	 *            the index of the step
+	 * @param chip
+	 *            the GPIO bank
+	 *
+	 * @return the bit mask of the {@link Gpio}s of the given bank which are set to {@link Signal#HIGH} at the step
+	 */
+	public int getSetMask(int step, int chip) {
+		return this.setMasks[step * NR_OF_BANKS + chip];
+	}
+
+	/**
+	 * @param step
+	 *            the index of the step
+	 * @param chip
+	 *            the GPIO bank
+	 *
+	 * @return the bit mask of the {@link Gpio}s of the given bank which are set to {@link Signal#LOW} at the step
+	 */
+	public int getClearMask(int step, int chip) {
+		return this.clearMasks[step * NR_OF_BANKS + chip];
+	}
+
+	@Override
+	public String toString() {
+		return "Waveform [steps=" + this.times.length + ", period=" + this.period + "ns]";
+	}
+
+	/**
+	 * <p>
+	 * Builds a {@link Waveform} from edges on any output {@link Gpio}s. The times of the edges are rounded down to the
+	 * tick of the builder, and all edges on the same tick are merged into one step. If the same {@link Gpio} has more
+	 * than one edge on the same tick, the last added edge wins
+	 * </p>
+	 *
+	 * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+	 */
+	public static class Builder {
+
+		private final long tick;
+		private final TreeMap<Long, int[]> steps;
+
+		/**
+		 * Constructs a new {@link Builder}
+		 *
+		 * @param tick
+		 *            the resolution of the waveform, edges within the same tick are written together
+		 * @param unit
+		 *            the {@link TimeUnit} of the tick
+		 */
+		public Builder(long tick, TimeUnit unit) {
+			if (tick <= 0)
+				throw new IllegalArgumentException("Tick must be positive: " + tick);
+			this.tick = unit.toNanos(tick);
+			this.steps = new TreeMap<>();
+		}
+
+		/**
+		 * Adds an edge of the given {@link Gpio} to the given {@link Signal} at the given time
+		 *
+		 * @param time
+		 *            the time of the edge relative to the start of the waveform
+		 * @param unit
+		 *            the {@link TimeUnit} of the time
+		 * @param gpio
+		 *            the output {@link Gpio}
+		 * @param signal
+		 *            the {@link Signal} to which the {@link Gpio} is set
+		 *
+		 * @return this {@link Builder} for call chaining
+		 *
+		 * @throws GpioException
+		 *             if the {@link Gpio} is not an output, or the time is negative
+		 */
+		public Builder edge(long time, TimeUnit unit, Gpio gpio, Signal signal) throws GpioException {
+			if (gpio.getDirection() != Direction.OUT)
+				throw new GpioException("For writing the direction must be " + Direction.OUT);
+			if (time < 0)
+				throw new GpioException("Time of edge must not be negative: " + time);
+
+			long step = unit.toNanos(time) / this.tick * this.tick;
+			int[] masks = this.steps.computeIfAbsent(step, s -> new int[2 * NR_OF_BANKS]);
+
+			Pin pin = gpio.getPin();
+			int bit = 1 << pin.getPin();
+			if (signal.isHigh()) {
+				masks[pin.getChip()] |= bit;
+				masks[NR_OF_BANKS + pin.getChip()] &= ~bit;
+			} else {
+				masks[pin.getChip()] &= ~bit;
+				masks[NR_OF_BANKS + pin.getChip()] |= bit;
+			}
+
+			return this;
+		}
+
+		/**
+		 * @return a {@link Waveform} which is played once
+		 *
+		 * @throws GpioException
+		 *             if no edges were added
+		 */
+		public Waveform build() throws GpioException {
+			return build(0L);
+		}
+
+		/**
+		 * Returns a {@link Waveform} which is repeated with the given period
+		 *
+		 * @param period
+		 *            the period after which the waveform is repeated, must be after the last edge
+		 * @param unit
+		 *            the {@link TimeUnit} of the period
+		 *
+		 * @return the {@link Waveform}
+		 *
+		 * @throws GpioException
+		 *             if no edges were added, or an edge is not within the period
+		 */
+		public Waveform build(long period, TimeUnit unit) throws GpioException {
+			long periodNanos = unit.toNanos(period);
+			if (periodNanos <= 0)
+				throw new GpioException("Period must be positive: " + period);
+			if (!this.steps.isEmpty() && this.steps.lastKey() >= periodNanos)
+				throw new GpioException("Edge at " + this.steps.lastKey() + "ns is not within the period "
+						+ periodNanos + "ns");
+			return build(periodNanos);
+		}
+
+		private Waveform build(long period) throws GpioException {
+			if (this.steps.isEmpty())
+				throw new GpioException("A waveform needs at least one edge!");
+
+			int nrOfSteps = this.steps.size();
+			long[] times = new long[nrOfSteps];
+			int[] setMasks = new int[nrOfSteps * NR_OF_BANKS];
+			int[] clearMasks = new int[nrOfSteps * NR_OF_BANKS];
+
+			int step = 0;
+			for (Entry<Long, int[]> entry : this.steps.entrySet()) {
+				times[step] = entry.getKey();
+				int[] masks = entry.getValue();
+				System.arraycopy(masks, 0, setMasks, step * NR_OF_BANKS, NR_OF_BANKS);
+				System.arraycopy(masks, NR_OF_BANKS, clearMasks, step * NR_OF_BANKS, NR_OF_BANKS);
+				step++;
+			}
+
+			return new Waveform(times, setMasks, clearMasks, period);
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Plays {@link Waveform}s on output {@link Gpio}s of pins without hardware PWM, using a dedicated {@link Thread} with
+ * the highest Java priority
+ * </p>
+ *
+ * <p>
+ * Each step of the {@link Waveform} is written at its scheduled time with {@link GpioBridge#writeBank(int, int, int)},
+ * one write per GPIO bank with edges in the step. The engine waits for a step by parking with
+ * {@link LockSupport#parkNanos(long)} until the spin threshold before the step, and then busy spins until the step is
+ * due, as parking alone wakes up too late by the scheduler's latency. The steps are scheduled relative to the start of
+ * the waveform, so that the time a write takes does not make the waveform drift
+ * </p>
+ *
+ * <p>
+ * The achieved timing is recorded and returned by {@link #getStatistics()}, which shows if a board can meet the
+ * frequency of a {@link Waveform}. Note that plain Java can not request a real-time scheduling policy, thus for tight
+ * timing the JVM should be run with a real-time priority, e.g. with <code>chrt</code>
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class WaveformEngine {
+
+	private static final long DEFAULT_SPIN_THRESHOLD = 100000L;
+
+	private final GpioBridge gpioBridge;
+	private final Object statisticsLock;
+	private volatile long spinThreshold;
+	private volatile Playback playback;
+
+	private long steps;
+	private long overruns;
+	private long minJitter;
+	private long maxJitter;
+	private double meanJitter;
+	private double sumSquares;
+
+	/**
+	 * Constructs a new {@link WaveformEngine}
+	 *
+	 * @param gpioBridge
+	 *            the {@link GpioBridge} with which the {@link Gpio}s of the {@link Waveform}s were retrieved
+	 */
+	public WaveformEngine(GpioBridge gpioBridge) {
+		this.gpioBridge = gpioBridge;
+		this.statisticsLock = new Object();
+		this.spinThreshold = DEFAULT_SPIN_THRESHOLD;
+		resetStatistics();
+	}
+
+	/**
+	 * Sets the time before a step from which the engine busy spins instead of parking. A longer time reduces the
+	 * jitter, but uses more CPU time. The default is 100µs
+	 *
+	 * @param spinThreshold
+	 *            the spin threshold
+	 * @param unit
+	 *            the {@link TimeUnit} of the spin threshold
+	 */
+	public void setSpinThreshold(long spinThreshold, TimeUnit unit) {
+		if (spinThreshold < 0)
+			throw new IllegalArgumentException("Spin threshold must not be negative: " + spinThreshold);
+		this.spinThreshold = unit.toNanos(spinThreshold);
+	}
+
+	/**
+	 * Starts playing the given {@link Waveform}, stopping any {@link Waveform} currently being played
+	 *
+	 * @param waveform
+	 *            the {@link Waveform} to play
+	 *
+	 * @throws IllegalStateException
+	 *             if the {@link Thread} of the previous {@link Waveform} did not stop, as both would write the same
+	 *             {@link Gpio}s
+	 */
+	public synchronized void start(Waveform waveform) {
+		// a thread which did not stop before is not waited for again
+		Playback previous = this.playback;
+		if (previous == null || previous.run || !previous.thread.isAlive())
+			stop();
+		if (this.playback != null)
+			throw new IllegalStateException("The thread of the previous waveform is still playing!");
+
+		Playback playback = new Playback();
+		Thread thread = new Thread(() -> play(waveform, playback), "gpio_waveform");
+		thread.setPriority(Thread.MAX_PRIORITY);
+		playback.thread = thread;
+		this.playback = playback;
+		thread.start();
+	}
+
+	/**
+	 * Stops playing the current {@link Waveform}. The {@link Gpio}s keep the {@link Signal} of the last written step.
+	 * If the {@link Thread} does not stop within 5s, it is kept, so that {@link #start(Waveform)} refuses to start
+	 * another {@link Waveform} next to it
+	 */
+	public synchronized void stop() {
+		Playback playback = this.playback;
+		if (playback == null)
+			return;
+		playback.run = false;
+		playback.thread.interrupt();
+		try {
+			playback.thread.join(5000l);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			GpioLog.log(LogLevel.WARN, "Was interrupted while waiting for waveform thread to stop?!");
+		}
+		if (playback.thread.isAlive())
+			GpioLog.log(LogLevel.WARN, "Waveform thread did not stop within 5s!");
+		else
+			this.playback = null;
+	}
+
+	/**
+	 * Waits for the current {@link Waveform} to complete, which is only the case for a {@link Waveform} which is not
+	 * repeating
+	 *
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the {@link TimeUnit} of the timeout
+	 *
+	 * @return true if no {@link Waveform} is being played anymore, false if the timeout elapsed
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		Playback playback = this.playback;
+		if (playback == null)
+			return true;
+		TimeUnit.NANOSECONDS.timedJoin(playback.thread, unit.toNanos(timeout));
+		return !playback.thread.isAlive();
+	}
+
+	/**
+	 * @return true if a {@link Waveform} is being played
+	 */
+	public boolean isRunning() {
+		Playback playback = this.playback;
+		return playback != null && playback.thread.isAlive();
+	}
+
+	/**
+	 * @return the {@link WaveformStatistics} of the timing achieved since the statistics were last reset
+	 */
+	public WaveformStatistics getStatistics() {
+		synchronized (this.statisticsLock) {
+			if (this.steps == 0L)
+				return new WaveformStatistics(0L, this.overruns, 0L, 0L, 0.0, 0.0);
+			double stdDev = this.steps < 2L ? 0.0 : Math.sqrt(this.sumSquares / (this.steps - 1));
+			return new WaveformStatistics(this.steps, this.overruns, this.minJitter, this.maxJitter,
+					this.meanJitter, stdDev);
+		}
+	}
+
+	/**
+	 * Resets the statistics of the achieved timing
+	 */
+	public void resetStatistics() {
+		synchronized (this.statisticsLock) {
+			this.steps = 0L;
+			this.overruns = 0L;
+			this.minJitter = Long.MAX_VALUE;
+			this.maxJitter = 0L;
+			this.meanJitter = 0.0;
+			this.sumSquares = 0.0;
+		}
+	}
+
+	private void play(Waveform waveform, Playback playback) {
+		int nrOfSteps = waveform.getNrOfSteps();
+		long period = waveform.getPeriod();
+
+		long start = System.nanoTime();
+		int step = 0;
+		while (playback.run) {
+
+			long deadline = start + waveform.getTime(step);
+			if (!waitUntil(deadline, playback))
+				break;
+			long jitter = System.nanoTime() - deadline;
+
+			try {
+				for (int chip = 0; chip < AbstractGpioBridge.NR_OF_BANKS; chip++) {
+					int setMask = waveform.getSetMask(step, chip);
+					int clearMask = waveform.getClearMask(step, chip);
+					if ((setMask | clearMask) != 0)
+						this.gpioBridge.writeBank(chip, setMask, clearMask);
+				}
+			} catch (GpioException e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to write waveform", e);
+				break;
+			}
+
+			recordJitter(jitter);
+
+			step++;
+			if (step == nrOfSteps) {
+				if (period == 0L)
+					break;
+
+				step = 0;
+				start += period;
+				long now = System.nanoTime();
+				if (now - start > period) {
+					start = now;
+					synchronized (this.statisticsLock) {
+						this.overruns++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parks until the spin threshold before the given deadline, and then busy spins until the deadline
+	 *
+	 * @return true if the deadline was reached, false if the given {@link Playback} was stopped
+	 */
+	private boolean waitUntil(long deadline, Playback playback) {
+		long spinThreshold = this.spinThreshold;
+		long remaining = deadline - System.nanoTime();
+		while (remaining > spinThreshold) {
+			LockSupport.parkNanos(remaining - spinThreshold);
+			if (!playback.run)
+				return false;
+			remaining = deadline - System.nanoTime();
+		}
+
+		while (System.nanoTime() - deadline < 0L) {
+			if (!playback.run)
+				return false;
+		}
+
+		return true;
+	}
+
+	private void recordJitter(long jitter) {
+		synchronized (this.statisticsLock) {
+			this.steps++;
+			if (jitter < this.minJitter)
+				this.minJitter = jitter;
+			if (jitter > this.maxJitter)
+				this.maxJitter = jitter;
+
+			// Welford's online algorithm for the mean and variance
+			double delta = jitter - this.meanJitter;
+			this.meanJitter += delta / this.steps;
+			this.sumSquares += delta * (jitter - this.meanJitter);
+		}
+	}
+
+	/**
+	 * The {@link Thread} playing one {@link Waveform}, with its own flag, so that stopping and starting the engine can
+	 * not let a {@link Thread} which did not yet stop play on next to its successor
+	 */
+	private static class Playback {
+		private volatile boolean run = true;
+		private Thread thread;
+	}
+}
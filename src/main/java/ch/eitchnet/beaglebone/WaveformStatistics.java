@@ -0,0 +1,101 @@
+package ch.eitchnet.beaglebone;
+
+/**
+ * <p>
+ * Immutable statistics of the timing achieved by a {@link WaveformEngine}. The jitter of a step is the time between its
+ * scheduled time and the time at which the engine started writing it, thus it is never negative
+ * </p>
+ * 
+ * <p>
+ * An overrun is counted when the engine fell behind the schedule by more than a whole period of a repeating
+ * {@link Waveform}, e.g. due to a garbage collection, after which the schedule is restarted instead of writing all
+ * missed steps in a burst. If the maximum jitter is close to the time between the steps, or overruns are counted, then
+ * the board can not meet the frequency of the {@link Waveform}
+ * </p>
+ * 
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public final class WaveformStatistics {
+
+	private final long steps;
+	private final long overruns;
+	private final long minJitter;
+	private final long maxJitter;
+	private final double meanJitter;
+	private final double stdDevJitter;
+
+	/**
+	 * Constructs new {@link WaveformStatistics}
+	 * 
+	 * @param steps
+	 *            the number of written steps
+	 * @param overruns
+	 *            the number of overruns
+	 * @param minJitter
+	 *            the minimum jitter in nanoseconds
+	 * @param maxJitter
+	 *            the maximum jitter in nanoseconds
+	 * @param meanJitter
+	 *            the mean jitter in nanoseconds
+	 * @param stdDevJitter
+	 *            the standard deviation of the jitter in nanoseconds
+	 */
+	WaveformStatistics(long steps, long overruns, long minJitter, long maxJitter, double meanJitter,
+			double stdDevJitter) {
+		this.steps = steps;
+		this.overruns = overruns;
+		this.minJitter = minJitter;
+		this.maxJitter = maxJitter;
+		this.meanJitter = meanJitter;
+		this.stdDevJitter = stdDevJitter;
+	}
+
+	/**
+	 * @return the number of written steps
+	 */
+	public long getSteps() {
+		return this.steps;
+	}
+
+	/**
+	 * @return the number of times the engine fell behind by more than a period
+	 */
+	public long getOverruns() {
+		return this.overruns;
+	}
+
+	/**
+	 * @return the minimum jitter in nanoseconds, or 0 if no steps were written
+	 */
+	public long getMinJitter() {
+		return this.minJitter;
+	}
+
+	/**
+	 * @return the maximum jitter in nanoseconds
+	 */
+	public long getMaxJitter() {
+		return this.maxJitter;
+	}
+
+	/**
+	 * @return the mean jitter in nanoseconds
+	 */
+	public double getMeanJitter() {
+		return this.meanJitter;
+	}
+
+	/**
+	 * @return the standard deviation of the jitter in nanoseconds
+	 */
+	public double getStdDevJitter() {
+		return this.stdDevJitter;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("WaveformStatistics [steps=%d, overruns=%d, jitter min=%dns, max=%dns, mean=%.1fns, "
+				+ "stdDev=%.1fns]", this.steps, this.overruns, this.minJitter, this.maxJitter, this.meanJitter,
+				this.stdDevJitter);
+	}
+}
@@ -0,0 +1,245 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the reads, the events, the debouncing and the opening of pins of the {@link AbstractGpioBridge} with a polled
+ * {@link GpioBridgeImpl} on the tree of a {@link SimulatedGpioChip}, so that inputs change without waking the
+ * observing {@link Thread}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class AbstractGpioBridgeTest {
+
+	private SimulatedGpioChip chip;
+	private GpioBridgeImpl gpioBridge;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.gpioBridge = new GpioBridgeImpl(this.chip.getGpioPath(), new PollingEdgeWatcher());
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	@Test
+	public void shouldNotUpdateSignalOnReadAll() throws Exception {
+		Pin pin = Pin.P8_07;
+		Gpio input = this.gpioBridge.getGpio(pin, Direction.IN);
+		this.chip.setInput(pin, Signal.HIGH);
+
+		GpioSnapshot snapshot = this.gpioBridge.readAll();
+		assertEquals(Signal.HIGH, snapshot.getSignal(pin));
+		assertEquals(1 << pin.getPin(), snapshot.getChanges(pin.getChip()));
+		assertEquals(Signal.LOW, input.getSignal());
+
+		// still a change, as the observing thread did not yet read it
+		this.gpioBridge.readAll(snapshot);
+		assertEquals(1 << pin.getPin(), snapshot.getChanges(pin.getChip()));
+	}
+
+	@Test
+	public void shouldNotUpdateSignalOnReadBank() throws Exception {
+		Pin pin = Pin.P8_07;
+		Gpio input = this.gpioBridge.getGpio(pin, Direction.IN);
+		this.chip.setInput(pin, Signal.HIGH);
+
+		assertEquals(1 << pin.getPin(), this.gpioBridge.readBank(pin.getChip(), 1 << pin.getPin()));
+		assertEquals(Signal.LOW, input.getSignal());
+	}
+
+	@Test
+	public void shouldNotSwallowListenerEdgeOnSnapshot() throws Exception {
+		Pin pin = Pin.P8_07;
+		Gpio input = this.gpioBridge.getGpio(pin, Direction.IN);
+		BlockingQueue<GpioEvent> events = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEventListener(input, Edge.BOTH, 200L, TimeUnit.MILLISECONDS, events::add);
+		this.gpioBridge.start();
+
+		// the input changes between two polls of the observing thread, and a snapshot is read in between
+		this.chip.setInput(pin, Signal.HIGH);
+		this.gpioBridge.readAll();
+		this.gpioBridge.readBank(pin.getChip(), 1 << pin.getPin());
+
+		GpioEvent event = events.poll(5L, TimeUnit.SECONDS);
+		assertNotNull("The edge was swallowed by the snapshot", event);
+		assertEquals(Signal.HIGH, event.getNewSignal());
+		assertEquals(Signal.HIGH, input.getSignal());
+	}
+
+	@Test
+	public void shouldNumberEventsPerPin() throws Exception {
+		Gpio p8_07 = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		Gpio p8_08 = this.gpioBridge.getGpio(Pin.P8_08, Direction.IN);
+		BlockingQueue<GpioEvent> events = new LinkedBlockingQueue<>();
+		BlockingQueue<Signal> samples = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEventListener(p8_07, Edge.RISING, 1L, TimeUnit.MILLISECONDS, events::add);
+		this.gpioBridge.registerEventListener(p8_08, Edge.RISING, 1L, TimeUnit.MILLISECONDS, events::add);
+		this.gpioBridge.registerSampleListener(p8_07, Edge.BOTH, 1L, TimeUnit.MILLISECONDS,
+				(gpio, signal, timestamp) -> samples.add(signal));
+		this.gpioBridge.start();
+
+		this.chip.setInput(Pin.P8_07, Signal.HIGH);
+		assertEquals(Signal.HIGH, samples.poll(5L, TimeUnit.SECONDS));
+		assertEquals(1L, events.poll(5L, TimeUnit.SECONDS).getSequence());
+
+		// no event is created for the falling edge, which no event listener accepts
+		this.chip.setInput(Pin.P8_07, Signal.LOW);
+		assertEquals(Signal.LOW, samples.poll(5L, TimeUnit.SECONDS));
+		this.chip.setInput(Pin.P8_07, Signal.HIGH);
+		GpioEvent event = events.poll(5L, TimeUnit.SECONDS);
+		assertEquals(Pin.P8_07, event.getPin());
+		assertEquals(2L, event.getSequence());
+
+		this.chip.setInput(Pin.P8_08, Signal.HIGH);
+		event = events.poll(5L, TimeUnit.SECONDS);
+		assertEquals(Pin.P8_08, event.getPin());
+		assertEquals(1L, event.getSequence());
+	}
+
+	@Test
+	public void shouldReadRawLevelOfDebouncedInput() throws Exception {
+		Pin pin = Pin.P8_07;
+		Gpio input = this.gpioBridge.getGpio(pin, Direction.IN);
+		this.gpioBridge.setDebounce(input, Debounce.stableTime(1L, TimeUnit.HOURS));
+		this.chip.setInput(pin, Signal.HIGH);
+
+		assertEquals(Signal.HIGH, this.gpioBridge.readValue(input));
+		assertEquals(Signal.LOW, input.getSignal());
+	}
+
+	@Test
+	public void shouldDebounceListenerEdges() throws Exception {
+		Pin pin = Pin.P8_07;
+		Gpio input = this.gpioBridge.getGpio(pin, Direction.IN);
+		this.gpioBridge.setDebounce(input, Debounce.stableTime(200L, TimeUnit.MILLISECONDS));
+		BlockingQueue<GpioEvent> events = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEventListener(input, Edge.BOTH, 1L, TimeUnit.MILLISECONDS, events::add);
+		this.gpioBridge.start();
+
+		// a glitch shorter than the stable time is not notified
+		this.chip.setInput(pin, Signal.HIGH);
+		Thread.sleep(20L);
+		this.chip.setInput(pin, Signal.LOW);
+		assertNull(events.poll(400L, TimeUnit.MILLISECONDS));
+
+		long start = System.nanoTime();
+		this.chip.setInput(pin, Signal.HIGH);
+		GpioEvent event = events.poll(5L, TimeUnit.SECONDS);
+		assertNotNull(event);
+		assertEquals(Signal.HIGH, event.getNewSignal());
+		assertTrue(event.getTimestamp() - start >= TimeUnit.MILLISECONDS.toNanos(200L));
+	}
+
+	@Test
+	public void shouldStopDebouncing() throws Exception {
+		Pin pin = Pin.P8_07;
+		Gpio input = this.gpioBridge.getGpio(pin, Direction.IN);
+		this.gpioBridge.setDebounce(input, Debounce.stableTime(1L, TimeUnit.HOURS));
+		this.gpioBridge.setDebounce(input, Debounce.integrator(3));
+		this.gpioBridge.setDebounce(input, null);
+		BlockingQueue<GpioEvent> events = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEventListener(input, Edge.BOTH, 1L, TimeUnit.MILLISECONDS, events::add);
+		this.gpioBridge.start();
+
+		this.chip.setInput(pin, Signal.HIGH);
+		GpioEvent event = events.poll(5L, TimeUnit.SECONDS);
+		assertNotNull(event);
+		assertEquals(Signal.HIGH, event.getNewSignal());
+	}
+
+	private int countOpenFiles() throws IOException {
+		Path gpioPath = this.chip.getGpioPath().toPath();
+		int count = 0;
+		try (DirectoryStream<Path> fds = Files.newDirectoryStream(Paths.get("/proc/self/fd"))) {
+			for (Path fd : fds) {
+				try {
+					if (Files.readSymbolicLink(fd).startsWith(gpioPath))
+						count++;
+				} catch (IOException e) {
+					// the descriptor of the directory stream itself may be gone
+				}
+			}
+		}
+		return count;
+	}
+
+	private Map<Pin, Direction> prepareFailingPins() {
+		// the direction file of the second pin never appears, thus it times out
+		File gpioDir = new File(this.chip.getGpioPath(), "gpio" + Pin.P8_08.getGpioNr());
+		assertTrue(new File(gpioDir, "direction").delete());
+
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		pins.put(Pin.P8_07, Direction.IN);
+		pins.put(Pin.P8_08, Direction.IN);
+		return pins;
+	}
+
+	@Test
+	public void shouldCloseOpenedPinsOnFailure() throws Exception {
+		assumeTrue(Files.isDirectory(Paths.get("/proc/self/fd")));
+		Map<Pin, Direction> pins = prepareFailingPins();
+
+		try {
+			this.gpioBridge.openPins(pins, 100L, TimeUnit.MILLISECONDS);
+			fail("Expected the pins to fail");
+		} catch (GpioException e) {
+			assertEquals(1, e.getSuppressed().length);
+		}
+		assertEquals(0, countOpenFiles());
+
+		// the good pin was not cached, thus it is opened again
+		Gpio gpio = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		assertEquals(1, countOpenFiles());
+		assertEquals(Signal.LOW, this.gpioBridge.readValue(gpio));
+	}
+
+	@Test
+	public void shouldCloseOpenedPinsWhenInterrupted() throws Exception {
+		assumeTrue(Files.isDirectory(Paths.get("/proc/self/fd")));
+		Map<Pin, Direction> pins = prepareFailingPins();
+
+		Thread.currentThread().interrupt();
+		try {
+			this.gpioBridge.openPins(pins, 5L, TimeUnit.SECONDS);
+			fail("Expected the pins to be interrupted");
+		} catch (GpioException e) {
+			assertTrue(Thread.interrupted());
+		}
+
+		// the task of the good pin may still be opening it, and closes it itself
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("gpio_open")) {
+				thread.join(5000L);
+				assertFalse(thread.isAlive());
+			}
+		}
+		assertEquals(0, countOpenFiles());
+	}
+}
@@ -0,0 +1,114 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests passing on, and dropping, messages through the ring buffer of the {@link AsyncGpioLogger}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class AsyncGpioLoggerTest {
+
+	private static class RecordingLogger implements GpioLogger {
+		private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release;
+
+		RecordingLogger(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public boolean isEnabled(LogLevel level) {
+			return true;
+		}
+
+		@Override
+		public void log(LogLevel level, String message, Throwable t) {
+			this.started.countDown();
+			try {
+				this.release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.messages.add(message);
+		}
+	}
+
+	@Test
+	public void shouldPassMessagesInOrder() {
+		RecordingLogger delegate = new RecordingLogger(new CountDownLatch(0));
+		AsyncGpioLogger logger = new AsyncGpioLogger(delegate, 1000);
+		for (int i = 0; i < 1000; i++) {
+			logger.log(LogLevel.INFO, "message " + i, null);
+		}
+		logger.close();
+
+		assertEquals(0L, logger.getDropped());
+		assertEquals(1000, delegate.messages.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("message " + i, delegate.messages.get(i));
+		}
+	}
+
+	@Test
+	public void shouldDropMessagesWhenFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingLogger delegate = new RecordingLogger(release);
+		AsyncGpioLogger logger = new AsyncGpioLogger(delegate, 4);
+
+		// the daemon thread takes the first message and blocks in the delegate
+		logger.log(LogLevel.INFO, "first", null);
+		assertTrue(delegate.started.await(5L, TimeUnit.SECONDS));
+
+		for (int i = 0; i < 6; i++) {
+			logger.log(LogLevel.INFO, "message " + i, null);
+		}
+		assertEquals(2L, logger.getDropped());
+
+		release.countDown();
+		logger.close();
+		assertEquals(5, delegate.messages.size());
+		assertEquals("first", delegate.messages.get(0));
+		assertEquals("message 3", delegate.messages.get(4));
+	}
+
+	@Test
+	public void shouldPassMessagesOfConcurrentThreads() throws Exception {
+		RecordingLogger delegate = new RecordingLogger(new CountDownLatch(0));
+		AsyncGpioLogger logger = new AsyncGpioLogger(delegate, 8192);
+
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			String name = "thread " + t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					logger.log(LogLevel.INFO, name + " " + i, null);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		logger.close();
+
+		assertEquals(0L, logger.getDropped());
+		assertEquals(4000, delegate.messages.size());
+		int[] next = new int[threads.length];
+		for (String message : delegate.messages) {
+			String[] parts = message.split(" ");
+			int t = Integer.parseInt(parts[1]);
+			assertEquals(next[t]++, Integer.parseInt(parts[2]));
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CdevGpioBridge} on a {@link SimulatedGpioCdev}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class CdevGpioBridgeTest {
+
+	private static final int CHIP = 2;
+
+	private SimulatedGpioCdev cdev;
+	private CdevGpioBridge gpioBridge;
+
+	@Before
+	public void before() {
+		this.cdev = new SimulatedGpioCdev();
+		this.gpioBridge = new CdevGpioBridge(this.cdev);
+	}
+
+	@After
+	public void after() {
+		this.gpioBridge.close();
+	}
+
+	private static class Sample {
+		private final Signal signal;
+		private final long timestamp;
+
+		Sample(Signal signal, long timestamp) {
+			this.signal = signal;
+			this.timestamp = timestamp;
+		}
+	}
+
+	@Test
+	public void shouldReadBankWithSingleIoctl() throws Exception {
+		Map<Pin, Direction> pins = new EnumMap<>(Pin.class);
+		pins.put(Pin.P8_07, Direction.IN);
+		pins.put(Pin.P8_08, Direction.IN);
+		pins.put(Pin.P8_09, Direction.IN);
+		this.gpioBridge.openPins(pins);
+
+		this.cdev.setInput(Pin.P8_07, Signal.HIGH);
+		this.cdev.setInput(Pin.P8_09, Signal.HIGH);
+
+		int mask = (1 << Pin.P8_07.getPin()) | (1 << Pin.P8_08.getPin()) | (1 << Pin.P8_09.getPin());
+		long ioctls = this.cdev.getIoctlCount();
+		int levels = this.gpioBridge.readBank(CHIP, mask);
+		assertEquals(ioctls + 1L, this.cdev.getIoctlCount());
+		assertEquals((1 << Pin.P8_07.getPin()) | (1 << Pin.P8_09.getPin()), levels);
+	}
+
+	@Test
+	public void shouldWriteBankWithSingleIoctl() throws Exception {
+		Gpio p8_08 = this.gpioBridge.getGpio(Pin.P8_08, Direction.OUT);
+		Gpio p8_10 = this.gpioBridge.getGpio(Pin.P8_10, Direction.OUT);
+
+		long ioctls = this.cdev.getIoctlCount();
+		this.gpioBridge.writeBank(CHIP, 1 << Pin.P8_08.getPin(), 1 << Pin.P8_10.getPin());
+		assertEquals(ioctls + 1L, this.cdev.getIoctlCount());
+		assertEquals(Signal.HIGH, this.cdev.getOutput(Pin.P8_08));
+		assertEquals(Signal.LOW, this.cdev.getOutput(Pin.P8_10));
+		assertEquals(Signal.HIGH, p8_08.getSignal());
+		assertEquals(Signal.LOW, p8_10.getSignal());
+	}
+
+	@Test
+	public void shouldKeepOutputLevelsWhenRequestingAgain() throws Exception {
+		Gpio output = this.gpioBridge.getGpio(Pin.P8_08, Direction.OUT);
+		this.gpioBridge.writeValue(output, Signal.HIGH);
+
+		// opening a further line of the chip requests all of its lines again
+		this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		assertEquals(Signal.HIGH, this.cdev.getOutput(Pin.P8_08));
+		assertEquals(Signal.HIGH, output.getSignal());
+	}
+
+	@Test
+	public void shouldFailOnBusyLines() throws Exception {
+		GpioLineRequest other = this.cdev.requestLines(CHIP, 1 << Pin.P8_07.getPin(), 0, 0, "other");
+		try {
+			this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+			fail("Expected the lines to be busy");
+		} catch (GpioException e) {
+			// expected
+		}
+
+		other.close();
+		Gpio input = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		assertEquals(Signal.LOW, this.gpioBridge.readValue(input));
+	}
+
+	@Test
+	public void shouldNotifyEveryEdge() throws Exception {
+		Gpio input = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		BlockingQueue<Sample> samples = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEdgeListener(input, (gpio, signal, timestamp) -> samples.add(new Sample(signal,
+				timestamp)));
+		this.gpioBridge.start();
+
+		// the input changes faster than the observing thread reads it
+		long previous = System.nanoTime();
+		Signal[] signals = { Signal.HIGH, Signal.LOW, Signal.HIGH, Signal.LOW, Signal.HIGH };
+		for (Signal signal : signals) {
+			this.cdev.setInput(Pin.P8_07, signal);
+		}
+
+		for (Signal signal : signals) {
+			Sample sample = samples.poll(5L, TimeUnit.SECONDS);
+			assertNotNull(sample);
+			assertEquals(signal, sample.signal);
+			assertTrue(sample.timestamp - previous >= 0L);
+			previous = sample.timestamp;
+		}
+		assertEquals(0L, this.cdev.getDroppedEvents());
+	}
+
+	@Test
+	public void shouldUnregisterEdgeListener() throws Exception {
+		Gpio input = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		GpioSampleListener listener = (gpio, signal, timestamp) -> {
+			// ignored
+		};
+		this.gpioBridge.registerEdgeListener(input, listener);
+		assertTrue(this.gpioBridge.unregisterEdgeListener(input, listener));
+		assertFalse(this.gpioBridge.unregisterEdgeListener(input, listener));
+	}
+
+	@Test
+	public void shouldNotSelectCdevWithBackendProperty() {
+		String previous = System.getProperty(GpioBridge.PROP_BACKEND);
+		System.setProperty(GpioBridge.PROP_BACKEND, "cdev");
+		try {
+			GpioBridge.getInstance();
+			fail("Expected the cdev backend to be unknown");
+		} catch (GpioException e) {
+			// expected, the bridge is retrieved with CdevGpioBridge.getInstance()
+		} finally {
+			if (previous == null)
+				System.clearProperty(GpioBridge.PROP_BACKEND);
+			else
+				System.setProperty(GpioBridge.PROP_BACKEND, previous);
+		}
+	}
+}
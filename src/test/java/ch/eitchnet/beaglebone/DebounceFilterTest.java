@@ -0,0 +1,74 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the state machines of the {@link DebounceFilter}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class DebounceFilterTest {
+
+	@Test
+	public void shouldIntegrateSamples() {
+		DebounceFilter filter = new DebounceFilter(Debounce.integrator(3), Signal.LOW);
+		Signal signal = Signal.LOW;
+
+		signal = filter.filter(signal, Signal.HIGH, 0L);
+		assertEquals(Signal.LOW, signal);
+		signal = filter.filter(signal, Signal.HIGH, 1L);
+		assertEquals(Signal.LOW, signal);
+		signal = filter.filter(signal, Signal.HIGH, 2L);
+		assertEquals(Signal.HIGH, signal);
+
+		// a single bounce does not reach the lower bound
+		signal = filter.filter(signal, Signal.LOW, 3L);
+		assertEquals(Signal.HIGH, signal);
+		signal = filter.filter(signal, Signal.HIGH, 4L);
+		assertEquals(Signal.HIGH, signal);
+
+		signal = filter.filter(signal, Signal.LOW, 5L);
+		signal = filter.filter(signal, Signal.LOW, 6L);
+		assertEquals(Signal.HIGH, signal);
+		signal = filter.filter(signal, Signal.LOW, 7L);
+		assertEquals(Signal.LOW, signal);
+		assertEquals(Long.MAX_VALUE, filter.getRemaining(7L));
+	}
+
+	@Test
+	public void shouldStartIntegratorAtCurrentSignal() {
+		DebounceFilter filter = new DebounceFilter(Debounce.integrator(2), Signal.HIGH);
+		assertEquals(Signal.HIGH, filter.filter(Signal.HIGH, Signal.LOW, 0L));
+		assertEquals(Signal.LOW, filter.filter(Signal.HIGH, Signal.LOW, 1L));
+	}
+
+	@Test
+	public void shouldAcceptStableSignal() {
+		DebounceFilter filter = new DebounceFilter(Debounce.stableTime(10L, TimeUnit.NANOSECONDS), Signal.LOW);
+
+		assertEquals(Signal.LOW, filter.filter(Signal.LOW, Signal.HIGH, 100L));
+		assertEquals(10L, filter.getRemaining(100L));
+		assertEquals(Signal.LOW, filter.filter(Signal.LOW, Signal.HIGH, 105L));
+		assertEquals(5L, filter.getRemaining(105L));
+		assertEquals(Signal.HIGH, filter.filter(Signal.LOW, Signal.HIGH, 110L));
+		assertEquals(Long.MAX_VALUE, filter.getRemaining(110L));
+	}
+
+	@Test
+	public void shouldRestartStableTimeOnBounce() {
+		DebounceFilter filter = new DebounceFilter(Debounce.stableTime(10L, TimeUnit.NANOSECONDS), Signal.LOW);
+
+		assertEquals(Signal.LOW, filter.filter(Signal.LOW, Signal.HIGH, 100L));
+		assertEquals(Signal.LOW, filter.filter(Signal.LOW, Signal.LOW, 105L));
+		assertEquals(Long.MAX_VALUE, filter.getRemaining(105L));
+
+		assertEquals(Signal.LOW, filter.filter(Signal.LOW, Signal.HIGH, 108L));
+		assertEquals(Signal.LOW, filter.filter(Signal.LOW, Signal.HIGH, 112L));
+		assertEquals(0L, filter.getRemaining(120L));
+		assertEquals(Signal.HIGH, filter.filter(Signal.LOW, Signal.HIGH, 120L));
+	}
+}
@@ -0,0 +1,184 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the ordering and the {@link OverflowPolicy}s of the {@link GpioDispatcher}, whose tasks are mostly run by the
+ * test itself, so that the queues are filled deterministically
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioDispatcherTest {
+
+	private SimulatedGpioChip chip;
+	private GpioBridgeImpl gpioBridge;
+	private List<GpioEvent> dispatched;
+	private CountDownLatch latch;
+	private BlockingQueue<Runnable> tasks;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.dispatched = new ArrayList<>();
+		this.latch = new CountDownLatch(0);
+		this.tasks = new LinkedBlockingQueue<>();
+		this.gpioBridge = new GpioBridgeImpl(this.chip.getGpioPath(), new PollingEdgeWatcher()) {
+			@Override
+			void dispatch(GpioEvent event) {
+				synchronized (GpioDispatcherTest.this.dispatched) {
+					GpioDispatcherTest.this.dispatched.add(event);
+				}
+				GpioDispatcherTest.this.latch.countDown();
+			}
+		};
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	private static GpioEvent event(Pin pin, Signal newSignal, long sequence) {
+		return new GpioEvent(pin, newSignal.getOpposite(), newSignal, sequence, sequence);
+	}
+
+	private void runTask() {
+		Runnable task = this.tasks.poll();
+		assertTrue("Expected a scheduled task", task != null);
+		task.run();
+	}
+
+	@Test
+	public void shouldNotifyInOrderPerPin() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			GpioDispatcher dispatcher = new GpioDispatcher(this.gpioBridge, executor, 16, OverflowPolicy.BLOCK);
+			int count = 1000;
+			this.latch = new CountDownLatch(2 * count);
+			for (int i = 1; i <= count; i++) {
+				Signal signal = i % 2 == 0 ? Signal.LOW : Signal.HIGH;
+				dispatcher.submit(event(Pin.P8_07, signal, i));
+				dispatcher.submit(event(Pin.P8_08, signal, i));
+			}
+			assertTrue(this.latch.await(5L, TimeUnit.SECONDS));
+			assertEquals(0L, dispatcher.getDropped());
+
+			long[] last = new long[Pin.values().length];
+			synchronized (this.dispatched) {
+				for (GpioEvent event : this.dispatched) {
+					int index = event.getPin().ordinal();
+					assertEquals(last[index] + 1L, event.getSequence());
+					last[index] = event.getSequence();
+				}
+			}
+			assertEquals(count, last[Pin.P8_07.ordinal()]);
+			assertEquals(count, last[Pin.P8_08.ordinal()]);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldDropOldestWhenFull() throws Exception {
+		GpioDispatcher dispatcher = new GpioDispatcher(this.gpioBridge, this.tasks::add, 2,
+				OverflowPolicy.DROP_OLDEST);
+		dispatcher.submit(event(Pin.P8_07, Signal.HIGH, 1L));
+		GpioEvent e2 = event(Pin.P8_07, Signal.LOW, 2L);
+		dispatcher.submit(e2);
+		GpioEvent e3 = event(Pin.P8_07, Signal.HIGH, 3L);
+		dispatcher.submit(e3);
+		assertEquals(1L, dispatcher.getDropped());
+		assertEquals(2, dispatcher.getQueueDepth(Pin.P8_07));
+
+		// the queue was scheduled once
+		assertEquals(1, this.tasks.size());
+		runTask();
+		assertEquals(Arrays.asList(e2, e3), this.dispatched);
+		assertEquals(0, dispatcher.getQueueDepth(Pin.P8_07));
+	}
+
+	@Test
+	public void shouldCoalesceWhenFull() throws Exception {
+		GpioDispatcher dispatcher = new GpioDispatcher(this.gpioBridge, this.tasks::add, 2, OverflowPolicy.COALESCE);
+		GpioEvent e1 = event(Pin.P8_07, Signal.HIGH, 1L);
+		dispatcher.submit(e1);
+		dispatcher.submit(event(Pin.P8_07, Signal.LOW, 2L));
+		dispatcher.submit(event(Pin.P8_07, Signal.HIGH, 3L));
+		assertEquals(1L, dispatcher.getDropped());
+		assertEquals(2, dispatcher.getQueueDepth(Pin.P8_07));
+
+		runTask();
+		assertEquals(2, this.dispatched.size());
+		assertEquals(e1, this.dispatched.get(0));
+
+		// the merged event keeps the old signal of the replaced event, thus the notified changes are consistent
+		GpioEvent merged = this.dispatched.get(1);
+		assertEquals(e1.getNewSignal(), merged.getOldSignal());
+		assertEquals(Signal.HIGH, merged.getNewSignal());
+		assertEquals(3L, merged.getSequence());
+		assertEquals(3L, merged.getTimestamp());
+	}
+
+	@Test
+	public void shouldWakeBlockedSubmitter() throws Exception {
+		GpioDispatcher dispatcher = new GpioDispatcher(this.gpioBridge, this.tasks::add, 1, OverflowPolicy.BLOCK);
+		GpioEvent e1 = event(Pin.P8_07, Signal.HIGH, 1L);
+		GpioEvent e2 = event(Pin.P8_07, Signal.LOW, 2L);
+		dispatcher.submit(e1);
+
+		Thread submitter = new Thread(() -> {
+			try {
+				dispatcher.submit(e2);
+			} catch (InterruptedException e) {
+				// the test fails as e2 is not dispatched
+			}
+		}, "submitter");
+		submitter.start();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+		while (submitter.getState() != Thread.State.WAITING && System.nanoTime() - deadline < 0L) {
+			Thread.sleep(1L);
+		}
+		assertEquals(Thread.State.WAITING, submitter.getState());
+		assertEquals(0L, dispatcher.getDropped());
+
+		runTask();
+		submitter.join(5000L);
+		assertFalse(submitter.isAlive());
+
+		// either the drained queue rescheduled itself, or the submitter scheduled it again
+		runTask();
+		assertEquals(Arrays.asList(e1, e2), this.dispatched);
+		assertEquals(0L, dispatcher.getDropped());
+	}
+
+	@Test
+	public void shouldDropEventsRejectedAfterShutdown() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.shutdown();
+		GpioDispatcher dispatcher = new GpioDispatcher(this.gpioBridge, executor, 4, OverflowPolicy.BLOCK);
+
+		dispatcher.submit(event(Pin.P8_07, Signal.HIGH, 1L));
+		dispatcher.submit(event(Pin.P8_07, Signal.LOW, 2L));
+		assertEquals(2L, dispatcher.getDropped());
+		assertEquals(0, dispatcher.getQueueDepth(Pin.P8_07));
+		assertTrue(this.dispatched.isEmpty());
+	}
+}
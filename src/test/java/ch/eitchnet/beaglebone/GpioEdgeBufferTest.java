@@ -0,0 +1,107 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the ring buffer of the {@link GpioEdgeBuffer}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioEdgeBufferTest {
+
+	@Test
+	public void shouldRoundCapacityToPowerOfTwo() {
+		assertEquals(1, new GpioEdgeBuffer(1).getCapacity());
+		assertEquals(4, new GpioEdgeBuffer(3).getCapacity());
+		assertEquals(8, new GpioEdgeBuffer(8).getCapacity());
+	}
+
+	@Test
+	public void shouldDrainInOrderAcrossWraparound() {
+		GpioEdgeBuffer buffer = new GpioEdgeBuffer(4);
+		long[] timestamps = new long[4];
+		boolean[] levels = new boolean[4];
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(buffer.offer(i, i % 2 == 0));
+		}
+		assertEquals(3, buffer.drain(timestamps, levels, 4));
+
+		// the head is now at index 3, thus these edges wrap around the end of the arrays
+		for (int i = 3; i < 7; i++) {
+			assertTrue(buffer.offer(i, i % 2 == 0));
+		}
+		assertEquals(4, buffer.size());
+		assertEquals(4, buffer.drain(timestamps, levels, 4));
+		for (int i = 0; i < 4; i++) {
+			assertEquals(i + 3L, timestamps[i]);
+			assertEquals((i + 3) % 2 == 0, levels[i]);
+		}
+		assertEquals(0, buffer.size());
+		assertEquals(0L, buffer.getOverflows());
+	}
+
+	@Test
+	public void shouldCountOverflowsOnceFull() {
+		GpioEdgeBuffer buffer = new GpioEdgeBuffer(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i, true));
+		}
+		assertEquals(0L, buffer.getOverflows());
+
+		assertFalse(buffer.offer(4L, false));
+		assertFalse(buffer.offer(5L, true));
+		assertEquals(2L, buffer.getOverflows());
+		assertEquals(4, buffer.size());
+
+		// the dropped edges are not recorded, and draining makes room again
+		long[] timestamps = new long[4];
+		boolean[] levels = new boolean[4];
+		assertEquals(1, buffer.drain(timestamps, levels, 1));
+		assertEquals(0L, timestamps[0]);
+		assertTrue(buffer.offer(6L, false));
+		assertEquals(2L, buffer.getOverflows());
+		assertEquals(4, buffer.drain(timestamps, levels, 4));
+		assertEquals(6L, timestamps[3]);
+	}
+
+	@Test
+	public void shouldDrainIntoShorterArray() {
+		GpioEdgeBuffer buffer = new GpioEdgeBuffer(8);
+		for (int i = 0; i < 5; i++) {
+			buffer.offer(i, true);
+		}
+
+		long[] timestamps = new long[2];
+		boolean[] levels = new boolean[3];
+		assertEquals(2, buffer.drain(timestamps, levels, 8));
+		assertEquals(0L, timestamps[0]);
+		assertEquals(1L, timestamps[1]);
+		assertEquals(3, buffer.size());
+
+		assertEquals(2, buffer.drain(timestamps, levels, 8));
+		assertEquals(2L, timestamps[0]);
+		assertEquals(1, buffer.drain(timestamps, levels, 8));
+		assertEquals(4L, timestamps[0]);
+		assertEquals(0, buffer.drain(timestamps, levels, 8));
+	}
+
+	@Test
+	public void shouldRecordSamples() throws Exception {
+		GpioEdgeBuffer buffer = new GpioEdgeBuffer(2);
+		buffer.onSample(null, Signal.HIGH, 10L);
+		buffer.onSample(null, Signal.LOW, 20L);
+
+		long[] timestamps = new long[2];
+		boolean[] levels = new boolean[2];
+		assertEquals(2, buffer.drain(timestamps, levels, 2));
+		assertEquals(10L, timestamps[0]);
+		assertTrue(levels[0]);
+		assertEquals(20L, timestamps[1]);
+		assertFalse(levels[1]);
+	}
+}
@@ -0,0 +1,267 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the demand, the {@link OverflowPolicy}s and the termination of the {@link GpioEventPublisher}, whose
+ * {@link GpioEvent}s are passed directly to the registered {@link GpioEventListener}s
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioEventPublisherTest {
+
+	private SimulatedGpioChip chip;
+	private ListenerBridge gpioBridge;
+	private List<Gpio> gpios;
+	private long sequence;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.gpioBridge = new ListenerBridge(this.chip);
+		this.gpios = Arrays.asList(this.gpioBridge.getGpio(Pin.P8_07, Direction.IN),
+				this.gpioBridge.getGpio(Pin.P8_08, Direction.IN));
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	/**
+	 * A {@link GpioBridgeImpl} which keeps the registered {@link GpioEventListener}s, so that the tests can pass
+	 * {@link GpioEvent}s without the observing {@link Thread}
+	 */
+	private static class ListenerBridge extends GpioBridgeImpl {
+		private final Map<Pin, List<GpioEventListener>> listeners;
+
+		ListenerBridge(SimulatedGpioChip chip) {
+			super(chip.getGpioPath(), new PollingEdgeWatcher());
+			this.listeners = new ConcurrentHashMap<>();
+		}
+
+		@Override
+		public void registerEventListener(Gpio gpio, Edge edge, GpioEventListener listener) throws GpioException {
+			this.listeners.computeIfAbsent(gpio.getPin(), p -> new CopyOnWriteArrayList<>()).add(listener);
+		}
+
+		@Override
+		public boolean unregisterEventListener(Gpio gpio, GpioEventListener listener) {
+			List<GpioEventListener> list = this.listeners.get(gpio.getPin());
+			return list != null && list.remove(listener);
+		}
+
+		int getListenerCount() {
+			int count = 0;
+			for (List<GpioEventListener> list : this.listeners.values()) {
+				count += list.size();
+			}
+			return count;
+		}
+
+		void notify(GpioEvent event) throws Exception {
+			List<GpioEventListener> list = this.listeners.get(event.getPin());
+			if (list == null)
+				return;
+			for (GpioEventListener listener : list) {
+				listener.onEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * A {@link GpioSubscriber} recording the passed {@link GpioEvent}s and the terminal signal
+	 */
+	private static class RecordingSubscriber implements GpioSubscriber {
+		private final long initialRequest;
+		private final List<GpioEvent> events;
+		private GpioSubscription subscription;
+		private Throwable error;
+		private boolean completed;
+
+		RecordingSubscriber(long initialRequest) {
+			this.initialRequest = initialRequest;
+			this.events = new ArrayList<>();
+		}
+
+		@Override
+		public void onSubscribe(GpioSubscription subscription) {
+			this.subscription = subscription;
+			if (this.initialRequest > 0L)
+				subscription.request(this.initialRequest);
+		}
+
+		@Override
+		public void onNext(GpioEvent event) {
+			this.events.add(event);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			this.error = t;
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+	}
+
+	private GpioEvent publish(Pin pin, Signal oldSignal, Signal newSignal) throws Exception {
+		this.sequence++;
+		GpioEvent event = new GpioEvent(pin, oldSignal, newSignal, this.sequence, this.sequence);
+		this.gpioBridge.notify(event);
+		return event;
+	}
+
+	@Test
+	public void shouldLimitDeliveryToDemand() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios, 8,
+				OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(2L);
+		publisher.subscribe(subscriber);
+		assertEquals(2, this.gpioBridge.getListenerCount());
+
+		GpioEvent e1 = publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		GpioEvent e2 = publish(Pin.P8_08, Signal.LOW, Signal.HIGH);
+		GpioEvent e3 = publish(Pin.P8_07, Signal.HIGH, Signal.LOW);
+		GpioEvent e4 = publish(Pin.P8_08, Signal.HIGH, Signal.LOW);
+		assertEquals(Arrays.asList(e1, e2), subscriber.events);
+
+		subscriber.subscription.request(1L);
+		assertEquals(Arrays.asList(e1, e2, e3), subscriber.events);
+
+		// the remaining demand is kept for the next events
+		subscriber.subscription.request(5L);
+		GpioEvent e5 = publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		assertEquals(Arrays.asList(e1, e2, e3, e4, e5), subscriber.events);
+		assertEquals(0L, publisher.getDropped());
+	}
+
+	@Test
+	public void shouldDropOldestWhenFull() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios, 2,
+				OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+		publisher.subscribe(subscriber);
+
+		publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		GpioEvent e2 = publish(Pin.P8_08, Signal.LOW, Signal.HIGH);
+		GpioEvent e3 = publish(Pin.P8_07, Signal.HIGH, Signal.LOW);
+		assertEquals(1L, publisher.getDropped());
+		assertTrue(subscriber.events.isEmpty());
+
+		subscriber.subscription.request(10L);
+		assertEquals(Arrays.asList(e2, e3), subscriber.events);
+	}
+
+	@Test
+	public void shouldCoalesceWhenFull() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+		publisher.subscribe(subscriber);
+
+		publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		GpioEvent e2 = publish(Pin.P8_08, Signal.LOW, Signal.HIGH);
+		GpioEvent e3 = publish(Pin.P8_07, Signal.HIGH, Signal.LOW);
+		GpioEvent e4 = publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		assertEquals(2L, publisher.getDropped());
+
+		subscriber.subscription.request(10L);
+		assertEquals(2, subscriber.events.size());
+
+		// the merged event keeps its place and the old signal of the first queued event of the pin
+		GpioEvent merged = subscriber.events.get(0);
+		assertEquals(Pin.P8_07, merged.getPin());
+		assertEquals(Signal.LOW, merged.getOldSignal());
+		assertEquals(Signal.HIGH, merged.getNewSignal());
+		assertEquals(e4.getTimestamp(), merged.getTimestamp());
+		assertEquals(e4.getSequence(), merged.getSequence());
+		assertTrue(e3.getSequence() < merged.getSequence());
+		assertEquals(e2, subscriber.events.get(1));
+	}
+
+	@Test
+	public void shouldFailOnNonPositiveRequest() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+		publisher.subscribe(subscriber);
+		publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+
+		subscriber.subscription.request(0L);
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+		assertFalse(subscriber.completed);
+		assertTrue(subscriber.events.isEmpty());
+		assertEquals(0, this.gpioBridge.getListenerCount());
+		assertEquals(0, publisher.getSubscriberCount());
+
+		// further requests are ignored
+		subscriber.subscription.request(1L);
+		assertTrue(subscriber.events.isEmpty());
+	}
+
+	@Test
+	public void shouldDrainQueuedEventsBeforeCompletingOnClose() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios, 8,
+				OverflowPolicy.DROP_OLDEST);
+		RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+		publisher.subscribe(subscriber);
+		GpioEvent e1 = publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		GpioEvent e2 = publish(Pin.P8_08, Signal.LOW, Signal.HIGH);
+
+		publisher.close();
+		assertEquals(0, this.gpioBridge.getListenerCount());
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(1L);
+		assertEquals(Arrays.asList(e1), subscriber.events);
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(1L);
+		assertEquals(Arrays.asList(e1, e2), subscriber.events);
+		assertTrue(subscriber.completed);
+		assertNull(subscriber.error);
+		assertEquals(0, publisher.getSubscriberCount());
+	}
+
+	@Test
+	public void shouldCompleteLateSubscriberOfClosedPublisher() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios);
+		publisher.close();
+
+		RecordingSubscriber subscriber = new RecordingSubscriber(0L);
+		publisher.subscribe(subscriber);
+		assertTrue(subscriber.completed);
+		assertEquals(0, this.gpioBridge.getListenerCount());
+	}
+
+	@Test
+	public void shouldUnregisterOnCancel() throws Exception {
+		GpioEventPublisher publisher = new GpioEventPublisher(this.gpioBridge, Edge.BOTH, this.gpios);
+		RecordingSubscriber subscriber = new RecordingSubscriber(1L);
+		publisher.subscribe(subscriber);
+		assertEquals(1, publisher.getSubscriberCount());
+
+		subscriber.subscription.cancel();
+		assertEquals(0, this.gpioBridge.getListenerCount());
+		assertEquals(0, publisher.getSubscriberCount());
+		publish(Pin.P8_07, Signal.LOW, Signal.HIGH);
+		assertTrue(subscriber.events.isEmpty());
+		assertFalse(subscriber.completed);
+	}
+}
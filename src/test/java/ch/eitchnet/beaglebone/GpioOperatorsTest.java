@@ -0,0 +1,193 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the operators {@link GpioPublisher#distinctUntilChanged()}, {@link GpioPublisher#throttle(long, TimeUnit)}
+ * and {@link GpioPublisher#sample(long, TimeUnit, ScheduledExecutorService)} on a source which records the upstream
+ * demand
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioOperatorsTest {
+
+	private Source source;
+	private ScheduledExecutorService scheduler;
+
+	@Before
+	public void before() {
+		this.source = new Source();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	@After
+	public void after() {
+		this.scheduler.shutdownNow();
+	}
+
+	/**
+	 * A {@link GpioPublisher} of a single subscriber, to which the test passes the {@link GpioEvent}s
+	 */
+	private static class Source implements GpioPublisher, GpioSubscription {
+		private GpioSubscriber subscriber;
+		private volatile long requested;
+		private volatile boolean cancelled;
+
+		@Override
+		public void subscribe(GpioSubscriber subscriber) {
+			this.subscriber = subscriber;
+			subscriber.onSubscribe(this);
+		}
+
+		@Override
+		public void request(long n) {
+			if (n == Long.MAX_VALUE || this.requested == Long.MAX_VALUE)
+				this.requested = Long.MAX_VALUE;
+			else
+				this.requested += n;
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+		}
+
+		GpioEvent emit(Pin pin, Signal newSignal, long timestamp) {
+			GpioEvent event = new GpioEvent(pin, newSignal.getOpposite(), newSignal, timestamp, timestamp);
+			this.subscriber.onNext(event);
+			return event;
+		}
+	}
+
+	/**
+	 * A {@link GpioSubscriber} recording the passed {@link GpioEvent}s, which may be called by the scheduler
+	 */
+	private static class RecordingSubscriber implements GpioSubscriber {
+		private final long initialRequest;
+		private final List<GpioEvent> events;
+		private volatile GpioSubscription subscription;
+		private volatile Throwable error;
+
+		RecordingSubscriber(long initialRequest) {
+			this.initialRequest = initialRequest;
+			this.events = new CopyOnWriteArrayList<>();
+		}
+
+		@Override
+		public void onSubscribe(GpioSubscription subscription) {
+			this.subscription = subscription;
+			subscription.request(this.initialRequest);
+		}
+
+		@Override
+		public void onNext(GpioEvent event) {
+			this.events.add(event);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			this.error = t;
+		}
+
+		@Override
+		public void onComplete() {
+			// ignored
+		}
+	}
+
+	@Test
+	public void shouldRequestReplacementOfUnchangedEvent() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(2L);
+		this.source.distinctUntilChanged().subscribe(subscriber);
+		assertEquals(2L, this.source.requested);
+
+		GpioEvent e1 = this.source.emit(Pin.P8_07, Signal.HIGH, 1L);
+		this.source.emit(Pin.P8_07, Signal.HIGH, 2L);
+		assertEquals(3L, this.source.requested);
+		GpioEvent e3 = this.source.emit(Pin.P8_08, Signal.HIGH, 3L);
+		assertEquals(3L, this.source.requested);
+
+		assertEquals(Arrays.asList(e1, e3), subscriber.events);
+	}
+
+	@Test
+	public void shouldRequestReplacementOfThrottledEvent() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(3L);
+		this.source.throttle(10L, TimeUnit.NANOSECONDS).subscribe(subscriber);
+		assertEquals(3L, this.source.requested);
+
+		GpioEvent e1 = this.source.emit(Pin.P8_07, Signal.HIGH, 100L);
+		this.source.emit(Pin.P8_07, Signal.LOW, 105L);
+		assertEquals(4L, this.source.requested);
+
+		// the window is kept per pin
+		GpioEvent e3 = this.source.emit(Pin.P8_08, Signal.HIGH, 105L);
+		GpioEvent e4 = this.source.emit(Pin.P8_07, Signal.HIGH, 110L);
+		assertEquals(4L, this.source.requested);
+
+		assertEquals(Arrays.asList(e1, e3, e4), subscriber.events);
+	}
+
+	@Test
+	public void shouldSampleAtMostRequestedEvents() throws Exception {
+		RecordingSubscriber subscriber = new RecordingSubscriber(2L);
+		this.source.sample(5L, TimeUnit.MILLISECONDS, this.scheduler).subscribe(subscriber);
+		assertEquals(Long.MAX_VALUE, this.source.requested);
+
+		this.source.emit(Pin.P8_07, Signal.HIGH, 1L);
+		this.source.emit(Pin.P8_08, Signal.HIGH, 2L);
+		this.source.emit(Pin.P8_09, Signal.HIGH, 3L);
+		this.source.emit(Pin.P8_10, Signal.HIGH, 4L);
+
+		awaitEvents(subscriber, 2);
+		Thread.sleep(30L);
+		assertEquals(2, subscriber.events.size());
+
+		subscriber.subscription.request(1L);
+		awaitEvents(subscriber, 3);
+		Thread.sleep(30L);
+		assertEquals(3, subscriber.events.size());
+	}
+
+	@Test
+	public void shouldSampleLatestEventOfPin() throws Exception {
+		RecordingSubscriber subscriber = new RecordingSubscriber(10L);
+		this.source.sample(50L, TimeUnit.MILLISECONDS, this.scheduler).subscribe(subscriber);
+
+		this.source.emit(Pin.P8_07, Signal.HIGH, 1L);
+		GpioEvent latest = this.source.emit(Pin.P8_07, Signal.LOW, 2L);
+
+		awaitEvents(subscriber, 1);
+		assertEquals(latest, subscriber.events.get(0));
+	}
+
+	@Test
+	public void shouldFailSampleOnNonPositiveRequest() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(1L);
+		this.source.sample(1L, TimeUnit.HOURS, this.scheduler).subscribe(subscriber);
+
+		subscriber.subscription.request(-1L);
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+		assertTrue(this.source.cancelled);
+	}
+
+	private static void awaitEvents(RecordingSubscriber subscriber, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+		while (subscriber.events.size() < count && System.nanoTime() - deadline < 0L) {
+			Thread.sleep(1L);
+		}
+		assertEquals(count, subscriber.events.size());
+	}
+}
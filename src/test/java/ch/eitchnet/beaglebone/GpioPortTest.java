@@ -0,0 +1,173 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.eitchnet.beaglebone.RecordingBankBridge.BankWrite;
+
+/**
+ * Tests the translation of values to bank writes and of bank reads to values of the {@link GpioPort} on a
+ * {@link RecordingBankBridge}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class GpioPortTest {
+
+	// bit i of the value is the pin at index i, on the banks 1, 2, 0, 1 and 2
+	private static final List<Pin> PINS = Arrays.asList(Pin.P8_03, Pin.P8_07, Pin.P8_13, Pin.P8_04, Pin.P8_08);
+
+	private SimulatedGpioChip chip;
+	private RecordingBankBridge gpioBridge;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.gpioBridge = new RecordingBankBridge(this.chip);
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	private GpioPort createOutputPort(List<Pin> pins) throws GpioException {
+		List<Gpio> gpios = new ArrayList<>();
+		for (Pin pin : pins) {
+			this.chip.setDirection(pin, Direction.OUT);
+			gpios.add(this.gpioBridge.getGpio(pin, Direction.OUT));
+		}
+		GpioPort port = new GpioPort(this.gpioBridge, gpios);
+		this.gpioBridge.clearWrites();
+		return port;
+	}
+
+	private static int bit(Pin pin) {
+		return 1 << pin.getPin();
+	}
+
+	private static void assertWrite(BankWrite write, int chip, int setMask, int clearMask) {
+		assertEquals(write.toString(), chip, write.getChip());
+		assertEquals(write.toString(), setMask, write.getSetMask());
+		assertEquals(write.toString(), clearMask, write.getClearMask());
+	}
+
+	@Test
+	public void shouldWriteOncePerBank() throws Exception {
+		GpioPort port = createOutputPort(PINS);
+		assertEquals(3, port.getNrOfBanks());
+
+		port.write(0b10101);
+		List<BankWrite> writes = this.gpioBridge.getWrites();
+		assertEquals(3, writes.size());
+		assertWrite(writes.get(0), 0, bit(Pin.P8_13), 0);
+		assertWrite(writes.get(1), 1, bit(Pin.P8_03), bit(Pin.P8_04));
+		assertWrite(writes.get(2), 2, bit(Pin.P8_08), bit(Pin.P8_07));
+		assertEquals(0b10101, port.getValue());
+
+		for (int i = 0; i < PINS.size(); i++) {
+			Signal expected = (0b10101 & (1 << i)) != 0 ? Signal.HIGH : Signal.LOW;
+			assertEquals(PINS.get(i).toString(), expected, port.getGpios().get(i).getSignal());
+		}
+	}
+
+	@Test
+	public void shouldWriteFullWidth() throws Exception {
+		// the last 32 pins, spread over all banks
+		Pin[] values = Pin.values();
+		List<Pin> pins = new ArrayList<>();
+		for (int i = 0; i < 32; i++) {
+			pins.add(values[values.length - 1 - i]);
+		}
+		GpioPort port = createOutputPort(pins);
+		assertEquals(32, port.getWidth());
+
+		int value = 0x8000_0001 | 0x00A5_5A00;
+		port.write(value);
+		assertEquals(value, port.getValue());
+		for (int i = 0; i < 32; i++) {
+			Signal expected = (value & (1 << i)) != 0 ? Signal.HIGH : Signal.LOW;
+			assertEquals(pins.get(i).toString(), expected, port.getGpios().get(i).getSignal());
+		}
+
+		// only the sign bit changes
+		this.gpioBridge.clearWrites();
+		port.write(value & Integer.MAX_VALUE);
+		List<BankWrite> writes = this.gpioBridge.getWrites();
+		assertEquals(1, writes.size());
+		assertWrite(writes.get(0), pins.get(31).getChip(), 0, bit(pins.get(31)));
+	}
+
+	@Test
+	public void shouldOnlyWriteChangedBits() throws Exception {
+		GpioPort port = createOutputPort(PINS);
+		port.write(0b10101);
+		this.gpioBridge.clearWrites();
+
+		port.write(0b10100);
+		List<BankWrite> writes = this.gpioBridge.getWrites();
+		assertEquals(1, writes.size());
+		assertWrite(writes.get(0), 1, 0, bit(Pin.P8_03));
+
+		// bits above the width are ignored, thus nothing changed
+		this.gpioBridge.clearWrites();
+		port.write(0b10100 | (1 << 5));
+		assertEquals(0, this.gpioBridge.getWrites().size());
+	}
+
+	@Test
+	public void shouldRewriteAllAfterFailedWrite() throws Exception {
+		GpioPort port = createOutputPort(PINS);
+		port.write(0b10101);
+
+		this.gpioBridge.failWrites(1);
+		try {
+			port.write(0b10100);
+			fail("Expected the write to fail");
+		} catch (GpioException e) {
+			// expected
+		}
+
+		// the state of the pins is unknown, thus all banks are written completely
+		this.gpioBridge.clearWrites();
+		port.write(0b10100);
+		List<BankWrite> writes = this.gpioBridge.getWrites();
+		assertEquals(3, writes.size());
+		assertWrite(writes.get(0), 0, bit(Pin.P8_13), 0);
+		assertWrite(writes.get(1), 1, 0, bit(Pin.P8_03) | bit(Pin.P8_04));
+		assertWrite(writes.get(2), 2, bit(Pin.P8_08), bit(Pin.P8_07));
+
+		// and afterwards only the changed bits again
+		this.gpioBridge.clearWrites();
+		port.write(0b10110);
+		assertEquals(1, this.gpioBridge.getWrites().size());
+	}
+
+	@Test
+	public void shouldTranslateReadBanksToValue() throws Exception {
+		List<Gpio> gpios = new ArrayList<>();
+		for (Pin pin : PINS) {
+			gpios.add(this.gpioBridge.getGpio(pin, Direction.IN));
+		}
+		GpioPort port = new GpioPort(this.gpioBridge, gpios);
+		assertEquals(0, port.read());
+
+		this.chip.setInput(Pin.P8_07, Signal.HIGH);
+		this.chip.setInput(Pin.P8_13, Signal.HIGH);
+		this.chip.setInput(Pin.P8_08, Signal.HIGH);
+		assertEquals(0b10110, port.read());
+		assertEquals(0b10110, port.getValue());
+
+		this.chip.setInput(Pin.P8_07, Signal.LOW);
+		this.chip.setInput(Pin.P8_03, Signal.HIGH);
+		assertEquals(0b10101, port.read());
+	}
+}
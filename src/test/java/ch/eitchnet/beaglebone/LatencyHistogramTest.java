@@ -0,0 +1,103 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ch.eitchnet.beaglebone.LatencyHistogram.Snapshot;
+
+/**
+ * Tests the buckets and percentiles of the {@link LatencyHistogram}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class LatencyHistogramTest {
+
+	private static final double DELTA = 1e-9;
+
+	/**
+	 * @return the highest value of the bucket of the given value, which is reported for its percentile as long as a
+	 *         larger value is recorded as well
+	 */
+	private static long getBucketLimit(long value) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(value);
+		histogram.record(Long.MAX_VALUE);
+		return histogram.getSnapshot().getValueAtPercentile(50.0);
+	}
+
+	@Test
+	public void shouldCountSmallValuesExactly() {
+		for (long value = 0L; value < 32L; value++) {
+			assertEquals(value, getBucketLimit(value));
+		}
+	}
+
+	@Test
+	public void shouldDoubleBucketWidthPerPowerOfTwo() {
+		// from 32 on 16 buckets per power of two
+		assertEquals(33L, getBucketLimit(32L));
+		assertEquals(33L, getBucketLimit(33L));
+		assertEquals(35L, getBucketLimit(34L));
+		assertEquals(63L, getBucketLimit(63L));
+		assertEquals(67L, getBucketLimit(64L));
+		assertEquals(127L, getBucketLimit(124L));
+		assertEquals(135L, getBucketLimit(128L));
+		assertEquals(1024L + 63L, getBucketLimit(1024L));
+		assertEquals((1L << 40) + (1L << 36) - 1L, getBucketLimit(1L << 40));
+
+		// the relative error stays below 1/16th
+		for (int shift = 5; shift < 62; shift++) {
+			long value = (1L << shift) + 1L;
+			long limit = getBucketLimit(value);
+			assertTrue(limit >= value && limit - value < value / 16L);
+		}
+	}
+
+	@Test
+	public void shouldClampPercentilesToMax() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000L);
+		histogram.record(990L);
+		histogram.record(-5L);
+
+		// 1000 is in the bucket up to 1023
+		Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(3L, snapshot.getCount());
+		assertEquals(1000L, snapshot.getMax());
+		assertEquals(1000L, snapshot.getValueAtPercentile(100.0));
+		assertEquals(1000L, snapshot.getValueAtPercentile(99.0));
+		assertEquals(0L, snapshot.getValueAtPercentile(0.0));
+		assertEquals(1990.0 / 3.0, snapshot.getMean(), DELTA);
+
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.getSnapshot().getValueAtPercentile(100.0));
+	}
+
+	@Test
+	public void shouldReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(100L);
+		Snapshot before = histogram.getSnapshot();
+
+		histogram.reset();
+		Snapshot snapshot = histogram.getSnapshot();
+		assertEquals(0L, snapshot.getCount());
+		assertEquals(0L, snapshot.getMax());
+		assertEquals(0.0, snapshot.getMean(), DELTA);
+		assertEquals(0L, snapshot.getValueAtPercentile(50.0));
+
+		// snapshots are immutable
+		assertEquals(1L, before.getCount());
+		assertEquals(100L, before.getMax());
+
+		histogram.record(10L);
+		assertEquals(10L, histogram.getSnapshot().getValueAtPercentile(100.0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectInvalidPercentile() {
+		new LatencyHistogram().getSnapshot().getValueAtPercentile(100.5);
+	}
+}
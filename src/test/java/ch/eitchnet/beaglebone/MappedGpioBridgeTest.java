@@ -0,0 +1,146 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests mapping the GPIO banks of the {@link MappedGpioBridge} from a regular file, with a
+ * {@link GpioRegisterMapper}, and that a character device is rejected without a native {@link GpioRegisterMapper}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class MappedGpioBridgeTest {
+
+	private File file;
+	private MappedByteBuffer mem;
+
+	@Before
+	public void before() throws Exception {
+		this.file = File.createTempFile("gpio_mem", ".bin");
+		try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw")) {
+			raf.setLength(4L * MappedGpioBridge.BANK_SIZE);
+			this.mem = raf.getChannel().map(MapMode.READ_WRITE, 0L, 4L * MappedGpioBridge.BANK_SIZE);
+			this.mem.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		// all pins are inputs, except P8_10
+		for (int chip = 0; chip < 4; chip++) {
+			setRegister(chip, MappedGpioBridge.GPIO_OE, -1);
+		}
+		Pin output = Pin.P8_10;
+		setRegister(output.getChip(), MappedGpioBridge.GPIO_OE, ~(1 << output.getPin()));
+	}
+
+	@After
+	public void after() {
+		this.file.delete();
+	}
+
+	private void setRegister(int chip, int offset, int value) {
+		this.mem.putInt((int) MappedGpioBridge.CONSECUTIVE_BANK_ADDRESSES[chip] + offset, value);
+	}
+
+	@Test
+	public void shouldMapRegularFile() throws Exception {
+		try (MappedGpioBridge gpioBridge = new MappedGpioBridge(this.file,
+				MappedGpioBridge.CONSECUTIVE_BANK_ADDRESSES, new PollingEdgeWatcher())) {
+
+			Pin pin = Pin.P8_07;
+			Gpio input = gpioBridge.getGpio(pin, Direction.IN);
+			assertEquals(Signal.LOW, gpioBridge.readValue(input));
+			setRegister(pin.getChip(), MappedGpioBridge.GPIO_DATAIN, 1 << pin.getPin());
+			assertEquals(Signal.HIGH, gpioBridge.readValue(input));
+
+			Pin outputPin = Pin.P8_10;
+			Gpio output = gpioBridge.getGpio(outputPin, Direction.OUT);
+			gpioBridge.writeValue(output, Signal.HIGH);
+			assertEquals(1 << outputPin.getPin(),
+					gpioBridge.getRegister(outputPin.getChip(), MappedGpioBridge.GPIO_SETDATAOUT));
+			gpioBridge.writeValue(output, Signal.LOW);
+			assertEquals(1 << outputPin.getPin(),
+					gpioBridge.getRegister(outputPin.getChip(), MappedGpioBridge.GPIO_CLEARDATAOUT));
+		}
+	}
+
+	@Test
+	public void shouldValidateDirection() throws Exception {
+		try (MappedGpioBridge gpioBridge = new MappedGpioBridge(this.file,
+				MappedGpioBridge.CONSECUTIVE_BANK_ADDRESSES, new PollingEdgeWatcher())) {
+			gpioBridge.getGpio(Pin.P8_10, Direction.IN);
+			fail("Direction was not validated");
+		} catch (GpioException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(Pin.P8_10.toString()));
+		}
+	}
+
+	@Test
+	public void shouldRejectCharacterDevice() throws Exception {
+		File device = new File("/dev/zero");
+		assumeTrue(device.exists());
+
+		try {
+			MappedGpioBridge gpioBridge = new MappedGpioBridge(device, MappedGpioBridge.AM335X_BANK_ADDRESSES,
+					new PollingEdgeWatcher());
+			gpioBridge.close();
+			fail("Character device was mapped with a FileChannel");
+		} catch (GpioException e) {
+			assertTrue(e.getCause().getMessage(),
+					e.getCause().getMessage().contains(GpioRegisterMapper.class.getName()));
+		}
+	}
+
+	@Test
+	public void shouldMapAndUnmapWithMapper() throws Exception {
+		List<Long> mapped = new ArrayList<>();
+		List<ByteBuffer> unmapped = new ArrayList<>();
+		GpioRegisterMapper mapper = new GpioRegisterMapper() {
+			@Override
+			public ByteBuffer map(File file, long address, int size) {
+				mapped.add(address);
+				ByteBuffer registers = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+				registers.putInt(MappedGpioBridge.GPIO_OE, -1);
+				return registers;
+			}
+
+			@Override
+			public void unmap(ByteBuffer registers) {
+				unmapped.add(registers);
+			}
+		};
+
+		try (MappedGpioBridge gpioBridge = new MappedGpioBridge(mapper, new File("/dev/mem"),
+				MappedGpioBridge.AM335X_BANK_ADDRESSES, new PollingEdgeWatcher())) {
+			Gpio input = gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+			assertEquals(Signal.LOW, gpioBridge.readValue(input));
+		}
+
+		assertEquals(4, mapped.size());
+		assertEquals(Long.valueOf(MappedGpioBridge.AM335X_BANK_ADDRESSES[1]), mapped.get(1));
+		assertEquals(4, unmapped.size());
+	}
+
+	@Test
+	public void shouldFailWithoutNativeMapper() throws Exception {
+		try {
+			MappedGpioBridge.getInstance();
+			fail("Bridge was created without a native mapper");
+		} catch (GpioException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(GpioRegisterMapper.class.getName()));
+		}
+	}
+}
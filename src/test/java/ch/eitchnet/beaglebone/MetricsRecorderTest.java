@@ -0,0 +1,122 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the counters of the {@link MetricsRecorder}, directly and as changed by the read, write and notify paths of a
+ * polled {@link GpioBridgeImpl} on the tree of a {@link SimulatedGpioChip}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class MetricsRecorderTest {
+
+	private SimulatedGpioChip chip;
+	private GpioBridgeImpl gpioBridge;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.gpioBridge = new GpioBridgeImpl(this.chip.getGpioPath(), new PollingEdgeWatcher());
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	@Test
+	public void shouldCountPerPinOfMask() {
+		MetricsRecorder recorder = new MetricsRecorder(AbstractGpioBridge.NR_OF_BANKS * 32);
+		int mask = (1 << Pin.P8_07.getPin()) | (1 << Pin.P8_08.getPin());
+		recorder.recordReads(2, mask);
+		recorder.recordRead(Pin.P8_07);
+		recorder.recordWrites(2, mask);
+		recorder.recordEdges(2, 1 << Pin.P8_08.getPin());
+		recorder.recordFailures(3, 1 << Pin.P9_25.getPin());
+		recorder.recordElided(Pin.P8_07);
+
+		assertEquals(2L, recorder.getReads(Pin.P8_07));
+		assertEquals(1L, recorder.getReads(Pin.P8_08));
+		assertEquals(1L, recorder.getWrites(Pin.P8_08));
+		assertEquals(0L, recorder.getEdges(Pin.P8_07));
+		assertEquals(1L, recorder.getEdges(Pin.P8_08));
+		assertEquals(1L, recorder.getFailures(Pin.P9_25));
+		assertEquals(1L, recorder.getElided(Pin.P8_07));
+
+		recorder.recordPollPass(100L);
+		recorder.reset();
+		assertEquals(0L, recorder.getReads(Pin.P8_07));
+		assertEquals(0L, recorder.getWrites(Pin.P8_08));
+		assertEquals(0L, recorder.getEdges(Pin.P8_08));
+		assertEquals(0L, recorder.getFailures(Pin.P9_25));
+		assertEquals(0L, recorder.getElided(Pin.P8_07));
+		assertEquals(0L, recorder.getPollPass().getSnapshot().getCount());
+	}
+
+	@Test
+	public void shouldCountReads() throws Exception {
+		Gpio p8_07 = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		this.gpioBridge.getGpio(Pin.P8_08, Direction.IN);
+
+		this.gpioBridge.readValue(p8_07);
+		this.gpioBridge.readBank(2, (1 << Pin.P8_07.getPin()) | (1 << Pin.P8_08.getPin()));
+
+		GpioMetrics metrics = this.gpioBridge.getMetrics();
+		assertEquals(2L, metrics.getReads(Pin.P8_07));
+		assertEquals(1L, metrics.getReads(Pin.P8_08));
+		assertEquals(3L, metrics.getTotalReads());
+		assertEquals(0L, metrics.getTotalWrites());
+
+		this.gpioBridge.resetMetrics();
+		assertEquals(0L, this.gpioBridge.getMetrics().getTotalReads());
+	}
+
+	@Test
+	public void shouldCountWrites() throws Exception {
+		this.chip.setDirection(Pin.P8_07, Direction.OUT);
+		this.chip.setDirection(Pin.P8_08, Direction.OUT);
+		Gpio p8_07 = this.gpioBridge.getGpio(Pin.P8_07, Direction.OUT);
+		this.gpioBridge.getGpio(Pin.P8_08, Direction.OUT);
+
+		this.gpioBridge.writeValue(p8_07, Signal.HIGH);
+		this.gpioBridge.writeBank(2, 1 << Pin.P8_08.getPin(), 1 << Pin.P8_07.getPin());
+
+		GpioMetrics metrics = this.gpioBridge.getMetrics();
+		assertEquals(2L, metrics.getWrites(Pin.P8_07));
+		assertEquals(1L, metrics.getWrites(Pin.P8_08));
+		assertEquals(3L, metrics.getTotalWrites());
+		assertEquals(0L, metrics.getTotalReads());
+		assertEquals(0L, metrics.getTotalFailures());
+	}
+
+	@Test
+	public void shouldCountNotifications() throws Exception {
+		Gpio input = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		BlockingQueue<GpioEvent> events = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEventListener(input, Edge.BOTH, 1L, TimeUnit.MILLISECONDS, events::add);
+		this.gpioBridge.start();
+
+		this.chip.setInput(Pin.P8_07, Signal.HIGH);
+		assertNotNull(events.poll(5L, TimeUnit.SECONDS));
+		this.chip.setInput(Pin.P8_07, Signal.LOW);
+		assertNotNull(events.poll(5L, TimeUnit.SECONDS));
+
+		GpioMetrics metrics = this.gpioBridge.getMetrics();
+		assertEquals(2L, metrics.getEdges(Pin.P8_07));
+		assertEquals(2L, metrics.getTotalEdges());
+		assertEquals(2L, metrics.getDispatchLatency().getCount());
+		assertTrue(metrics.getPollPass().getCount() > 0L);
+		assertTrue(metrics.getReads(Pin.P8_07) >= 2L);
+	}
+}
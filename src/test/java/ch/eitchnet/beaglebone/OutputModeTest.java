@@ -0,0 +1,129 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests eliding and coalescing writes with the {@link OutputMode}s, with single writes and with writes of whole banks,
+ * on a {@link CdevGpioBridge} with a {@link SimulatedGpioCdev}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class OutputModeTest {
+
+	private static final Pin PIN = Pin.P8_08;
+	private static final int BIT = 1 << PIN.getPin();
+
+	private SimulatedGpioCdev cdev;
+	private CdevGpioBridge gpioBridge;
+	private Gpio output;
+
+	@Before
+	public void before() throws Exception {
+		this.cdev = new SimulatedGpioCdev();
+		this.gpioBridge = new CdevGpioBridge(this.cdev);
+		this.output = this.gpioBridge.getGpio(PIN, Direction.OUT);
+	}
+
+	@After
+	public void after() {
+		this.gpioBridge.close();
+	}
+
+	private long getWrites() {
+		return this.gpioBridge.getMetrics().getWrites(PIN);
+	}
+
+	private long getElidedWrites() {
+		return this.gpioBridge.getMetrics().getElidedWrites(PIN);
+	}
+
+	@Test
+	public void shouldElideRedundantWrites() throws Exception {
+		this.gpioBridge.setOutputMode(this.output, OutputMode.DIRECT.withSuppression());
+
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+
+		assertEquals(2L, getWrites());
+		assertEquals(1L, getElidedWrites());
+		assertEquals(Signal.LOW, this.cdev.getOutput(PIN));
+	}
+
+	@Test
+	public void shouldCoalesceWritesWithinWindow() throws Exception {
+		this.gpioBridge.setOutputMode(this.output, OutputMode.DIRECT.withCoalescing(1L, TimeUnit.HOURS));
+
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+		assertEquals(1L, getWrites());
+		assertEquals(Signal.HIGH, this.cdev.getOutput(PIN));
+
+		this.gpioBridge.flush();
+		assertEquals(2L, getWrites());
+		assertEquals(Signal.LOW, this.cdev.getOutput(PIN));
+	}
+
+	@Test
+	public void shouldElideWriteAfterBankWrite() throws Exception {
+		this.gpioBridge.setOutputMode(this.output, OutputMode.DIRECT.withSuppression());
+
+		this.gpioBridge.writeBank(PIN.getChip(), BIT, 0);
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+
+		assertEquals(1L, getWrites());
+		assertEquals(1L, getElidedWrites());
+	}
+
+	@Test
+	public void shouldStartWindowWithBankWrite() throws Exception {
+		this.gpioBridge.setOutputMode(this.output, OutputMode.DIRECT.withCoalescing(1L, TimeUnit.HOURS));
+
+		this.gpioBridge.writeBank(PIN.getChip(), BIT, 0);
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+		assertEquals(Signal.HIGH, this.cdev.getOutput(PIN));
+
+		this.gpioBridge.flush();
+		assertEquals(Signal.LOW, this.cdev.getOutput(PIN));
+	}
+
+	@Test
+	public void shouldDropPendingSignalOnBankWrite() throws Exception {
+		this.gpioBridge.setOutputMode(this.output, OutputMode.DIRECT.withCoalescing(1L, TimeUnit.HOURS));
+
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+		this.gpioBridge.writeBank(PIN.getChip(), BIT, 0);
+		assertEquals(1L, getElidedWrites());
+
+		// the pending LOW must not overwrite the bank's HIGH
+		this.gpioBridge.flush();
+		assertEquals(Signal.HIGH, this.cdev.getOutput(PIN));
+		assertEquals(Signal.HIGH, this.output.getSignal());
+	}
+
+	@Test
+	public void shouldDropPendingSignalOnWriteValues() throws Exception {
+		this.gpioBridge.setOutputMode(this.output, OutputMode.DIRECT.withCoalescing(1L, TimeUnit.HOURS));
+
+		this.gpioBridge.writeValue(this.output, Signal.HIGH);
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+		this.gpioBridge.writeValues(Collections.singletonMap(this.output, Signal.HIGH));
+
+		this.gpioBridge.flush();
+		assertEquals(Signal.HIGH, this.cdev.getOutput(PIN));
+
+		// the bank write started a new window
+		this.gpioBridge.writeValue(this.output, Signal.LOW);
+		assertEquals(Signal.HIGH, this.cdev.getOutput(PIN));
+	}
+}
@@ -0,0 +1,99 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PipeEdgeWatcher} and that the observing {@link Thread} of a {@link GpioBridge} is woken through it
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PipeEdgeWatcherTest {
+
+	private PipeEdgeWatcher edgeWatcher;
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception {
+		this.edgeWatcher = new PipeEdgeWatcher();
+		this.executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void after() throws Exception {
+		this.executor.shutdownNow();
+		this.edgeWatcher.close();
+	}
+
+	@Test
+	public void shouldTimeOutWithoutEdge() throws Exception {
+		assertFalse(this.edgeWatcher.await(10L, TimeUnit.MILLISECONDS));
+		assertFalse(this.edgeWatcher.await(100L, TimeUnit.MICROSECONDS));
+	}
+
+	@Test
+	public void shouldReturnOnSignal() throws Exception {
+		this.edgeWatcher.signal();
+		this.edgeWatcher.signal();
+		assertTrue(this.edgeWatcher.await(10L, TimeUnit.SECONDS));
+
+		// the pipe was drained
+		assertFalse(this.edgeWatcher.await(10L, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void shouldWakeUpBlockedAwait() throws Exception {
+		Future<Boolean> result = this.executor.submit(() -> this.edgeWatcher.await(60L, TimeUnit.SECONDS));
+		Thread.sleep(50L);
+		this.edgeWatcher.wakeup();
+		assertFalse(result.get(5L, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void shouldWakeUpPollingWatcher() throws Exception {
+		PollingEdgeWatcher pollingWatcher = new PollingEdgeWatcher();
+		Future<Boolean> result = this.executor.submit(() -> pollingWatcher.await(60L, TimeUnit.SECONDS));
+		Thread.sleep(50L);
+		pollingWatcher.wakeup();
+		assertFalse(result.get(5L, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void shouldWakeObservingThreadOnRegistration() throws Exception {
+		try (SimulatedGpioChip chip = new SimulatedGpioChip();
+				AbstractGpioBridge gpioBridge = (AbstractGpioBridge) chip.createBridge()) {
+			Gpio slow = gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+			Gpio fast = gpioBridge.getGpio(Pin.P8_08, Direction.IN);
+
+			// the observing thread waits in the watcher for the next poll of the slow pin
+			gpioBridge.setPollInterval(60L, TimeUnit.SECONDS);
+			gpioBridge.register(slow, gpio -> {
+				// not notified
+			});
+			gpioBridge.start();
+			Thread.sleep(50L);
+
+			long passes = gpioBridge.getMetrics().getPollPass().getCount();
+			gpioBridge.registerSampleListener(fast, Edge.BOTH, 1L, TimeUnit.MILLISECONDS, (gpio, signal, timestamp) -> {
+				// only registered to sample the pin
+			});
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+			while (gpioBridge.getMetrics().getPollPass().getCount() < passes + 10L
+					&& System.nanoTime() - deadline < 0L) {
+				Thread.sleep(1L);
+			}
+			assertTrue("Observing thread was not woken",
+					gpioBridge.getMetrics().getPollPass().getCount() >= passes + 10L);
+		}
+	}
+}
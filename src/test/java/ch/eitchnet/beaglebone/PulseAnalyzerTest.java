@@ -0,0 +1,102 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the measurements of the {@link PulseAnalyzer} on synthetic pulse trains
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PulseAnalyzerTest {
+
+	private static final double DELTA = 1e-9;
+
+	/**
+	 * Fills the arrays with a pulse train starting with a rising edge at the given start
+	 */
+	private static int pulseTrain(long[] timestamps, boolean[] levels, long start, long highTime, long lowTime,
+			int pulses) {
+		int count = 0;
+		long time = start;
+		for (int i = 0; i < pulses; i++) {
+			timestamps[count] = time;
+			levels[count++] = true;
+			time += highTime;
+			timestamps[count] = time;
+			levels[count++] = false;
+			time += lowTime;
+		}
+		return count;
+	}
+
+	@Test
+	public void shouldMeasurePulseTrain() {
+		long[] timestamps = new long[20];
+		boolean[] levels = new boolean[20];
+		int count = pulseTrain(timestamps, levels, 1000L, 250_000L, 750_000L, 10);
+
+		PulseAnalyzer analyzer = new PulseAnalyzer();
+		analyzer.analyze(timestamps, levels, count);
+
+		assertEquals(10L, analyzer.getPulses());
+		assertEquals(1_000_000L, analyzer.getPeriod());
+		assertEquals(250_000L, analyzer.getHighTime());
+		assertEquals(750_000L, analyzer.getLowTime());
+		assertEquals(0.25, analyzer.getDutyCycle(), DELTA);
+		assertEquals(1000.0, analyzer.getFrequency(), DELTA);
+		assertEquals(1000.0, analyzer.getMeanFrequency(), DELTA);
+	}
+
+	@Test
+	public void shouldMeasureAcrossChunks() {
+		long[] timestamps = new long[8];
+		boolean[] levels = new boolean[8];
+		int count = pulseTrain(timestamps, levels, 0L, 100L, 300L, 4);
+
+		PulseAnalyzer analyzer = new PulseAnalyzer();
+		analyzer.analyze(timestamps, levels, 2);
+		assertEquals(0L, analyzer.getPeriod());
+		assertEquals(100L, analyzer.getHighTime());
+		assertEquals(0L, analyzer.getLowTime());
+
+		// the second chunk completes the pulse of the first
+		for (int i = 2; i < count; i++) {
+			analyzer.accept(timestamps[i], levels[i]);
+		}
+		assertEquals(4L, analyzer.getPulses());
+		assertEquals(400L, analyzer.getPeriod());
+		assertEquals(100L, analyzer.getHighTime());
+		assertEquals(300L, analyzer.getLowTime());
+	}
+
+	@Test
+	public void shouldReset() {
+		long[] timestamps = new long[10];
+		boolean[] levels = new boolean[10];
+		int count = pulseTrain(timestamps, levels, 0L, 500L, 500L, 5);
+
+		PulseAnalyzer analyzer = new PulseAnalyzer();
+		analyzer.analyze(timestamps, levels, count);
+		analyzer.reset();
+		assertEquals(0L, analyzer.getPulses());
+		assertEquals(0L, analyzer.getPeriod());
+		assertEquals(0L, analyzer.getHighTime());
+		assertEquals(0L, analyzer.getLowTime());
+		assertEquals(0.0, analyzer.getDutyCycle(), DELTA);
+		assertEquals(0.0, analyzer.getFrequency(), DELTA);
+		assertEquals(0.0, analyzer.getMeanFrequency(), DELTA);
+
+		// the edges before the reset do not count into the next measurement
+		analyzer.accept(100_000L, true);
+		assertEquals(0L, analyzer.getPeriod());
+		analyzer.accept(100_200L, false);
+		analyzer.accept(101_000L, true);
+		assertEquals(2L, analyzer.getPulses());
+		assertEquals(1000L, analyzer.getPeriod());
+		assertEquals(200L, analyzer.getHighTime());
+		assertEquals(800L, analyzer.getLowTime());
+		assertEquals(1e6, analyzer.getMeanFrequency(), DELTA);
+	}
+}
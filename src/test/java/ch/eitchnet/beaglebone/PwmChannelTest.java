@@ -0,0 +1,125 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PwmChannel} on a simulated <code>pwmchipN</code> directory, whose channel files are created
+ * asynchronously after the channel was exported, as the kernel and udev do
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class PwmChannelTest {
+
+	private Path chipPath;
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception {
+		this.chipPath = Files.createTempDirectory("pwmchip");
+		Files.write(this.chipPath.resolve("export"), new byte[0]);
+		this.executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void after() throws Exception {
+		this.executor.shutdownNow();
+		try (Stream<Path> paths = Files.walk(this.chipPath)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	private void createChannel(int channel) throws IOException {
+		Path channelPath = this.chipPath.resolve("pwm" + channel + ".tmp");
+		Files.createDirectory(channelPath);
+		write(channelPath.resolve("period"), "1000000");
+		write(channelPath.resolve("duty_cycle"), "0");
+		write(channelPath.resolve("polarity"), "normal");
+		write(channelPath.resolve("enable"), "0");
+		Files.move(channelPath, this.chipPath.resolve("pwm" + channel));
+	}
+
+	private static void write(Path file, String value) throws IOException {
+		Files.write(file, (value + "\n").getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private String read(String name) throws IOException {
+		return new String(Files.readAllBytes(this.chipPath.resolve("pwm1").resolve(name)), StandardCharsets.US_ASCII)
+				.trim();
+	}
+
+	private int countOpenFiles() throws IOException {
+		int count = 0;
+		try (DirectoryStream<Path> fds = Files.newDirectoryStream(Paths.get("/proc/self/fd"))) {
+			for (Path fd : fds) {
+				try {
+					if (Files.readSymbolicLink(fd).startsWith(this.chipPath))
+						count++;
+				} catch (IOException e) {
+					// the descriptor of the directory stream itself may be gone
+				}
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void shouldAwaitExportedChannel() throws Exception {
+		// the files appear some time after the channel was exported
+		Future<?> kernel = this.executor.submit(() -> {
+			Path export = this.chipPath.resolve("export");
+			while (Files.size(export) == 0L) {
+				Thread.sleep(1L);
+			}
+			Thread.sleep(50L);
+			createChannel(1);
+			return null;
+		});
+
+		try (PwmChannel pwm = new PwmChannel(this.chipPath.toFile(), 1)) {
+			kernel.get();
+			assertEquals("1", read("../export"));
+			assertEquals(1000000L, pwm.getPeriod());
+			assertEquals(0L, pwm.getDutyCycle());
+			assertEquals(PwmPolarity.NORMAL, pwm.getPolarity());
+			assertFalse(pwm.isEnabled());
+
+			pwm.setDutyCycle(250000L);
+			pwm.setEnabled(true);
+			assertEquals("250000", read("duty_cycle"));
+			assertEquals("1", read("enable"));
+			assertTrue(pwm.isEnabled());
+		}
+	}
+
+	@Test
+	public void shouldCloseFiles() throws Exception {
+		assumeTrue(Files.isDirectory(Paths.get("/proc/self/fd")));
+		createChannel(1);
+		assertEquals(0, countOpenFiles());
+
+		PwmChannel pwm = new PwmChannel(this.chipPath.toFile(), 1);
+		assertEquals(4, countOpenFiles());
+		pwm.close();
+		assertEquals(0, countOpenFiles());
+	}
+}
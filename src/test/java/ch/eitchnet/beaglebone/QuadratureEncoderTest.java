@@ -0,0 +1,131 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the state machine of the {@link QuadratureEncoder}, both by passing samples directly, and by turning a
+ * simulated encoder on a {@link SimulatedGpioChip}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class QuadratureEncoderTest {
+
+	private SimulatedGpioChip chip;
+	private GpioBridge gpioBridge;
+	private Gpio a;
+	private Gpio b;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.gpioBridge = this.chip.createBridge();
+		this.a = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		this.b = this.gpioBridge.getGpio(Pin.P8_08, Direction.IN);
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	/**
+	 * Sets the signals of A and B as the observing {@link Thread} would, and passes the sample to the encoder
+	 */
+	private static void sample(QuadratureEncoder encoder, Gpio a, Gpio b, int state, long timestamp) {
+		a.setSignal((state & 2) != 0 ? Signal.HIGH : Signal.LOW);
+		b.setSignal((state & 1) != 0 ? Signal.HIGH : Signal.LOW);
+		encoder.onSample(a, a.getSignal(), timestamp);
+	}
+
+	@Test
+	public void shouldCountUpWhenALeads() throws Exception {
+		try (QuadratureEncoder encoder = new QuadratureEncoder(this.gpioBridge, this.a, this.b, 1L,
+				TimeUnit.MILLISECONDS)) {
+			int[] cycle = { 0b10, 0b11, 0b01, 0b00 };
+			for (int i = 0; i < 8; i++) {
+				sample(encoder, this.a, this.b, cycle[i % 4], i * 1000L);
+			}
+
+			assertEquals(8L, encoder.getPosition());
+			assertEquals(1, encoder.getDirection());
+			assertEquals(0L, encoder.getErrors());
+		}
+	}
+
+	@Test
+	public void shouldCountDownWhenBLeads() throws Exception {
+		try (QuadratureEncoder encoder = new QuadratureEncoder(this.gpioBridge, this.a, this.b, 1L,
+				TimeUnit.MILLISECONDS)) {
+			int[] cycle = { 0b01, 0b11, 0b10, 0b00 };
+			for (int i = 0; i < 4; i++) {
+				sample(encoder, this.a, this.b, cycle[i], i * 1000L);
+			}
+
+			assertEquals(-4L, encoder.getPosition());
+			assertEquals(-1, encoder.getDirection());
+			assertTrue(encoder.getVelocity() < 0.0);
+		}
+	}
+
+	@Test
+	public void shouldCountMissedSteps() throws Exception {
+		try (QuadratureEncoder encoder = new QuadratureEncoder(this.gpioBridge, this.a, this.b, 1L,
+				TimeUnit.MILLISECONDS)) {
+			sample(encoder, this.a, this.b, 0b10, 0L);
+			// both inputs changed between two samples
+			sample(encoder, this.a, this.b, 0b01, 1000L);
+			// the same state again is not counted
+			sample(encoder, this.a, this.b, 0b01, 2000L);
+
+			assertEquals(1L, encoder.getPosition());
+			assertEquals(1L, encoder.getErrors());
+		}
+	}
+
+	@Test
+	public void shouldResetPosition() throws Exception {
+		try (QuadratureEncoder encoder = new QuadratureEncoder(this.gpioBridge, this.a, this.b, 1L,
+				TimeUnit.MILLISECONDS)) {
+			sample(encoder, this.a, this.b, 0b10, 0L);
+			encoder.setPosition(100L);
+			sample(encoder, this.a, this.b, 0b11, 1000L);
+			assertEquals(101L, encoder.getPosition());
+		}
+	}
+
+	@Test
+	public void shouldDecodeSimulatedEncoder() throws Exception {
+		try (QuadratureEncoder encoder = new QuadratureEncoder(this.gpioBridge, this.a, this.b, 1L,
+				TimeUnit.MILLISECONDS)) {
+			this.gpioBridge.start();
+
+			Pin[] order = { Pin.P8_07, Pin.P8_08, Pin.P8_07, Pin.P8_08 };
+			Signal[] signals = { Signal.HIGH, Signal.HIGH, Signal.LOW, Signal.LOW };
+			for (int cycle = 0; cycle < 2; cycle++) {
+				for (int i = 0; i < order.length; i++) {
+					this.chip.setInput(order[i], signals[i]);
+					awaitPosition(encoder, cycle * 4L + i + 1L);
+				}
+			}
+
+			assertEquals(8L, encoder.getPosition());
+			assertEquals(0L, encoder.getErrors());
+		}
+	}
+
+	private static void awaitPosition(QuadratureEncoder encoder, long position) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+		while (encoder.getPosition() != position && System.nanoTime() - deadline < 0L) {
+			Thread.sleep(1L);
+		}
+		assertEquals(position, encoder.getPosition());
+	}
+}
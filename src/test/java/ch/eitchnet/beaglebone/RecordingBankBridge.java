@@ -0,0 +1,146 @@
+package ch.eitchnet.beaglebone;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * A polled {@link GpioBridgeImpl} on the tree of a {@link SimulatedGpioChip}, which records every
+ * {@link #writeBank(int, int, int)} with its masks and timestamp, so that drivers built on bank writes can be tested
+ * off-board
+ * </p>
+ *
+ * <p>
+ * The next writes can be made to fail with {@link #failWrites(int)}, and subclasses can react to each write by
+ * overriding {@link #written(BankWrite)}, e.g. to simulate a device connected to the outputs
+ * </p>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class RecordingBankBridge extends GpioBridgeImpl {
+
+	private final List<BankWrite> writes;
+	private int failures;
+
+	/**
+	 * Constructs a new {@link RecordingBankBridge}
+	 *
+	 * @param chip
+	 *            the {@link SimulatedGpioChip} on whose tree the bridge works
+	 */
+	public RecordingBankBridge(SimulatedGpioChip chip) {
+		super(chip.getGpioPath(), new PollingEdgeWatcher());
+		this.writes = new ArrayList<>();
+	}
+
+	@Override
+	public void writeBank(int chip, int setMask, int clearMask) throws GpioException {
+		synchronized (this.writes) {
+			if (this.failures > 0) {
+				this.failures--;
+				throw new GpioException("Simulated failure writing bank " + chip);
+			}
+		}
+
+		super.writeBank(chip, setMask, clearMask);
+		BankWrite write = new BankWrite(chip, setMask, clearMask, System.nanoTime());
+		synchronized (this.writes) {
+			this.writes.add(write);
+		}
+		written(write);
+	}
+
+	/**
+	 * Called after each successful {@link #writeBank(int, int, int)}, this implementation does nothing
+	 *
+	 * @param write
+	 *            the recorded {@link BankWrite}
+	 *
+	 * @throws GpioException
+	 *             if the simulated reaction fails
+	 */
+	protected void written(BankWrite write) throws GpioException {
+		// nothing to do
+	}
+
+	/**
+	 * Lets the given number of next {@link #writeBank(int, int, int)} calls fail without writing
+	 *
+	 * @param count
+	 *            the number of writes to fail
+	 */
+	public void failWrites(int count) {
+		synchronized (this.writes) {
+			this.failures = count;
+		}
+	}
+
+	/**
+	 * @return a copy of the recorded {@link BankWrite}s in the order they were written
+	 */
+	public List<BankWrite> getWrites() {
+		synchronized (this.writes) {
+			return new ArrayList<>(this.writes);
+		}
+	}
+
+	/**
+	 * Clears the recorded {@link BankWrite}s
+	 */
+	public void clearWrites() {
+		synchronized (this.writes) {
+			this.writes.clear();
+		}
+	}
+
+	/**
+	 * A recorded write of a GPIO bank
+	 */
+	public static class BankWrite {
+		private final int chip;
+		private final int setMask;
+		private final int clearMask;
+		private final long timestamp;
+
+		BankWrite(int chip, int setMask, int clearMask, long timestamp) {
+			this.chip = chip;
+			this.setMask = setMask;
+			this.clearMask = clearMask;
+			this.timestamp = timestamp;
+		}
+
+		/**
+		 * @return the written GPIO bank
+		 */
+		public int getChip() {
+			return this.chip;
+		}
+
+		/**
+		 * @return the bit mask of the pins set to {@link Signal#HIGH}
+		 */
+		public int getSetMask() {
+			return this.setMask;
+		}
+
+		/**
+		 * @return the bit mask of the pins set to {@link Signal#LOW}
+		 */
+		public int getClearMask() {
+			return this.clearMask;
+		}
+
+		/**
+		 * @return the {@link System#nanoTime()} after the write
+		 */
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		@Override
+		public String toString() {
+			return "BankWrite [chip=" + this.chip + ", set=" + Integer.toBinaryString(this.setMask) + ", clear="
+					+ Integer.toBinaryString(this.clearMask) + "]";
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the deadline heap of the {@link SampleScheduler} with synthetic times, using GPIO numbers of the first bank
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class SampleSchedulerTest {
+
+	private static int due(SampleScheduler scheduler, long now) {
+		int[] masks = new int[AbstractGpioBridge.NR_OF_BANKS];
+		scheduler.addDue(now, masks);
+		return masks[0];
+	}
+
+	@Test
+	public void shouldOrderMixedPeriods() {
+		SampleScheduler scheduler = new SampleScheduler(32);
+		scheduler.schedule(3, 25L, 0L);
+		scheduler.schedule(1, 10L, 0L);
+		scheduler.schedule(2, 15L, 0L);
+
+		long[] times = { 10L, 15L, 20L, 25L, 30L, 40L, 45L, 50L, 60L };
+		int[] masks = { 0b0010, 0b0100, 0b0010, 0b1000, 0b0110, 0b0010, 0b0100, 0b1010, 0b0110 };
+		for (int i = 0; i < times.length; i++) {
+			assertEquals(times[i], scheduler.getNextDeadline());
+			assertEquals(0, due(scheduler, times[i] - 1L));
+			assertEquals("at " + times[i], masks[i], due(scheduler, times[i]));
+		}
+	}
+
+	@Test
+	public void shouldSkipMissedSamples() {
+		SampleScheduler scheduler = new SampleScheduler(32);
+		scheduler.schedule(1, 10L, 0L);
+
+		// read once although three deadlines elapsed, and the next deadline stays on the grid of the period
+		assertEquals(0b0010, due(scheduler, 35L));
+		assertEquals(40L, scheduler.getNextDeadline());
+		assertEquals(0, due(scheduler, 35L));
+	}
+
+	@Test
+	public void shouldRemoveFromMiddleOfHeap() {
+		long[] periods = { 10L, 100L, 20L, 110L, 120L, 30L };
+		SampleScheduler scheduler = new SampleScheduler(32);
+		for (int i = 0; i < periods.length; i++) {
+			scheduler.schedule(i, periods[i], 0L);
+		}
+
+		// the last element replacing the removed one must move up past its new parent
+		scheduler.remove(3);
+		scheduler.remove(3);
+		int[] masks = new int[AbstractGpioBridge.NR_OF_BANKS];
+		scheduler.addScheduled(masks);
+		assertEquals(0b110111, masks[0]);
+
+		long[] firstDue = new long[periods.length];
+		long previous = 0L;
+		while (scheduler.getNextDeadline() <= 120L) {
+			long now = scheduler.getNextDeadline();
+			assertTrue(now >= previous);
+			previous = now;
+			int due = due(scheduler, now);
+			for (int i = 0; i < periods.length; i++) {
+				if ((due & (1 << i)) != 0 && firstDue[i] == 0L)
+					firstDue[i] = now;
+			}
+		}
+
+		for (int i = 0; i < periods.length; i++) {
+			assertEquals("GPIO " + i, i == 3 ? 0L : periods[i], firstDue[i]);
+		}
+	}
+
+	@Test
+	public void shouldRescheduleOnPeriodChange() {
+		SampleScheduler scheduler = new SampleScheduler(32);
+		scheduler.schedule(1, 100L, 0L);
+		scheduler.schedule(2, 50L, 0L);
+		assertEquals(50L, scheduler.getNextDeadline());
+
+		// a shorter period moves the deadline forward, ahead of the other GPIO
+		scheduler.schedule(1, 10L, 5L);
+		assertEquals(15L, scheduler.getNextDeadline());
+		assertEquals(0b0010, due(scheduler, 15L));
+		assertEquals(0b0010, due(scheduler, 25L));
+		assertEquals(35L, scheduler.getNextDeadline());
+
+		// a longer period keeps the next deadline, and applies after it
+		scheduler.schedule(1, 1000L, 30L);
+		assertEquals(0b0010, due(scheduler, 35L));
+		assertEquals(0b0100, due(scheduler, 50L));
+		assertEquals(100L, scheduler.getNextDeadline());
+		assertEquals(0b0100, due(scheduler, 100L));
+		assertEquals(150L, scheduler.getNextDeadline());
+		assertEquals(0b0100, due(scheduler, 1034L));
+		assertEquals(0b0010, due(scheduler, 1035L));
+	}
+
+	@Test
+	public void shouldClear() {
+		SampleScheduler scheduler = new SampleScheduler(32);
+		scheduler.schedule(1, 10L, 0L);
+		scheduler.schedule(2, 20L, 0L);
+		assertFalse(scheduler.isEmpty());
+
+		scheduler.clear();
+		assertTrue(scheduler.isEmpty());
+		assertEquals(0, due(scheduler, 100L));
+
+		// cleared GPIOs are scheduled anew
+		scheduler.schedule(2, 20L, 100L);
+		assertEquals(120L, scheduler.getNextDeadline());
+	}
+}
@@ -0,0 +1,250 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.eitchnet.beaglebone.RecordingBankBridge.BankWrite;
+
+/**
+ * Tests the {@link ShiftRegisterOutput} and {@link ShiftRegisterInput} against simulated 74HC595 and 74HC165 chains,
+ * which react to the writes of a {@link RecordingBankBridge}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class ShiftRegisterTest {
+
+	private static final Pin DATA = Pin.P8_07;
+	private static final Pin CLOCK = Pin.P8_08;
+	private static final Pin LATCH = Pin.P8_09;
+	private static final Pin LOAD = Pin.P8_09;
+	private static final Pin SERIAL_OUT = Pin.P8_10;
+	private static final Pin OTHER_BANK_DATA = Pin.P8_03;
+
+	private SimulatedGpioChip chip;
+	private RecordingBankBridge gpioBridge;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+	}
+
+	@After
+	public void after() throws Exception {
+		if (this.gpioBridge != null)
+			this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	private Gpio getOutput(Pin pin) throws GpioException {
+		this.chip.setDirection(pin, Direction.OUT);
+		return this.gpioBridge.getGpio(pin, Direction.OUT);
+	}
+
+	private static boolean isSet(BankWrite write, Pin pin) {
+		return write.getChip() == pin.getChip() && (write.getSetMask() & (1 << pin.getPin())) != 0;
+	}
+
+	private static boolean isCleared(BankWrite write, Pin pin) {
+		return write.getChip() == pin.getChip() && (write.getClearMask() & (1 << pin.getPin())) != 0;
+	}
+
+	/**
+	 * A chain of 74HC595 registers, which shifts in the level of the data output on each rising clock edge, and
+	 * transfers the shift register to the outputs on the rising latch edge
+	 */
+	private static class Simulated595 extends RecordingBankBridge {
+		private final Pin data;
+		private final long mask;
+		private boolean level;
+		private long shift;
+		private long outputs;
+
+		Simulated595(SimulatedGpioChip chip, Pin data, int width) {
+			super(chip);
+			this.data = data;
+			this.mask = width == 64 ? -1L : (1L << width) - 1L;
+		}
+
+		@Override
+		protected void written(BankWrite write) {
+			if (isSet(write, this.data))
+				this.level = true;
+			else if (isCleared(write, this.data))
+				this.level = false;
+
+			if (isSet(write, CLOCK))
+				this.shift = (this.shift << 1) | (this.level ? 1L : 0L);
+			if (isSet(write, LATCH))
+				this.outputs = this.shift & this.mask;
+		}
+	}
+
+	private Simulated595 create595(Pin data, int width) {
+		Simulated595 bridge = new Simulated595(this.chip, data, width);
+		this.gpioBridge = bridge;
+		return bridge;
+	}
+
+	@Test
+	public void shouldShiftOutMostSignificantBitFirst() throws Exception {
+		Simulated595 bridge = create595(DATA, 16);
+		ShiftRegisterOutput output = new ShiftRegisterOutput(bridge, getOutput(DATA), getOutput(CLOCK),
+				getOutput(LATCH), 16);
+
+		output.write(0xA5C3L);
+		assertEquals(0xA5C3L, bridge.outputs);
+		assertEquals(0xA5C3L, output.getWord());
+
+		// bit 0 is QA, i.e. the last bit shifted in
+		output.write(0, Signal.LOW);
+		assertEquals(0xA5C2L, bridge.outputs);
+		output.write(15, Signal.LOW);
+		assertEquals(0x25C2L, bridge.outputs);
+	}
+
+	@Test
+	public void shouldWriteOncePerBitPlusClockOnSameBank() throws Exception {
+		Simulated595 bridge = create595(DATA, 8);
+		ShiftRegisterOutput output = new ShiftRegisterOutput(bridge, getOutput(DATA), getOutput(CLOCK),
+				getOutput(LATCH), 8);
+		bridge.clearWrites();
+
+		output.write(0x5AL);
+		List<BankWrite> writes = bridge.getWrites();
+
+		// per bit the data with the falling clock and the rising clock, then the latch with the falling clock, and
+		// the falling latch
+		assertEquals(2 * 8 + 2, writes.size());
+		boolean previous = false;
+		for (int i = 0; i < 8; i++) {
+			BankWrite dataWrite = writes.get(2 * i);
+			boolean bit = ((0x5AL >>> (7 - i)) & 1L) != 0L;
+			assertTrue(dataWrite.toString(), isCleared(dataWrite, CLOCK));
+			assertEquals(dataWrite.toString(), bit && !previous, isSet(dataWrite, DATA));
+			assertEquals(dataWrite.toString(), !bit && previous, isCleared(dataWrite, DATA));
+			assertTrue(dataWrite.toString(), isSet(writes.get(2 * i + 1), CLOCK));
+			previous = bit;
+		}
+		assertTrue(isSet(writes.get(16), LATCH) && isCleared(writes.get(16), CLOCK));
+		assertTrue(isCleared(writes.get(17), LATCH));
+		assertEquals(0x5AL, bridge.outputs);
+	}
+
+	@Test
+	public void shouldSkipUnchangedDataBits() throws Exception {
+		Simulated595 bridge = create595(OTHER_BANK_DATA, 8);
+		ShiftRegisterOutput output = new ShiftRegisterOutput(bridge, getOutput(OTHER_BANK_DATA), getOutput(CLOCK),
+				getOutput(LATCH), 8);
+		bridge.clearWrites();
+
+		// the data output is only written where the bit differs from the previous bit
+		output.write(0xF0L);
+		int dataWrites = 0;
+		for (BankWrite write : bridge.getWrites()) {
+			if (write.getChip() == OTHER_BANK_DATA.getChip())
+				dataWrites++;
+		}
+		assertEquals(2, dataWrites);
+		assertEquals(2 * 8 + 2 + 2, bridge.getWrites().size());
+		assertEquals(0xF0L, bridge.outputs);
+	}
+
+	@Test
+	public void shouldSkipSameWord() throws Exception {
+		Simulated595 bridge = create595(DATA, 8);
+		ShiftRegisterOutput output = new ShiftRegisterOutput(bridge, getOutput(DATA), getOutput(CLOCK),
+				getOutput(LATCH), 8);
+		output.write(0x81L);
+		bridge.clearWrites();
+
+		output.write(0x81L);
+		output.write(7, Signal.HIGH);
+		output.write(3, Signal.LOW);
+		assertEquals(0, bridge.getWrites().size());
+	}
+
+	@Test
+	public void shouldWriteWordAgainAfterFailure() throws Exception {
+		Simulated595 bridge = create595(OTHER_BANK_DATA, 8);
+		ShiftRegisterOutput output = new ShiftRegisterOutput(bridge, getOutput(OTHER_BANK_DATA), getOutput(CLOCK),
+				getOutput(LATCH), 8);
+		output.write(0x00L);
+
+		// the first write, of the data output, fails
+		bridge.failWrites(1);
+		try {
+			output.write(0x80L);
+			fail("Expected the write to fail");
+		} catch (GpioException e) {
+			// expected
+		}
+		assertEquals(0x00L, output.getWord());
+
+		// neither the word is skipped, nor the write of the data output which did not change
+		output.write(0x80L);
+		assertEquals(0x80L, bridge.outputs);
+		assertEquals(0x80L, output.getWord());
+	}
+
+	/**
+	 * A chain of 74HC165 registers, which loads the parallel inputs while the load is low, and shifts on each rising
+	 * clock edge, putting the most significant bit on the serial output
+	 */
+	private static class Simulated165 extends RecordingBankBridge {
+		private final SimulatedGpioChip chip;
+		private final int width;
+		private long inputs;
+		private long shift;
+
+		Simulated165(SimulatedGpioChip chip, int width) {
+			super(chip);
+			this.chip = chip;
+			this.width = width;
+		}
+
+		@Override
+		protected void written(BankWrite write) throws GpioException {
+			if (isCleared(write, LOAD))
+				this.shift = this.inputs;
+			else if (isSet(write, CLOCK))
+				this.shift <<= 1;
+			else
+				return;
+			boolean high = ((this.shift >>> (this.width - 1)) & 1L) != 0L;
+			this.chip.setInput(SERIAL_OUT, high ? Signal.HIGH : Signal.LOW);
+		}
+	}
+
+	@Test
+	public void shouldLoadAndShiftIn() throws Exception {
+		Simulated165 bridge = new Simulated165(this.chip, 16);
+		this.gpioBridge = bridge;
+		ShiftRegisterInput input = new ShiftRegisterInput(bridge, bridge.getGpio(SERIAL_OUT, Direction.IN),
+				getOutput(CLOCK), getOutput(LOAD), 16);
+		bridge.clearWrites();
+
+		bridge.inputs = 0xC3A5L;
+		assertEquals(0xC3A5L, input.read());
+
+		// the load pulse, then per bit a rising and a falling clock edge
+		List<BankWrite> writes = bridge.getWrites();
+		assertEquals(2 + 2 * 16, writes.size());
+		assertTrue(isCleared(writes.get(0), LOAD));
+		assertTrue(isSet(writes.get(1), LOAD));
+		for (int i = 0; i < 16; i++) {
+			assertTrue(isSet(writes.get(2 + 2 * i), CLOCK));
+			assertTrue(isCleared(writes.get(3 + 2 * i), CLOCK));
+		}
+
+		// each read loads the inputs anew
+		bridge.inputs = 0x0001L;
+		assertEquals(0x0001L, input.read());
+	}
+}
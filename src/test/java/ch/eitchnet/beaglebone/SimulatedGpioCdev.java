@@ -0,0 +1,277 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An in-memory {@link GpioCdev} with the four chips of the AM335x, so that the {@link CdevGpioBridge} can be tested
+ * off-board. A line can be held by only one {@link GpioLineRequest} at a time, as with the kernel, which fails
+ * requesting a busy line with <code>EBUSY</code>
+ * </p>
+ *
+ * <p>
+ * The signals of input lines are set with {@link #setInput(Pin, Signal)}, which queues an edge event timestamped with
+ * {@link System#nanoTime()} if the edge is configured on the line's request. The written signal of an output line is
+ * returned by {@link #getOutput(Pin)}, and {@link #getIoctlCount()} returns the number of simulated
+ * <code>ioctl()</code>s, e.g. to verify that a whole bank is read with a single call
+ * </p>
+ *
+ * <pre>
+ * SimulatedGpioCdev cdev = new SimulatedGpioCdev();
+ * try (CdevGpioBridge gpioBridge = new CdevGpioBridge(cdev)) {
+ * 	...
+ * 	cdev.setInput(Pin.P8_07, Signal.HIGH);
+ * }
+ * </pre>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class SimulatedGpioCdev implements GpioCdev {
+
+	private static final int NR_OF_CHIPS = 4;
+	private static final int DEFAULT_EVENT_CAPACITY = 1024;
+
+	private final int eventCapacity;
+	private final int[] levels;
+	private final SimulatedLineRequest[] requests;
+	private long ioctls;
+	private long droppedEvents;
+	private boolean woken;
+
+	/**
+	 * Constructs a new {@link SimulatedGpioCdev}, whose requests queue at most 1024 edge events
+	 */
+	public SimulatedGpioCdev() {
+		this(DEFAULT_EVENT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new {@link SimulatedGpioCdev}
+	 *
+	 * @param eventCapacity
+	 *            the maximum number of edge events queued by a request, further events are dropped as the kernel does
+	 *            when its FIFO overflows
+	 */
+	public SimulatedGpioCdev(int eventCapacity) {
+		if (eventCapacity < 1)
+			throw new IllegalArgumentException("Event capacity must be at least 1: " + eventCapacity);
+		this.eventCapacity = eventCapacity;
+		this.levels = new int[NR_OF_CHIPS];
+		this.requests = new SimulatedLineRequest[NR_OF_CHIPS];
+	}
+
+	/**
+	 * Sets the {@link Signal} of the given input {@link Pin}, queueing an edge event if its edge is configured
+	 *
+	 * @param pin
+	 *            the {@link Pin} to set
+	 * @param signal
+	 *            the {@link Signal} to set
+	 *
+	 * @throws IllegalStateException
+	 *             if the line of the {@link Pin} is requested as output
+	 */
+	public synchronized void setInput(Pin pin, Signal signal) {
+		int chip = pin.getChip();
+		int bit = 1 << pin.getPin();
+		SimulatedLineRequest request = this.requests[chip];
+		if (request != null && (request.outputs & bit) != 0)
+			throw new IllegalStateException("Line of GPIO " + pin + " is requested as output!");
+
+		int previous = this.levels[chip];
+		if (signal.isHigh())
+			this.levels[chip] |= bit;
+		else
+			this.levels[chip] &= ~bit;
+		if (previous == this.levels[chip] || request == null)
+			return;
+
+		boolean rising = signal.isHigh();
+		if (((rising ? request.rising : request.falling) & bit) != 0) {
+			request.queue(pin.getPin(), System.nanoTime(), rising);
+			notifyAll();
+		}
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 *
+	 * @return the current {@link Signal} of the given {@link Pin}'s line
+	 */
+	public synchronized Signal getOutput(Pin pin) {
+		return Signal.getSignal((this.levels[pin.getChip()] >>> pin.getPin()) & 1);
+	}
+
+	/**
+	 * @return the number of simulated <code>ioctl()</code>s on line requests
+	 */
+	public synchronized long getIoctlCount() {
+		return this.ioctls;
+	}
+
+	/**
+	 * @return the number of edge events which were dropped as the queue of the request was full
+	 */
+	public synchronized long getDroppedEvents() {
+		return this.droppedEvents;
+	}
+
+	@Override
+	public synchronized GpioLineRequest requestLines(int chip, int inputMask, int outputMask, int outputLevels,
+			String consumer) throws IOException {
+		if (chip < 0 || chip >= NR_OF_CHIPS)
+			throw new IOException("No such device gpiochip" + chip);
+		if ((inputMask & outputMask) != 0)
+			throw new IOException("Lines can not be both input and output: " + Integer.toHexString(inputMask
+					& outputMask));
+		if (this.requests[chip] != null)
+			throw new IOException("Device or resource busy: lines of gpiochip" + chip + " are held by "
+					+ this.requests[chip].consumer);
+
+		this.ioctls++;
+		this.levels[chip] = (this.levels[chip] & ~outputMask) | (outputLevels & outputMask);
+		SimulatedLineRequest request = new SimulatedLineRequest(chip, inputMask, outputMask, consumer);
+		this.requests[chip] = request;
+		return request;
+	}
+
+	@Override
+	public synchronized boolean awaitEvents(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!hasEvents()) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0L || this.woken) {
+				this.woken = false;
+				return false;
+			}
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void wakeup() {
+		this.woken = true;
+		notifyAll();
+	}
+
+	private boolean hasEvents() {
+		for (SimulatedLineRequest request : this.requests) {
+			if (request != null && request.size != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A simulated line request, whose methods synchronize on the {@link SimulatedGpioCdev}
+	 */
+	private class SimulatedLineRequest implements GpioLineRequest {
+
+		private final int chip;
+		private final int inputs;
+		private final int outputs;
+		private final String consumer;
+		private int rising;
+		private int falling;
+		private boolean closed;
+
+		private final int[] offsets;
+		private final long[] timestamps;
+		private final boolean[] risingEdges;
+		private int head;
+		private int size;
+
+		SimulatedLineRequest(int chip, int inputs, int outputs, String consumer) {
+			this.chip = chip;
+			this.inputs = inputs;
+			this.outputs = outputs;
+			this.consumer = consumer;
+			int capacity = SimulatedGpioCdev.this.eventCapacity;
+			this.offsets = new int[capacity];
+			this.timestamps = new long[capacity];
+			this.risingEdges = new boolean[capacity];
+		}
+
+		void queue(int offset, long timestamp, boolean risingEdge) {
+			int capacity = this.offsets.length;
+			if (this.size == capacity) {
+				SimulatedGpioCdev.this.droppedEvents++;
+				return;
+			}
+			int index = (this.head + this.size) % capacity;
+			this.offsets[index] = offset;
+			this.timestamps[index] = timestamp;
+			this.risingEdges[index] = risingEdge;
+			this.size++;
+		}
+
+		private void ioctl() throws IOException {
+			if (this.closed)
+				throw new IOException("Bad file descriptor: request of gpiochip" + this.chip + " is closed");
+			SimulatedGpioCdev.this.ioctls++;
+		}
+
+		@Override
+		public int getValues(int mask) throws IOException {
+			synchronized (SimulatedGpioCdev.this) {
+				ioctl();
+				return SimulatedGpioCdev.this.levels[this.chip] & mask & (this.inputs | this.outputs);
+			}
+		}
+
+		@Override
+		public void setValues(int mask, int levels) throws IOException {
+			synchronized (SimulatedGpioCdev.this) {
+				ioctl();
+				if ((mask & ~this.outputs) != 0)
+					throw new IOException("Operation not permitted: lines " + Integer.toHexString(mask & ~this.outputs)
+							+ " are not requested as output");
+				int[] chipLevels = SimulatedGpioCdev.this.levels;
+				chipLevels[this.chip] = (chipLevels[this.chip] & ~mask) | (levels & mask);
+			}
+		}
+
+		@Override
+		public void setEdges(int risingMask, int fallingMask) throws IOException {
+			synchronized (SimulatedGpioCdev.this) {
+				ioctl();
+				if (((risingMask | fallingMask) & ~this.inputs) != 0)
+					throw new IOException("Invalid argument: edges can only be detected on input lines");
+				this.rising = risingMask;
+				this.falling = fallingMask;
+			}
+		}
+
+		@Override
+		public int readEvents(int[] offsets, long[] timestamps, boolean[] rising, int max) throws IOException {
+			synchronized (SimulatedGpioCdev.this) {
+				if (this.closed)
+					throw new IOException("Bad file descriptor: request of gpiochip" + this.chip + " is closed");
+				int count = Math.min(max, this.size);
+				for (int i = 0; i < count; i++) {
+					offsets[i] = this.offsets[this.head];
+					timestamps[i] = this.timestamps[this.head];
+					rising[i] = this.risingEdges[this.head];
+					this.head = (this.head + 1) % this.offsets.length;
+				}
+				this.size -= count;
+				return count;
+			}
+		}
+
+		@Override
+		public void close() {
+			synchronized (SimulatedGpioCdev.this) {
+				if (this.closed)
+					return;
+				this.closed = true;
+				this.size = 0;
+				if (SimulatedGpioCdev.this.requests[this.chip] == this)
+					SimulatedGpioCdev.this.requests[this.chip] = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,528 @@
+package ch.eitchnet.beaglebone;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * A simulated <code>/sys/class/gpio</code> tree, so that applications using a {@link GpioBridge} can be tested and
+ * load tested off-board, e.g. on a CI machine. The tree is created in tmpfs (<code>/dev/shm</code>) if available, and
+ * has the <code>value</code>, <code>direction</code> and <code>edge</code> files of every {@link Pin}. All
+ * {@link Pin}s are inputs, until configured otherwise with {@link #setDirection(Pin, Direction)}
+ * </p>
+ *
+ * <p>
+ * The signals of input {@link Pin}s are set with {@link #setInput(Pin, Signal)}, or injected as waveforms at a given
+ * rate with {@link #injectClock(Pin, long, long, TimeUnit)} and {@link #injectPulses(Pin, long, long, int, TimeUnit)},
+ * which are played by the {@link Thread} <code>gpio_simulator</code>. The {@link GpioBridge} returned by
+ * {@link #createBridge()} is interrupt driven, i.e. it reads the observed {@link Pin}s as soon as an input was changed,
+ * and records every write of an output {@link Pin} with its timestamp, see {@link #getWrites()}
+ * </p>
+ *
+ * <pre>
+ * try (SimulatedGpioChip chip = new SimulatedGpioChip()) {
+ * 	chip.setDirection(Pin.P8_10, Direction.OUT);
+ * 	GpioBridge gpioBridge = chip.createBridge();
+ * 	...
+ * 	chip.injectClock(Pin.P8_07, 250, 250, TimeUnit.MICROSECONDS);
+ * }
+ * </pre>
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class SimulatedGpioChip implements AutoCloseable {
+
+	private static final int DEFAULT_WRITE_CAPACITY = 65536;
+	private static final long SPIN_THRESHOLD = 100000L;
+	private static final long IDLE_PARK = 10000000L;
+
+	private final Path root;
+	private final File gpioPath;
+	private final Direction[] directions;
+	private final FileChannel[] inputs;
+	private final ByteBuffer[] values;
+	private final Injection[] injections;
+	private volatile PipeEdgeWatcher edgeWatcher;
+	private volatile Thread thread;
+	private volatile boolean run;
+	private long injectedEdges;
+
+	private final long[] writeTimestamps;
+	private final int[] writePins;
+	private final boolean[] writeLevels;
+	private long writeCount;
+
+	/**
+	 * Creates the simulated tree, recording the latest 65536 writes
+	 *
+	 * @throws GpioException
+	 *             if the tree can not be created
+	 */
+	public SimulatedGpioChip() throws GpioException {
+		this(DEFAULT_WRITE_CAPACITY);
+	}
+
+	/**
+	 * Creates the simulated tree
+	 *
+	 * @param writeCapacity
+	 *            the number of latest writes which are recorded
+	 *
+	 * @throws GpioException
+	 *             if the tree can not be created
+	 */
+	public SimulatedGpioChip(int writeCapacity) throws GpioException {
+		if (writeCapacity <= 0)
+			throw new IllegalArgumentException("Write capacity must be positive: " + writeCapacity);
+
+		Pin[] pins = Pin.values();
+		this.directions = new Direction[pins.length];
+		this.inputs = new FileChannel[pins.length];
+		this.injections = new Injection[pins.length];
+		this.values = new ByteBuffer[] { ByteBuffer.allocateDirect(1).put(0, (byte) '0'),
+				ByteBuffer.allocateDirect(1).put(0, (byte) '1') };
+		this.writeTimestamps = new long[writeCapacity];
+		this.writePins = new int[writeCapacity];
+		this.writeLevels = new boolean[writeCapacity];
+
+		try {
+			File shm = new File("/dev/shm");
+			if (shm.isDirectory() && shm.canWrite())
+				this.root = Files.createTempDirectory(shm.toPath(), "simulated-gpio");
+			else
+				this.root = Files.createTempDirectory("simulated-gpio");
+			this.gpioPath = this.root.toFile();
+
+			for (Pin pin : pins) {
+				Path dir = this.root.resolve("gpio" + pin.getGpioNr());
+				Files.createDirectories(dir);
+				write(dir.resolve("direction"), Direction.IN.getDirection());
+				write(dir.resolve("edge"), Edge.NONE.getEdge());
+				write(dir.resolve("value"), Signal.LOW.getValueS());
+				this.directions[pin.ordinal()] = Direction.IN;
+			}
+		} catch (IOException e) {
+			throw new GpioException("Failed to create simulated GPIO tree", e);
+		}
+	}
+
+	private static void write(Path file, String value) throws IOException {
+		Files.write(file, (value + "\n").getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * @return the path of the simulated tree, to be passed to a {@link GpioBridgeImpl}, or set as system property
+	 *         {@link GpioBridgeImpl#PROP_GPIO_PATH}
+	 */
+	public File getGpioPath() {
+		return this.gpioPath;
+	}
+
+	/**
+	 * Sets the {@link Direction} of the given {@link Pin}, which must be done before the {@link Gpio} is retrieved from
+	 * a {@link GpioBridge}
+	 *
+	 * @param pin
+	 *            the {@link Pin}
+	 * @param direction
+	 *            the {@link Direction}
+	 *
+	 * @throws GpioException
+	 *             if the <code>direction</code> file can not be written, or an input is injected on the {@link Pin}
+	 */
+	public synchronized void setDirection(Pin pin, Direction direction) throws GpioException {
+		if (this.injections[pin.ordinal()] != null)
+			throw new GpioException("Can not change direction of " + pin + " while injecting!");
+		try {
+			write(this.root.resolve("gpio" + pin.getGpioNr()).resolve("direction"), direction.getDirection());
+		} catch (IOException e) {
+			throw new GpioException("Failed to write direction of " + pin, e);
+		}
+		this.directions[pin.ordinal()] = direction;
+	}
+
+	/**
+	 * Creates a new {@link GpioBridge} on the simulated tree. The bridge is interrupt driven, and records the writes of
+	 * all output {@link Pin}s. Only the last created bridge is signalled of input changes
+	 *
+	 * @return the new {@link GpioBridge}
+	 *
+	 * @throws GpioException
+	 *             if the {@link PipeEdgeWatcher} can not be opened
+	 */
+	public GpioBridge createBridge() throws GpioException {
+		PipeEdgeWatcher edgeWatcher = new PipeEdgeWatcher();
+		this.edgeWatcher = edgeWatcher;
+		return new RecordingGpioBridge(this, edgeWatcher);
+	}
+
+	/**
+	 * Sets the {@link Signal} of the given input {@link Pin} and signals the edge to the last created bridge
+	 *
+	 * @param pin
+	 *            the input {@link Pin}
+	 * @param signal
+	 *            the {@link Signal} to set
+	 *
+	 * @throws GpioException
+	 *             if the {@link Pin} is not an input, or the <code>value</code> file can not be written
+	 */
+	public synchronized void setInput(Pin pin, Signal signal) throws GpioException {
+		writeInput(pin, signal);
+		signalEdge();
+	}
+
+	private void writeInput(Pin pin, Signal signal) throws GpioException {
+		int index = pin.ordinal();
+		if (this.directions[index] != Direction.IN)
+			throw new GpioException("For injecting the direction of " + pin + " must be " + Direction.IN);
+
+		try {
+			FileChannel channel = this.inputs[index];
+			if (channel == null) {
+				channel = FileChannel.open(this.root.resolve("gpio" + pin.getGpioNr()).resolve("value"),
+						StandardOpenOption.WRITE);
+				this.inputs[index] = channel;
+			}
+
+			ByteBuffer value = this.values[signal.getValue()];
+			value.clear();
+			channel.write(value, 0L);
+		} catch (IOException e) {
+			throw new GpioException("Failed to write value of " + pin, e);
+		}
+		this.injectedEdges++;
+	}
+
+	private void signalEdge() throws GpioException {
+		PipeEdgeWatcher edgeWatcher = this.edgeWatcher;
+		if (edgeWatcher != null)
+			edgeWatcher.signal();
+	}
+
+	/**
+	 * Injects a square wave on the given input {@link Pin}, starting with {@link Signal#HIGH}, until stopped with
+	 * {@link #stopInjection(Pin)}
+	 *
+	 * @param pin
+	 *            the input {@link Pin}
+	 * @param highTime
+	 *            the time of each period during which the {@link Pin} is {@link Signal#HIGH}
+	 * @param lowTime
+	 *            the time of each period during which the {@link Pin} is {@link Signal#LOW}
+	 * @param unit
+	 *            the {@link TimeUnit} of the times
+	 *
+	 * @throws GpioException
+	 *             if the {@link Pin} is not an input, or the times are not positive
+	 */
+	public void injectClock(Pin pin, long highTime, long lowTime, TimeUnit unit) throws GpioException {
+		inject(pin, highTime, lowTime, -1L, unit);
+	}
+
+	/**
+	 * Injects the given number of pulses on the given input {@link Pin}, each {@link Signal#HIGH} for the given high
+	 * time followed by {@link Signal#LOW} for the given low time
+	 *
+	 * @param pin
+	 *            the input {@link Pin}
+	 * @param highTime
+	 *            the time of each pulse during which the {@link Pin} is {@link Signal#HIGH}
+	 * @param lowTime
+	 *            the time between the pulses during which the {@link Pin} is {@link Signal#LOW}
+	 * @param count
+	 *            the number of pulses
+	 * @param unit
+	 *            the {@link TimeUnit} of the times
+	 *
+	 * @throws GpioException
+	 *             if the {@link Pin} is not an input, or the times or count are not positive
+	 */
+	public void injectPulses(Pin pin, long highTime, long lowTime, int count, TimeUnit unit) throws GpioException {
+		if (count <= 0)
+			throw new GpioException("Pulse count must be positive: " + count);
+		inject(pin, highTime, lowTime, 2L * count, unit);
+	}
+
+	private synchronized void inject(Pin pin, long highTime, long lowTime, long edges, TimeUnit unit)
+			throws GpioException {
+		if (highTime <= 0 || lowTime <= 0)
+			throw new GpioException("Pulse times must be positive!");
+		if (this.directions[pin.ordinal()] != Direction.IN)
+			throw new GpioException("For injecting the direction of " + pin + " must be " + Direction.IN);
+
+		this.injections[pin.ordinal()] = new Injection(pin, unit.toNanos(highTime), unit.toNanos(lowTime), edges,
+				System.nanoTime());
+
+		if (this.thread == null) {
+			this.run = true;
+			this.thread = new Thread(this::play, "gpio_simulator");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		} else {
+			LockSupport.unpark(this.thread);
+		}
+	}
+
+	/**
+	 * Stops injecting on the given {@link Pin}, which keeps its current {@link Signal}
+	 *
+	 * @param pin
+	 *            the {@link Pin}
+	 */
+	public synchronized void stopInjection(Pin pin) {
+		this.injections[pin.ordinal()] = null;
+	}
+
+	/**
+	 * @param pin
+	 *            the {@link Pin}
+	 *
+	 * @return true if a waveform is being injected on the given {@link Pin}
+	 */
+	public synchronized boolean isInjecting(Pin pin) {
+		return this.injections[pin.ordinal()] != null;
+	}
+
+	/**
+	 * @return the number of input changes which were made by {@link #setInput(Pin, Signal)} and the injected
+	 *         waveforms
+	 */
+	public synchronized long getInjectedEdges() {
+		return this.injectedEdges;
+	}
+
+	/**
+	 * Records a write of an output {@link Pin}, called by the {@link RecordingGpioBridge}
+	 */
+	synchronized void recordWrite(Pin pin, Signal signal, long timestamp) {
+		int index = (int) (this.writeCount % this.writeTimestamps.length);
+		this.writeTimestamps[index] = timestamp;
+		this.writePins[index] = pin.ordinal();
+		this.writeLevels[index] = signal.isHigh();
+		this.writeCount++;
+	}
+
+	/**
+	 * @return the number of writes of output {@link Pin}s since the chip was created, or the writes were cleared
+	 */
+	public synchronized long getWriteCount() {
+		return this.writeCount;
+	}
+
+	/**
+	 * @return the latest recorded writes of output {@link Pin}s, oldest first
+	 */
+	public synchronized List<Write> getWrites() {
+		int capacity = this.writeTimestamps.length;
+		int size = (int) Math.min(this.writeCount, capacity);
+		Pin[] pins = Pin.values();
+		List<Write> writes = new ArrayList<>(size);
+		for (long i = this.writeCount - size; i < this.writeCount; i++) {
+			int index = (int) (i % capacity);
+			writes.add(new Write(pins[this.writePins[index]], this.writeLevels[index] ? Signal.HIGH : Signal.LOW,
+					this.writeTimestamps[index]));
+		}
+		return writes;
+	}
+
+	/**
+	 * Clears the recorded writes
+	 */
+	public synchronized void clearWrites() {
+		this.writeCount = 0L;
+	}
+
+	private void play() {
+		while (this.run) {
+			long next = Long.MAX_VALUE;
+			synchronized (this) {
+				for (Injection injection : this.injections) {
+					if (injection != null && injection.deadline - next < 0L)
+						next = injection.deadline;
+				}
+			}
+
+			if (next == Long.MAX_VALUE) {
+				LockSupport.parkNanos(IDLE_PARK);
+				continue;
+			}
+
+			// re-evaluate after parking, as a new injection may be due earlier
+			long remaining = next - System.nanoTime();
+			if (remaining > SPIN_THRESHOLD) {
+				LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+				continue;
+			}
+			while (this.run && System.nanoTime() - next < 0L) {
+				// busy spin until the edge is due
+			}
+
+			try {
+				synchronized (this) {
+					long now = System.nanoTime();
+					boolean changed = false;
+					for (int i = 0; i < this.injections.length; i++) {
+						Injection injection = this.injections[i];
+						if (injection == null || injection.deadline - now > 0L)
+							continue;
+
+						injection.high = !injection.high;
+						writeInput(injection.pin, injection.high ? Signal.HIGH : Signal.LOW);
+						changed = true;
+
+						injection.deadline += injection.high ? injection.highTime : injection.lowTime;
+						if (injection.edges > 0L && --injection.edges == 0L)
+							this.injections[i] = null;
+					}
+					if (changed)
+						signalEdge();
+				}
+			} catch (GpioException e) {
+				GpioLog.log(LogLevel.ERROR, "Failed to inject GPIO input", e);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Stops injecting, closes the files and deletes the simulated tree. Bridges created on the tree must be closed
+	 * before
+	 */
+	@Override
+	public void close() throws GpioException {
+		Thread thread = this.thread;
+		if (thread != null) {
+			this.run = false;
+			LockSupport.unpark(thread);
+			try {
+				thread.join(5000l);
+			} catch (InterruptedException e) {
+				GpioLog.log(LogLevel.WARN, "Was interrupted while waiting for simulator thread to stop?!");
+			}
+			this.thread = null;
+		}
+
+		try {
+			synchronized (this) {
+				for (int i = 0; i < this.inputs.length; i++) {
+					if (this.inputs[i] != null)
+						this.inputs[i].close();
+					this.inputs[i] = null;
+				}
+			}
+
+			Files.walkFileTree(this.root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new GpioException("Failed to delete simulated GPIO tree " + this.root, e);
+		}
+	}
+
+	/**
+	 * A write of an output {@link Pin} recorded by a {@link SimulatedGpioChip}
+	 *
+	 * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+	 */
+	public static class Write {
+
+		private final Pin pin;
+		private final Signal signal;
+		private final long timestamp;
+
+		Write(Pin pin, Signal signal, long timestamp) {
+			this.pin = pin;
+			this.signal = signal;
+			this.timestamp = timestamp;
+		}
+
+		/**
+		 * @return the written {@link Pin}
+		 */
+		public Pin getPin() {
+			return this.pin;
+		}
+
+		/**
+		 * @return the written {@link Signal}
+		 */
+		public Signal getSignal() {
+			return this.signal;
+		}
+
+		/**
+		 * @return the {@link System#nanoTime()} at which the {@link Pin} was written
+		 */
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		@Override
+		public String toString() {
+			return "Write [pin=" + this.pin + ", signal=" + this.signal + ", timestamp=" + this.timestamp + "]";
+		}
+	}
+
+	/**
+	 * A waveform injected on an input {@link Pin}, only accessed while holding the lock of the chip
+	 */
+	private static class Injection {
+		private final Pin pin;
+		private final long highTime;
+		private final long lowTime;
+		private long edges;
+		private long deadline;
+		private boolean high;
+
+		Injection(Pin pin, long highTime, long lowTime, long edges, long start) {
+			this.pin = pin;
+			this.highTime = highTime;
+			this.lowTime = lowTime;
+			this.edges = edges;
+			this.deadline = start;
+		}
+	}
+
+	/**
+	 * A {@link GpioBridgeImpl} which records the writes of its output {@link Gpio}s on a {@link SimulatedGpioChip}
+	 */
+	private static class RecordingGpioBridge extends GpioBridgeImpl {
+
+		private final SimulatedGpioChip chip;
+
+		RecordingGpioBridge(SimulatedGpioChip chip, GpioEdgeWatcher edgeWatcher) {
+			super(chip.getGpioPath(), edgeWatcher);
+			this.chip = chip;
+		}
+
+		@Override
+		protected void doWrite(Gpio gpio, Signal signal) throws IOException {
+			super.doWrite(gpio, signal);
+			this.chip.recordWrite(gpio.getPin(), signal, System.nanoTime());
+		}
+	}
+}
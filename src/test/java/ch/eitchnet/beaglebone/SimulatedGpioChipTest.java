@@ -0,0 +1,162 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Drives a {@link GpioBridgeImpl} through the {@link SimulatedGpioChip}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class SimulatedGpioChipTest {
+
+	private SimulatedGpioChip chip;
+	private GpioBridge gpioBridge;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+		this.chip.setDirection(Pin.P8_10, Direction.OUT);
+		this.chip.setDirection(Pin.P8_12, Direction.OUT);
+		this.gpioBridge = this.chip.createBridge();
+	}
+
+	@After
+	public void after() throws Exception {
+		this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	@Test
+	public void shouldReadSetInput() throws Exception {
+		Gpio input = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		assertEquals(Signal.LOW, this.gpioBridge.readValue(input));
+
+		this.chip.setInput(Pin.P8_07, Signal.HIGH);
+		assertEquals(Signal.HIGH, this.gpioBridge.readValue(input));
+		assertEquals(1L, this.chip.getInjectedEdges());
+	}
+
+	@Test
+	public void shouldRecordWrites() throws Exception {
+		Gpio led = this.gpioBridge.getGpio(Pin.P8_10, Direction.OUT);
+		Gpio relay = this.gpioBridge.getGpio(Pin.P8_12, Direction.OUT);
+
+		this.gpioBridge.writeValue(led, Signal.HIGH);
+		this.gpioBridge.writeValue(relay, Signal.HIGH);
+		this.gpioBridge.writeValue(led, Signal.LOW);
+
+		List<SimulatedGpioChip.Write> writes = this.chip.getWrites();
+		assertEquals(3L, this.chip.getWriteCount());
+		assertEquals(Pin.P8_10, writes.get(0).getPin());
+		assertEquals(Signal.HIGH, writes.get(0).getSignal());
+		assertEquals(Pin.P8_12, writes.get(1).getPin());
+		assertEquals(Signal.LOW, writes.get(2).getSignal());
+		assertTrue(writes.get(2).getTimestamp() - writes.get(0).getTimestamp() >= 0L);
+
+		this.chip.clearWrites();
+		assertTrue(this.chip.getWrites().isEmpty());
+	}
+
+	@Test
+	public void shouldKeepLatestWrites() throws Exception {
+		try (SimulatedGpioChip small = new SimulatedGpioChip(2)) {
+			small.setDirection(Pin.P8_10, Direction.OUT);
+			try (GpioBridge bridge = small.createBridge()) {
+				Gpio led = bridge.getGpio(Pin.P8_10, Direction.OUT);
+				bridge.writeValue(led, Signal.HIGH);
+				bridge.writeValue(led, Signal.LOW);
+				bridge.writeValue(led, Signal.HIGH);
+
+				List<SimulatedGpioChip.Write> writes = small.getWrites();
+				assertEquals(3L, small.getWriteCount());
+				assertEquals(2, writes.size());
+				assertEquals(Signal.LOW, writes.get(0).getSignal());
+				assertEquals(Signal.HIGH, writes.get(1).getSignal());
+			}
+		}
+	}
+
+	@Test
+	public void shouldNotifyListenerOfInputChange() throws Exception {
+		Gpio button = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		BlockingQueue<GpioEvent> events = new LinkedBlockingQueue<>();
+		this.gpioBridge.registerEventListener(button, Edge.BOTH, events::add);
+		this.gpioBridge.start();
+
+		this.chip.setInput(Pin.P8_07, Signal.HIGH);
+		GpioEvent event = events.poll(5L, TimeUnit.SECONDS);
+		assertEquals(Pin.P8_07, event.getPin());
+		assertEquals(Signal.HIGH, event.getNewSignal());
+
+		this.chip.setInput(Pin.P8_07, Signal.LOW);
+		event = events.poll(5L, TimeUnit.SECONDS);
+		assertEquals(Signal.LOW, event.getNewSignal());
+	}
+
+	@Test
+	public void shouldInjectPulses() throws Exception {
+		this.chip.injectPulses(Pin.P8_07, 1L, 1L, 5, TimeUnit.MILLISECONDS);
+		assertTrue(this.chip.isInjecting(Pin.P8_07));
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+		while (this.chip.isInjecting(Pin.P8_07) && System.nanoTime() - deadline < 0L) {
+			Thread.sleep(1L);
+		}
+
+		assertFalse(this.chip.isInjecting(Pin.P8_07));
+		assertEquals(10L, this.chip.getInjectedEdges());
+		Gpio input = this.gpioBridge.getGpio(Pin.P8_07, Direction.IN);
+		assertEquals(Signal.LOW, this.gpioBridge.readValue(input));
+	}
+
+	@Test
+	public void shouldStopInjection() throws Exception {
+		this.chip.injectClock(Pin.P8_07, 1L, 1L, TimeUnit.MILLISECONDS);
+		assertTrue(this.chip.isInjecting(Pin.P8_07));
+		this.chip.stopInjection(Pin.P8_07);
+		assertFalse(this.chip.isInjecting(Pin.P8_07));
+
+		long edges = this.chip.getInjectedEdges();
+		Thread.sleep(10L);
+		assertEquals(edges, this.chip.getInjectedEdges());
+	}
+
+	@Test
+	public void shouldNotInjectOutputs() throws Exception {
+		try {
+			this.chip.setInput(Pin.P8_10, Signal.HIGH);
+			fail("Output was injected");
+		} catch (GpioException e) {
+			// expected
+		}
+		try {
+			this.chip.injectClock(Pin.P8_10, 1L, 1L, TimeUnit.MILLISECONDS);
+			fail("Output was injected");
+		} catch (GpioException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void shouldNotChangeDirectionWhileInjecting() throws Exception {
+		this.chip.injectClock(Pin.P8_07, 1L, 1L, TimeUnit.MILLISECONDS);
+		try {
+			this.chip.setDirection(Pin.P8_07, Direction.OUT);
+			fail("Direction was changed while injecting");
+		} catch (GpioException e) {
+			// expected
+		}
+	}
+}
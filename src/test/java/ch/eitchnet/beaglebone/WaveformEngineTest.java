@@ -0,0 +1,202 @@
+package ch.eitchnet.beaglebone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.eitchnet.beaglebone.RecordingBankBridge.BankWrite;
+
+/**
+ * Tests playing {@link Waveform}s with the {@link WaveformEngine} on a {@link RecordingBankBridge}
+ *
+ * @author Robert von Burg &lt;eitch@eitchnet.ch&gt;
+ */
+public class WaveformEngineTest {
+
+	private SimulatedGpioChip chip;
+	private RecordingBankBridge gpioBridge;
+	private WaveformEngine engine;
+
+	@Before
+	public void before() throws Exception {
+		this.chip = new SimulatedGpioChip();
+	}
+
+	@After
+	public void after() throws Exception {
+		if (this.engine != null)
+			this.engine.stop();
+		if (this.gpioBridge != null)
+			this.gpioBridge.close();
+		this.chip.close();
+	}
+
+	private Gpio getOutput(Pin pin) throws GpioException {
+		this.chip.setDirection(pin, Direction.OUT);
+		return this.gpioBridge.getGpio(pin, Direction.OUT);
+	}
+
+	private void createEngine() {
+		this.gpioBridge = new RecordingBankBridge(this.chip);
+		this.engine = new WaveformEngine(this.gpioBridge);
+	}
+
+	@Test
+	public void shouldWriteEachStepWithOneWritePerBank() throws Exception {
+		createEngine();
+		Gpio a = getOutput(Pin.P8_07);
+		Gpio b = getOutput(Pin.P8_08);
+		Gpio p8_03 = getOutput(Pin.P8_03);
+
+		Waveform waveform = new Waveform.Builder(1L, TimeUnit.MILLISECONDS) //
+				.edge(0L, TimeUnit.MILLISECONDS, a, Signal.HIGH) //
+				.edge(0L, TimeUnit.MILLISECONDS, p8_03, Signal.HIGH) //
+				// within the same tick as the first step
+				.edge(500L, TimeUnit.MICROSECONDS, b, Signal.HIGH) //
+				.edge(2L, TimeUnit.MILLISECONDS, a, Signal.LOW) //
+				.edge(2L, TimeUnit.MILLISECONDS, b, Signal.LOW) //
+				.edge(2L, TimeUnit.MILLISECONDS, p8_03, Signal.LOW) //
+				.build();
+		assertEquals(2, waveform.getNrOfSteps());
+
+		long before = System.nanoTime();
+		this.engine.start(waveform);
+		assertTrue(this.engine.await(5L, TimeUnit.SECONDS));
+
+		// each step is one write per bank with edges, in the order of the banks
+		int ab = (1 << Pin.P8_07.getPin()) | (1 << Pin.P8_08.getPin());
+		int c = 1 << Pin.P8_03.getPin();
+		List<BankWrite> writes = this.gpioBridge.getWrites();
+		assertEquals(4, writes.size());
+		assertWrite(writes.get(0), Pin.P8_03.getChip(), c, 0);
+		assertWrite(writes.get(1), Pin.P8_07.getChip(), ab, 0);
+		assertWrite(writes.get(2), Pin.P8_03.getChip(), 0, c);
+		assertWrite(writes.get(3), Pin.P8_07.getChip(), 0, ab);
+		assertTrue(writes.get(2).getTimestamp() - before >= TimeUnit.MILLISECONDS.toNanos(2L));
+
+		assertEquals(Signal.LOW, a.getSignal());
+		assertEquals(Signal.LOW, p8_03.getSignal());
+		assertEquals(2L, this.engine.getStatistics().getSteps());
+	}
+
+	private static void assertWrite(BankWrite write, int chip, int setMask, int clearMask) {
+		assertEquals(write.toString(), chip, write.getChip());
+		assertEquals(write.toString(), setMask, write.getSetMask());
+		assertEquals(write.toString(), clearMask, write.getClearMask());
+	}
+
+	@Test
+	public void shouldRecordTiming() throws Exception {
+		createEngine();
+		Gpio gpio = getOutput(Pin.P8_07);
+
+		long before = System.nanoTime();
+		this.engine.start(Waveform.pulseTrain(gpio, 1L, 1L, 10, TimeUnit.MILLISECONDS));
+		assertTrue(this.engine.await(5L, TimeUnit.SECONDS));
+		assertFalse(this.engine.isRunning());
+
+		// the steps are scheduled relative to the start, thus the writes do not drift
+		List<BankWrite> writes = this.gpioBridge.getWrites();
+		assertEquals(20, writes.size());
+		for (int i = 0; i < writes.size(); i++) {
+			assertTrue(writes.get(i).getTimestamp() - before >= TimeUnit.MILLISECONDS.toNanos(i));
+		}
+
+		WaveformStatistics statistics = this.engine.getStatistics();
+		assertEquals(20L, statistics.getSteps());
+		assertEquals(0L, statistics.getOverruns());
+		assertTrue(statistics.getMinJitter() >= 0L);
+		assertTrue(statistics.getMinJitter() <= statistics.getMeanJitter());
+		assertTrue(statistics.getMeanJitter() <= statistics.getMaxJitter());
+		assertTrue(statistics.getStdDevJitter() >= 0.0);
+
+		this.engine.resetStatistics();
+		assertEquals(0L, this.engine.getStatistics().getSteps());
+	}
+
+	@Test
+	public void shouldStopAndRestart() throws Exception {
+		createEngine();
+		Gpio gpio = getOutput(Pin.P8_07);
+		Waveform pwm = Waveform.pwm(gpio, 2L, 1L, TimeUnit.MILLISECONDS);
+
+		this.engine.start(pwm);
+		awaitWrites(10);
+		assertTrue(this.engine.isRunning());
+		assertFalse(this.engine.await(10L, TimeUnit.MILLISECONDS));
+
+		this.engine.stop();
+		assertFalse(this.engine.isRunning());
+		int stopped = this.gpioBridge.getWrites().size();
+		Thread.sleep(20L);
+		assertEquals(stopped, this.gpioBridge.getWrites().size());
+
+		this.engine.start(pwm);
+		awaitWrites(stopped + 10);
+		assertTrue(this.engine.isRunning());
+		this.engine.stop();
+		assertFalse(this.engine.isRunning());
+	}
+
+	@Test
+	public void shouldNotStartNextToStuckThread() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch stuck = new CountDownLatch(1);
+		this.gpioBridge = new RecordingBankBridge(this.chip) {
+			@Override
+			protected void written(BankWrite write) {
+				// the first write blocks, ignoring interrupts, as a write hanging in the kernel would
+				if (stuck.getCount() == 0L)
+					return;
+				stuck.countDown();
+				while (true) {
+					try {
+						release.await();
+						return;
+					} catch (InterruptedException e) {
+						// ignored
+					}
+				}
+			}
+		};
+		this.engine = new WaveformEngine(this.gpioBridge);
+		Gpio gpio = getOutput(Pin.P8_07);
+		Waveform pwm = Waveform.pwm(gpio, 2L, 1L, TimeUnit.MILLISECONDS);
+
+		this.engine.start(pwm);
+		assertTrue(stuck.await(5L, TimeUnit.SECONDS));
+		this.engine.stop();
+		assertTrue(this.engine.isRunning());
+		try {
+			this.engine.start(pwm);
+			fail("Expected the engine to refuse starting next to the previous thread");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		// once released, the previous thread sees its own stop, and writes nothing further
+		release.countDown();
+		assertTrue(this.engine.await(5L, TimeUnit.SECONDS));
+		assertEquals(1, this.gpioBridge.getWrites().size());
+
+		this.engine.start(pwm);
+		awaitWrites(10);
+	}
+
+	private void awaitWrites(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+		while (this.gpioBridge.getWrites().size() < count && System.nanoTime() - deadline < 0L) {
+			Thread.sleep(1L);
+		}
+		assertTrue(this.gpioBridge.getWrites().size() >= count);
+	}
+}